@@ -0,0 +1,207 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.bolt;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import acromusashi.stream.bolt.BaseConfigurationBolt;
+import acromusashi.stream.example.capture.CaptureFileWriter;
+import backtype.storm.task.OutputCollector;
+import backtype.storm.task.TopologyContext;
+import backtype.storm.topology.OutputFieldsDeclarer;
+import backtype.storm.tuple.Tuple;
+
+/**
+ * 受信したTupleの先頭フィールドを受信時刻とともに記録ファイルに追記するBolt。<br>
+ * KestrelSpout等の入力元の直後に配置し、入力元から受信したJSON等のレコードをそのまま記録する。
+ * 記録したファイルはCaptureReplaySpoutで再生できる。<br>
+ * 記録ファイルはタスクごとに「記録ディレクトリ/コンポーネントID-タスクインデックス.cap」に作成し、
+ * タスクの再起動時は同一のファイルに追記する。<br>
+ * 書き込みはバッファリングして行い、TickTuple受信時、およびcleanup時にファイルに反映する。<br>
+ * 記録は本来の処理に影響しないよう、書き込みに失敗した場合もTupleはackする。
+ *
+ * @author kimura
+ */
+public class CaptureBolt extends BaseConfigurationBolt
+{
+    /** serialVersionUID */
+    private static final long             serialVersionUID    = 4718460393751307262L;
+
+    /** logger */
+    private static final Logger           logger              = LoggerFactory.getLogger(CaptureBolt.class);
+
+    /** 書き込みバッファサイズデフォルト値(バイト) */
+    private static final int              DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /** 記録ファイルの文字コード */
+    private static final Charset          CHARSET             = Charset.forName("UTF-8");
+
+    /** 記録ディレクトリ */
+    private String                        captureDir;
+
+    /** 書き込みバッファサイズ(バイト) */
+    protected int                         bufferSize          = DEFAULT_BUFFER_SIZE;
+
+    /** 記録ファイルに反映するTickTuple送信間隔(秒)。0以下の場合はTickTupleを使用しない */
+    protected int                         tickIntervalSecs    = 1;
+
+    /** 記録ファイルのWriter */
+    protected transient CaptureFileWriter writer;
+
+    /**
+     * 記録ディレクトリを指定してインスタンスを生成する。
+     *
+     * @param captureDir 記録ディレクトリ
+     */
+    public CaptureBolt(String captureDir)
+    {
+        this.captureDir = captureDir;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void prepare(Map stormConf, TopologyContext context, OutputCollector collector)
+    {
+        super.prepare(stormConf, context, collector);
+
+        File dir = new File(this.captureDir);
+        File file = new File(dir, context.getThisComponentId() + "-" + context.getThisTaskIndex()
+                + CaptureFileWriter.FILE_SUFFIX);
+        try
+        {
+            if (dir.exists() == false && dir.mkdirs() == false)
+            {
+                throw new IOException("Capture directory create failed. : CaptureDir="
+                        + this.captureDir);
+            }
+
+            this.writer = new CaptureFileWriter(file, this.bufferSize);
+        }
+        catch (IOException ex)
+        {
+            throw new IllegalStateException("Capture file open failed. : File=" + file, ex);
+        }
+
+        String logFormat = "Capture file opened. : File={0}, Position={1}";
+        logger.info(MessageFormat.format(logFormat, file, this.writer.getPosition()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(Tuple input)
+    {
+        try
+        {
+            // TickTupleの場合はバッファリングしたレコードをファイルに反映する
+            if (TickTupleUtil.isTickTuple(input) == true)
+            {
+                this.writer.flush();
+                return;
+            }
+
+            Object value = input.getValue(0);
+            byte[] payload;
+            if (value instanceof byte[])
+            {
+                payload = (byte[]) value;
+            }
+            else
+            {
+                payload = String.valueOf(value).getBytes(CHARSET);
+            }
+
+            this.writer.write(System.currentTimeMillis(), payload);
+        }
+        catch (IOException ex)
+        {
+            logger.warn("Capture file write failed. Skip record.", ex);
+        }
+        finally
+        {
+            getCollector().ack(input);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup()
+    {
+        if (this.writer == null)
+        {
+            return;
+        }
+
+        try
+        {
+            this.writer.close();
+        }
+        catch (IOException ex)
+        {
+            logger.warn("Capture file close failed.", ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration()
+    {
+        if (this.tickIntervalSecs <= 0)
+        {
+            return super.getComponentConfiguration();
+        }
+
+        return TickTupleUtil.withTickInterval(super.getComponentConfiguration(),
+                this.tickIntervalSecs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer)
+    {
+        // 下流には送信しない
+    }
+
+    /**
+     * @param bufferSize セットする bufferSize
+     */
+    public void setBufferSize(int bufferSize)
+    {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @param tickIntervalSecs セットする tickIntervalSecs
+     */
+    public void setTickIntervalSecs(int tickIntervalSecs)
+    {
+        this.tickIntervalSecs = tickIntervalSecs;
+    }
+}
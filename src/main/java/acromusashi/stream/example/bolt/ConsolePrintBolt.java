@@ -12,7 +12,17 @@
 */
 package acromusashi.stream.example.bolt;
 
+import java.io.PrintStream;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import acromusashi.stream.bolt.AmBaseBolt;
 import acromusashi.stream.entity.StreamMessage;
@@ -20,14 +30,72 @@ import backtype.storm.task.TopologyContext;
 
 /**
  * 受信した共通メッセージの文字列表現をコンソールに出力するBolt<br/>
- * ClusterModeでコンソールに出力した場合、Worker.logに出力されるため、内容はログファイルを確認すること。
+ * ClusterModeでコンソールに出力した場合、Worker.logに出力されるため、内容はログファイルを確認すること。<br/>
+ * 非同期出力を有効にした場合、受信したメッセージの文字列表現を固定長のリングバッファ(ArrayBlockingQueue)に格納し、
+ * 単一の出力スレッドがまとめて取り出して行単位で連結し、1回の呼び出しでコンソールに書き込む。
+ * 連結した文字列が1回で書き込む最大文字数に達した時点、またはリングバッファが空になった時点で書き込むため、
+ * 受信が続く間はまとめて出力される。
+ * コンソールへの1回の書き込みはJVM内で排他されるため、同一JVM内の他のBoltの出力と行の途中で混在することはない。<br/>
+ * リングバッファが満杯の場合は、溢れ時の動作(block:空きができるまで待機、drop:メッセージを破棄)に従う。
+ * 破棄したメッセージ数は出力スレッドが一定間隔でログに出力する。
  * 
  * @author kimura
  */
 public class ConsolePrintBolt extends AmBaseBolt
 {
     /** serialVersionUID */
-    private static final long serialVersionUID = 5100460578090478268L;
+    private static final long                 serialVersionUID           = 5100460578090478268L;
+
+    /** logger */
+    private static final Logger               logger                     = LoggerFactory.getLogger(ConsolePrintBolt.class);
+
+    /** リングバッファ満杯時に空きができるまで待機する溢れ時の動作 */
+    public static final String                POLICY_BLOCK               = "block";
+
+    /** リングバッファ満杯時にメッセージを破棄する溢れ時の動作 */
+    public static final String                POLICY_DROP                = "drop";
+
+    /** リングバッファ容量デフォルト値(件) */
+    private static final int                  DEFAULT_BUFFER_CAPACITY    = 8192;
+
+    /** コンソールに1回で書き込む最大文字数デフォルト値(文字) */
+    private static final int                  DEFAULT_WRITER_BUFFER_SIZE = 64 * 1024;
+
+    /** 出力スレッドが1回に取り出す最大件数 */
+    private static final int                  DRAIN_BATCH_SIZE           = 1024;
+
+    /** 出力スレッドが停止指示を確認する間隔(ミリ秒) */
+    private static final long                 POLL_INTERVAL_MILLIS       = 100L;
+
+    /** 終了時に出力スレッドの終了を待つ時間(ミリ秒) */
+    private static final long                 SHUTDOWN_WAIT_MILLIS       = 5000L;
+
+    /** 破棄したメッセージ数をログに出力する間隔(ミリ秒) */
+    private static final long                 DROP_LOG_INTERVAL_MILLIS   = 60000L;
+
+    /** 非同期出力を行うか */
+    protected boolean                         async;
+
+    /** リングバッファ容量(件) */
+    protected int                             bufferCapacity             = DEFAULT_BUFFER_CAPACITY;
+
+    /** コンソールに1回で書き込む最大文字数(文字) */
+    protected int                             writerBufferSize           = DEFAULT_WRITER_BUFFER_SIZE;
+
+    /** リングバッファ満杯時の動作(block、drop) */
+    protected String                          overflowPolicy             = POLICY_BLOCK;
+
+    /** 出力待ちのメッセージを格納するリングバッファ */
+    protected transient BlockingQueue<String> ringBuffer;
+
+    /** リングバッファから取り出したメッセージを出力するスレッド */
+    protected transient Thread                writerThread;
+
+    /** 出力スレッドの実行中フラグ */
+    protected transient volatile boolean      running;
+
+    /** リングバッファ満杯のため破棄したメッセージ数 */
+    protected transient volatile long         droppedNum;
 
     /**
      * パラメータを指定せずにインスタンスを生成する。
@@ -42,8 +110,35 @@ public class ConsolePrintBolt extends AmBaseBolt
     @Override
     public void onPrepare(Map config, TopologyContext context)
     {
-        // TODO Auto-generated method stub
+        if (this.async == false)
+        {
+            return;
+        }
 
+        this.ringBuffer = new ArrayBlockingQueue<String>(this.bufferCapacity);
+        this.droppedNum = 0L;
+        this.running = true;
+
+        final PrintStream output = createOutput();
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run()
+            {
+                writeLoop(output);
+            }
+        }, "ConsolePrintBolt-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * 出力スレッドが書き込む出力先を取得する。
+     *
+     * @return 出力先
+     */
+    protected PrintStream createOutput()
+    {
+        return System.out;
     }
 
     /**
@@ -52,6 +147,181 @@ public class ConsolePrintBolt extends AmBaseBolt
     @Override
     public void onExecute(StreamMessage message)
     {
-        System.out.println(message.toString());
+        if (this.async == false)
+        {
+            System.out.println(message.toString());
+            return;
+        }
+
+        String line = message.toString();
+        if (POLICY_DROP.equals(this.overflowPolicy) == true)
+        {
+            if (this.ringBuffer.offer(line) == false)
+            {
+                this.droppedNum++;
+            }
+            return;
+        }
+
+        try
+        {
+            this.ringBuffer.put(line);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 停止指示を受け、リングバッファが空になるまで、リングバッファから取り出したメッセージを行単位で連結して出力先に書き込む。<br>
+     * 破棄したメッセージ数はcleanupが呼ばれない場合も確認できるよう、一定間隔でログに出力する。
+     *
+     * @param output 出力先
+     */
+    protected void writeLoop(PrintStream output)
+    {
+        List<String> lines = new ArrayList<String>(DRAIN_BATCH_SIZE);
+        StringBuilder chunk = new StringBuilder(this.writerBufferSize);
+        long loggedDroppedNum = 0L;
+        long lastLogTime = System.currentTimeMillis();
+        while (this.running == true || this.ringBuffer.isEmpty() == false)
+        {
+            long now = System.currentTimeMillis();
+            if (now - lastLogTime >= DROP_LOG_INTERVAL_MILLIS)
+            {
+                loggedDroppedNum = logDropped(loggedDroppedNum);
+                lastLogTime = now;
+            }
+
+            String first = null;
+            try
+            {
+                first = this.ringBuffer.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (first == null)
+            {
+                continue;
+            }
+
+            // 1回のロック取得でまとめて取り出す
+            lines.add(first);
+            this.ringBuffer.drainTo(lines, DRAIN_BATCH_SIZE - 1);
+            for (String line : lines)
+            {
+                chunk.append(line).append(System.lineSeparator());
+                if (chunk.length() >= this.writerBufferSize)
+                {
+                    writeChunk(output, chunk);
+                }
+            }
+
+            lines.clear();
+
+            // 出力待ちのメッセージが無くなった時点でコンソールに反映する
+            if (this.ringBuffer.isEmpty() == true && chunk.length() > 0)
+            {
+                writeChunk(output, chunk);
+            }
+        }
+
+        if (chunk.length() > 0)
+        {
+            writeChunk(output, chunk);
+        }
+
+        logDropped(loggedDroppedNum);
+    }
+
+    /**
+     * 行単位で連結した文字列を1回の呼び出しで出力先に書き込み、連結した文字列を破棄する。<br>
+     * PrintStreamは1回の呼び出しの間排他するため、同一の出力先に書き込む他のスレッドの出力と行の途中で混在しない。
+     *
+     * @param output 出力先
+     * @param chunk 行単位で連結した文字列
+     */
+    protected void writeChunk(PrintStream output, StringBuilder chunk)
+    {
+        output.print(chunk.toString());
+        output.flush();
+        chunk.setLength(0);
+    }
+
+    /**
+     * 前回ログに出力した以降に破棄したメッセージ数をログに出力する。
+     *
+     * @param loggedNum 前回ログに出力した時点の破棄したメッセージ数
+     * @return 今回ログに出力した時点の破棄したメッセージ数
+     */
+    protected long logDropped(long loggedNum)
+    {
+        long currentNum = this.droppedNum;
+        if (currentNum > loggedNum)
+        {
+            String logFormat = "Console print buffer overflowed. : Dropped={0}, Total={1}";
+            logger.warn(MessageFormat.format(logFormat, currentNum - loggedNum, currentNum));
+        }
+
+        return currentNum;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup()
+    {
+        if (this.writerThread == null)
+        {
+            return;
+        }
+
+        this.running = false;
+        try
+        {
+            this.writerThread.join(SHUTDOWN_WAIT_MILLIS);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param async セットする async
+     */
+    public void setAsync(boolean async)
+    {
+        this.async = async;
+    }
+
+    /**
+     * @param bufferCapacity セットする bufferCapacity
+     */
+    public void setBufferCapacity(int bufferCapacity)
+    {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * @param writerBufferSize セットする writerBufferSize
+     */
+    public void setWriterBufferSize(int writerBufferSize)
+    {
+        this.writerBufferSize = writerBufferSize;
+    }
+
+    /**
+     * @param overflowPolicy セットする overflowPolicy
+     */
+    public void setOverflowPolicy(String overflowPolicy)
+    {
+        this.overflowPolicy = overflowPolicy;
     }
 }
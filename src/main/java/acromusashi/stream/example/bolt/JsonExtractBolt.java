@@ -13,7 +13,10 @@
 package acromusashi.stream.example.bolt;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -21,29 +24,51 @@ import org.slf4j.LoggerFactory;
 
 import acromusashi.stream.bolt.AmBaseBolt;
 import acromusashi.stream.entity.StreamMessage;
+import acromusashi.stream.example.json.JsonProjection;
 import backtype.storm.task.TopologyContext;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * 共通メッセージ中のJSONから特定要素を抽出するBolt<br/>
+ * ストリーミング抽出を有効にした場合、JSONツリーを生成せずにJsonParserでトップレベルの要素を順に読み進め、
+ * 抽出対象以外の要素は子要素ごと読み飛ばし、抽出対象の値を読み込んだ時点で解析を終了する。<br/>
+ * この場合、抽出対象より後ろの部分の形式は検証しない。また、抽出対象キーが重複する場合は先頭の値を抽出する。<br/>
+ * 抽出定義(「名称=JSON Pointer」)のリストを指定した場合、JSONを1度走査して全ての抽出対象を抽出し、
+ * 送信メッセージのフィールドに名称をキーとして設定する。送信メッセージの本体には先頭の抽出定義の値を設定するため、
+ * 先頭の抽出定義の値が存在しないメッセージは他の抽出対象が存在する場合も破棄する。<br/>
+ * 受信メッセージの本体がbyte[]の場合(HttpGetSpoutでバイト列送信を有効にした場合等)は、文字列に変換せずにbyte[]から直接解析する。
  *
  * @author kimura
  */
 public class JsonExtractBolt extends AmBaseBolt
 {
     /** serialVersionUID */
-    private static final long        serialVersionUID = 4002032169715662295L;
+    private static final long          serialVersionUID = 4002032169715662295L;
 
     /** logger */
-    private static final Logger      logger           = LoggerFactory.getLogger(JsonExtractBolt.class);
+    private static final Logger        logger           = LoggerFactory.getLogger(JsonExtractBolt.class);
 
     /** 変換対象のエンティティクラス */
-    protected String                 targetKey;
+    protected String                   targetKey;
 
     /** Jsonツリー生成用のマッパー */
-    protected transient ObjectMapper mapper;
+    protected transient ObjectMapper   mapper;
+
+    /** ストリーミング抽出を行うか */
+    protected boolean                  streaming;
+
+    /** 抽出定義(「名称=JSON Pointer」)のリスト */
+    protected List<String>             targetPaths;
+
+    /** 抽出定義をコンパイルした抽出処理 */
+    protected transient JsonProjection projection;
+
+    /** 抽出結果の名称 */
+    protected transient String[]       fieldNames;
 
     /**
      * JSONから抽出対象となるキー
@@ -55,6 +80,16 @@ public class JsonExtractBolt extends AmBaseBolt
         this.targetKey = targetKey;
     }
 
+    /**
+     * JSONから抽出対象となる要素の抽出定義(「名称=JSON Pointer」)のリストを指定してインスタンスを生成する。
+     *
+     * @param targetPaths 抽出定義のリスト
+     */
+    public JsonExtractBolt(List<String> targetPaths)
+    {
+        this.targetPaths = new ArrayList<String>(targetPaths);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -62,6 +97,13 @@ public class JsonExtractBolt extends AmBaseBolt
     public void onPrepare(@SuppressWarnings("rawtypes") Map arg0, TopologyContext arg1)
     {
         this.mapper = new ObjectMapper();
+
+        // 抽出定義は受信ごとに解析せず、初期化時にコンパイルする
+        if (this.targetPaths != null)
+        {
+            this.projection = new JsonProjection(this.targetPaths);
+            this.fieldNames = this.projection.getNames();
+        }
     }
 
     /**
@@ -70,18 +112,38 @@ public class JsonExtractBolt extends AmBaseBolt
     @Override
     public void onExecute(StreamMessage message)
     {
-        String jsonStr = message.getBody().toString();
+        // 本体がbyte[]の場合は文字列に変換せずに解析する
+        Object body = message.getBody();
+
+        if (this.projection != null)
+        {
+            executeProjection(body);
+            return;
+        }
+
+        if (this.streaming == true)
+        {
+            executeStreaming(body);
+            return;
+        }
 
         JsonNode rootJson;
         try
         {
             // メッセージ抽出対象をJsonNodeに変換する。
-            rootJson = this.mapper.readTree(jsonStr);
+            if (body instanceof byte[])
+            {
+                rootJson = this.mapper.readTree((byte[]) body);
+            }
+            else
+            {
+                rootJson = this.mapper.readTree(body.toString());
+            }
         }
         catch (IOException ex)
         {
             String logFormat = "Recived message is not valid. Skip message. : Message={0}";
-            logger.warn(MessageFormat.format(logFormat, jsonStr), ex);
+            logger.warn(MessageFormat.format(logFormat, toLogString(body)), ex);
             return;
         }
 
@@ -90,7 +152,7 @@ public class JsonExtractBolt extends AmBaseBolt
         if (valueJson == null)
         {
             String logFormat = "Target Value is not exist. : TargetKey={0}, Message={1}";
-            logger.warn(MessageFormat.format(logFormat, this.targetKey, jsonStr));
+            logger.warn(MessageFormat.format(logFormat, this.targetKey, toLogString(body)));
             return;
         }
 
@@ -98,4 +160,192 @@ public class JsonExtractBolt extends AmBaseBolt
         sendMessage.setBody(valueJson.asText());
         emitWithOnlyAnchor(sendMessage);
     }
+
+    /**
+     * JsonParserを用いてJSONから抽出対象キーに対応する要素を抽出し、下流に送信する。
+     *
+     * @param body メッセージ本体(JSON文字列またはUTF-8等でエンコードされたJSONのbyte[])
+     */
+    protected void executeStreaming(Object body)
+    {
+        String value;
+        try
+        {
+            value = extractStreaming(body);
+        }
+        catch (IOException ex)
+        {
+            String logFormat = "Recived message is not valid. Skip message. : Message={0}";
+            logger.warn(MessageFormat.format(logFormat, toLogString(body)), ex);
+            return;
+        }
+
+        if (value == null)
+        {
+            String logFormat = "Target Value is not exist. : TargetKey={0}, Message={1}";
+            logger.warn(MessageFormat.format(logFormat, this.targetKey, toLogString(body)));
+            return;
+        }
+
+        StreamMessage sendMessage = new StreamMessage();
+        sendMessage.setBody(value);
+        emitWithOnlyAnchor(sendMessage);
+    }
+
+    /**
+     * JsonParserを用いてJSONのトップレベルから抽出対象キーに対応する値を抽出する。<br/>
+     * 値がオブジェクト、配列の場合はJsonNode#asTextと同じく空文字を返す。
+     *
+     * @param body メッセージ本体(JSON文字列またはJSONのbyte[])
+     * @return 抽出対象キーに対応する値。存在しない場合はnull
+     * @throws IOException JSONの形式が不正な場合
+     */
+    protected String extractStreaming(Object body) throws IOException
+    {
+        JsonParser parser = createParser(body);
+        try
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+            {
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+
+                if (this.targetKey.equals(fieldName) == false)
+                {
+                    // 抽出対象以外の要素は子要素ごと読み飛ばす
+                    parser.skipChildren();
+                    continue;
+                }
+
+                if (valueToken == JsonToken.START_OBJECT || valueToken == JsonToken.START_ARRAY)
+                {
+                    return "";
+                }
+
+                return parser.getText();
+            }
+
+            return null;
+        }
+        finally
+        {
+            parser.close();
+        }
+    }
+
+    /**
+     * 抽出定義に従ってJSONから全ての抽出対象を抽出し、下流に送信する。
+     *
+     * @param body メッセージ本体(JSON文字列またはJSONのbyte[])
+     */
+    protected void executeProjection(Object body)
+    {
+        String[] values;
+        JsonParser parser = null;
+        try
+        {
+            parser = createParser(body);
+            values = this.projection.project(parser);
+        }
+        catch (IOException ex)
+        {
+            String logFormat = "Recived message is not valid. Skip message. : Message={0}";
+            logger.warn(MessageFormat.format(logFormat, toLogString(body)), ex);
+            return;
+        }
+        finally
+        {
+            closeQuietly(parser);
+        }
+
+        // 先頭の抽出定義の値を本体とするため、先頭の値が存在しない場合は下流に送信しない
+        if (values[0] == null)
+        {
+            String logFormat = "Target Value is not exist. : TargetPaths={0}, Message={1}";
+            logger.warn(MessageFormat.format(logFormat, this.targetPaths, toLogString(body)));
+            return;
+        }
+
+        StreamMessage sendMessage = new StreamMessage();
+        for (int index = 0; index < values.length; index++)
+        {
+            if (values[index] != null)
+            {
+                sendMessage.addField(this.fieldNames[index], values[index]);
+            }
+        }
+
+        sendMessage.setBody(values[0]);
+        emitWithOnlyAnchor(sendMessage);
+    }
+
+    /**
+     * メッセージ本体を読み込むJsonParserを生成する。<br/>
+     * 本体がbyte[]の場合はエンコーディングを自動判別し、byte[]から直接読み込む。
+     *
+     * @param body メッセージ本体(JSON文字列またはJSONのbyte[])
+     * @return JsonParser
+     * @throws IOException JsonParserの生成に失敗した場合
+     */
+    protected JsonParser createParser(Object body) throws IOException
+    {
+        if (body instanceof byte[])
+        {
+            return this.mapper.getFactory().createParser((byte[]) body);
+        }
+
+        return this.mapper.getFactory().createParser(body.toString());
+    }
+
+    /**
+     * ログ出力用にメッセージ本体を文字列に変換する。<br/>
+     * byte[]の場合は警告出力時のみ文字列に変換するため、正常時は変換コストが発生しない。
+     *
+     * @param body メッセージ本体
+     * @return ログ出力用の文字列
+     */
+    private static String toLogString(Object body)
+    {
+        if (body instanceof byte[])
+        {
+            return new String((byte[]) body, StandardCharsets.UTF_8);
+        }
+
+        return String.valueOf(body);
+    }
+
+    /**
+     * JsonParserをクローズする。クローズ時の例外は無視する。
+     *
+     * @param parser JsonParser
+     */
+    private void closeQuietly(JsonParser parser)
+    {
+        if (parser == null)
+        {
+            return;
+        }
+
+        try
+        {
+            parser.close();
+        }
+        catch (IOException ex)
+        {
+            logger.debug("Failed to close JsonParser.", ex);
+        }
+    }
+
+    /**
+     * @param streaming セットする streaming
+     */
+    public void setStreaming(boolean streaming)
+    {
+        this.streaming = streaming;
+    }
 }
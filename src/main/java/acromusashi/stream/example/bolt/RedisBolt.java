@@ -12,33 +12,67 @@
 */
 package acromusashi.stream.example.bolt;
 
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.List;
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.util.SafeEncoder;
 import acromusashi.stream.bolt.MessageBolt;
 import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.encoder.StringValueEncoder;
+import acromusashi.stream.example.encoder.ValueEncoder;
 import backtype.storm.task.OutputCollector;
 import backtype.storm.task.TopologyContext;
+import backtype.storm.tuple.Tuple;
 
 /**
  * 受信した共通メッセージをRedisに格納するBolt<br/>
+ * バッチサイズを設定した場合、受信したメッセージを蓄積し、蓄積件数がバッチサイズに達した時点、またはTickTuple受信時に
+ * 1回のパイプラインでまとめてRedisに書き込む。
+ * Tupleはパイプラインの応答で書き込みが完了したことを確認してからackし、書き込みに失敗した場合はfailする。<br>
+ * 値はValueEncoderで変換したバイト列を書き込む(デフォルトはtoStringの結果をUTF-8で書き込む)。
+ * 有効期限(秒)を設定した場合はSETEXで書き込み、キーを有効期限経過後に削除させる。
  * 
  * @author kimura
  */
 public class RedisBolt extends MessageBolt
 {
     /** serialVersionUID */
-    private static final long   serialVersionUID = 7742873990972648063L;
+    private static final long           serialVersionUID = 7742873990972648063L;
+
+    /** logger */
+    private static final Logger         logger           = LoggerFactory.getLogger(RedisBolt.class);
 
     /** redishost */
-    private String              redisHost;
+    private String                      redisHost;
+
+    /** バッチサイズ。0以下の場合はメッセージごとに書き込む */
+    protected int                       batchSize;
+
+    /** 蓄積したメッセージを書き込むTickTuple送信間隔(秒)。0以下の場合はTickTupleを使用しない */
+    protected int                       tickIntervalSecs = 1;
+
+    /** 書き込む値をバイト列に変換するValueEncoder */
+    protected ValueEncoder              valueEncoder     = new StringValueEncoder();
+
+    /** 書き込むキーの有効期限(秒)。0以下の場合は有効期限を設定しない */
+    protected int                       ttlSecs;
 
     /** Redisにアクセスするプールオブジェクト */
-    private transient JedisPool jedisPool;
+    private transient JedisPool         jedisPool;
 
     /** Redisにアクセスするクライアントオブジェクト */
-    private transient Jedis     jedisClient;
+    private transient Jedis             jedisClient;
+
+    /** パイプラインで書き込むメッセージを蓄積するバッチ */
+    protected transient RedisWriteBatch batch;
 
     /**
      * コンストラクタ
@@ -58,7 +92,63 @@ public class RedisBolt extends MessageBolt
     public void prepare(Map stormConf, TopologyContext context, OutputCollector collector)
     {
         super.prepare(stormConf, context, collector);
-        this.jedisPool = new JedisPool(this.redisHost);
+        this.jedisPool = createJedisPool();
+        this.valueEncoder.prepare();
+
+        if (this.batchSize > 0)
+        {
+            this.batch = new RedisWriteBatch(this.batchSize, this.ttlSecs);
+        }
+    }
+
+    /**
+     * Redisにアクセスするプールオブジェクトを生成する。
+     * 
+     * @return プールオブジェクト
+     */
+    protected JedisPool createJedisPool()
+    {
+        return new JedisPool(this.redisHost);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(Tuple input)
+    {
+        if (this.batch == null)
+        {
+            super.execute(input);
+            return;
+        }
+
+        // TickTupleの場合は蓄積したメッセージを書き込む
+        if (TickTupleUtil.isTickTuple(input) == true)
+        {
+            flush();
+            return;
+        }
+
+        Message message = (Message) input.getValueByField("message");
+        byte[] value = null;
+        try
+        {
+            value = this.valueEncoder.encode(message.getBody());
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            String logFormat = "Value encode failed. Fail tuple. : MessageId={0}";
+            logger.warn(MessageFormat.format(logFormat, message.getHeader().getMessageId()), ex);
+            getCollector().fail(input);
+            return;
+        }
+
+        this.batch.add(input, message.getHeader().getMessageId(), value);
+        if (this.batch.size() >= this.batchSize)
+        {
+            flush();
+        }
     }
 
     /**
@@ -72,6 +162,119 @@ public class RedisBolt extends MessageBolt
             this.jedisClient = this.jedisPool.getResource();
         }
 
-        this.jedisClient.set(message.getHeader().getMessageId(), message.getBody().toString());
+        byte[] key = SafeEncoder.encode(message.getHeader().getMessageId());
+        byte[] value = this.valueEncoder.encode(message.getBody());
+        try
+        {
+            if (this.ttlSecs > 0)
+            {
+                this.jedisClient.setex(key, this.ttlSecs, value);
+            }
+            else
+            {
+                this.jedisClient.set(key, value);
+            }
+        }
+        catch (JedisConnectionException ex)
+        {
+            // 異常が発生したコネクションは破棄し、次のメッセージで再取得する
+            this.jedisPool.returnBrokenResource(this.jedisClient);
+            this.jedisClient = null;
+            throw ex;
+        }
+    }
+
+    /**
+     * 蓄積したメッセージを1回のパイプラインでRedisに書き込み、書き込み結果に応じてTupleをack/failする。
+     */
+    protected void flush()
+    {
+        if (this.batch.size() == 0)
+        {
+            return;
+        }
+
+        boolean[] results = this.batch.write(this.jedisPool);
+        List<Tuple> tuples = this.batch.getTuples();
+        int failedNum = 0;
+        for (int index = 0; index < results.length; index++)
+        {
+            if (results[index] == true)
+            {
+                getCollector().ack(tuples.get(index));
+            }
+            else
+            {
+                getCollector().fail(tuples.get(index));
+                failedNum++;
+            }
+        }
+
+        if (failedNum > 0)
+        {
+            String logFormat = "Redis pipeline write failed. : RedisHost={0}, Failed={1}/{2}";
+            logger.warn(MessageFormat.format(logFormat, this.redisHost, failedNum, results.length));
+        }
+
+        this.batch.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup()
+    {
+        if (this.jedisPool != null)
+        {
+            this.jedisPool.destroy();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration()
+    {
+        if (this.batchSize <= 0 || this.tickIntervalSecs <= 0)
+        {
+            return super.getComponentConfiguration();
+        }
+
+        return TickTupleUtil.withTickInterval(super.getComponentConfiguration(),
+                this.tickIntervalSecs);
+    }
+
+    /**
+     * @param batchSize セットする batchSize
+     */
+    public void setBatchSize(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param tickIntervalSecs セットする tickIntervalSecs
+     */
+    public void setTickIntervalSecs(int tickIntervalSecs)
+    {
+        this.tickIntervalSecs = tickIntervalSecs;
+    }
+
+    /**
+     * @param valueEncoder セットする valueEncoder
+     */
+    public void setValueEncoder(ValueEncoder valueEncoder)
+    {
+        this.valueEncoder = valueEncoder;
+    }
+
+    /**
+     * @param ttlSecs セットする ttlSecs
+     */
+    public void setTtlSecs(int ttlSecs)
+    {
+        this.ttlSecs = ttlSecs;
     }
 }
@@ -0,0 +1,347 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.bolt;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import acromusashi.stream.bolt.BaseConfigurationBolt;
+import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.cache.ExpiringLruCache;
+import acromusashi.stream.example.cache.ExpiringLruCache.CacheEntry;
+import backtype.storm.task.OutputCollector;
+import backtype.storm.task.TopologyContext;
+import backtype.storm.topology.OutputFieldsDeclarer;
+import backtype.storm.tuple.Fields;
+import backtype.storm.tuple.Tuple;
+import backtype.storm.tuple.Values;
+
+/**
+ * 共通メッセージのヘッダの送信元(source)をキーとしてRedisから機器情報を取得し、メッセージのフィールドに付与するBolt。<br>
+ * 取得した機器情報は保持件数の上限と有効期限を持つLRUキャッシュに保持し、キャッシュに存在する場合はRedisにアクセスせずに付与する。
+ * Redisに機器情報が存在しないことも同様にキャッシュする。<br>
+ * キャッシュに存在しないメッセージは送信元ごとにまとめて保留し、保留中の送信元数がMGETの最大キー数に達した時点、
+ * またはTickTuple受信時に保留中の全送信元の機器情報を1回のMGETで取得してから送信する。
+ * 同一の送信元のメッセージが保留中に複数届いた場合も、Redisからの取得は1回のみ行う。<br>
+ * Redisからの取得に失敗した場合、保留中のTupleはfailする。
+ *
+ * @author kimura
+ */
+public class RedisEnrichBolt extends BaseConfigurationBolt
+{
+    /** serialVersionUID */
+    private static final long                            serialVersionUID = -8806417230962105829L;
+
+    /** logger */
+    private static final Logger                          logger           = LoggerFactory.getLogger(RedisEnrichBolt.class);
+
+    /** redishost */
+    private String                                       redisHost;
+
+    /** Redisのキーの接頭辞。Redisのキーは「接頭辞 + 送信元」となる */
+    protected String                                     keyPrefix        = "device:";
+
+    /** 機器情報を付与するフィールド名 */
+    protected String                                     fieldName        = "device";
+
+    /** キャッシュの保持件数上限 */
+    protected int                                        cacheSize        = 10000;
+
+    /** キャッシュの有効期限(秒)。0以下の場合は有効期限を設定しない */
+    protected int                                        cacheTtlSecs     = 60;
+
+    /** 1回のMGETで取得する最大キー数 */
+    protected int                                        mgetBatchSize    = 100;
+
+    /** 保留中のメッセージの機器情報を取得するTickTuple送信間隔(秒)。0以下の場合はTickTupleを使用せず、保留せずに取得する */
+    protected int                                        tickIntervalSecs = 1;
+
+    /** Redisにアクセスするプールオブジェクト */
+    private transient JedisPool                          jedisPool;
+
+    /** 機器情報のキャッシュ */
+    protected transient ExpiringLruCache<String, String> cache;
+
+    /** 機器情報の取得を保留している送信元と、送信元ごとの保留中のTuple */
+    protected transient Map<String, List<Tuple>>         pendingTuples;
+
+    /**
+     * コンストラクタ
+     *
+     * @param redisHost 機器情報を格納したRedisのホスト
+     */
+    public RedisEnrichBolt(String redisHost)
+    {
+        this.redisHost = redisHost;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void prepare(Map stormConf, TopologyContext context, OutputCollector collector)
+    {
+        super.prepare(stormConf, context, collector);
+        this.jedisPool = createJedisPool();
+        this.cache = new ExpiringLruCache<String, String>(this.cacheSize,
+                this.cacheTtlSecs * 1000L);
+        this.pendingTuples = new LinkedHashMap<String, List<Tuple>>();
+    }
+
+    /**
+     * Redisにアクセスするプールオブジェクトを生成する。
+     *
+     * @return プールオブジェクト
+     */
+    protected JedisPool createJedisPool()
+    {
+        return new JedisPool(this.redisHost);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(Tuple input)
+    {
+        // TickTupleの場合は保留中のメッセージの機器情報を取得する
+        if (TickTupleUtil.isTickTuple(input) == true)
+        {
+            loadPending();
+            return;
+        }
+
+        Message message = (Message) input.getValueByField("message");
+        String source = message.getHeader().getSource();
+        if (source == null)
+        {
+            emitAndAck(input, message, null);
+            return;
+        }
+
+        CacheEntry<String> entry = this.cache.get(source, System.currentTimeMillis());
+        if (entry != null)
+        {
+            emitAndAck(input, message, entry.getValue());
+            return;
+        }
+
+        // 同一の送信元が保留中の場合はまとめて取得する
+        List<Tuple> waiting = this.pendingTuples.get(source);
+        if (waiting == null)
+        {
+            waiting = new ArrayList<Tuple>();
+            this.pendingTuples.put(source, waiting);
+        }
+        waiting.add(input);
+
+        if (this.pendingTuples.size() >= this.mgetBatchSize || this.tickIntervalSecs <= 0)
+        {
+            loadPending();
+        }
+    }
+
+    /**
+     * 保留中の全送信元の機器情報を1回のMGETで取得してキャッシュに格納し、保留中のメッセージに付与して送信する。
+     */
+    protected void loadPending()
+    {
+        if (this.pendingTuples.isEmpty() == true)
+        {
+            return;
+        }
+
+        List<String> sources = new ArrayList<String>(this.pendingTuples.keySet());
+        String[] keys = new String[sources.size()];
+        for (int index = 0; index < keys.length; index++)
+        {
+            keys[index] = this.keyPrefix + sources.get(index);
+        }
+
+        List<String> values = null;
+        Jedis jedis = null;
+        boolean broken = false;
+        try
+        {
+            jedis = this.jedisPool.getResource();
+            values = jedis.mget(keys);
+        }
+        catch (RuntimeException ex)
+        {
+            // 通信異常以外の例外(エラー応答等)でも未受信の応答が残っている可能性があるため、コネクションは破棄する
+            broken = true;
+            String logFormat = "Redis mget failed. Fail pending tuples. : RedisHost={0}, Sources={1}";
+            logger.warn(MessageFormat.format(logFormat, this.redisHost, sources.size()), ex);
+        }
+        finally
+        {
+            if (jedis != null)
+            {
+                if (broken == true)
+                {
+                    this.jedisPool.returnBrokenResource(jedis);
+                }
+                else
+                {
+                    this.jedisPool.returnResource(jedis);
+                }
+            }
+        }
+
+        if (broken == true)
+        {
+            for (List<Tuple> waiting : this.pendingTuples.values())
+            {
+                for (Tuple tuple : waiting)
+                {
+                    getCollector().fail(tuple);
+                }
+            }
+
+            this.pendingTuples.clear();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (int index = 0; index < keys.length; index++)
+        {
+            String source = sources.get(index);
+            String value = values.get(index);
+            this.cache.put(source, value, now);
+            for (Tuple tuple : this.pendingTuples.get(source))
+            {
+                emitAndAck(tuple, (Message) tuple.getValueByField("message"), value);
+            }
+        }
+
+        this.pendingTuples.clear();
+
+        if (logger.isDebugEnabled() == true)
+        {
+            String logFormat = "Device cache status. : Size={0}, Hit={1}, Miss={2}";
+            logger.debug(MessageFormat.format(logFormat, this.cache.size(),
+                    this.cache.getHitCount(), this.cache.getMissCount()));
+        }
+    }
+
+    /**
+     * メッセージに機器情報を付与して送信し、受信したTupleをackする。
+     *
+     * @param input 受信したTuple
+     * @param message 受信したメッセージ
+     * @param device 機器情報。存在しない場合はnull
+     */
+    protected void emitAndAck(Tuple input, Message message, String device)
+    {
+        if (device != null)
+        {
+            message.addField(this.fieldName, device);
+        }
+
+        getCollector().emit(input, new Values(message));
+        getCollector().ack(input);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup()
+    {
+        if (this.jedisPool != null)
+        {
+            this.jedisPool.destroy();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration()
+    {
+        if (this.tickIntervalSecs <= 0)
+        {
+            return super.getComponentConfiguration();
+        }
+
+        return TickTupleUtil.withTickInterval(super.getComponentConfiguration(),
+                this.tickIntervalSecs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer)
+    {
+        declarer.declare(new Fields("message"));
+    }
+
+    /**
+     * @param keyPrefix セットする keyPrefix
+     */
+    public void setKeyPrefix(String keyPrefix)
+    {
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * @param fieldName セットする fieldName
+     */
+    public void setFieldName(String fieldName)
+    {
+        this.fieldName = fieldName;
+    }
+
+    /**
+     * @param cacheSize セットする cacheSize
+     */
+    public void setCacheSize(int cacheSize)
+    {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * @param cacheTtlSecs セットする cacheTtlSecs
+     */
+    public void setCacheTtlSecs(int cacheTtlSecs)
+    {
+        this.cacheTtlSecs = cacheTtlSecs;
+    }
+
+    /**
+     * @param mgetBatchSize セットする mgetBatchSize
+     */
+    public void setMgetBatchSize(int mgetBatchSize)
+    {
+        this.mgetBatchSize = mgetBatchSize;
+    }
+
+    /**
+     * @param tickIntervalSecs セットする tickIntervalSecs
+     */
+    public void setTickIntervalSecs(int tickIntervalSecs)
+    {
+        this.tickIntervalSecs = tickIntervalSecs;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.bolt;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import redis.clients.util.Hashing;
+
+/**
+ * コンシステントハッシュ法によりキーを書き込み先のシャードに振り分けるハッシュリング。<br>
+ * 各シャードをシャード数に依存しない仮想ノードとしてリング上に配置するため、シャードを追加、削除した場合も
+ * 振り分け先が変わるキーは一部に限られる。<br>
+ * 仮想ノードの名称、数とハッシュ関数(MurmurHash)はJedisのShardedJedis(シャード名称未指定時)と同一のため、
+ * 同一のシャード構成であればShardedJedisと同一のシャードにキーが振り分けられる。<br>
+ * 本クラスは生成後に状態を変更しないため、スレッドセーフである。
+ *
+ * @author kimura
+ */
+public class RedisShardRing
+{
+    /** 1シャードあたりの仮想ノード数 */
+    public static final int          VIRTUAL_NODE_NUM = 160;
+
+    /** ハッシュ関数 */
+    private static final Hashing     HASHING          = Hashing.MURMUR_HASH;
+
+    /** 仮想ノードのハッシュ値とシャードインデックスのリング */
+    private final TreeMap<Long, Integer> ring         = new TreeMap<Long, Integer>();
+
+    /** シャード数 */
+    private final int                shardNum;
+
+    /**
+     * シャード数を指定してインスタンスを生成する。
+     *
+     * @param shardNum シャード数
+     */
+    public RedisShardRing(int shardNum)
+    {
+        if (shardNum <= 0)
+        {
+            throw new IllegalArgumentException("shardNum must be positive. : shardNum=" + shardNum);
+        }
+
+        this.shardNum = shardNum;
+        for (int shardIndex = 0; shardIndex < shardNum; shardIndex++)
+        {
+            for (int nodeIndex = 0; nodeIndex < VIRTUAL_NODE_NUM; nodeIndex++)
+            {
+                this.ring.put(HASHING.hash("SHARD-" + shardIndex + "-NODE-" + nodeIndex), shardIndex);
+            }
+        }
+    }
+
+    /**
+     * キーの書き込み先シャードを取得する。
+     *
+     * @param key キー
+     * @return 書き込み先シャードのインデックス
+     */
+    public int getShard(String key)
+    {
+        if (this.shardNum == 1)
+        {
+            return 0;
+        }
+
+        // キーのハッシュ値以上の最初の仮想ノード、存在しない場合はリングの先頭の仮想ノードに振り分ける
+        Map.Entry<Long, Integer> entry = this.ring.ceilingEntry(HASHING.hash(key));
+        if (entry == null)
+        {
+            entry = this.ring.firstEntry();
+        }
+
+        return entry.getValue();
+    }
+
+    /**
+     * シャード数を取得する。
+     *
+     * @return シャード数
+     */
+    public int getShardNum()
+    {
+        return this.shardNum;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.bolt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.util.SafeEncoder;
+import backtype.storm.tuple.Tuple;
+
+/**
+ * Redisに書き込むキー、値を受信したTupleとともに蓄積し、1回のパイプラインでまとめて書き込むバッチ。<br>
+ * 値はValueEncoderで変換したバイト列を蓄積する。有効期限(秒)を指定した場合はSETEXで書き込む。<br>
+ * 書き込み時はプールからコネクションを取得し、書き込み後にプールへ返却する。
+ * 書き込み中に例外が発生した場合は全件を失敗とし、コネクションを破棄してプールへ返却する。<br>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ */
+public class RedisWriteBatch
+{
+    /** 蓄積したTuple */
+    private final List<Tuple>  tuples;
+
+    /** 蓄積したキー */
+    private final List<String> keys;
+
+    /** 蓄積した値 */
+    private final List<byte[]> values;
+
+    /** 書き込むキーの有効期限(秒)。0以下の場合は有効期限を設定しない */
+    private final int          ttlSecs;
+
+    /**
+     * 想定件数を指定してインスタンスを生成する。
+     *
+     * @param expectedSize 想定件数
+     */
+    public RedisWriteBatch(int expectedSize)
+    {
+        this(expectedSize, 0);
+    }
+
+    /**
+     * 想定件数、書き込むキーの有効期限を指定してインスタンスを生成する。
+     *
+     * @param expectedSize 想定件数
+     * @param ttlSecs 書き込むキーの有効期限(秒)。0以下の場合は有効期限を設定しない
+     */
+    public RedisWriteBatch(int expectedSize, int ttlSecs)
+    {
+        this.tuples = new ArrayList<Tuple>(expectedSize);
+        this.keys = new ArrayList<String>(expectedSize);
+        this.values = new ArrayList<byte[]>(expectedSize);
+        this.ttlSecs = ttlSecs;
+    }
+
+    /**
+     * 書き込むキー、値を蓄積する。
+     *
+     * @param tuple 受信したTuple
+     * @param key キー
+     * @param value 値
+     */
+    public void add(Tuple tuple, String key, byte[] value)
+    {
+        this.tuples.add(tuple);
+        this.keys.add(key);
+        this.values.add(value);
+    }
+
+    /**
+     * 蓄積件数を取得する。
+     *
+     * @return 蓄積件数
+     */
+    public int size()
+    {
+        return this.tuples.size();
+    }
+
+    /**
+     * 蓄積したTupleを取得する。
+     *
+     * @return 蓄積したTuple
+     */
+    public List<Tuple> getTuples()
+    {
+        return this.tuples;
+    }
+
+    /**
+     * 蓄積したキー、値を1回のパイプラインでRedisに書き込む。<br>
+     * 結果はパイプラインの応答を受信してから返すため、結果が成功のTupleは書き込みが完了している。
+     *
+     * @param pool 書き込み先のコネクションプール
+     * @return 蓄積順の書き込み結果(成功の場合true)。コネクションの取得、通信等で例外が発生した場合は全件false
+     */
+    public boolean[] write(JedisPool pool)
+    {
+        boolean[] results = new boolean[this.tuples.size()];
+        Jedis jedis = null;
+        boolean broken = false;
+        try
+        {
+            jedis = pool.getResource();
+            Pipeline pipeline = jedis.pipelined();
+            for (int index = 0; index < results.length; index++)
+            {
+                byte[] key = SafeEncoder.encode(this.keys.get(index));
+                if (this.ttlSecs > 0)
+                {
+                    pipeline.setex(key, this.ttlSecs, this.values.get(index));
+                }
+                else
+                {
+                    pipeline.set(key, this.values.get(index));
+                }
+            }
+
+            // エラー応答はコマンドごとに例外として返却される
+            List<Object> replies = pipeline.syncAndReturnAll();
+            for (int index = 0; index < results.length; index++)
+            {
+                results[index] = (replies.get(index) instanceof Exception) == false;
+            }
+        }
+        catch (RuntimeException ex)
+        {
+            // 通信異常以外の例外でも未受信の応答が残っている可能性があるため、コネクションは破棄する
+            broken = true;
+            Arrays.fill(results, false);
+        }
+        finally
+        {
+            if (jedis != null)
+            {
+                if (broken == true)
+                {
+                    pool.returnBrokenResource(jedis);
+                }
+                else
+                {
+                    pool.returnResource(jedis);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * 蓄積したキー、値を破棄する。
+     */
+    public void clear()
+    {
+        this.tuples.clear();
+        this.keys.clear();
+        this.values.clear();
+    }
+}
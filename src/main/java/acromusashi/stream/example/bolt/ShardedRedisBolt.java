@@ -0,0 +1,447 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.bolt;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Protocol;
+import acromusashi.stream.bolt.BaseConfigurationBolt;
+import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.encoder.StringValueEncoder;
+import acromusashi.stream.example.encoder.ValueEncoder;
+import backtype.storm.task.OutputCollector;
+import backtype.storm.task.TopologyContext;
+import backtype.storm.topology.OutputFieldsDeclarer;
+import backtype.storm.tuple.Tuple;
+
+/**
+ * 受信した共通メッセージを複数のRedisノードに分散して格納するBolt。<br>
+ * メッセージIDをキーとしてコンシステントハッシュ法(RedisShardRing)で書き込み先のシャードを決定する。<br>
+ * シャードごとにコネクションプール、書き込みスレッドを持ち、シャードごとに蓄積したメッセージを
+ * 蓄積件数がバッチサイズに達した時点、またはTickTuple受信時に書き込みスレッドから1回のパイプラインで書き込む。
+ * そのため、応答の遅いシャードが存在する場合も他のシャードへの書き込みは待たされない。<br>
+ * シャードごとの書き込み中のパイプライン数が上限に達している場合、そのシャードのメッセージは
+ * 書き込みが完了するまで蓄積を続ける(蓄積件数の上限はtopology.max.spout.pendingで制御する)。<br>
+ * 書き込み結果はTuple受信時、TickTuple受信時にBoltのスレッドで回収し、
+ * 書き込みが完了したTupleをack、失敗したTupleをfailする。<br>
+ * 値の変換方式、有効期限の扱いはRedisBoltと同一。
+ *
+ * @author kimura
+ */
+public class ShardedRedisBolt extends BaseConfigurationBolt
+{
+    /** serialVersionUID */
+    private static final long              serialVersionUID     = -2593862147061957104L;
+
+    /** logger */
+    private static final Logger            logger               = LoggerFactory.getLogger(ShardedRedisBolt.class);
+
+    /** バッチサイズデフォルト値 */
+    private static final int               DEFAULT_BATCH_SIZE   = 100;
+
+    /** 終了時に書き込みスレッドの終了を待つ時間(ミリ秒) */
+    private static final long              SHUTDOWN_WAIT_MILLIS = 5000L;
+
+    /** 書き込み先Redisのホスト(「ホスト」または「ホスト:ポート」)のリスト */
+    private List<String>                   redisHosts;
+
+    /** バッチサイズ */
+    protected int                          batchSize            = DEFAULT_BATCH_SIZE;
+
+    /** 蓄積したメッセージを書き込むTickTuple送信間隔(秒)。0以下の場合はTickTupleを使用しない */
+    protected int                          tickIntervalSecs     = 1;
+
+    /** シャードごとの書き込み中のパイプライン数上限 */
+    protected int                          maxPendingBatches    = 2;
+
+    /** 書き込む値をバイト列に変換するValueEncoder */
+    protected ValueEncoder                 valueEncoder         = new StringValueEncoder();
+
+    /** 書き込むキーの有効期限(秒)。0以下の場合は有効期限を設定しない */
+    protected int                          ttlSecs;
+
+    /** 書き込み先シャードを決定するハッシュリング */
+    protected transient RedisShardRing     ring;
+
+    /** シャード */
+    protected transient RedisShard[]       shards;
+
+    /** 書き込みスレッドから返却された書き込み結果 */
+    protected transient Queue<WriteResult> completedQueue;
+
+    /**
+     * 書き込み先Redisのホストのリストを指定してインスタンスを生成する。
+     *
+     * @param redisHosts 書き込み先Redisのホスト(「ホスト」または「ホスト:ポート」)のリスト
+     */
+    public ShardedRedisBolt(List<String> redisHosts)
+    {
+        this.redisHosts = new ArrayList<String>(redisHosts);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void prepare(Map stormConf, TopologyContext context, OutputCollector collector)
+    {
+        super.prepare(stormConf, context, collector);
+
+        this.valueEncoder.prepare();
+        this.ring = new RedisShardRing(this.redisHosts.size());
+        this.completedQueue = new ConcurrentLinkedQueue<WriteResult>();
+        this.shards = new RedisShard[this.redisHosts.size()];
+        for (int index = 0; index < this.shards.length; index++)
+        {
+            String redisHost = this.redisHosts.get(index);
+            this.shards[index] = new RedisShard(redisHost, createJedisPool(redisHost),
+                    createExecutor(redisHost), new RedisWriteBatch(this.batchSize, this.ttlSecs));
+        }
+    }
+
+    /**
+     * Redisにアクセスするプールオブジェクトを生成する。
+     *
+     * @param redisHost 書き込み先Redisのホスト(「ホスト」または「ホスト:ポート」)
+     * @return プールオブジェクト
+     */
+    protected JedisPool createJedisPool(String redisHost)
+    {
+        int separatorIndex = redisHost.lastIndexOf(':');
+        if (separatorIndex < 0)
+        {
+            return new JedisPool(redisHost, Protocol.DEFAULT_PORT);
+        }
+
+        return new JedisPool(redisHost.substring(0, separatorIndex),
+                Integer.parseInt(redisHost.substring(separatorIndex + 1)));
+    }
+
+    /**
+     * シャードへの書き込みを行う書き込みスレッドを生成する。
+     *
+     * @param redisHost 書き込み先Redisのホスト
+     * @return 書き込みスレッド
+     */
+    protected ExecutorService createExecutor(final String redisHost)
+    {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "ShardedRedisBolt-writer-" + redisHost);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(Tuple input)
+    {
+        drainCompleted();
+
+        // TickTupleの場合は全シャードの蓄積したメッセージを書き込む
+        if (TickTupleUtil.isTickTuple(input) == true)
+        {
+            for (RedisShard shard : this.shards)
+            {
+                submit(shard);
+            }
+            return;
+        }
+
+        Message message = (Message) input.getValueByField("message");
+        String messageId = message.getHeader().getMessageId();
+        byte[] value = null;
+        try
+        {
+            value = this.valueEncoder.encode(message.getBody());
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            String logFormat = "Value encode failed. Fail tuple. : MessageId={0}";
+            logger.warn(MessageFormat.format(logFormat, messageId), ex);
+            getCollector().fail(input);
+            return;
+        }
+
+        RedisShard shard = this.shards[this.ring.getShard(messageId)];
+        shard.batch.add(input, messageId, value);
+        if (shard.batch.size() >= this.batchSize)
+        {
+            submit(shard);
+        }
+    }
+
+    /**
+     * シャードに蓄積したメッセージの書き込みを書き込みスレッドに依頼する。<br>
+     * 書き込み中のパイプライン数が上限に達している場合は依頼せず、蓄積を継続する。
+     *
+     * @param shard シャード
+     */
+    protected void submit(final RedisShard shard)
+    {
+        if (shard.batch.size() == 0 || shard.pendingNum >= this.maxPendingBatches)
+        {
+            return;
+        }
+
+        final RedisWriteBatch batch = shard.batch;
+        shard.batch = new RedisWriteBatch(this.batchSize, this.ttlSecs);
+        shard.pendingNum++;
+
+        final Queue<WriteResult> resultQueue = this.completedQueue;
+        shard.executor.execute(new Runnable() {
+            @Override
+            public void run()
+            {
+                boolean[] results = null;
+                try
+                {
+                    results = batch.write(shard.pool);
+                }
+                catch (RuntimeException ex)
+                {
+                    String logFormat = "Redis pipeline write failed. : RedisHost={0}";
+                    logger.warn(MessageFormat.format(logFormat, shard.redisHost), ex);
+                    results = new boolean[batch.size()];
+                }
+                finally
+                {
+                    resultQueue.add(new WriteResult(shard, batch, results));
+                }
+            }
+        });
+    }
+
+    /**
+     * 書き込みスレッドから返却された書き込み結果を回収し、書き込み結果に応じてTupleをack/failする。<br>
+     * 書き込みが完了したシャードに書き込み待ちのメッセージが蓄積されている場合は、続けて書き込みを依頼する。
+     */
+    protected void drainCompleted()
+    {
+        WriteResult result = null;
+        while ((result = this.completedQueue.poll()) != null)
+        {
+            List<Tuple> tuples = result.batch.getTuples();
+            int failedNum = 0;
+            for (int index = 0; index < tuples.size(); index++)
+            {
+                if (result.results != null && result.results[index] == true)
+                {
+                    getCollector().ack(tuples.get(index));
+                }
+                else
+                {
+                    getCollector().fail(tuples.get(index));
+                    failedNum++;
+                }
+            }
+
+            if (failedNum > 0)
+            {
+                String logFormat = "Redis pipeline write failed. : RedisHost={0}, Failed={1}/{2}";
+                logger.warn(MessageFormat.format(logFormat, result.shard.redisHost, failedNum,
+                        tuples.size()));
+            }
+
+            result.shard.pendingNum--;
+            if (result.shard.batch.size() >= this.batchSize)
+            {
+                submit(result.shard);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup()
+    {
+        if (this.shards == null)
+        {
+            return;
+        }
+
+        for (RedisShard shard : this.shards)
+        {
+            shard.executor.shutdown();
+        }
+
+        for (RedisShard shard : this.shards)
+        {
+            try
+            {
+                shard.executor.awaitTermination(SHUTDOWN_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            shard.pool.destroy();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration()
+    {
+        if (this.tickIntervalSecs <= 0)
+        {
+            return super.getComponentConfiguration();
+        }
+
+        return TickTupleUtil.withTickInterval(super.getComponentConfiguration(),
+                this.tickIntervalSecs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer)
+    {
+        // 下流には送信しない
+    }
+
+    /**
+     * @param batchSize セットする batchSize
+     */
+    public void setBatchSize(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param tickIntervalSecs セットする tickIntervalSecs
+     */
+    public void setTickIntervalSecs(int tickIntervalSecs)
+    {
+        this.tickIntervalSecs = tickIntervalSecs;
+    }
+
+    /**
+     * @param maxPendingBatches セットする maxPendingBatches
+     */
+    public void setMaxPendingBatches(int maxPendingBatches)
+    {
+        this.maxPendingBatches = maxPendingBatches;
+    }
+
+    /**
+     * @param valueEncoder セットする valueEncoder
+     */
+    public void setValueEncoder(ValueEncoder valueEncoder)
+    {
+        this.valueEncoder = valueEncoder;
+    }
+
+    /**
+     * @param ttlSecs セットする ttlSecs
+     */
+    public void setTtlSecs(int ttlSecs)
+    {
+        this.ttlSecs = ttlSecs;
+    }
+
+    /**
+     * 書き込み先シャードごとの状態。<br>
+     * batch、pendingNumはBoltのスレッドからのみ参照、更新する。
+     */
+    protected static class RedisShard
+    {
+        /** 書き込み先Redisのホスト */
+        final String          redisHost;
+
+        /** Redisにアクセスするプールオブジェクト */
+        final JedisPool       pool;
+
+        /** 書き込みスレッド */
+        final ExecutorService executor;
+
+        /** 書き込み待ちのメッセージを蓄積するバッチ */
+        RedisWriteBatch       batch;
+
+        /** 書き込み中のパイプライン数 */
+        int                   pendingNum;
+
+        /**
+         * パラメータを指定してインスタンスを生成する。
+         *
+         * @param redisHost 書き込み先Redisのホスト
+         * @param pool Redisにアクセスするプールオブジェクト
+         * @param executor 書き込みスレッド
+         * @param batch 書き込み待ちのメッセージを蓄積するバッチ
+         */
+        RedisShard(String redisHost, JedisPool pool, ExecutorService executor,
+                RedisWriteBatch batch)
+        {
+            this.redisHost = redisHost;
+            this.pool = pool;
+            this.executor = executor;
+            this.batch = batch;
+        }
+    }
+
+    /**
+     * 書き込みスレッドからBoltのスレッドに返却する書き込み結果。
+     */
+    protected static class WriteResult
+    {
+        /** 書き込み先シャード */
+        final RedisShard      shard;
+
+        /** 書き込んだバッチ */
+        final RedisWriteBatch batch;
+
+        /** 蓄積順の書き込み結果(成功の場合true) */
+        final boolean[]       results;
+
+        /**
+         * パラメータを指定してインスタンスを生成する。
+         *
+         * @param shard 書き込み先シャード
+         * @param batch 書き込んだバッチ
+         * @param results 蓄積順の書き込み結果
+         */
+        WriteResult(RedisShard shard, RedisWriteBatch batch, boolean[] results)
+        {
+            this.shard = shard;
+            this.batch = batch;
+            this.results = results;
+        }
+    }
+}
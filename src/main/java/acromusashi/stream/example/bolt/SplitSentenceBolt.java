@@ -12,9 +12,16 @@
 */
 package acromusashi.stream.example.bolt;
 
-import org.apache.commons.lang.StringUtils;
+import java.util.Map;
 
 import acromusashi.stream.bolt.BaseConfigurationBolt;
+import acromusashi.stream.example.counter.StringLongCounterMap.EntryVisitor;
+import acromusashi.stream.example.counter.WordDeltaBuffer;
+import acromusashi.stream.example.tokenizer.Tokenizer;
+import acromusashi.stream.example.tokenizer.Tokenizer.TokenHandler;
+import acromusashi.stream.example.tokenizer.WhitespaceTokenizer;
+import backtype.storm.task.OutputCollector;
+import backtype.storm.task.TopologyContext;
 import backtype.storm.topology.OutputFieldsDeclarer;
 import backtype.storm.tuple.Fields;
 import backtype.storm.tuple.Tuple;
@@ -27,13 +34,34 @@ import backtype.storm.tuple.Values;
 * <li>Boltの処理 受信メッセージに含まれる文章を単語単位に分割する</li>
 * <li>アウトプット 単語単位に分割されたTuple「How」「are」「you」</li>
 * </ul>
+* 集約単語数を設定した場合、単語ごとの出現回数をBolt内で集約し、「単語、出現回数」のTupleを送信する。<br>
+* 集約した出現回数は保持する単語数が集約単語数に達した時点、またはTickTuple受信時に送信する。<br>
+* 単語の分割方式はTokenizerを設定することで変更できる。(デフォルトは空白文字で分割するWhitespaceTokenizer)
 *
 * @author kimura
 */
 public class SplitSentenceBolt extends BaseConfigurationBolt
 {
     /** serialVersionUID */
-    private static final long serialVersionUID = -445961598496006743L;
+    private static final long           serialVersionUID = -445961598496006743L;
+
+    /** 集約単語数。0以下の場合は集約を行わず単語単位に送信する */
+    protected int                       combineSize;
+
+    /** 集約した出現回数を送信するTickTuple送信間隔(秒)。0以下の場合はTickTupleを使用しない */
+    protected int                       tickIntervalSecs;
+
+    /** 単語ごとの出現回数を集約するバッファ */
+    protected transient WordDeltaBuffer buffer;
+
+    /** 文章を単語単位に分割するTokenizer */
+    protected Tokenizer                 tokenizer        = new WhitespaceTokenizer();
+
+    /** 分割した単語を受け取るHandler(受信ごとの生成を避けるため初期化時に生成する) */
+    protected transient TokenHandler    handler;
+
+    /** 集約中に保持する単語数が集約単語数に達したか */
+    protected transient boolean         isFull;
 
     /**
      * パラメータを指定せずにインスタンスを生成する。
@@ -41,21 +69,98 @@ public class SplitSentenceBolt extends BaseConfigurationBolt
     public SplitSentenceBolt()
     {}
 
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void prepare(Map stormConf, TopologyContext context, OutputCollector collector)
+    {
+        super.prepare(stormConf, context, collector);
+
+        if (this.combineSize > 0)
+        {
+            this.buffer = new WordDeltaBuffer(this.combineSize);
+            this.handler = new TokenHandler() {
+                @Override
+                public void onToken(String token)
+                {
+                    if (SplitSentenceBolt.this.buffer.add(token, 1L) == true)
+                    {
+                        SplitSentenceBolt.this.isFull = true;
+                    }
+                }
+            };
+        }
+        else
+        {
+            this.handler = new TokenHandler() {
+                @Override
+                public void onToken(String token)
+                {
+                    getCollector().emit(new Values(token));
+                }
+            };
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void execute(Tuple input)
     {
+        // TickTupleの場合は集約した出現回数を送信する
+        if (TickTupleUtil.isTickTuple(input) == true)
+        {
+            flush();
+            return;
+        }
+
         // 文章を単語単位に分割する
+        // 集約を行わない場合は単語単位にTupleに分割し、次のBoltに送信する
         String sentence = input.getStringByField("message");
-        String[] words = StringUtils.split(sentence);
+        this.tokenizer.tokenize(sentence, this.handler);
+
+        if (this.isFull == true)
+        {
+            this.isFull = false;
+            flush();
+        }
+    }
+
+    /**
+     * 集約した単語ごとの出現回数を次のBoltに送信する。
+     */
+    protected void flush()
+    {
+        if (this.buffer == null)
+        {
+            return;
+        }
+
+        this.buffer.flush(new EntryVisitor() {
+            @Override
+            public void visit(String key, long value)
+            {
+                getCollector().emit(new Values(key, value));
+            }
+        });
+    }
 
-        // 単語単位にTupleに分割し、次のBoltに送信する
-        for (String targetWord : words)
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration()
+    {
+        if (this.combineSize <= 0 || this.tickIntervalSecs <= 0)
         {
-            getCollector().emit(new Values(targetWord.toLowerCase()));
+            return super.getComponentConfiguration();
         }
+
+        return TickTupleUtil.withTickInterval(super.getComponentConfiguration(),
+                this.tickIntervalSecs);
     }
 
     /**
@@ -64,6 +169,37 @@ public class SplitSentenceBolt extends BaseConfigurationBolt
     @Override
     public void declareOutputFields(OutputFieldsDeclarer declarer)
     {
-        declarer.declare(new Fields("word"));
+        if (this.combineSize > 0)
+        {
+            declarer.declare(new Fields("word", "count"));
+        }
+        else
+        {
+            declarer.declare(new Fields("word"));
+        }
+    }
+
+    /**
+     * @param combineSize セットする combineSize
+     */
+    public void setCombineSize(int combineSize)
+    {
+        this.combineSize = combineSize;
+    }
+
+    /**
+     * @param tokenizer セットする tokenizer
+     */
+    public void setTokenizer(Tokenizer tokenizer)
+    {
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * @param tickIntervalSecs セットする tickIntervalSecs
+     */
+    public void setTickIntervalSecs(int tickIntervalSecs)
+    {
+        this.tickIntervalSecs = tickIntervalSecs;
     }
 }
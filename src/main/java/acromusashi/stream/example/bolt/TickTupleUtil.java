@@ -0,0 +1,66 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.bolt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import backtype.storm.Config;
+import backtype.storm.Constants;
+import backtype.storm.tuple.Tuple;
+
+/**
+ * Stormが一定間隔で送信するTickTupleを扱うユーティリティクラス。
+ *
+ * @author kimura
+ */
+public final class TickTupleUtil
+{
+    /**
+     * インスタンス化を防止するためのコンストラクタ。
+     */
+    private TickTupleUtil()
+    {}
+
+    /**
+     * TupleがTickTupleかを判定する。
+     *
+     * @param tuple 判定対象Tuple
+     * @return TickTupleの場合true
+     */
+    public static boolean isTickTuple(Tuple tuple)
+    {
+        return Constants.SYSTEM_COMPONENT_ID.equals(tuple.getSourceComponent())
+                && Constants.SYSTEM_TICK_STREAM_ID.equals(tuple.getSourceStreamId());
+    }
+
+    /**
+     * コンポーネント設定にTickTuple送信間隔を追加した設定を生成する。
+     *
+     * @param baseConf 元となるコンポーネント設定(nullの場合は空の設定として扱う)
+     * @param tickIntervalSecs TickTuple送信間隔(秒)
+     * @return TickTuple送信間隔を追加したコンポーネント設定
+     */
+    public static Map<String, Object> withTickInterval(Map<String, Object> baseConf,
+            int tickIntervalSecs)
+    {
+        Map<String, Object> conf = new HashMap<String, Object>();
+        if (baseConf != null)
+        {
+            conf.putAll(baseConf);
+        }
+
+        conf.put(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS, tickIntervalSecs);
+        return conf;
+    }
+}
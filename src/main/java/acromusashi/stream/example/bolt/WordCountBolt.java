@@ -14,44 +14,64 @@ package acromusashi.stream.example.bolt;
 
 import java.text.MessageFormat;
 import java.util.Map;
-import java.util.TreeMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import acromusashi.stream.bolt.BaseConfigurationBolt;
+import acromusashi.stream.example.counter.ExactWordCounter;
+import acromusashi.stream.example.counter.StringLongCounterMap.EntryVisitor;
+import acromusashi.stream.example.counter.WordCounter;
+import acromusashi.stream.example.counter.WordDeltaBuffer;
+import backtype.storm.task.OutputCollector;
+import backtype.storm.task.TopologyContext;
 import backtype.storm.topology.OutputFieldsDeclarer;
+import backtype.storm.tuple.Fields;
 import backtype.storm.tuple.Tuple;
+import backtype.storm.tuple.Values;
 
 /**
  * 受信した単語の出現回数をカウントするBolt
  * <ul>
- * <li>インプット 単語 例)「How」</li>
+ * <li>インプット 単語 例)「How」、または単語と出現回数 例)「How 3」</li>
  * <li>Boltの処理 単語の出現回数をカウントする</li>
  * <li>アウトプット 単語と出現回数 例）「How 5」</li>
  * </ul>
+ * 集計方式は{@link #setCounter(WordCounter)}で切り替える。(デフォルトは全単語の厳密集計)<br>
+ * TickTuple送信間隔を設定した場合、TickTuple受信ごとにカウンタに時間経過を通知する。<br>
+ * 部分集計単語数を設定した場合は部分集計Boltとして動作し、単語ごとの出現回数の差分を「単語、出現回数」として下流に送信する。<br>
+ * PartialKeyGroupingにより同一単語が複数タスクに分散される場合に、下流のWordCountBoltで結果を統合するために使用する。
  *
  * @author kimura
  */
 public class WordCountBolt extends BaseConfigurationBolt
 {
     /** serialVersionUID */
-    private static final long      serialVersionUID = 9080948772140456741L;
+    private static final long           serialVersionUID = 9080948772140456741L;
 
     /** logger */
-    private static final Logger    logger           = LoggerFactory.getLogger(WordCountBolt.class);
+    private static final Logger         logger           = LoggerFactory.getLogger(WordCountBolt.class);
 
     /** 単語出現回数カウンタ */
-    protected Map<String, Integer> counts           = new TreeMap<String, Integer>();
+    protected WordCounter               counter          = new ExactWordCounter();
 
     /** 結果出力インターバルデフォルト値 */
-    private static final long      DEFAULT_INTERVAL = 100;
+    private static final long           DEFAULT_INTERVAL = 100;
 
     /** 結果出力インターバル */
-    protected long                 interval         = DEFAULT_INTERVAL;
+    protected long                      interval         = DEFAULT_INTERVAL;
 
     /** 受信メッセージ数 */
-    protected long                 receiveCount;
+    protected long                      receiveCount;
+
+    /** TickTuple送信間隔(秒)。0以下の場合はTickTupleを使用しない */
+    protected int                       tickIntervalSecs;
+
+    /** 部分集計単語数。0以下の場合は部分集計を行わず自Boltで集計する */
+    protected int                       partialSize;
+
+    /** 部分集計を行う単語ごとの出現回数の差分 */
+    protected transient WordDeltaBuffer partialBuffer;
 
     /**
      * パラメータを指定せずインスタンスを生成する。
@@ -59,43 +79,125 @@ public class WordCountBolt extends BaseConfigurationBolt
     public WordCountBolt()
     {}
 
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void prepare(Map stormConf, TopologyContext context, OutputCollector collector)
+    {
+        super.prepare(stormConf, context, collector);
+
+        if (this.partialSize > 0)
+        {
+            this.partialBuffer = new WordDeltaBuffer(this.partialSize);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void execute(Tuple input)
     {
-        // 単語出現回数カウンタからカウンタを取得
-        String word = input.getStringByField("word");
-        Integer count = this.counts.get(word);
+        // TickTupleの場合はカウンタに時間経過を通知する
+        if (TickTupleUtil.isTickTuple(input) == true)
+        {
+            if (this.partialBuffer != null)
+            {
+                flushPartial();
+            }
+            else
+            {
+                this.counter.onTick();
+            }
+
+            return;
+        }
 
-        // カウンタ値が存在しない場合は値を0で初期化
-        if (count == null)
+        // 単語出現回数カウンタに加算する(上流で集約済みの場合は集約した出現回数を加算する)
+        String word = input.getStringByField("word");
+        long count = 1L;
+        if (input.contains("count") == true)
         {
-            count = 0;
+            count = input.getLongByField("count");
         }
 
-        count++;
+        // 部分集計を行う場合は差分を保持し、部分集計単語数に達した時点で下流に送信する
+        if (this.partialBuffer != null)
+        {
+            if (this.partialBuffer.add(word, count) == true)
+            {
+                flushPartial();
+            }
 
-        // 結果を単語出現回数カウンタに反映
-        this.counts.put(word, count);
+            return;
+        }
+
+        this.counter.add(word, count);
 
         this.receiveCount++;
 
-        if (this.receiveCount % this.interval == 0)
+        // 出力用の集計結果はログ出力時にのみ生成する
+        if (this.receiveCount % this.interval == 0 && logger.isInfoEnabled() == true)
         {
             String logFormat = "WordCount Result. : CountResult={0}";
-            logger.info(MessageFormat.format(logFormat, this.counts.toString()));
+            logger.info(MessageFormat.format(logFormat, this.counter.report()));
         }
     }
 
+    /**
+     * 部分集計した単語ごとの出現回数の差分を下流に送信する。
+     */
+    protected void flushPartial()
+    {
+        this.partialBuffer.flush(new EntryVisitor() {
+            @Override
+            public void visit(String key, long value)
+            {
+                getCollector().emit(new Values(key, value));
+            }
+        });
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public void declareOutputFields(OutputFieldsDeclarer arg0)
+    public Map<String, Object> getComponentConfiguration()
     {
-        // 下流Boltは存在しないため設定しない。
+        if (this.tickIntervalSecs <= 0)
+        {
+            return super.getComponentConfiguration();
+        }
+
+        return TickTupleUtil.withTickInterval(super.getComponentConfiguration(),
+                this.tickIntervalSecs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer)
+    {
+        // 部分集計を行う場合のみ下流に送信する。それ以外は下流Boltは存在しないため設定しない。
+        if (this.partialSize > 0)
+        {
+            declarer.declare(new Fields("word", "count"));
+        }
+    }
+
+    /**
+     * 単語の出現回数を取得する。<br>
+     * 近似集計を行うカウンタを使用している場合は推定値を返す。
+     *
+     * @param word 単語
+     * @return 出現回数
+     */
+    public long getCount(String word)
+    {
+        return this.counter.getCount(word);
     }
 
     /**
@@ -105,4 +207,28 @@ public class WordCountBolt extends BaseConfigurationBolt
     {
         this.interval = interval;
     }
+
+    /**
+     * @param tickIntervalSecs セットする tickIntervalSecs
+     */
+    public void setTickIntervalSecs(int tickIntervalSecs)
+    {
+        this.tickIntervalSecs = tickIntervalSecs;
+    }
+
+    /**
+     * @param partialSize セットする partialSize
+     */
+    public void setPartialSize(int partialSize)
+    {
+        this.partialSize = partialSize;
+    }
+
+    /**
+     * @param counter セットする counter
+     */
+    public void setCounter(WordCounter counter)
+    {
+        this.counter = counter;
+    }
 }
@@ -0,0 +1,181 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 保持件数の上限と有効期限を持つLRUキャッシュ。<br>
+ * 保持件数が上限を超えた場合は最も長く参照されていないエントリを削除し、
+ * 有効期限を経過したエントリは参照時に削除する。<br>
+ * 時刻は呼び出し元から指定するため、同一の時刻で複数のエントリを参照する場合に時刻の取得を1回にまとめられる。<br>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ *
+ * @param <K> キーの型
+ * @param <V> 値の型
+ */
+public class ExpiringLruCache<K, V>
+{
+    /** エントリ */
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    /** 有効期限(ミリ秒) */
+    private final long                            ttlMillis;
+
+    /** 参照時にエントリが存在した回数 */
+    private long                                  hitCount;
+
+    /** 参照時にエントリが存在しなかった、または有効期限を経過していた回数 */
+    private long                                  missCount;
+
+    /**
+     * 保持件数上限、有効期限を指定してインスタンスを生成する。
+     *
+     * @param maxSize 保持件数上限
+     * @param ttlMillis 有効期限(ミリ秒)。0以下の場合は有効期限を設定しない
+     */
+    public ExpiringLruCache(final int maxSize, long ttlMillis)
+    {
+        if (maxSize <= 0)
+        {
+            throw new IllegalArgumentException("maxSize must be positive. : maxSize=" + maxSize);
+        }
+
+        this.ttlMillis = ttlMillis;
+
+        // アクセス順に並べ、上限を超えた場合は最も長く参照されていないエントリを削除する
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest)
+            {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * キーに対応するエントリを取得する。
+     *
+     * @param key キー
+     * @param now 現在時刻(ミリ秒)
+     * @return エントリ。存在しない、または有効期限を経過している場合はnull
+     */
+    public CacheEntry<V> get(K key, long now)
+    {
+        CacheEntry<V> entry = this.entries.get(key);
+        if (entry == null)
+        {
+            this.missCount++;
+            return null;
+        }
+
+        if (this.ttlMillis > 0 && now >= entry.expireAt)
+        {
+            this.entries.remove(key);
+            this.missCount++;
+            return null;
+        }
+
+        this.hitCount++;
+        return entry;
+    }
+
+    /**
+     * キーに対応する値を格納する。値がnullの場合も「値が存在しない」ことを格納する。
+     *
+     * @param key キー
+     * @param value 値
+     * @param now 現在時刻(ミリ秒)
+     */
+    public void put(K key, V value, long now)
+    {
+        long expireAt = Long.MAX_VALUE;
+        if (this.ttlMillis > 0)
+        {
+            expireAt = now + this.ttlMillis;
+        }
+
+        this.entries.put(key, new CacheEntry<V>(value, expireAt));
+    }
+
+    /**
+     * 保持件数を取得する。
+     *
+     * @return 保持件数
+     */
+    public int size()
+    {
+        return this.entries.size();
+    }
+
+    /**
+     * 参照時にエントリが存在した回数を取得する。
+     *
+     * @return 参照時にエントリが存在した回数
+     */
+    public long getHitCount()
+    {
+        return this.hitCount;
+    }
+
+    /**
+     * 参照時にエントリが存在しなかった、または有効期限を経過していた回数を取得する。
+     *
+     * @return 参照時にエントリが存在しなかった回数
+     */
+    public long getMissCount()
+    {
+        return this.missCount;
+    }
+
+    /**
+     * キャッシュのエントリ。値が存在しないことを格納するため、値はnullの場合がある。
+     *
+     * @param <V> 値の型
+     */
+    public static class CacheEntry<V>
+    {
+        /** 値 */
+        private final V    value;
+
+        /** 有効期限(ミリ秒) */
+        private final long expireAt;
+
+        /**
+         * 値、有効期限を指定してインスタンスを生成する。
+         *
+         * @param value 値
+         * @param expireAt 有効期限(ミリ秒)
+         */
+        CacheEntry(V value, long expireAt)
+        {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        /**
+         * 値を取得する。
+         *
+         * @return 値。値が存在しないことを格納した場合はnull
+         */
+        public V getValue()
+        {
+            return this.value;
+        }
+    }
+}
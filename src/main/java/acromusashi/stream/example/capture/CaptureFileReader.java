@@ -0,0 +1,244 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.capture;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * CaptureFileWriterで記録した記録ファイルを、メモリマップにより先頭から順にレコード単位で読み込むクラス。<br>
+ * 記録ファイルは指定サイズのウィンドウ単位でメモリマップし、読み込み位置がウィンドウを超えた時点で次のウィンドウをマップする。
+ * 読み込みはOSのページキャッシュから直接行うため、ストリームによる読み込みと異なりバッファへのコピーが発生しない。<br>
+ * 読み込み対象はオープン時点のファイルサイズまでとし、末尾の書き込み途中のレコードは読み込まない。<br>
+ * 読み込み位置(getOffset)をコンストラクタに指定することで、中断した位置から読み込みを再開できる。<br>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ */
+public class CaptureFileReader implements Closeable
+{
+    /** メモリマップするウィンドウサイズデフォルト値(バイト) */
+    public static final int        DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /** 記録ファイル */
+    private final RandomAccessFile file;
+
+    /** 記録ファイルのチャネル */
+    private final FileChannel      channel;
+
+    /** オープン時点のファイルサイズ */
+    private final long             fileSize;
+
+    /** メモリマップするウィンドウサイズ */
+    private final int              windowSize;
+
+    /** メモリマップしたウィンドウ */
+    private MappedByteBuffer       window;
+
+    /** ウィンドウ先頭のファイル内位置 */
+    private long                   windowStart;
+
+    /** 次のレコードのファイル内位置 */
+    private long                   offset;
+
+    /** 現在のレコードのファイル内位置 */
+    private long                   recordOffset;
+
+    /** 現在のレコードの受信時刻 */
+    private long                   timestamp;
+
+    /** 現在のレコード本体のファイル内位置 */
+    private long                   payloadOffset;
+
+    /** 現在のレコード本体のバイト数 */
+    private int                    payloadLength;
+
+    /**
+     * 記録ファイルと読み込み開始位置を指定してインスタンスを生成する。
+     *
+     * @param file 記録ファイル
+     * @param offset 読み込み開始位置(レコードの先頭であること)
+     * @throws IOException 記録ファイルのオープンに失敗した場合
+     */
+    public CaptureFileReader(File file, long offset) throws IOException
+    {
+        this(file, offset, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * 記録ファイル、読み込み開始位置、ウィンドウサイズを指定してインスタンスを生成する。
+     *
+     * @param file 記録ファイル
+     * @param offset 読み込み開始位置(レコードの先頭であること)
+     * @param windowSize メモリマップするウィンドウサイズ(バイト)
+     * @throws IOException 記録ファイルのオープンに失敗した場合
+     */
+    public CaptureFileReader(File file, long offset, int windowSize) throws IOException
+    {
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.fileSize = this.channel.size();
+        this.windowSize = windowSize;
+        this.offset = offset;
+    }
+
+    /**
+     * 次のレコードを読み込む。<br>
+     * 読み込んだレコードの受信時刻、本体はgetTimestamp、getPayloadで取得する。
+     *
+     * @return 次のレコードが存在する場合true、ファイル終端または書き込み途中のレコードに達した場合false
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public boolean next() throws IOException
+    {
+        if (this.offset + CaptureFileWriter.RECORD_HEADER_SIZE > this.fileSize)
+        {
+            return false;
+        }
+
+        int position = map(this.offset, CaptureFileWriter.RECORD_HEADER_SIZE);
+        int length = this.window.getInt(position);
+        long recordEnd = this.offset + CaptureFileWriter.RECORD_HEADER_SIZE + length;
+        if (length < 0 || recordEnd > this.fileSize)
+        {
+            return false;
+        }
+
+        this.recordOffset = this.offset;
+        this.timestamp = this.window.getLong(position + 4);
+        this.payloadOffset = this.offset + CaptureFileWriter.RECORD_HEADER_SIZE;
+        this.payloadLength = length;
+        this.offset = recordEnd;
+        return true;
+    }
+
+    /**
+     * 現在のレコードの受信時刻を取得する。
+     *
+     * @return 受信時刻(エポックミリ秒)
+     */
+    public long getTimestamp()
+    {
+        return this.timestamp;
+    }
+
+    /**
+     * 現在のレコード本体を取得する。<br>
+     * レコード本体はnextでは読み込まず、本メソッドの呼び出し時にメモリマップからコピーする。
+     *
+     * @return レコード本体
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public byte[] getPayload() throws IOException
+    {
+        byte[] payload = new byte[this.payloadLength];
+        int position = map(this.payloadOffset, this.payloadLength);
+        ByteBuffer view = this.window.duplicate();
+        view.position(position);
+        view.get(payload);
+        return payload;
+    }
+
+    /**
+     * 次のレコードのファイル内位置を取得する。読み込みを再開する場合はこの値をコンストラクタに指定する。
+     *
+     * @return 次のレコードのファイル内位置
+     */
+    public long getOffset()
+    {
+        return this.offset;
+    }
+
+    /**
+     * 現在のレコードのファイル内位置を取得する。現在のレコードから読み込みを再開する場合はこの値をコンストラクタに指定する。
+     *
+     * @return 現在のレコードのファイル内位置
+     */
+    public long getRecordOffset()
+    {
+        return this.recordOffset;
+    }
+
+    /**
+     * オープン時点のファイルサイズを取得する。
+     *
+     * @return ファイルサイズ
+     */
+    public long getFileSize()
+    {
+        return this.fileSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException
+    {
+        // MappedByteBufferは明示的に解放できないため、参照を外してGCによる解放に委ねる
+        this.window = null;
+        this.file.close();
+    }
+
+    /**
+     * 指定範囲がウィンドウに含まれていない場合、指定位置を先頭としてウィンドウをマップし直す。
+     *
+     * @param start 範囲の先頭のファイル内位置
+     * @param length 範囲のバイト数
+     * @return 範囲の先頭のウィンドウ内位置
+     * @throws IOException メモリマップに失敗した場合
+     */
+    private int map(long start, int length) throws IOException
+    {
+        if (this.window == null || start < this.windowStart
+                || start + length > this.windowStart + this.window.limit())
+        {
+            long size = Math.min(Math.max(this.windowSize, length), this.fileSize - start);
+            this.window = this.channel.map(MapMode.READ_ONLY, start, size);
+            this.windowStart = start;
+        }
+
+        return (int) (start - this.windowStart);
+    }
+
+    /**
+     * 記録ファイルの先頭から完全なレコードが格納されている範囲のバイト数を取得する。
+     *
+     * @param file 記録ファイル
+     * @return 完全なレコードが格納されている範囲のバイト数
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public static long getValidLength(File file) throws IOException
+    {
+        CaptureFileReader reader = new CaptureFileReader(file, 0L);
+        try
+        {
+            while (reader.next() == true)
+            {
+                // レコード本体は読み込まずに次のレコードに進む
+            }
+
+            return reader.getOffset();
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.capture;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * 受信したレコードを記録ファイルに追記するクラス。<br>
+ * 記録ファイルはレコードを下記の形式で連続して格納する追記専用のファイルであり、CaptureFileReaderで読み込む。
+ * <ul>
+ * <li>レコード長(int、4バイト)</li>
+ * <li>受信時刻(long、8バイト、エポックミリ秒)</li>
+ * <li>レコード本体(レコード長分のバイト列)</li>
+ * </ul>
+ * 書き込みはバッファリングして行うため、flushを呼び出すまでファイルに反映されない場合がある。<br>
+ * 既存の記録ファイルを開いた場合は末尾に追記する。プロセスの異常終了等で末尾に書き込み途中のレコードが残っている場合は、
+ * 追記前に最後の完全なレコードの終端まで切り詰める。<br>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ */
+public class CaptureFileWriter implements Closeable
+{
+    /** 記録ファイルの拡張子 */
+    public static final String     FILE_SUFFIX        = ".cap";
+
+    /** レコードヘッダ(レコード長、受信時刻)のバイト数 */
+    public static final int        RECORD_HEADER_SIZE = 12;
+
+    /** 書き込み先ストリーム */
+    private final DataOutputStream output;
+
+    /** 書き込み済みのバイト数(次のレコードの書き込み位置) */
+    private long                   position;
+
+    /**
+     * 記録ファイルと書き込みバッファサイズを指定してインスタンスを生成する。
+     *
+     * @param file 記録ファイル
+     * @param bufferSize 書き込みバッファサイズ(バイト)
+     * @throws IOException 記録ファイルのオープンに失敗した場合
+     */
+    public CaptureFileWriter(File file, int bufferSize) throws IOException
+    {
+        long validLength = 0L;
+        if (file.exists() == true)
+        {
+            validLength = CaptureFileReader.getValidLength(file);
+        }
+
+        FileOutputStream stream = new FileOutputStream(file, true);
+        try
+        {
+            // 書き込み途中のレコードを切り詰める
+            if (stream.getChannel().size() > validLength)
+            {
+                stream.getChannel().truncate(validLength);
+            }
+        }
+        catch (IOException ex)
+        {
+            stream.close();
+            throw ex;
+        }
+
+        this.output = new DataOutputStream(new BufferedOutputStream(stream, bufferSize));
+        this.position = validLength;
+    }
+
+    /**
+     * レコードを追記する。
+     *
+     * @param timestamp 受信時刻(エポックミリ秒)
+     * @param payload レコード本体
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void write(long timestamp, byte[] payload) throws IOException
+    {
+        this.output.writeInt(payload.length);
+        this.output.writeLong(timestamp);
+        this.output.write(payload);
+        this.position += RECORD_HEADER_SIZE + payload.length;
+    }
+
+    /**
+     * バッファリングしたレコードをファイルに書き込む。
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void flush() throws IOException
+    {
+        this.output.flush();
+    }
+
+    /**
+     * 書き込み済みのバイト数を取得する。
+     *
+     * @return 書き込み済みのバイト数
+     */
+    public long getPosition()
+    {
+        return this.position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.output.close();
+    }
+}
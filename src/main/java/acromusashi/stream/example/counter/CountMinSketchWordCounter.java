@@ -0,0 +1,277 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.counter;
+
+import java.text.MessageFormat;
+
+/**
+ * Count-Min Sketchを用いて単語の出現回数を近似集計するカウンタ。<br>
+ * 幅(width) x 深さ(depth)の固定サイズのカウンタ配列のみを保持するため、単語の種類数によらずメモリ使用量が一定となる。<br>
+ * 出現回数の推定値は実際の出現回数以上となり、確率「1 - e^(-depth)」で誤差は「総出現回数 x e / width」以下となる。<br>
+ * Conservative Updateを有効にした場合、加算時に推定値を超えるカウンタのみ更新するため過大評価を抑えられる。(加算値は正の値であること)<br>
+ * 同じ幅、深さ、シードで生成したカウンタ同士は{@link #merge(CountMinSketchWordCounter)}で統合できる。<br>
+ * 単語の一覧は保持しないため、結果出力時には集計の概要のみを出力する。
+ *
+ * @author kimura
+ */
+public class CountMinSketchWordCounter implements WordCounter
+{
+    /** serialVersionUID */
+    private static final long serialVersionUID = -8105346712294063187L;
+
+    /** 幅デフォルト値 */
+    public static final int   DEFAULT_WIDTH    = 65536;
+
+    /** 深さデフォルト値 */
+    public static final int   DEFAULT_DEPTH    = 4;
+
+    /** シードデフォルト値 */
+    public static final int   DEFAULT_SEED     = 0x5BD1E995;
+
+    /** FNV-1aハッシュのオフセット基底 */
+    private static final int  FNV_OFFSET       = 0x811C9DC5;
+
+    /** FNV-1aハッシュの素数 */
+    private static final int  FNV_PRIME        = 0x01000193;
+
+    /** 幅 */
+    private final int         width;
+
+    /** 深さ */
+    private final int         depth;
+
+    /** ハッシュ算出用のシード */
+    private final int         seed;
+
+    /** Conservative Updateを行うか */
+    private final boolean     conservative;
+
+    /** カウンタ配列(depth行 x width列を1次元で保持) */
+    private final long[]      table;
+
+    /** 総出現回数 */
+    private long              totalCount;
+
+    /**
+     * デフォルトの幅、深さ、シードでインスタンスを生成する。
+     */
+    public CountMinSketchWordCounter()
+    {
+        this(DEFAULT_WIDTH, DEFAULT_DEPTH, false);
+    }
+
+    /**
+     * 幅、深さ、Conservative Update有無を指定してインスタンスを生成する。
+     *
+     * @param width 幅
+     * @param depth 深さ
+     * @param conservative Conservative Updateを行う場合true
+     */
+    public CountMinSketchWordCounter(int width, int depth, boolean conservative)
+    {
+        this(width, depth, DEFAULT_SEED, conservative);
+    }
+
+    /**
+     * 幅、深さ、シード、Conservative Update有無を指定してインスタンスを生成する。
+     *
+     * @param width 幅
+     * @param depth 深さ
+     * @param seed ハッシュ算出用のシード(統合するカウンタ間で同一の値を指定すること)
+     * @param conservative Conservative Updateを行う場合true
+     */
+    public CountMinSketchWordCounter(int width, int depth, int seed, boolean conservative)
+    {
+        if (width <= 0 || depth <= 0)
+        {
+            String messageFormat = "Width and depth must be positive. : Width={0}, Depth={1}";
+            throw new IllegalArgumentException(MessageFormat.format(messageFormat, width, depth));
+        }
+
+        this.width = width;
+        this.depth = depth;
+        this.seed = seed;
+        this.conservative = conservative;
+        this.table = new long[width * depth];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(String word, long count)
+    {
+        int hash1 = primaryHash(word);
+        int hash2 = secondaryHash(word);
+
+        this.totalCount += count;
+
+        if (this.conservative == false)
+        {
+            for (int row = 0; row < this.depth; row++)
+            {
+                this.table[index(row, hash1, hash2)] += count;
+            }
+
+            return;
+        }
+
+        // Conservative Update : 推定値+加算値を下回るカウンタのみ引き上げる
+        long estimated = estimate(hash1, hash2) + count;
+        for (int row = 0; row < this.depth; row++)
+        {
+            int index = index(row, hash1, hash2);
+            if (this.table[index] < estimated)
+            {
+                this.table[index] = estimated;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * 推定値は実際の出現回数以上の値となる。
+     */
+    @Override
+    public long getCount(String word)
+    {
+        return estimate(primaryHash(word), secondaryHash(word));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTick()
+    {
+        // Do nothing.
+    }
+
+    /**
+     * 他のタスクで集計したカウンタの値を統合する。<br>
+     * fieldsGroupingで分散集計した結果を結合する際に使用する。
+     *
+     * @param other 統合対象のカウンタ
+     * @throws IllegalArgumentException 幅、深さ、シードのいずれかが異なる場合
+     */
+    public void merge(CountMinSketchWordCounter other)
+    {
+        if (this.width != other.width || this.depth != other.depth || this.seed != other.seed)
+        {
+            String messageFormat = "Sketch parameter is not matched. : This=[{0}x{1}, seed={2}], Other=[{3}x{4}, seed={5}]";
+            throw new IllegalArgumentException(MessageFormat.format(messageFormat, this.width,
+                    this.depth, this.seed, other.width, other.depth, other.seed));
+        }
+
+        for (int index = 0; index < this.table.length; index++)
+        {
+            this.table[index] += other.table[index];
+        }
+
+        this.totalCount += other.totalCount;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * 単語の一覧は保持しないため、幅、深さ、総出現回数、誤差上限の目安を出力する。
+     */
+    @Override
+    public String report()
+    {
+        long errorBound = (long) Math.ceil(Math.E * this.totalCount / this.width);
+        return "{width=" + this.width + ", depth=" + this.depth + ", conservative="
+                + this.conservative + ", totalCount=" + this.totalCount + ", errorBound="
+                + errorBound + "}";
+    }
+
+    /**
+     * @return totalCount
+     */
+    public long getTotalCount()
+    {
+        return this.totalCount;
+    }
+
+    /**
+     * ハッシュ値に対応する推定値(各行のカウンタの最小値)を取得する。
+     *
+     * @param hash1 1次ハッシュ値
+     * @param hash2 2次ハッシュ値
+     * @return 推定値
+     */
+    private long estimate(int hash1, int hash2)
+    {
+        long result = Long.MAX_VALUE;
+        for (int row = 0; row < this.depth; row++)
+        {
+            long value = this.table[index(row, hash1, hash2)];
+            if (value < result)
+            {
+                result = value;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 行に対応するカウンタ配列上の位置を算出する。<br>
+     * 2つのハッシュ値の線形結合で各行のハッシュ関数を代替する。
+     *
+     * @param row 行
+     * @param hash1 1次ハッシュ値
+     * @param hash2 2次ハッシュ値
+     * @return カウンタ配列上の位置
+     */
+    private int index(int row, int hash1, int hash2)
+    {
+        int combined = (hash1 + row * hash2) & Integer.MAX_VALUE;
+        return row * this.width + combined % this.width;
+    }
+
+    /**
+     * 1次ハッシュ値を算出する。(String#hashCodeをシードと共に攪拌した値)
+     *
+     * @param word 単語
+     * @return 1次ハッシュ値
+     */
+    private int primaryHash(String word)
+    {
+        int hash = word.hashCode() ^ this.seed;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 2次ハッシュ値を算出する。(シード付きFNV-1a、奇数に補正)<br>
+     * String#hashCodeが衝突する単語同士でも異なる値となるよう、文字列から独立に算出する。
+     *
+     * @param word 単語
+     * @return 2次ハッシュ値
+     */
+    private int secondaryHash(String word)
+    {
+        int hash = FNV_OFFSET ^ this.seed;
+        int length = word.length();
+        for (int index = 0; index < length; index++)
+        {
+            hash ^= word.charAt(index);
+            hash *= FNV_PRIME;
+        }
+
+        return hash | 1;
+    }
+}
@@ -0,0 +1,78 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.counter;
+
+/**
+ * 全ての単語の出現回数を厳密に集計するカウンタ。<br>
+ * 結果出力時には単語の昇順でソートした全件を出力する。
+ *
+ * @author kimura
+ */
+public class ExactWordCounter implements WordCounter
+{
+    /** serialVersionUID */
+    private static final long          serialVersionUID = -6231947853184220914L;
+
+    /** 単語出現回数カウンタ */
+    private final StringLongCounterMap counts           = new StringLongCounterMap();
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public ExactWordCounter()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(String word, long count)
+    {
+        this.counts.add(word, count);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCount(String word)
+    {
+        return this.counts.get(word);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTick()
+    {
+        // Do nothing.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String report()
+    {
+        return this.counts.toSortedMap().toString();
+    }
+
+    /**
+     * @return counts
+     */
+    public StringLongCounterMap getCounts()
+    {
+        return this.counts;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.counter;
+
+import java.io.Serializable;
+
+/**
+ * 上位K件集計の結果となる単語と出現回数、誤差上限を保持するエンティティ。<br>
+ * 実際の出現回数は「count - error」以上「count」以下となる。
+ *
+ * @author kimura
+ */
+public class HeavyHitter implements Serializable
+{
+    /** serialVersionUID */
+    private static final long serialVersionUID = 2318871934519467203L;
+
+    /** 単語 */
+    private final String      word;
+
+    /** 出現回数(上限値) */
+    private final long        count;
+
+    /** 誤差上限 */
+    private final long        error;
+
+    /**
+     * 値を指定してインスタンスを生成する。
+     *
+     * @param word 単語
+     * @param count 出現回数(上限値)
+     * @param error 誤差上限
+     */
+    public HeavyHitter(String word, long count, long error)
+    {
+        this.word = word;
+        this.count = count;
+        this.error = error;
+    }
+
+    /**
+     * @return word
+     */
+    public String getWord()
+    {
+        return this.word;
+    }
+
+    /**
+     * @return count
+     */
+    public long getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * @return error
+     */
+    public long getError()
+    {
+        return this.error;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return this.word + "=" + this.count + "(error=" + this.error + ")";
+    }
+}
@@ -0,0 +1,141 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.counter;
+
+import acromusashi.stream.example.counter.StringLongCounterMap.EntryVisitor;
+
+/**
+ * 直近の一定時間(時間窓)に受信した単語の出現回数を集計するカウンタ。<br>
+ * 時間窓をN個のバケットに分割してリング状に保持し、{@link #onTick()}の呼び出しごとに最も古いバケットを破棄する。<br>
+ * 時間窓全体の合計値はバケットへの加算、破棄の都度差分で更新するため、結果出力時に全バケットを再集計することはない。<br>
+ * 合計値が0となった単語は合計値から削除するため、メモリ使用量は時間窓内に出現した単語数に比例する。
+ *
+ * @author kimura
+ */
+public class SlidingWindowWordCounter implements WordCounter
+{
+    /** serialVersionUID */
+    private static final long            serialVersionUID     = 3378120924381657219L;
+
+    /** バケット数デフォルト値 */
+    public static final int              DEFAULT_BUCKET_COUNT = 60;
+
+    /** 時間窓内の単語出現回数のバケット */
+    private final StringLongCounterMap[] buckets;
+
+    /** 時間窓全体の単語出現回数合計 */
+    private final StringLongCounterMap   totals               = new StringLongCounterMap();
+
+    /** 現在加算対象となっているバケットの位置 */
+    private int                          current;
+
+    /**
+     * デフォルトのバケット数でインスタンスを生成する。
+     */
+    public SlidingWindowWordCounter()
+    {
+        this(DEFAULT_BUCKET_COUNT);
+    }
+
+    /**
+     * バケット数を指定してインスタンスを生成する。
+     *
+     * @param bucketCount バケット数
+     */
+    public SlidingWindowWordCounter(int bucketCount)
+    {
+        if (bucketCount <= 0)
+        {
+            throw new IllegalArgumentException("BucketCount must be positive. : BucketCount="
+                    + bucketCount);
+        }
+
+        this.buckets = new StringLongCounterMap[bucketCount];
+        for (int index = 0; index < bucketCount; index++)
+        {
+            this.buckets[index] = new StringLongCounterMap();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(String word, long count)
+    {
+        this.buckets[this.current].add(word, count);
+        this.totals.add(word, count);
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * 時間窓内の出現回数を返す。
+     */
+    @Override
+    public long getCount(String word)
+    {
+        return this.totals.get(word);
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * 最も古いバケットの出現回数を合計値から減算して破棄し、破棄したバケットを新たな加算対象とする。
+     */
+    @Override
+    public void onTick()
+    {
+        this.current = (this.current + 1) % this.buckets.length;
+
+        StringLongCounterMap expired = this.buckets[this.current];
+        if (expired.isEmpty())
+        {
+            return;
+        }
+
+        expired.forEach(new EntryVisitor() {
+            @Override
+            public void visit(String key, long value)
+            {
+                if (SlidingWindowWordCounter.this.totals.add(key, -value) == 0L)
+                {
+                    SlidingWindowWordCounter.this.totals.remove(key);
+                }
+            }
+        });
+
+        // 破棄したバケットは容量を縮小した上で再利用する
+        expired.clear();
+        expired.compact();
+        this.totals.compact();
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * 時間窓内の出現回数を単語の昇順で出力する。
+     */
+    @Override
+    public String report()
+    {
+        return this.totals.toSortedMap().toString();
+    }
+
+    /**
+     * 時間窓内に出現した単語数を取得する。
+     *
+     * @return 時間窓内に出現した単語数
+     */
+    public int size()
+    {
+        return this.totals.size();
+    }
+}
@@ -0,0 +1,330 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.counter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Space-Savingアルゴリズムを用いて出現回数上位の単語を集計するカウンタ。<br>
+ * 監視対象とする単語を最大K件に制限し、監視対象外の単語を受信した場合は最小カウンタの単語と置き換える。<br>
+ * そのため単語の種類数によらずメモリ使用量と結果出力のコストが一定となる。<br>
+ * 置き換え時には置き換え前の最小カウンタ値を誤差上限として保持し、実際の出現回数は「出現回数 - 誤差上限」以上となる。
+ *
+ * @author kimura
+ */
+public class SpaceSavingWordCounter implements WordCounter
+{
+    /** serialVersionUID */
+    private static final long          serialVersionUID   = 6934175702331584921L;
+
+    /** 監視対象件数デフォルト値 */
+    public static final int            DEFAULT_CAPACITY   = 1000;
+
+    /** 結果出力件数デフォルト値 */
+    public static final int            DEFAULT_REPORTSIZE = 20;
+
+    /** 監視対象件数 */
+    private final int                  capacity;
+
+    /** 結果出力件数 */
+    private final int                  reportSize;
+
+    /** 監視対象の単語(カウンタ値の最小ヒープ) */
+    private final String[]             words;
+
+    /** 監視対象のカウンタ値 */
+    private final long[]               counts;
+
+    /** 監視対象の誤差上限 */
+    private final long[]               errors;
+
+    /** 単語とヒープ上の位置+1の対応(未監視の単語は0となる) */
+    private final StringLongCounterMap positions;
+
+    /** 監視中の単語数 */
+    private int                        size;
+
+    /**
+     * デフォルトの監視対象件数、結果出力件数でインスタンスを生成する。
+     */
+    public SpaceSavingWordCounter()
+    {
+        this(DEFAULT_CAPACITY, DEFAULT_REPORTSIZE);
+    }
+
+    /**
+     * 監視対象件数、結果出力件数を指定してインスタンスを生成する。
+     *
+     * @param capacity 監視対象件数
+     * @param reportSize 結果出力件数
+     */
+    public SpaceSavingWordCounter(int capacity, int reportSize)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Capacity must be positive. : Capacity=" + capacity);
+        }
+
+        this.capacity = capacity;
+        this.reportSize = reportSize;
+        this.words = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new StringLongCounterMap(capacity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(String word, long count)
+    {
+        int position = findPosition(word);
+        if (position >= 0)
+        {
+            // 監視中の単語の場合、カウンタを加算してヒープを再構成する
+            this.counts[position] += count;
+            siftDown(position);
+            return;
+        }
+
+        if (this.size < this.capacity)
+        {
+            // 監視対象件数に空きがある場合は誤差なしで追加する
+            int added = this.size;
+            this.size++;
+            set(added, word, count, 0L);
+            siftUp(added);
+            return;
+        }
+
+        // 監視対象件数に空きがない場合は最小カウンタの単語と置き換える
+        long minCount = this.counts[0];
+        this.positions.remove(this.words[0]);
+        set(0, word, minCount + count, minCount);
+        siftDown(0);
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * 監視対象外の単語の場合は0を返す。
+     */
+    @Override
+    public long getCount(String word)
+    {
+        int position = findPosition(word);
+        if (position < 0)
+        {
+            return 0L;
+        }
+
+        return this.counts[position];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTick()
+    {
+        // Do nothing.
+    }
+
+    /**
+     * 単語の誤差上限を取得する。
+     *
+     * @param word 単語
+     * @return 誤差上限。監視対象外の単語の場合は0
+     */
+    public long getError(String word)
+    {
+        int position = findPosition(word);
+        if (position < 0)
+        {
+            return 0L;
+        }
+
+        return this.errors[position];
+    }
+
+    /**
+     * 出現回数上位の単語を出現回数の降順で取得する。
+     *
+     * @param limit 取得件数
+     * @return 出現回数上位の単語
+     */
+    public List<HeavyHitter> top(int limit)
+    {
+        Integer[] order = new Integer[this.size];
+        for (int index = 0; index < this.size; index++)
+        {
+            order[index] = index;
+        }
+
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer left, Integer right)
+            {
+                long leftCount = SpaceSavingWordCounter.this.counts[left];
+                long rightCount = SpaceSavingWordCounter.this.counts[right];
+                if (leftCount != rightCount)
+                {
+                    return Long.compare(rightCount, leftCount);
+                }
+
+                return SpaceSavingWordCounter.this.words[left].compareTo(
+                        SpaceSavingWordCounter.this.words[right]);
+            }
+        });
+
+        int resultSize = Math.min(limit, this.size);
+        List<HeavyHitter> result = new ArrayList<HeavyHitter>(resultSize);
+        for (int index = 0; index < resultSize; index++)
+        {
+            int position = order[index];
+            result.add(new HeavyHitter(this.words[position], this.counts[position],
+                    this.errors[position]));
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * 出現回数上位の単語を結果出力件数分出力する。
+     */
+    @Override
+    public String report()
+    {
+        return top(this.reportSize).toString();
+    }
+
+    /**
+     * 監視中の単語数を取得する。
+     *
+     * @return 監視中の単語数
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * 単語のヒープ上の位置を取得する。
+     *
+     * @param word 単語
+     * @return ヒープ上の位置。監視対象外の場合は-1
+     */
+    private int findPosition(String word)
+    {
+        return (int) this.positions.get(word) - 1;
+    }
+
+    /**
+     * ヒープ上の指定位置に単語を設定する。
+     *
+     * @param position ヒープ上の位置
+     * @param word 単語
+     * @param count カウンタ値
+     * @param error 誤差上限
+     */
+    private void set(int position, String word, long count, long error)
+    {
+        this.words[position] = word;
+        this.counts[position] = count;
+        this.errors[position] = error;
+        this.positions.put(word, position + 1);
+    }
+
+    /**
+     * 指定位置の要素をヒープの根方向に移動する。
+     *
+     * @param start 開始位置
+     */
+    private void siftUp(int start)
+    {
+        int position = start;
+        while (position > 0)
+        {
+            int parent = (position - 1) >>> 1;
+            if (this.counts[parent] <= this.counts[position])
+            {
+                break;
+            }
+
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    /**
+     * 指定位置の要素をヒープの葉方向に移動する。
+     *
+     * @param start 開始位置
+     */
+    private void siftDown(int start)
+    {
+        int position = start;
+        while (true)
+        {
+            int smallest = position;
+            int left = (position << 1) + 1;
+            int right = left + 1;
+
+            if (left < this.size && this.counts[left] < this.counts[smallest])
+            {
+                smallest = left;
+            }
+
+            if (right < this.size && this.counts[right] < this.counts[smallest])
+            {
+                smallest = right;
+            }
+
+            if (smallest == position)
+            {
+                return;
+            }
+
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    /**
+     * ヒープ上の2要素を入れ替える。
+     *
+     * @param first 入れ替え対象位置1
+     * @param second 入れ替え対象位置2
+     */
+    private void swap(int first, int second)
+    {
+        String word = this.words[first];
+        long count = this.counts[first];
+        long error = this.errors[first];
+
+        this.words[first] = this.words[second];
+        this.counts[first] = this.counts[second];
+        this.errors[first] = this.errors[second];
+
+        this.words[second] = word;
+        this.counts[second] = count;
+        this.errors[second] = error;
+
+        this.positions.put(this.words[first], first + 1);
+        this.positions.put(this.words[second], second + 1);
+    }
+}
@@ -0,0 +1,447 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.counter;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 文字列をキー、long値をカウンタとして保持するオープンアドレス法のハッシュテーブル。<br>
+ * キー、ハッシュ値、カウンタ値をそれぞれ配列で保持するため、カウンタ更新時にボクシングやエントリオブジェクトの生成が発生しない。<br>
+ * 衝突時は線形探索を行い、削除時は後続エントリを詰め直すため削除マーカーは使用しない。<br>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ */
+public class StringLongCounterMap implements Serializable
+{
+    /** serialVersionUID */
+    private static final long serialVersionUID = -3720419254766283017L;
+
+    /** 初期容量デフォルト値 */
+    private static final int  DEFAULT_CAPACITY = 16;
+
+    /** 最大容量 */
+    private static final int  MAX_CAPACITY     = 1 << 30;
+
+    /** ハッシュ値攪拌用の乗数 */
+    private static final int  HASH_MULTIPLIER  = 0x9E3779B9;
+
+    /** キー配列 */
+    private String[]          keys;
+
+    /** キーのハッシュ値配列(再ハッシュ、探索時の比較に使用) */
+    private int[]             hashes;
+
+    /** カウンタ値配列 */
+    private long[]            values;
+
+    /** 保持エントリ数 */
+    private int               size;
+
+    /** 容量拡張を行うエントリ数閾値 */
+    private int               threshold;
+
+    /** インデックス算出用マスク */
+    private int               mask;
+
+    /**
+     * デフォルトの初期容量でインスタンスを生成する。
+     */
+    public StringLongCounterMap()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 想定エントリ数を指定してインスタンスを生成する。
+     *
+     * @param expectedSize 想定エントリ数
+     */
+    public StringLongCounterMap(int expectedSize)
+    {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < MAX_CAPACITY && calcThreshold(capacity) < expectedSize)
+        {
+            capacity <<= 1;
+        }
+
+        allocate(capacity);
+    }
+
+    /**
+     * キーに対応するカウンタを1加算する。
+     *
+     * @param key キー
+     * @return 加算後のカウンタ値
+     */
+    public long increment(String key)
+    {
+        return add(key, 1L);
+    }
+
+    /**
+     * キーに対応するカウンタに指定値を加算する。<br>
+     * キーが存在しない場合は0に対して加算した値でエントリを追加する。
+     *
+     * @param key キー
+     * @param delta 加算値
+     * @return 加算後のカウンタ値
+     */
+    public long add(String key, long delta)
+    {
+        int hash = hash(key);
+        int slot = findSlot(key, hash);
+        if (slot >= 0)
+        {
+            this.values[slot] += delta;
+            return this.values[slot];
+        }
+
+        insert(~slot, key, hash, delta);
+        return delta;
+    }
+
+    /**
+     * キーに対応するカウンタに値を設定する。
+     *
+     * @param key キー
+     * @param value 設定値
+     * @return 設定前のカウンタ値。キーが存在しなかった場合は0
+     */
+    public long put(String key, long value)
+    {
+        int hash = hash(key);
+        int slot = findSlot(key, hash);
+        if (slot >= 0)
+        {
+            long previous = this.values[slot];
+            this.values[slot] = value;
+            return previous;
+        }
+
+        insert(~slot, key, hash, value);
+        return 0L;
+    }
+
+    /**
+     * キーに対応するカウンタ値を取得する。
+     *
+     * @param key キー
+     * @return カウンタ値。キーが存在しない場合は0
+     */
+    public long get(String key)
+    {
+        int slot = findSlot(key, hash(key));
+        if (slot < 0)
+        {
+            return 0L;
+        }
+
+        return this.values[slot];
+    }
+
+    /**
+     * キーが存在するかを判定する。
+     *
+     * @param key キー
+     * @return 存在する場合true、存在しない場合false
+     */
+    public boolean containsKey(String key)
+    {
+        return findSlot(key, hash(key)) >= 0;
+    }
+
+    /**
+     * キーに対応するエントリを削除する。
+     *
+     * @param key キー
+     * @return 削除したエントリのカウンタ値。キーが存在しなかった場合は0
+     */
+    public long remove(String key)
+    {
+        int slot = findSlot(key, hash(key));
+        if (slot < 0)
+        {
+            return 0L;
+        }
+
+        long removed = this.values[slot];
+
+        // 削除位置以降の連続したエントリのうち、削除位置に移動可能なものを詰め直す
+        int gap = slot;
+        int next = (gap + 1) & this.mask;
+        while (this.keys[next] != null)
+        {
+            int ideal = this.hashes[next] & this.mask;
+            if (((next - ideal) & this.mask) >= ((next - gap) & this.mask))
+            {
+                this.keys[gap] = this.keys[next];
+                this.hashes[gap] = this.hashes[next];
+                this.values[gap] = this.values[next];
+                gap = next;
+            }
+
+            next = (next + 1) & this.mask;
+        }
+
+        this.keys[gap] = null;
+        this.hashes[gap] = 0;
+        this.values[gap] = 0L;
+        this.size--;
+        return removed;
+    }
+
+    /**
+     * 保持エントリ数を取得する。
+     *
+     * @return 保持エントリ数
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * エントリを保持していないかを判定する。
+     *
+     * @return 保持していない場合true
+     */
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    /**
+     * 全エントリを削除する。容量は維持する。
+     */
+    public void clear()
+    {
+        if (this.size == 0)
+        {
+            return;
+        }
+
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.hashes, 0);
+        Arrays.fill(this.values, 0L);
+        this.size = 0;
+    }
+
+    /**
+     * 保持エントリ数に対して容量が過大な場合、容量を縮小する。<br>
+     * 一時的に多数のエントリを保持した後にエントリを削除した場合のメモリ解放に使用する。
+     */
+    public void compact()
+    {
+        int capacity = this.keys.length;
+        int needed = DEFAULT_CAPACITY;
+        while (calcThreshold(needed) < this.size)
+        {
+            needed <<= 1;
+        }
+
+        // 縮小と拡張を繰り返さないよう、必要容量の4倍を超えている場合のみ縮小する
+        if (capacity > (needed << 2))
+        {
+            resize(needed << 1);
+        }
+    }
+
+    /**
+     * 全エントリを順不同で走査する。<br>
+     * 走査中にエントリの追加、削除を行った場合の動作は保証しない。
+     *
+     * @param visitor 各エントリに対して呼び出すVisitor
+     */
+    public void forEach(EntryVisitor visitor)
+    {
+        String[] keyArray = this.keys;
+        for (int index = 0; index < keyArray.length; index++)
+        {
+            if (keyArray[index] != null)
+            {
+                visitor.visit(keyArray[index], this.values[index]);
+            }
+        }
+    }
+
+    /**
+     * キーの昇順でソートしたエントリのコピーを生成する。<br>
+     * 生成時にのみボクシングが発生するため、結果出力時など必要な場合にのみ呼び出すこと。
+     *
+     * @return キー昇順のエントリのコピー
+     */
+    public SortedMap<String, Long> toSortedMap()
+    {
+        final SortedMap<String, Long> result = new TreeMap<String, Long>();
+        forEach(new EntryVisitor() {
+            @Override
+            public void visit(String key, long value)
+            {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return toSortedMap().toString();
+    }
+
+    /**
+     * キーを格納しているスロットを探索する。
+     *
+     * @param key キー
+     * @param hash キーのハッシュ値
+     * @return 格納スロット。存在しない場合は挿入すべきスロットのビット反転値(負値)
+     */
+    private int findSlot(String key, int hash)
+    {
+        int slot = hash & this.mask;
+        while (true)
+        {
+            String current = this.keys[slot];
+            if (current == null)
+            {
+                return ~slot;
+            }
+
+            if (this.hashes[slot] == hash && current.equals(key))
+            {
+                return slot;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+    }
+
+    /**
+     * 空きスロットにエントリを追加する。
+     *
+     * @param slot 空きスロット
+     * @param key キー
+     * @param hash キーのハッシュ値
+     * @param value カウンタ値
+     */
+    private void insert(int slot, String key, int hash, long value)
+    {
+        this.keys[slot] = key;
+        this.hashes[slot] = hash;
+        this.values[slot] = value;
+        this.size++;
+
+        if (this.size > this.threshold)
+        {
+            if (this.keys.length >= MAX_CAPACITY)
+            {
+                // これ以上拡張できないため、閾値を超えた状態で運用する
+                this.threshold = Integer.MAX_VALUE;
+                return;
+            }
+
+            resize(this.keys.length << 1);
+        }
+    }
+
+    /**
+     * 容量を変更し、全エントリを再配置する。
+     *
+     * @param newCapacity 変更後の容量
+     */
+    private void resize(int newCapacity)
+    {
+        String[] oldKeys = this.keys;
+        int[] oldHashes = this.hashes;
+        long[] oldValues = this.values;
+
+        allocate(newCapacity);
+
+        for (int index = 0; index < oldKeys.length; index++)
+        {
+            if (oldKeys[index] == null)
+            {
+                continue;
+            }
+
+            int slot = oldHashes[index] & this.mask;
+            while (this.keys[slot] != null)
+            {
+                slot = (slot + 1) & this.mask;
+            }
+
+            this.keys[slot] = oldKeys[index];
+            this.hashes[slot] = oldHashes[index];
+            this.values[slot] = oldValues[index];
+        }
+    }
+
+    /**
+     * 指定容量の配列を確保する。
+     *
+     * @param capacity 容量(2の累乗であること)
+     */
+    private void allocate(int capacity)
+    {
+        this.keys = new String[capacity];
+        this.hashes = new int[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+        this.threshold = calcThreshold(capacity);
+    }
+
+    /**
+     * 容量から拡張閾値を算出する。(負荷率0.75)
+     *
+     * @param capacity 容量
+     * @return 拡張閾値
+     */
+    private static int calcThreshold(int capacity)
+    {
+        return capacity - (capacity >>> 2);
+    }
+
+    /**
+     * キーのハッシュ値を算出する。<br>
+     * String#hashCodeの下位ビットの偏りを抑えるため、乗算と上位ビットの折り込みを行う。
+     *
+     * @param key キー
+     * @return ハッシュ値
+     */
+    private static int hash(String key)
+    {
+        int hash = key.hashCode() * HASH_MULTIPLIER;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * エントリ走査時に各エントリに対して呼び出されるVisitor。
+     */
+    public interface EntryVisitor
+    {
+        /**
+         * エントリを受け取る。
+         *
+         * @param key キー
+         * @param value カウンタ値
+         */
+        void visit(String key, long value);
+    }
+}
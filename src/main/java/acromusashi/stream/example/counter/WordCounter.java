@@ -0,0 +1,54 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.counter;
+
+import java.io.Serializable;
+
+/**
+ * 単語の出現回数を集計するカウンタのインタフェース。<br>
+ * WordCountBoltの集計方式(厳密集計、上位K件集計など)を切り替えるために使用する。
+ *
+ * @author kimura
+ */
+public interface WordCounter extends Serializable
+{
+    /**
+     * 単語の出現回数を加算する。
+     *
+     * @param word 単語
+     * @param count 加算する出現回数
+     */
+    void add(String word, long count);
+
+    /**
+     * 単語の出現回数を取得する。<br>
+     * 近似集計を行う実装の場合は推定値を返す。
+     *
+     * @param word 単語
+     * @return 出現回数
+     */
+    long getCount(String word);
+
+    /**
+     * 一定時間の経過を通知する。<br>
+     * 時間窓で集計を行う実装はこのタイミングで集計対象の時間窓を進める。
+     */
+    void onTick();
+
+    /**
+     * 結果出力用の文字列表現を生成する。
+     *
+     * @return 集計結果の文字列表現
+     */
+    String report();
+}
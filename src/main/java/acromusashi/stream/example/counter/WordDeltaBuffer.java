@@ -0,0 +1,80 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.counter;
+
+import acromusashi.stream.example.counter.StringLongCounterMap.EntryVisitor;
+
+/**
+ * 単語ごとの出現回数の差分を一時的に集約するバッファ。<br>
+ * 下流に単語単位のTupleを送信する代わりに、一定件数または一定時間ごとに「単語、差分」をまとめて送信するために使用する。
+ *
+ * @author kimura
+ */
+public class WordDeltaBuffer
+{
+    /** 単語ごとの差分 */
+    private final StringLongCounterMap deltas;
+
+    /** 送信を行う単語数の閾値 */
+    private final int                  maxSize;
+
+    /**
+     * 送信を行う単語数の閾値を指定してインスタンスを生成する。
+     *
+     * @param maxSize 送信を行う単語数の閾値
+     */
+    public WordDeltaBuffer(int maxSize)
+    {
+        this.maxSize = maxSize;
+        this.deltas = new StringLongCounterMap(maxSize);
+    }
+
+    /**
+     * 単語の差分を加算する。
+     *
+     * @param word 単語
+     * @param delta 差分
+     * @return 保持する単語数が閾値に達した場合true
+     */
+    public boolean add(String word, long delta)
+    {
+        this.deltas.add(word, delta);
+        return this.deltas.size() >= this.maxSize;
+    }
+
+    /**
+     * 保持している全ての差分をVisitorに渡し、バッファを空にする。
+     *
+     * @param visitor 差分を受け取るVisitor
+     */
+    public void flush(EntryVisitor visitor)
+    {
+        if (this.deltas.isEmpty())
+        {
+            return;
+        }
+
+        this.deltas.forEach(visitor);
+        this.deltas.clear();
+    }
+
+    /**
+     * 保持している単語数を取得する。
+     *
+     * @return 保持している単語数
+     */
+    public int size()
+    {
+        return this.deltas.size();
+    }
+}
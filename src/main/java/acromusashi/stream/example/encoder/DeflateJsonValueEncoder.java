@@ -0,0 +1,99 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 値をJSON形式に変換し、Deflate(zlib形式)で圧縮するクラス。<br>
+ * SNMPのVarbindのように同一の項目名、OIDの接頭辞が繰り返されるJSONは圧縮率が高いため、
+ * 書き込みサイズを削減できる。読み出し側ではInflaterで伸長してからJSONとして読み込む。<br>
+ * 圧縮レベルのデフォルト値は、書き込み時のCPU負荷を抑えるためDeflater.BEST_SPEEDとする。<br>
+ * 圧縮器、出力バッファはインスタンスで再利用するため、本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ */
+public class DeflateJsonValueEncoder implements ValueEncoder
+{
+    /** serialVersionUID */
+    private static final long               serialVersionUID = -1468723501962583126L;
+
+    /** 圧縮時の作業バッファサイズ(バイト) */
+    private static final int                CHUNK_SIZE       = 4096;
+
+    /** 圧縮レベル(0～9) */
+    private int                             level            = Deflater.BEST_SPEED;
+
+    /** JSON変換に使用するObjectMapper */
+    private transient ObjectMapper          mapper;
+
+    /** 圧縮器 */
+    private transient Deflater              deflater;
+
+    /** 圧縮時の作業バッファ */
+    private transient byte[]                chunk;
+
+    /** 圧縮結果の出力バッファ */
+    private transient ByteArrayOutputStream compressed;
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public DeflateJsonValueEncoder()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare()
+    {
+        this.mapper = new ObjectMapper();
+        this.deflater = new Deflater(this.level);
+        this.chunk = new byte[CHUNK_SIZE];
+        this.compressed = new ByteArrayOutputStream(CHUNK_SIZE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] encode(Object value) throws IOException
+    {
+        byte[] json = this.mapper.writeValueAsBytes(value);
+
+        this.deflater.reset();
+        this.deflater.setInput(json);
+        this.deflater.finish();
+        this.compressed.reset();
+        while (this.deflater.finished() == false)
+        {
+            int length = this.deflater.deflate(this.chunk);
+            this.compressed.write(this.chunk, 0, length);
+        }
+
+        return this.compressed.toByteArray();
+    }
+
+    /**
+     * @param level セットする level
+     */
+    public void setLevel(int level)
+    {
+        this.level = level;
+    }
+}
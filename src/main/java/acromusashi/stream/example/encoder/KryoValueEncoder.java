@@ -0,0 +1,136 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.encoder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeMap;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * 値をKryoでバイナリ形式に変換するクラス。<br>
+ * 主要なコレクションクラスと、登録クラスに指定したクラスを登録順にKryoに登録し、
+ * 登録したクラスはクラス名の代わりに整数のIDで出力するため、List#toString等の文字列形式と比べて出力サイズが小さい。
+ * 登録していないクラスはクラス名を出力する。<br>
+ * 読み出し側では同じ登録クラスを指定した本クラスの{@link #createKryo()}で生成したKryoの
+ * Kryo#readClassAndObjectで元のオブジェクトに復元する。<br>
+ * 出力バッファはインスタンスで再利用するため、本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ */
+public class KryoValueEncoder implements ValueEncoder
+{
+    /** serialVersionUID */
+    private static final long       serialVersionUID    = 4093287406151638017L;
+
+    /** 出力バッファ初期サイズデフォルト値(バイト) */
+    private static final int        DEFAULT_BUFFER_SIZE = 4096;
+
+    /** 登録クラスの指定に関わらず登録するクラス */
+    private static final Class<?>[] DEFAULT_CLASSES     = {ArrayList.class, LinkedList.class,
+            HashMap.class, LinkedHashMap.class, TreeMap.class, HashSet.class, Date.class};
+
+    /** 出力バッファ初期サイズ(バイト) */
+    private int                     bufferSize          = DEFAULT_BUFFER_SIZE;
+
+    /** 追加で登録するクラスの完全修飾名。読み出し側と同じ順で指定する */
+    private List<String>            registeredClasses   = new ArrayList<String>();
+
+    /** Kryo */
+    private transient Kryo          kryo;
+
+    /** 出力バッファ */
+    private transient Output        output;
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public KryoValueEncoder()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare()
+    {
+        this.kryo = createKryo();
+        // 出力バッファは上限なく拡張する
+        this.output = new Output(this.bufferSize, -1);
+    }
+
+    /**
+     * 主要なコレクションクラス、登録クラスの順にクラスを登録したKryoを生成する。<br>
+     * 読み出し側でも本メソッドで生成したKryoを使用することで、登録クラスのIDが一致する。
+     *
+     * @return Kryo
+     * @throws IllegalArgumentException 登録クラスが存在しない場合
+     */
+    public Kryo createKryo()
+    {
+        Kryo result = new Kryo();
+        for (Class<?> defaultClass : DEFAULT_CLASSES)
+        {
+            result.register(defaultClass);
+        }
+
+        for (String className : this.registeredClasses)
+        {
+            try
+            {
+                result.register(Class.forName(className));
+            }
+            catch (ClassNotFoundException ex)
+            {
+                throw new IllegalArgumentException("Registered class not found. : Class="
+                        + className, ex);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] encode(Object value)
+    {
+        this.output.clear();
+        this.kryo.writeClassAndObject(this.output, value);
+        return this.output.toBytes();
+    }
+
+    /**
+     * @param bufferSize セットする bufferSize
+     */
+    public void setBufferSize(int bufferSize)
+    {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @param registeredClasses セットする registeredClasses
+     */
+    public void setRegisteredClasses(List<String> registeredClasses)
+    {
+        this.registeredClasses = registeredClasses;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.encoder;
+
+import java.nio.charset.Charset;
+
+/**
+ * 値をtoStringで文字列に変換し、UTF-8のバイト列として出力するクラス。<br>
+ * 従来のRedisBoltと同一の形式で書き込むため、既存の読み出し側の処理と互換性を保てる。<br>
+ * 本クラスはスレッドセーフである。
+ *
+ * @author kimura
+ */
+public class StringValueEncoder implements ValueEncoder
+{
+    /** serialVersionUID */
+    private static final long    serialVersionUID = -6318840215932370582L;
+
+    /** 出力時の文字コード */
+    private static final Charset CHARSET          = Charset.forName("UTF-8");
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public StringValueEncoder()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare()
+    {
+        // 準備は不要
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] encode(Object value)
+    {
+        return value.toString().getBytes(CHARSET);
+    }
+}
@@ -0,0 +1,41 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.encoder;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Redis等の格納先に書き込む値をバイト列に変換するインタフェース。<br>
+ * Boltのフィールドとしてシリアライズされてワーカに配布されるため、Serializableを継承する。
+ * 配布後はBoltのprepare時にprepareを呼び出してから使用する。<br>
+ * 実装クラスは変換に使用するバッファ等をインスタンスで保持してよいため、スレッドセーフでなくてよい。
+ *
+ * @author kimura
+ */
+public interface ValueEncoder extends Serializable
+{
+    /**
+     * 変換の準備を行う。
+     */
+    void prepare();
+
+    /**
+     * 値をバイト列に変換する。
+     *
+     * @param value 変換対象の値
+     * @return 変換結果のバイト列
+     * @throws IOException 変換に失敗した場合
+     */
+    byte[] encode(Object value) throws IOException;
+}
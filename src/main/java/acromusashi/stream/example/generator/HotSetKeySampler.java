@@ -0,0 +1,79 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.generator;
+
+import java.util.Random;
+
+/**
+ * 一部のキー(ホットセット)を指定した割合で抽出し、残りを他のキーから一様に抽出するKeySampler。<br>
+ * インデックスがホットセットのキー数未満のキーをホットセットとする。
+ * 例えば「キーの1%に90%のアクセスが集中する」といった偏りを表現する。
+ *
+ * @author kimura
+ */
+public class HotSetKeySampler implements KeySampler
+{
+    /** キー数 */
+    private final int    keyCount;
+
+    /** ホットセットのキー数 */
+    private final int    hotCount;
+
+    /** ホットセットを抽出する確率 */
+    private final double hotRatio;
+
+    /**
+     * キー数、ホットセットのキー数、ホットセットを抽出する確率を指定してインスタンスを生成する。
+     *
+     * @param keyCount キー数
+     * @param hotCount ホットセットのキー数
+     * @param hotRatio ホットセットを抽出する確率(0.0～1.0)
+     * @throws IllegalArgumentException パラメータが範囲外の場合
+     */
+    public HotSetKeySampler(int keyCount, int hotCount, double hotRatio)
+    {
+        if (keyCount <= 0 || hotCount <= 0 || hotCount > keyCount || hotRatio < 0.0d
+                || hotRatio > 1.0d)
+        {
+            throw new IllegalArgumentException("Invalid hot set parameter. : KeyCount=" + keyCount
+                    + ", HotCount=" + hotCount + ", HotRatio=" + hotRatio);
+        }
+
+        this.keyCount = keyCount;
+        this.hotCount = hotCount;
+        this.hotRatio = hotRatio;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int next(Random random)
+    {
+        if (this.hotCount == this.keyCount || random.nextDouble() < this.hotRatio)
+        {
+            return random.nextInt(this.hotCount);
+        }
+
+        return this.hotCount + random.nextInt(this.keyCount - this.hotCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getKeyCount()
+    {
+        return this.keyCount;
+    }
+}
@@ -0,0 +1,39 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.generator;
+
+import java.util.Random;
+
+/**
+ * キー集合からキーのインデックスを標本抽出するインタフェース。<br>
+ * 抽出の偏りは実装クラスごとに異なる。乱数は呼び出し元から指定するため、シードを固定することで抽出結果を再現できる。
+ *
+ * @author kimura
+ */
+public interface KeySampler
+{
+    /**
+     * キーのインデックスを抽出する。
+     *
+     * @param random 乱数
+     * @return キーのインデックス(0以上キー数未満)
+     */
+    int next(Random random);
+
+    /**
+     * キー数を取得する。
+     *
+     * @return キー数
+     */
+    int getKeyCount();
+}
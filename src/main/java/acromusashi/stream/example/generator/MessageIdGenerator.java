@@ -0,0 +1,40 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.generator;
+
+import java.io.Serializable;
+
+/**
+ * 共通メッセージのメッセージIDを生成するインタフェース。<br>
+ * Spoutのフィールドとしてシリアライズされてワーカに配布されるため、Serializableを継承する。
+ * 配布後はSpoutのopen時にprepareを呼び出してから使用する。
+ *
+ * @author kimura
+ */
+public interface MessageIdGenerator extends Serializable
+{
+    /**
+     * 生成の準備を行う。
+     *
+     * @param componentId コンポーネントID
+     * @param taskIndex タスクインデックス
+     */
+    void prepare(String componentId, int taskIndex);
+
+    /**
+     * メッセージIDを生成する。
+     *
+     * @return メッセージID
+     */
+    String nextId();
+}
@@ -0,0 +1,70 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.generator;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ThreadLocalRandomを用いてUUID(バージョン4)形式のメッセージIDを生成するクラス。<br>
+ * UUID#randomUUIDと同一の形式のため、メッセージIDをUUID形式で扱う既存の処理と互換性を保てる。
+ * 乱数はスレッドごとに生成するため、UUID#randomUUIDのようにSecureRandomを共有するスレッド間で競合しない。<br>
+ * 暗号論的に安全な乱数ではないため、メッセージIDを推測されてはならない用途には使用しないこと。<br>
+ * 本クラスはスレッドセーフである。
+ *
+ * @author kimura
+ */
+public class RandomMessageIdGenerator implements MessageIdGenerator
+{
+    /** serialVersionUID */
+    private static final long serialVersionUID = 2283375812764420962L;
+
+    /** バージョンフィールドのマスク */
+    private static final long VERSION_MASK     = 0xFFFFFFFFFFFF0FFFL;
+
+    /** バージョン4を示すビット */
+    private static final long VERSION_4        = 0x0000000000004000L;
+
+    /** バリアントフィールドのマスク */
+    private static final long VARIANT_MASK     = 0x3FFFFFFFFFFFFFFFL;
+
+    /** IETFバリアントを示すビット */
+    private static final long VARIANT_IETF     = 0x8000000000000000L;
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public RandomMessageIdGenerator()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(String componentId, int taskIndex)
+    {
+        // 準備は不要
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String nextId()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & VERSION_MASK) | VERSION_4;
+        long leastSigBits = (random.nextLong() & VARIANT_MASK) | VARIANT_IETF;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
@@ -0,0 +1,67 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.generator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * コンポーネントID、タスクインデックス、準備時刻、連番からメッセージIDを生成するクラス。<br>
+ * 「コンポーネントID-タスクインデックス-準備時刻(16進数)-連番(16進数)」の形式で生成する。
+ * 準備時刻を含むため、ワーカの再起動によって連番が0から再開しても以前のIDと重複しない。<br>
+ * 乱数を使用せず、連番の加算はロックを伴わないため、UUID#randomUUIDのようにSecureRandomを共有するスレッド間で競合しない。<br>
+ * 本クラスはスレッドセーフである。
+ *
+ * @author kimura
+ */
+public class SequenceMessageIdGenerator implements MessageIdGenerator
+{
+    /** serialVersionUID */
+    private static final long    serialVersionUID = -6106219380741290213L;
+
+    /** 区切り文字 */
+    private static final char    SEPARATOR        = '-';
+
+    /** メッセージIDのプレフィックス */
+    private transient String     prefix;
+
+    /** 連番 */
+    private transient AtomicLong sequence;
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public SequenceMessageIdGenerator()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(String componentId, int taskIndex)
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append(componentId).append(SEPARATOR).append(taskIndex).append(SEPARATOR);
+        builder.append(Long.toHexString(System.currentTimeMillis())).append(SEPARATOR);
+        this.prefix = builder.toString();
+        this.sequence = new AtomicLong();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String nextId()
+    {
+        return this.prefix + Long.toHexString(this.sequence.getAndIncrement());
+    }
+}
@@ -0,0 +1,100 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.generator;
+
+/**
+ * トークンバケット方式の流量制御を行うクラス。<br>
+ * 経過時間に応じて指定レートでトークンを補充し、取得できたトークン数だけ処理を許可する。
+ * バケット容量を超えてトークンは蓄積しないため、一時的に停止した後でもバケット容量を超えるバーストは発生しない。<br>
+ * 時刻は呼び出し元から指定するため、System#nanoTimeの呼び出し回数を抑えることができ、試験時には任意の時刻を指定できる。<br>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ */
+public class TokenBucket
+{
+    /** 1秒のナノ秒数 */
+    private static final double NANOS_PER_SECOND = 1000000000.0d;
+
+    /** 1ナノ秒あたりの補充トークン数 */
+    private final double        tokensPerNano;
+
+    /** バケット容量 */
+    private final double        capacity;
+
+    /** 現在のトークン数 */
+    private double              tokens;
+
+    /** 最終補充時刻(ナノ秒) */
+    private long                lastRefillNanos;
+
+    /**
+     * レートとバケット容量を指定してインスタンスを生成する。<br>
+     * 生成直後のトークン数はバケット容量と同じとする。
+     *
+     * @param ratePerSecond 1秒あたりの補充トークン数
+     * @param capacity バケット容量(1度に取得可能な最大トークン数)
+     * @param nowNanos 現在時刻(ナノ秒)
+     * @throws IllegalArgumentException レート、バケット容量が0以下の場合
+     */
+    public TokenBucket(double ratePerSecond, long capacity, long nowNanos)
+    {
+        if (ratePerSecond <= 0.0d || capacity <= 0)
+        {
+            throw new IllegalArgumentException("Rate and capacity must be positive. : Rate="
+                    + ratePerSecond + ", Capacity=" + capacity);
+        }
+
+        this.tokensPerNano = ratePerSecond / NANOS_PER_SECOND;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * 指定数を上限としてトークンを取得する。
+     *
+     * @param max 取得するトークン数の上限
+     * @param nowNanos 現在時刻(ナノ秒)
+     * @return 取得したトークン数。トークンが不足している場合は0
+     */
+    public long acquire(long max, long nowNanos)
+    {
+        refill(nowNanos);
+
+        long acquired = Math.min(max, (long) this.tokens);
+        if (acquired > 0)
+        {
+            this.tokens -= acquired;
+        }
+
+        return acquired;
+    }
+
+    /**
+     * 経過時間に応じてトークンを補充する。
+     *
+     * @param nowNanos 現在時刻(ナノ秒)
+     */
+    private void refill(long nowNanos)
+    {
+        long elapsed = nowNanos - this.lastRefillNanos;
+        if (elapsed <= 0)
+        {
+            return;
+        }
+
+        this.tokens = Math.min(this.capacity, this.tokens + elapsed * this.tokensPerNano);
+        this.lastRefillNanos = nowNanos;
+    }
+}
@@ -0,0 +1,60 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.generator;
+
+import java.util.Random;
+
+/**
+ * 全てのキーを同じ確率で抽出するKeySampler。
+ *
+ * @author kimura
+ */
+public class UniformKeySampler implements KeySampler
+{
+    /** キー数 */
+    private final int keyCount;
+
+    /**
+     * キー数を指定してインスタンスを生成する。
+     *
+     * @param keyCount キー数
+     * @throws IllegalArgumentException キー数が0以下の場合
+     */
+    public UniformKeySampler(int keyCount)
+    {
+        if (keyCount <= 0)
+        {
+            throw new IllegalArgumentException("KeyCount must be positive. : KeyCount=" + keyCount);
+        }
+
+        this.keyCount = keyCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int next(Random random)
+    {
+        return random.nextInt(this.keyCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getKeyCount()
+    {
+        return this.keyCount;
+    }
+}
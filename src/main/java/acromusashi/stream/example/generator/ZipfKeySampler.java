@@ -0,0 +1,85 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf分布に従ってキーを抽出するKeySampler。<br>
+ * インデックスkのキーは 1/(k+1)^s に比例する確率で抽出される(sは指数)。インデックス0のキーが最も多く抽出される。<br>
+ * 生成時に累積分布を算出し、抽出時は一様乱数に対する二分探索を行うため、抽出1回あたりの計算量はO(log キー数)となる。
+ *
+ * @author kimura
+ */
+public class ZipfKeySampler implements KeySampler
+{
+    /** 累積分布(末尾は1.0) */
+    private final double[] cumulative;
+
+    /**
+     * キー数と指数を指定してインスタンスを生成する。
+     *
+     * @param keyCount キー数
+     * @param exponent 指数。0の場合は一様分布となり、大きいほど上位のキーに偏る
+     * @throws IllegalArgumentException キー数が0以下、または指数が負の場合
+     */
+    public ZipfKeySampler(int keyCount, double exponent)
+    {
+        if (keyCount <= 0 || exponent < 0.0d)
+        {
+            throw new IllegalArgumentException("Invalid zipf parameter. : KeyCount=" + keyCount
+                    + ", Exponent=" + exponent);
+        }
+
+        this.cumulative = new double[keyCount];
+        double sum = 0.0d;
+        for (int index = 0; index < keyCount; index++)
+        {
+            sum += 1.0d / Math.pow(index + 1, exponent);
+            this.cumulative[index] = sum;
+        }
+
+        for (int index = 0; index < keyCount; index++)
+        {
+            this.cumulative[index] /= sum;
+        }
+
+        // 丸め誤差により末尾が1.0未満となり、範囲外のインデックスを返すことを防ぐ
+        this.cumulative[keyCount - 1] = 1.0d;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int next(Random random)
+    {
+        int position = Arrays.binarySearch(this.cumulative, random.nextDouble());
+        if (position < 0)
+        {
+            position = -position - 1;
+        }
+
+        return position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getKeyCount()
+    {
+        return this.cumulative.length;
+    }
+}
@@ -0,0 +1,118 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.grouping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import backtype.storm.generated.GlobalStreamId;
+import backtype.storm.grouping.CustomStreamGrouping;
+import backtype.storm.task.WorkerTopologyContext;
+import backtype.storm.tuple.Fields;
+
+/**
+ * キーごとに2つの候補タスクを算出し、送信件数が少ない方のタスクにTupleを送信するGrouping。(Partial Key Grouping)<br>
+ * fieldsGroupingでは出現頻度の高いキーが特定のタスクに集中するが、本Groupingでは2タスクに分散される。<br>
+ * 同一キーの集計結果が2タスクに分かれるため、下流にキー単位で集計結果を統合するBoltを配置して使用すること。<br>
+ * 送信件数は送信元タスクごとに保持し、タスク間で共有しない。
+ *
+ * @author kimura
+ */
+public class PartialKeyGrouping implements CustomStreamGrouping
+{
+    /** serialVersionUID */
+    private static final long             serialVersionUID = -2953460012846628114L;
+
+    /** 2つ目の候補算出に使用するシード */
+    private static final int              SECOND_SEED      = 0x7F4A7C15;
+
+    /** キーとなるフィールド名 */
+    private final String                  keyField;
+
+    /** キーとなるフィールドの位置 */
+    private transient int                 keyIndex;
+
+    /** 送信先タスクごとの送信先リスト(送信ごとのリスト生成を避けるため事前に生成する) */
+    private transient List<List<Integer>> choices;
+
+    /** 送信先タスクごとの送信件数 */
+    private transient long[]              loads;
+
+    /**
+     * キーとなるフィールド名を指定してインスタンスを生成する。
+     *
+     * @param keyField キーとなるフィールド名
+     */
+    public PartialKeyGrouping(String keyField)
+    {
+        this.keyField = keyField;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(WorkerTopologyContext context, GlobalStreamId stream,
+            List<Integer> targetTasks)
+    {
+        Fields outputFields = context.getComponentOutputFields(stream);
+        this.keyIndex = outputFields.fieldIndex(this.keyField);
+
+        this.choices = new ArrayList<List<Integer>>(targetTasks.size());
+        for (Integer targetTask : targetTasks)
+        {
+            this.choices.add(Collections.singletonList(targetTask));
+        }
+
+        this.loads = new long[targetTasks.size()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Integer> chooseTasks(int taskId, List<Object> values)
+    {
+        int taskNum = this.choices.size();
+        int keyHash = values.get(this.keyIndex).hashCode();
+
+        int first = (mix(keyHash) & Integer.MAX_VALUE) % taskNum;
+        int second = (mix(keyHash ^ SECOND_SEED) & Integer.MAX_VALUE) % taskNum;
+
+        int selected = first;
+        if (this.loads[second] < this.loads[first])
+        {
+            selected = second;
+        }
+
+        this.loads[selected]++;
+        return this.choices.get(selected);
+    }
+
+    /**
+     * ハッシュ値を攪拌する。(MurmurHash3のfinalizer)
+     *
+     * @param hash ハッシュ値
+     * @return 攪拌後のハッシュ値
+     */
+    private static int mix(int hash)
+    {
+        int result = hash;
+        result ^= result >>> 16;
+        result *= 0x85EBCA6B;
+        result ^= result >>> 13;
+        result *= 0xC2B2AE35;
+        return result ^ (result >>> 16);
+    }
+}
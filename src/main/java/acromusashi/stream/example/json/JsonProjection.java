@@ -0,0 +1,465 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 複数のJSON Pointer(RFC 6901)で指定した要素を、JSONを1度走査するだけで抽出するクラス。<br>
+ * 生成時に全てのJSON Pointerを1つのパスツリーに変換しておき、走査時は抽出対象を含まない要素を子要素ごと読み飛ばす。<br>
+ * 全ての抽出対象を読み込んだ時点で走査を終了するため、それより後ろの部分の形式は検証しない。<br>
+ * 抽出定義は「名称=JSON Pointer」の形式で指定する。名称を省略した場合はJSON Pointerを名称とする。(名称は「/」から始まらないこと)<br>
+ * 例)「user=/user/name」「/entities/urls/0/url」<br>
+ * 抽出した値は文字列として返す。値がオブジェクト、配列の場合はJSON文字列、nullの場合は抽出なしとして扱う。
+ *
+ * @author kimura
+ */
+public class JsonProjection
+{
+    /** 名称とJSON Pointerの区切り文字 */
+    private static final char NAME_SEPARATOR = '=';
+
+    /** 抽出結果の名称 */
+    private final String[]    names;
+
+    /** パスツリーのルート */
+    private final PathNode    root;
+
+    /**
+     * 抽出定義を指定してインスタンスを生成する。
+     *
+     * @param defines 抽出定義のリスト
+     * @throws IllegalArgumentException JSON Pointerの形式が不正な場合
+     */
+    public JsonProjection(List<String> defines)
+    {
+        this.names = new String[defines.size()];
+        this.root = new PathNode();
+
+        for (int index = 0; index < defines.size(); index++)
+        {
+            String define = defines.get(index);
+            int separatorIndex = define.indexOf(NAME_SEPARATOR);
+            String pointer = define;
+            this.names[index] = define;
+
+            // 「/」から始まる場合は名称を省略したJSON Pointerとして扱う
+            if (define.startsWith("/") == false && separatorIndex >= 0)
+            {
+                this.names[index] = define.substring(0, separatorIndex);
+                pointer = define.substring(separatorIndex + 1);
+            }
+
+            PathNode node = this.root;
+            for (String segment : parsePointer(pointer))
+            {
+                node = node.getOrCreateChild(segment);
+            }
+
+            node.targetIndexes.add(index);
+        }
+    }
+
+    /**
+     * 抽出結果の名称を取得する。
+     *
+     * @return 抽出結果の名称(抽出定義の順)
+     */
+    public String[] getNames()
+    {
+        return this.names.clone();
+    }
+
+    /**
+     * JsonParserで読み込むJSONから抽出対象の要素を抽出する。<br>
+     * JsonParserは読み込み前の状態で渡すこと。本メソッドではJsonParserをクローズしない。<br>
+     * オブジェクト、配列を抽出するため、JsonParserはObjectMapperから取得したJsonFactoryで生成すること。
+     *
+     * @param parser JsonParser
+     * @return 抽出結果(抽出定義の順)。抽出対象が存在しない要素はnull
+     * @throws IOException JSONの形式が不正な場合
+     */
+    public String[] project(JsonParser parser) throws IOException
+    {
+        ProjectionState state = new ProjectionState(this.names.length);
+        if (parser.nextToken() != null)
+        {
+            readValue(parser, this.root, state);
+        }
+
+        return state.values;
+    }
+
+    /**
+     * 現在位置の値を読み込み、パスツリーの抽出対象を抽出する。
+     *
+     * @param parser JsonParser(値の先頭トークンに位置していること)
+     * @param node 現在位置に対応するパスツリーのノード
+     * @param state 抽出状態
+     * @throws IOException JSONの形式が不正な場合
+     */
+    private void readValue(JsonParser parser, PathNode node, ProjectionState state)
+            throws IOException
+    {
+        JsonToken token = parser.getCurrentToken();
+
+        // 抽出対象の値がオブジェクト、配列の場合はツリーとして読み込み、子孫の抽出対象もツリーから抽出する
+        boolean isContainer = (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY);
+        if (node.targetIndexes.isEmpty() == false && isContainer == true)
+        {
+            JsonNode tree = parser.readValueAsTree();
+            resolveTree(tree, node, state);
+            return;
+        }
+
+        if (node.targetIndexes.isEmpty() == false)
+        {
+            String value = null;
+            if (token != JsonToken.VALUE_NULL)
+            {
+                value = parser.getText();
+            }
+
+            state.set(node, value);
+        }
+
+        if (token == JsonToken.START_OBJECT)
+        {
+            readObject(parser, node, state);
+        }
+        else if (token == JsonToken.START_ARRAY)
+        {
+            readArray(parser, node, state);
+        }
+    }
+
+    /**
+     * オブジェクトの各要素を読み込む。
+     *
+     * @param parser JsonParser(START_OBJECTに位置していること)
+     * @param node 現在位置に対応するパスツリーのノード
+     * @param state 抽出状態
+     * @throws IOException JSONの形式が不正な場合
+     */
+    private void readObject(JsonParser parser, PathNode node, ProjectionState state)
+            throws IOException
+    {
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            PathNode child = node.children.get(parser.getCurrentName());
+            parser.nextToken();
+
+            if (child == null)
+            {
+                // 抽出対象を含まない要素は子要素ごと読み飛ばす
+                parser.skipChildren();
+                continue;
+            }
+
+            readValue(parser, child, state);
+            if (state.remaining == 0)
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 配列の各要素を読み込む。
+     *
+     * @param parser JsonParser(START_ARRAYに位置していること)
+     * @param node 現在位置に対応するパスツリーのノード
+     * @param state 抽出状態
+     * @throws IOException JSONの形式が不正な場合
+     */
+    private void readArray(JsonParser parser, PathNode node, ProjectionState state)
+            throws IOException
+    {
+        int arrayIndex = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            PathNode child = node.getArrayChild(arrayIndex);
+            arrayIndex++;
+
+            if (child == null)
+            {
+                parser.skipChildren();
+                continue;
+            }
+
+            readValue(parser, child, state);
+            if (state.remaining == 0)
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 読み込み済みのツリーからパスツリーの抽出対象を抽出する。
+     *
+     * @param tree 読み込み済みのツリー
+     * @param node ツリーに対応するパスツリーのノード
+     * @param state 抽出状態
+     */
+    private void resolveTree(JsonNode tree, PathNode node, ProjectionState state)
+    {
+        if (node.targetIndexes.isEmpty() == false)
+        {
+            String value = null;
+            if (tree.isContainerNode() == true)
+            {
+                value = tree.toString();
+            }
+            else if (tree.isNull() == false)
+            {
+                value = tree.asText();
+            }
+
+            state.set(node, value);
+        }
+
+        for (Map.Entry<String, PathNode> entry : node.children.entrySet())
+        {
+            JsonNode childTree = null;
+            if (tree.isObject() == true)
+            {
+                childTree = tree.get(entry.getKey());
+            }
+            else if (tree.isArray() == true && entry.getValue().arrayIndex >= 0)
+            {
+                childTree = tree.get(entry.getValue().arrayIndex);
+            }
+
+            if (childTree != null)
+            {
+                resolveTree(childTree, entry.getValue(), state);
+            }
+        }
+    }
+
+    /**
+     * JSON Pointerを参照トークンのリストに変換する。
+     *
+     * @param pointer JSON Pointer
+     * @return 参照トークンのリスト
+     * @throws IllegalArgumentException JSON Pointerの形式が不正な場合
+     */
+    static List<String> parsePointer(String pointer)
+    {
+        List<String> segments = new ArrayList<String>();
+        if (pointer.length() == 0)
+        {
+            return segments;
+        }
+
+        if (pointer.charAt(0) != '/')
+        {
+            throw new IllegalArgumentException("JSON Pointer must start with '/'. : Pointer="
+                    + pointer);
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (int index = 1; index < pointer.length(); index++)
+        {
+            char current = pointer.charAt(index);
+            if (current == '/')
+            {
+                segments.add(builder.toString());
+                builder.setLength(0);
+            }
+            else if (current == '~')
+            {
+                // 「~0」は「~」、「~1」は「/」を表すエスケープ
+                index++;
+                if (index < pointer.length() && pointer.charAt(index) == '0')
+                {
+                    builder.append('~');
+                }
+                else if (index < pointer.length() && pointer.charAt(index) == '1')
+                {
+                    builder.append('/');
+                }
+                else
+                {
+                    throw new IllegalArgumentException("Invalid escape in JSON Pointer. : Pointer="
+                            + pointer);
+                }
+            }
+            else
+            {
+                builder.append(current);
+            }
+        }
+
+        segments.add(builder.toString());
+        return segments;
+    }
+
+    /**
+     * パスツリーのノード。
+     */
+    private static class PathNode
+    {
+        /** 子ノード(参照トークンをキーとする) */
+        final Map<String, PathNode> children      = new HashMap<String, PathNode>();
+
+        /** 配列要素として参照される子ノード(配列インデックスを添字とする) */
+        PathNode[]                  arrayChildren = new PathNode[0];
+
+        /** 本ノードを抽出対象とする抽出定義のインデックス */
+        final List<Integer>         targetIndexes = new ArrayList<Integer>();
+
+        /** 配列インデックスとして解釈した参照トークン。配列インデックスでない場合は-1 */
+        int                         arrayIndex    = -1;
+
+        /**
+         * パラメータを指定せずにインスタンスを生成する。
+         */
+        PathNode()
+        {}
+
+        /**
+         * 参照トークンに対応する子ノードを取得する。存在しない場合は生成する。
+         *
+         * @param segment 参照トークン
+         * @return 子ノード
+         */
+        PathNode getOrCreateChild(String segment)
+        {
+            PathNode child = this.children.get(segment);
+            if (child != null)
+            {
+                return child;
+            }
+
+            child = new PathNode();
+            child.arrayIndex = toArrayIndex(segment);
+            this.children.put(segment, child);
+
+            if (child.arrayIndex >= 0)
+            {
+                if (this.arrayChildren.length <= child.arrayIndex)
+                {
+                    PathNode[] expanded = new PathNode[child.arrayIndex + 1];
+                    System.arraycopy(this.arrayChildren, 0, expanded, 0, this.arrayChildren.length);
+                    this.arrayChildren = expanded;
+                }
+
+                this.arrayChildren[child.arrayIndex] = child;
+            }
+
+            return child;
+        }
+
+        /**
+         * 配列インデックスに対応する子ノードを取得する。
+         *
+         * @param index 配列インデックス
+         * @return 子ノード。存在しない場合はnull
+         */
+        PathNode getArrayChild(int index)
+        {
+            if (index >= this.arrayChildren.length)
+            {
+                return null;
+            }
+
+            return this.arrayChildren[index];
+        }
+
+        /**
+         * 参照トークンを配列インデックスに変換する。
+         *
+         * @param segment 参照トークン
+         * @return 配列インデックス。配列インデックスとして解釈できない場合は-1
+         */
+        private static int toArrayIndex(String segment)
+        {
+            // RFC 6901に従い、先頭0を含むトークンは配列インデックスとして扱わない
+            if (segment.length() == 0 || segment.length() > 9
+                    || (segment.length() > 1 && segment.charAt(0) == '0'))
+            {
+                return -1;
+            }
+
+            for (int index = 0; index < segment.length(); index++)
+            {
+                char current = segment.charAt(index);
+                if (current < '0' || current > '9')
+                {
+                    return -1;
+                }
+            }
+
+            return Integer.parseInt(segment);
+        }
+    }
+
+    /**
+     * 1回の抽出処理の状態。
+     */
+    private static class ProjectionState
+    {
+        /** 抽出結果 */
+        final String[]  values;
+
+        /** 抽出済みフラグ */
+        final boolean[] found;
+
+        /** 未抽出の抽出定義数 */
+        int             remaining;
+
+        /**
+         * 抽出定義数を指定してインスタンスを生成する。
+         *
+         * @param targetNum 抽出定義数
+         */
+        ProjectionState(int targetNum)
+        {
+            this.values = new String[targetNum];
+            this.found = new boolean[targetNum];
+            this.remaining = targetNum;
+        }
+
+        /**
+         * ノードを抽出対象とする抽出定義に抽出結果を設定する。<br>
+         * キーが重複する場合は先頭の値を抽出結果とする。
+         *
+         * @param node ノード
+         * @param value 抽出結果
+         */
+        void set(PathNode node, String value)
+        {
+            for (int targetIndex : node.targetIndexes)
+            {
+                if (this.found[targetIndex] == true)
+                {
+                    continue;
+                }
+
+                this.values[targetIndex] = value;
+                this.found[targetIndex] = true;
+                this.remaining--;
+            }
+        }
+    }
+}
@@ -0,0 +1,478 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.spout;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import acromusashi.stream.example.capture.CaptureFileReader;
+import acromusashi.stream.example.capture.CaptureFileWriter;
+import acromusashi.stream.spout.BaseConfigurationSpout;
+import backtype.storm.spout.SpoutOutputCollector;
+import backtype.storm.task.TopologyContext;
+import backtype.storm.topology.OutputFieldsDeclarer;
+import backtype.storm.tuple.Fields;
+import backtype.storm.tuple.Values;
+
+/**
+ * CaptureBoltで記録した記録ファイルを読み込み、記録したレコードを再送信するSpout。<br>
+ * 記録ディレクトリ内の記録ファイルをファイル名順に並べ、タスクインデックスに従って各タスクに分散して割り当てる。
+ * (記録ファイルのインデックス % タスク数 == タスクインデックス)
+ * 各タスクは割り当てられた記録ファイルを順番にメモリマップして読み込む。<br>
+ * 再生速度を指定した場合、記録ファイルごとに先頭レコードからの受信時刻の経過を再生速度で割った時刻に各レコードを送信する。
+ * (1.0:受信時と同じ間隔、N:N倍速、0以下:待機せずに最大速度で送信)
+ * 送信時刻に達していない場合は待機せずに終了し、待機はStormのSpoutWaitStrategyに委ねる。<br>
+ * レコードはKestrelSpout(StringScheme)と同じく「str」フィールドの文字列として送信するため、後続のBoltはKestrelSpoutの代わりに本Spoutを購読できる。<br>
+ * 送信済みのレコードの位置は記録ファイルごとに「記録ファイル名.offset」ファイルに一定件数ごとに保存し、
+ * 再開を有効にした場合はopen時に保存した位置から再生を再開する。
+ * 保存した位置は送信済みの位置であり、下流でのack/failは考慮しない。<br>
+ * 繰り返しを有効にした場合、全記録ファイルの再生終了後に先頭から再生を繰り返す。
+ * 2周目以降は保存した送信位置を使用せず、全記録ファイルを先頭から再生する。
+ * 先頭から再生した周でレコードを1件も読み込めなかった場合は、繰り返しを終了する。
+ *
+ * @author kimura
+ */
+public class CaptureReplaySpout extends BaseConfigurationSpout
+{
+    /** serialVersionUID */
+    private static final long             serialVersionUID            = -4419306358204571826L;
+
+    /** logger */
+    private static final Logger           logger                      = LoggerFactory.getLogger(CaptureReplaySpout.class);
+
+    /** 送信位置を保存するファイルの拡張子 */
+    public static final String            OFFSET_SUFFIX               = ".offset";
+
+    /** 送信位置の保存間隔デフォルト値(件) */
+    private static final int              DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+    /** 1回のnextTupleで送信する最大件数デフォルト値 */
+    private static final int              DEFAULT_MAX_BATCH           = 1000;
+
+    /** 1ミリ秒のナノ秒数 */
+    private static final double           NANOS_PER_MILLIS            = 1000000.0d;
+
+    /** 記録ファイルの文字コード */
+    private static final Charset          CHARSET                     = Charset.forName("UTF-8");
+
+    /** 記録ディレクトリ */
+    private String                        captureDir;
+
+    /** 再生速度。0以下の場合は最大速度で送信する */
+    protected double                      speed                       = 1.0d;
+
+    /** 全記録ファイルの再生終了後に先頭から繰り返すか */
+    protected boolean                     loop;
+
+    /** 保存した送信位置から再生を再開するか */
+    protected boolean                     resume                      = true;
+
+    /** 送信位置の保存間隔(件) */
+    protected int                         checkpointInterval          = DEFAULT_CHECKPOINT_INTERVAL;
+
+    /** 1回のnextTupleで送信する最大件数 */
+    protected int                         maxBatch                    = DEFAULT_MAX_BATCH;
+
+    /** 自タスクに割り当てられた記録ファイル */
+    protected transient List<File>        files;
+
+    /** 再生中の記録ファイルのインデックス */
+    protected transient int               fileIndex;
+
+    /** 再生中の記録ファイルのReader */
+    protected transient CaptureFileReader reader;
+
+    /** 読み込み済みで送信時刻を待っているレコードがあるか */
+    protected transient boolean           hasPending;
+
+    /** 再生中の記録ファイルの先頭レコードの受信時刻。未読み込みの場合は負値 */
+    protected transient long              baseTimestamp;
+
+    /** 再生中の記録ファイルの先頭レコードの送信時刻(System#nanoTime) */
+    protected transient long              baseNanos;
+
+    /** 前回送信位置を保存してからの送信件数 */
+    protected transient int               uncheckpointed;
+
+    /** 繰り返し再生の2周目以降か */
+    protected transient boolean           looped;
+
+    /** 再生中の周でレコードを読み込んだか */
+    protected transient boolean           readInPass;
+
+    /** 全記録ファイルの再生を終了したか */
+    protected transient boolean           finished;
+
+    /**
+     * 記録ディレクトリを指定してインスタンスを生成する。
+     *
+     * @param captureDir 記録ディレクトリ
+     */
+    public CaptureReplaySpout(String captureDir)
+    {
+        this.captureDir = captureDir;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void open(Map stormConf, TopologyContext context, SpoutOutputCollector collector)
+    {
+        super.open(stormConf, context, collector);
+
+        int taskIndex = context.getThisTaskIndex();
+        int taskNum = context.getComponentTasks(context.getThisComponentId()).size();
+        this.files = assignFiles(taskIndex, taskNum);
+        this.fileIndex = -1;
+
+        String logFormat = "Assigned capture files. : TaskIndex={0}, TaskNum={1}, Files={2}";
+        logger.info(MessageFormat.format(logFormat, taskIndex, taskNum, this.files));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close()
+    {
+        closeReader();
+        super.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deactivate()
+    {
+        checkpoint();
+        super.deactivate();
+    }
+
+    /**
+     * 送信時刻に達したレコードを最大件数まで送信する。
+     */
+    @Override
+    public void nextTuple()
+    {
+        if (this.finished == true)
+        {
+            return;
+        }
+
+        long nowNanos = System.nanoTime();
+        try
+        {
+            for (int count = 0; count < this.maxBatch; count++)
+            {
+                if (this.hasPending == false)
+                {
+                    if (readNext() == false)
+                    {
+                        return;
+                    }
+
+                    this.hasPending = true;
+                }
+
+                if (isDue(nowNanos) == false)
+                {
+                    return;
+                }
+
+                getCollector().emit(new Values(new String(this.reader.getPayload(), CHARSET)));
+                this.hasPending = false;
+                this.uncheckpointed++;
+                if (this.uncheckpointed >= this.checkpointInterval)
+                {
+                    checkpoint();
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            String logFormat = "Capture file read failed. Skip file. : File={0}";
+            logger.warn(MessageFormat.format(logFormat, this.files.get(this.fileIndex)), ex);
+            this.hasPending = false;
+            closeReader();
+        }
+    }
+
+    /**
+     * 次のレコードを読み込む。再生中の記録ファイルの終端に達した場合は次の記録ファイルを開く。
+     *
+     * @return レコードを読み込んだ場合true、全記録ファイルの再生を終了した場合false
+     * @throws IOException 記録ファイルの読み込みに失敗した場合
+     */
+    protected boolean readNext() throws IOException
+    {
+        while (this.reader == null || this.reader.next() == false)
+        {
+            closeReader();
+            this.fileIndex++;
+
+            if (this.fileIndex >= this.files.size())
+            {
+                if (this.loop == false || this.files.isEmpty() == true)
+                {
+                    logger.info("All capture files replayed.");
+                    this.finished = true;
+                    return false;
+                }
+
+                // 先頭から再生した周でレコードを読み込めなかった場合、繰り返しても送信できないため終了する
+                if (this.looped == true && this.readInPass == false)
+                {
+                    logger.warn("No record in capture files. Stop replay.");
+                    this.finished = true;
+                    return false;
+                }
+
+                this.fileIndex = 0;
+                this.looped = true;
+                this.readInPass = false;
+            }
+
+            // 保存した送信位置は前周の終端を指すため、2周目以降は使用しない
+            File file = this.files.get(this.fileIndex);
+            long offset = 0L;
+            if (this.resume == true && this.looped == false)
+            {
+                offset = readOffset(file);
+            }
+
+            this.reader = new CaptureFileReader(file, offset);
+            this.baseTimestamp = -1L;
+        }
+
+        this.readInPass = true;
+        return true;
+    }
+
+    /**
+     * 読み込み済みのレコードが送信時刻に達したかを判定する。
+     *
+     * @param nowNanos 現在時刻(System#nanoTime)
+     * @return 送信時刻に達した場合true
+     */
+    protected boolean isDue(long nowNanos)
+    {
+        if (this.speed <= 0.0d)
+        {
+            return true;
+        }
+
+        if (this.baseTimestamp < 0)
+        {
+            this.baseTimestamp = this.reader.getTimestamp();
+            this.baseNanos = nowNanos;
+            return true;
+        }
+
+        double delayNanos = (this.reader.getTimestamp() - this.baseTimestamp) * NANOS_PER_MILLIS
+                / this.speed;
+        return nowNanos - this.baseNanos >= delayNanos;
+    }
+
+    /**
+     * 再生中の記録ファイルの送信済みの位置を保存する。
+     */
+    protected void checkpoint()
+    {
+        this.uncheckpointed = 0;
+        if (this.reader == null)
+        {
+            return;
+        }
+
+        long offset = this.reader.getOffset();
+        if (this.hasPending == true)
+        {
+            // 送信時刻を待っているレコードは未送信のため、レコードの先頭位置を保存する
+            offset = this.reader.getRecordOffset();
+        }
+
+        writeOffset(this.files.get(this.fileIndex), offset);
+    }
+
+    /**
+     * 再生中の記録ファイルの送信済みの位置を保存してReaderを閉じる。
+     */
+    protected void closeReader()
+    {
+        if (this.reader == null)
+        {
+            return;
+        }
+
+        checkpoint();
+        try
+        {
+            this.reader.close();
+        }
+        catch (IOException ex)
+        {
+            logger.debug("Capture file close failed.", ex);
+        }
+
+        this.reader = null;
+    }
+
+    /**
+     * 記録ディレクトリ内の記録ファイルのうち、自タスクに割り当てる記録ファイルを取得する。
+     *
+     * @param taskIndex タスクインデックス
+     * @param taskNum タスク数
+     * @return 自タスクに割り当てる記録ファイル
+     */
+    protected List<File> assignFiles(int taskIndex, int taskNum)
+    {
+        File[] captureFiles = new File(this.captureDir).listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file)
+            {
+                return file.isFile() == true
+                        && file.getName().endsWith(CaptureFileWriter.FILE_SUFFIX) == true;
+            }
+        });
+
+        List<File> result = new ArrayList<File>();
+        if (captureFiles == null)
+        {
+            String logFormat = "Capture directory not found. : CaptureDir={0}";
+            logger.warn(MessageFormat.format(logFormat, this.captureDir));
+            return result;
+        }
+
+        Arrays.sort(captureFiles);
+        for (int index = taskIndex; index < captureFiles.length; index += taskNum)
+        {
+            result.add(captureFiles[index]);
+        }
+
+        return result;
+    }
+
+    /**
+     * 保存した送信位置を読み込む。
+     *
+     * @param file 記録ファイル
+     * @return 送信位置。保存していない場合、または読み込みに失敗した場合は0
+     */
+    protected long readOffset(File file)
+    {
+        File offsetFile = new File(file.getPath() + OFFSET_SUFFIX);
+        if (offsetFile.exists() == false)
+        {
+            return 0L;
+        }
+
+        try
+        {
+            String value = new String(Files.readAllBytes(offsetFile.toPath()), CHARSET);
+            return Long.parseLong(value.trim());
+        }
+        catch (IOException | NumberFormatException ex)
+        {
+            String logFormat = "Offset file read failed. Replay from beginning. : File={0}";
+            logger.warn(MessageFormat.format(logFormat, offsetFile), ex);
+            return 0L;
+        }
+    }
+
+    /**
+     * 送信位置を保存する。書き込み途中の状態を読み込まないよう、一時ファイルに書き込んでから置き換える。
+     *
+     * @param file 記録ファイル
+     * @param offset 送信位置
+     */
+    protected void writeOffset(File file, long offset)
+    {
+        File offsetFile = new File(file.getPath() + OFFSET_SUFFIX);
+        File tempFile = new File(file.getPath() + OFFSET_SUFFIX + ".tmp");
+        try
+        {
+            Files.write(tempFile.toPath(), String.valueOf(offset).getBytes(CHARSET));
+            Files.move(tempFile.toPath(), offsetFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex)
+        {
+            String logFormat = "Offset file write failed. : File={0}, Offset={1}";
+            logger.warn(MessageFormat.format(logFormat, offsetFile, offset), ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer)
+    {
+        declarer.declare(new Fields("str"));
+    }
+
+    /**
+     * @param speed セットする speed
+     */
+    public void setSpeed(double speed)
+    {
+        this.speed = speed;
+    }
+
+    /**
+     * @param loop セットする loop
+     */
+    public void setLoop(boolean loop)
+    {
+        this.loop = loop;
+    }
+
+    /**
+     * @param resume セットする resume
+     */
+    public void setResume(boolean resume)
+    {
+        this.resume = resume;
+    }
+
+    /**
+     * @param checkpointInterval セットする checkpointInterval
+     */
+    public void setCheckpointInterval(int checkpointInterval)
+    {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * @param maxBatch セットする maxBatch
+     */
+    public void setMaxBatch(int maxBatch)
+    {
+        this.maxBatch = maxBatch;
+    }
+}
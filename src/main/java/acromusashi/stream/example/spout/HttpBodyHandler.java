@@ -0,0 +1,243 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.spout;
+
+import java.io.IOException;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * HTTPGetのレスポンスボディを取得するResponseHandler。<br>
+ * BasicResponseHandlerと同じく、ステータスコードが300以上の場合はHttpResponseExceptionを送出する。<br>
+ * 下記の機能を個別に有効化できる。
+ * <ul>
+ * <li>バイト列取得 : レスポンスボディを文字列に変換せずbyte[]として返す</li>
+ * <li>条件付きGET : レスポンスのETag、Last-Modifiedを保持し、次回のリクエストにIf-None-Match、If-Modified-Sinceを設定する。
+ * 304(Not Modified)を受信した場合はレスポンスボディを取得せずにnullを返す</li>
+ * <li>重複除外 : レスポンスボディのハッシュ値を保持し、前回と同一のレスポンスボディを受信した場合はnullを返す。
+ * ETag、Last-Modifiedを返さないサーバに対して使用する</li>
+ * </ul>
+ * 本クラスは取得対象ごとに状態を保持するため、取得対象ごとにインスタンスを生成すること。本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ */
+public class HttpBodyHandler implements ResponseHandler<Object>
+{
+    /** FNV-1a(64bit)のオフセット基底 */
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+
+    /** FNV-1a(64bit)のFNV素数 */
+    private static final long FNV_PRIME        = 0x100000001B3L;
+
+    /** レスポンスボディをbyte[]として返すか */
+    private final boolean     rawBody;
+
+    /** 条件付きGETを行うか */
+    private final boolean     conditional;
+
+    /** 前回と同一のレスポンスボディを除外するか */
+    private final boolean     dedup;
+
+    /** 前回受信したETag */
+    private String            etag;
+
+    /** 前回受信したLast-Modified */
+    private String            lastModified;
+
+    /** 前回受信したレスポンスボディのハッシュ値 */
+    private long              lastBodyHash;
+
+    /** 前回受信したレスポンスボディの長さ。未受信の場合は-1 */
+    private int               lastBodyLength   = -1;
+
+    /**
+     * 各機能の有効/無効を指定してインスタンスを生成する。
+     *
+     * @param rawBody レスポンスボディをbyte[]として返すか
+     * @param conditional 条件付きGETを行うか
+     * @param dedup 前回と同一のレスポンスボディを除外するか
+     */
+    public HttpBodyHandler(boolean rawBody, boolean conditional, boolean dedup)
+    {
+        this.rawBody = rawBody;
+        this.conditional = conditional;
+        this.dedup = dedup;
+    }
+
+    /**
+     * 条件付きGETを行う場合、前回受信したETag、Last-Modifiedをリクエストヘッダに設定する。<br>
+     * リクエストは再利用されるため、前回受信したレスポンスに存在しない値のヘッダは削除する。
+     *
+     * @param request リクエスト
+     */
+    public void prepareRequest(HttpRequestBase request)
+    {
+        if (this.conditional == false)
+        {
+            return;
+        }
+
+        setOrRemoveHeader(request, "If-None-Match", this.etag);
+        setOrRemoveHeader(request, "If-Modified-Since", this.lastModified);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return レスポンスボディ。304を受信した場合、前回と同一のレスポンスボディを受信した場合はnull
+     */
+    @Override
+    public Object handleResponse(HttpResponse response) throws IOException
+    {
+        StatusLine statusLine = response.getStatusLine();
+        HttpEntity entity = response.getEntity();
+
+        if (this.conditional == true && statusLine.getStatusCode() == HttpStatus.SC_NOT_MODIFIED)
+        {
+            EntityUtils.consume(entity);
+            return null;
+        }
+
+        if (statusLine.getStatusCode() >= 300)
+        {
+            EntityUtils.consume(entity);
+            throw new HttpResponseException(statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase());
+        }
+
+        if (this.conditional == true)
+        {
+            this.etag = getHeaderValue(response, "ETag");
+            this.lastModified = getHeaderValue(response, "Last-Modified");
+        }
+
+        if (entity == null)
+        {
+            return null;
+        }
+
+        if (this.rawBody == true)
+        {
+            byte[] body = EntityUtils.toByteArray(entity);
+            if (this.dedup == true && isDuplicate(hash(body), body.length) == true)
+            {
+                return null;
+            }
+
+            return body;
+        }
+
+        String body = EntityUtils.toString(entity);
+        if (this.dedup == true && isDuplicate(hash(body), body.length()) == true)
+        {
+            return null;
+        }
+
+        return body;
+    }
+
+    /**
+     * 前回受信したレスポンスボディと同一かを判定し、今回のハッシュ値を保持する。
+     *
+     * @param bodyHash レスポンスボディのハッシュ値
+     * @param bodyLength レスポンスボディの長さ
+     * @return 前回と同一の場合true
+     */
+    private boolean isDuplicate(long bodyHash, int bodyLength)
+    {
+        boolean result = (this.lastBodyLength == bodyLength && this.lastBodyHash == bodyHash);
+        this.lastBodyHash = bodyHash;
+        this.lastBodyLength = bodyLength;
+        return result;
+    }
+
+    /**
+     * リクエストヘッダに値を設定する。値がnullの場合はヘッダを削除する。
+     *
+     * @param request リクエスト
+     * @param name ヘッダ名
+     * @param value ヘッダの値
+     */
+    private static void setOrRemoveHeader(HttpRequestBase request, String name, String value)
+    {
+        if (value == null)
+        {
+            request.removeHeaders(name);
+            return;
+        }
+
+        request.setHeader(name, value);
+    }
+
+    /**
+     * レスポンスヘッダの値を取得する。
+     *
+     * @param response レスポンス
+     * @param name ヘッダ名
+     * @return ヘッダの値。存在しない場合はnull
+     */
+    private static String getHeaderValue(HttpResponse response, String name)
+    {
+        Header header = response.getFirstHeader(name);
+        if (header == null)
+        {
+            return null;
+        }
+
+        return header.getValue();
+    }
+
+    /**
+     * バイト列のハッシュ値(FNV-1a 64bit)を算出する。
+     *
+     * @param body バイト列
+     * @return ハッシュ値
+     */
+    private static long hash(byte[] body)
+    {
+        long result = FNV_OFFSET_BASIS;
+        for (byte target : body)
+        {
+            result ^= (target & 0xFF);
+            result *= FNV_PRIME;
+        }
+
+        return result;
+    }
+
+    /**
+     * 文字列のハッシュ値(FNV-1a 64bit)を算出する。
+     *
+     * @param body 文字列
+     * @return ハッシュ値
+     */
+    private static long hash(String body)
+    {
+        long result = FNV_OFFSET_BASIS;
+        for (int index = 0; index < body.length(); index++)
+        {
+            result ^= body.charAt(index);
+            result *= FNV_PRIME;
+        }
+
+        return result;
+    }
+}
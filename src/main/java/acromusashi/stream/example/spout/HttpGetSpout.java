@@ -13,20 +13,29 @@
 package acromusashi.stream.example.spout;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.BasicResponseHandler;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import acromusashi.stream.entity.Header;
 import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.generator.MessageIdGenerator;
+import acromusashi.stream.example.generator.RandomMessageIdGenerator;
 import acromusashi.stream.spout.BaseConfigurationSpout;
 import backtype.storm.spout.SpoutOutputCollector;
 import backtype.storm.task.TopologyContext;
@@ -35,32 +44,96 @@ import backtype.storm.tuple.Fields;
 import backtype.storm.tuple.Values;
 
 /**
- * 一定間隔ごとにHTTPGetを行い、結果を取得して下流に送信するSpout
+ * 一定間隔ごとにHTTPGetを行い、結果を取得して下流に送信するSpout<br>
+ * バイト列送信を有効にした場合、レスポンスボディを文字列に変換せずにbyte[]のまま送信する。<br>
+ * 先読み件数を設定した場合、HTTPGetはバックグラウンドスレッドで一定間隔ごとに実行して結果を上限付きのキューに格納し、
+ * nextTupleではキューから取り出したメッセージの送信のみを行う。
+ * この場合nextTupleはHTTPGetやインターバルの待機でブロックしないため、ack/failの処理がHTTPGetの応答時間に影響されない。<br>
+ * キューが満杯の場合、バックグラウンドスレッドはHTTPGetを行わずに次の実行を待つ。<br>
+ * 条件付きGETを有効にした場合、ETag、Last-Modifiedを用いた条件付きGETを行い、304(Not Modified)の場合は送信しない。<br>
+ * 重複除外を有効にした場合、前回と同一のレスポンスボディは送信しない。<br>
+ * レコード形式(ndjson、jsonarray)を設定した場合、レスポンスボディ全体を保持せずにストリームとして読み込み、
+ * 1レコードごとに1メッセージとして送信する。この場合条件付きGET、重複除外は行わない。
+ * 先読みを行う場合はキューが空くまでレスポンスの読み込みを待機するため、下流の処理速度を超えて読み込むことはない。<br>
+ * 信頼性保証モードを有効にした場合、HeaderのメッセージIDをメッセージIDとして送信し、ack/failを受けるまでメッセージを再送バッファに保持する。
+ * failを受けたメッセージはHTTPGetを行わずに再送バッファから再送する。
+ * 再送バッファが上限に達している場合は新たなHTTPGetを行わないため、topology.max.spout.pendingと併せて流量制御として機能する。
+ * 1レスポンスの途中で再送バッファが上限に達した場合、残りのレコードは送信せずに保持し、ack/failを受けた後のnextTupleで送信する。
+ * ack/fail待ちのメッセージを再送バッファから除外することはない。<br>
+ * メッセージIDはMessageIdGeneratorで生成する。デフォルトではUUID形式を維持するRandomMessageIdGeneratorを使用する。
  *
  * @author kimura
  */
 public class HttpGetSpout extends BaseConfigurationSpout
 {
     /** serialVersionUID */
-    private static final long   serialVersionUID = -237111294339742815L;
+    private static final long                    serialVersionUID    = -237111294339742815L;
 
     /** logger */
-    private static final Logger logger           = LoggerFactory.getLogger(HttpGetSpout.class);
+    private static final Logger                  logger              = LoggerFactory.getLogger(HttpGetSpout.class);
 
     /** デフォルトのインターバル */
-    private static final long   DEFAULT_INTERVAL = 100;
+    private static final long                    DEFAULT_INTERVAL    = 100;
+
+    /** デフォルトの再送バッファ上限 */
+    private static final int                     DEFAULT_MAX_PENDING = 1000;
 
     /** アクセス先URI */
-    private String              targetUrl;
+    private String                               targetUrl;
 
     /** HTTPGET */
-    protected HttpGet           httpget;
+    protected HttpGet                            httpget;
 
-    /** HttpClient */
-    protected HttpClient        client;
+    /** HttpClient。open前に設定した場合は設定したHttpClientを使用する */
+    protected HttpClient                         client;
 
     /** HTTPGetリクエストを送信するインターバル（ミリ秒） */
-    protected long              interval         = DEFAULT_INTERVAL;
+    protected long                               interval            = DEFAULT_INTERVAL;
+
+    /** レスポンスボディをbyte[]のまま送信するか */
+    protected boolean                            rawBody;
+
+    /** 条件付きGET(If-None-Match、If-Modified-Since)を行うか */
+    protected boolean                            conditionalGet;
+
+    /** 前回と同一のレスポンスボディを除外するか */
+    protected boolean                            dedup;
+
+    /** レスポンスボディを取得するResponseHandler */
+    protected transient HttpBodyHandler          responseHandler;
+
+    /** レスポンスのレコード形式(ndjson、jsonarray)。未設定の場合はレスポンスボディ全体を1メッセージとして送信する */
+    protected String                             recordFormat;
+
+    /** レスポンスをレコード単位に分割するResponseHandler */
+    protected transient HttpRecordStreamHandler  recordHandler;
+
+    /** 先読み件数。0以下の場合は先読みを行わずnextTuple内でHTTPGetを行う */
+    protected int                                prefetchSize;
+
+    /** 先読みしたメッセージを格納するキュー */
+    protected transient BlockingQueue<Message>   prefetchQueue;
+
+    /** HTTPGetを行うバックグラウンドスレッド */
+    protected transient ScheduledExecutorService fetcher;
+
+    /** 信頼性保証モード(メッセージIDを付与して送信し、fail時に再送する)を使用するか */
+    protected boolean                            reliable;
+
+    /** 再送バッファに保持するack/fail待ちのメッセージ数の上限 */
+    protected int                                maxPending          = DEFAULT_MAX_PENDING;
+
+    /** ack/fail待ちのメッセージ(メッセージID、メッセージ)。送信順に保持する */
+    protected transient Map<Object, Message>     pendingMessages;
+
+    /** failを受けて再送待ちとなっているメッセージ */
+    protected transient Queue<Message>           replayQueue;
+
+    /** 再送バッファが上限に達したため未送信となっているレコード。読み込み順に保持する */
+    protected transient Queue<Object>            unsentRecords;
+
+    /** メッセージIDの生成に使用するMessageIdGenerator */
+    protected MessageIdGenerator                 messageIdGenerator  = new RandomMessageIdGenerator();
 
     /**
      * アクセス先URLを指定してインスタンスを生成する。
@@ -81,7 +154,46 @@ public class HttpGetSpout extends BaseConfigurationSpout
     {
         super.open(stormConf, context, collector);
         this.httpget = new HttpGet(this.targetUrl);
-        this.client = new DefaultHttpClient();
+
+        // 先読みスレッドから参照するため、先読みスレッドの開始前に生成する
+        if (this.client == null)
+        {
+            this.client = new DefaultHttpClient();
+        }
+
+        this.responseHandler = new HttpBodyHandler(this.rawBody, this.conditionalGet, this.dedup);
+        this.messageIdGenerator.prepare(context.getThisComponentId(), context.getThisTaskIndex());
+
+        if (this.reliable == true)
+        {
+            this.pendingMessages = new LinkedHashMap<Object, Message>();
+            this.replayQueue = new ArrayDeque<Message>();
+            this.unsentRecords = new ArrayDeque<Object>();
+        }
+
+        if (this.recordFormat != null)
+        {
+            this.recordHandler = createRecordHandler();
+        }
+
+        if (this.prefetchSize > 0)
+        {
+            startPrefetch();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close()
+    {
+        if (this.fetcher != null)
+        {
+            this.fetcher.shutdownNow();
+        }
+
+        super.close();
     }
 
     /**
@@ -90,43 +202,331 @@ public class HttpGetSpout extends BaseConfigurationSpout
     @Override
     public void nextTuple()
     {
-        String response = null;
+        // failを受けたメッセージがある場合はHTTPGetを行わずに再送する
+        if (this.replayQueue != null && this.replayQueue.isEmpty() == false)
+        {
+            emitMessage(this.replayQueue.poll());
+            return;
+        }
+
+        // 再送バッファが上限に達している場合はack/failを待つ
+        if (isPendingFull() == true)
+        {
+            return;
+        }
+
+        // 前回のレスポンスの未送信レコードがある場合はHTTPGetを行わずに送信する
+        if (this.unsentRecords != null && this.unsentRecords.isEmpty() == false)
+        {
+            emitUnsentRecords();
+            return;
+        }
+
+        // 先読みを行う場合はキューから取り出して送信する。キューが空の場合は待機せずに終了する
+        if (this.prefetchQueue != null)
+        {
+            Message prefetched = this.prefetchQueue.poll();
+            if (prefetched != null)
+            {
+                emitMessage(prefetched);
+            }
+
+            return;
+        }
+
+        if (this.recordHandler != null)
+        {
+            fetchRecords();
+        }
+        else
+        {
+            Message message = fetchMessage();
+            if (message != null)
+            {
+                emitMessage(message);
+            }
+        }
+
+        try
+        {
+            TimeUnit.MILLISECONDS.sleep(this.interval);
+        }
+        catch (InterruptedException iex)
+        {
+            if (logger.isDebugEnabled() == true)
+            {
+                logger.debug("Occur interrupt. Ignore interrupt.", iex);
+            }
+        }
+    }
+
+    /**
+     * バックグラウンドスレッドでの先読みを開始する。
+     */
+    protected void startPrefetch()
+    {
+        this.prefetchQueue = new ArrayBlockingQueue<Message>(this.prefetchSize);
+        this.fetcher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "HttpGetSpout-fetcher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        this.fetcher.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run()
+            {
+                prefetch();
+            }
+        }, 0, Math.max(this.interval, 1L), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * HTTPGetを行い、結果をキューに格納する。<br>
+     * キューが満杯の場合はHTTPGetを行わない。
+     */
+    protected void prefetch()
+    {
+        if (this.prefetchQueue.remainingCapacity() == 0)
+        {
+            return;
+        }
+
+        // 例外によりスケジュールが停止しないよう、全ての例外をここで捕捉する
+        try
+        {
+            if (this.recordHandler != null)
+            {
+                fetchRecords();
+                return;
+            }
+
+            Message message = fetchMessage();
+            if (message != null && this.prefetchQueue.offer(message) == false)
+            {
+                logger.debug("Prefetch queue is full. Drop message.");
+            }
+        }
+        catch (RuntimeException ex)
+        {
+            String logFormat = "Http get failed. Skip target get. : TargetUrl={0}";
+            logger.warn(MessageFormat.format(logFormat, this.targetUrl), ex);
+        }
+    }
+
+    /**
+     * HTTPGetを行い、結果を設定したメッセージを生成する。
+     *
+     * @return 生成したメッセージ。HTTPGetに失敗した場合、更新されていない場合はnull
+     */
+    protected Message fetchMessage()
+    {
+        Object response = null;
 
         try
         {
-            response = this.client.execute(this.httpget, new BasicResponseHandler());
+            this.responseHandler.prepareRequest(this.httpget);
+            response = this.client.execute(this.httpget, this.responseHandler);
         }
         catch (IOException ex)
         {
             String logFormat = "Http get failed. Skip target get. : TargetUrl={0}";
             logger.warn(MessageFormat.format(logFormat, this.targetUrl), ex);
-            return;
+            return null;
+        }
+
+        // 更新されていない場合は送信しない
+        if (response == null)
+        {
+            if (logger.isDebugEnabled() == true)
+            {
+                logger.debug(MessageFormat.format("Content not modified. : TargetUrl={0}",
+                        this.targetUrl));
+            }
+
+            return null;
+        }
+
+        return createMessage(response);
+    }
+
+    /**
+     * レコード単位に分割するResponseHandlerを生成する。<br>
+     * 先読みを行う場合は読み込んだレコードをキューに格納し、キューが満杯の場合は空くまで読み込みを待機する。
+     * 先読みを行わない場合は読み込んだレコードをそのまま送信する。
+     *
+     * @return 生成したResponseHandler
+     */
+    protected HttpRecordStreamHandler createRecordHandler()
+    {
+        HttpRecordStreamHandler.RecordListener listener;
+        if (this.prefetchSize > 0)
+        {
+            listener = new HttpRecordStreamHandler.RecordListener() {
+                @Override
+                public void onRecord(Object record) throws IOException
+                {
+                    try
+                    {
+                        HttpGetSpout.this.prefetchQueue.put(createMessage(record));
+                    }
+                    catch (InterruptedException ex)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting prefetch queue.");
+                    }
+                }
+            };
+        }
+        else
+        {
+            listener = new HttpRecordStreamHandler.RecordListener() {
+                @Override
+                public void onRecord(Object record)
+                {
+                    // 再送バッファが上限に達した後のレコードは保持し、次回以降のnextTupleで送信する
+                    Queue<Object> unsent = HttpGetSpout.this.unsentRecords;
+                    if (unsent != null && (isPendingFull() == true || unsent.isEmpty() == false))
+                    {
+                        unsent.offer(record);
+                        return;
+                    }
+
+                    emitMessage(createMessage(record));
+                }
+            };
         }
 
+        return new HttpRecordStreamHandler(this.recordFormat, this.rawBody, listener);
+    }
+
+    /**
+     * HTTPGetを行い、レスポンスをレコード単位に分割して処理する。
+     */
+    protected void fetchRecords()
+    {
+        try
+        {
+            int recordNum = this.client.execute(this.httpget, this.recordHandler);
+            if (logger.isDebugEnabled() == true)
+            {
+                logger.debug(MessageFormat.format("Http get records. : TargetUrl={0}, RecordNum={1}",
+                        this.targetUrl, recordNum));
+            }
+        }
+        catch (InterruptedIOException ex)
+        {
+            logger.debug("Interrupted while reading records. Stop reading.", ex);
+        }
+        catch (IOException ex)
+        {
+            String logFormat = "Http get failed. Skip target get. : TargetUrl={0}";
+            logger.warn(MessageFormat.format(logFormat, this.targetUrl), ex);
+        }
+    }
+
+    /**
+     * レスポンスボディを設定したメッセージを生成する。
+     *
+     * @param body レスポンスボディ
+     * @return 生成したメッセージ
+     */
+    protected Message createMessage(Object body)
+    {
         Header header = new Header();
-        header.setMessageId(UUID.randomUUID().toString());
+        header.setMessageId(this.messageIdGenerator.nextId());
         header.setTimestamp(System.currentTimeMillis());
         header.setType("http");
 
         Message message = new Message();
         message.setHeader(header);
-        message.setBody(response);
+        message.setBody(body);
+        return message;
+    }
+
+    /**
+     * 未送信レコードを再送バッファが上限に達するまで送信する。
+     */
+    protected void emitUnsentRecords()
+    {
+        while (isPendingFull() == false && this.unsentRecords.isEmpty() == false)
+        {
+            emitMessage(createMessage(this.unsentRecords.poll()));
+        }
+    }
 
-        getCollector().emit(new Values(message));
+    /**
+     * 再送バッファが上限に達しているかを判定する。
+     *
+     * @return 信頼性保証モードで再送バッファが上限に達している場合true
+     */
+    protected boolean isPendingFull()
+    {
+        return this.pendingMessages != null && this.pendingMessages.size() >= this.maxPending;
+    }
 
-        try
+    /**
+     * メッセージを送信する。<br>
+     * 信頼性保証モードの場合、HeaderのメッセージIDを付与して送信し、メッセージを再送バッファに保持する。
+     *
+     * @param message 送信メッセージ
+     */
+    protected void emitMessage(Message message)
+    {
+        if (this.pendingMessages == null)
         {
-            TimeUnit.MILLISECONDS.sleep(this.interval);
+            getCollector().emit(new Values(message));
+            return;
         }
-        catch (InterruptedException iex)
+
+        Object messageId = message.getHeader().getMessageId();
+        this.pendingMessages.put(messageId, message);
+        getCollector().emit(new Values(message), messageId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void ack(Object msgId)
+    {
+        if (this.pendingMessages != null)
         {
-            if (logger.isDebugEnabled() == true)
-            {
-                logger.debug("Occur interrupt. Ignore interrupt.", iex);
-            }
+            this.pendingMessages.remove(msgId);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fail(Object msgId)
+    {
+        if (this.pendingMessages == null)
+        {
+            return;
+        }
+
+        Message failed = this.pendingMessages.remove(msgId);
+        if (failed == null)
+        {
+            logger.warn(MessageFormat.format(
+                    "Failed message is not in replay buffer. Skip replay. : MessageId={0}", msgId));
+            return;
+        }
+
+        if (logger.isDebugEnabled() == true)
+        {
+            logger.debug(MessageFormat.format("Replay failed message. : MessageId={0}", msgId));
+        }
+
+        this.replayQueue.offer(failed);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -143,4 +543,68 @@ public class HttpGetSpout extends BaseConfigurationSpout
     {
         this.interval = interval;
     }
+
+    /**
+     * @param conditionalGet セットする conditionalGet
+     */
+    public void setConditionalGet(boolean conditionalGet)
+    {
+        this.conditionalGet = conditionalGet;
+    }
+
+    /**
+     * @param dedup セットする dedup
+     */
+    public void setDedup(boolean dedup)
+    {
+        this.dedup = dedup;
+    }
+
+    /**
+     * @param prefetchSize セットする prefetchSize
+     */
+    public void setPrefetchSize(int prefetchSize)
+    {
+        this.prefetchSize = prefetchSize;
+    }
+
+    /**
+     * @param reliable セットする reliable
+     */
+    public void setReliable(boolean reliable)
+    {
+        this.reliable = reliable;
+    }
+
+    /**
+     * @param maxPending セットする maxPending
+     */
+    public void setMaxPending(int maxPending)
+    {
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * @param recordFormat セットする recordFormat
+     */
+    public void setRecordFormat(String recordFormat)
+    {
+        this.recordFormat = recordFormat;
+    }
+
+    /**
+     * @param rawBody セットする rawBody
+     */
+    public void setRawBody(boolean rawBody)
+    {
+        this.rawBody = rawBody;
+    }
+
+    /**
+     * @param messageIdGenerator セットする messageIdGenerator
+     */
+    public void setMessageIdGenerator(MessageIdGenerator messageIdGenerator)
+    {
+        this.messageIdGenerator = messageIdGenerator;
+    }
 }
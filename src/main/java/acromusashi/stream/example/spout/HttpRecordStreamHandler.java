@@ -0,0 +1,300 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.spout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * HTTPGetのレスポンスボディをストリームとして読み込み、レコード単位に分割して通知するResponseHandler。<br>
+ * レスポンスボディ全体をメモリに保持せず、レコードを読み込むごとにRecordListenerに通知するため、
+ * 保持するメモリは1レコード分となり、ダウンロード完了前に先頭のレコードを後続処理に渡すことができる。<br>
+ * 下記のレスポンス形式に対応する。
+ * <ul>
+ * <li>ndjson : 改行区切りのJSON(1行1レコード。空行は無視する)</li>
+ * <li>jsonarray : JSON配列(配列の要素1つを1レコードとする)</li>
+ * </ul>
+ * BasicResponseHandlerと同じく、ステータスコードが300以上の場合はHttpResponseExceptionを送出する。<br>
+ * 本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ */
+public class HttpRecordStreamHandler implements ResponseHandler<Integer>
+{
+    /** レスポンス形式：改行区切りのJSON */
+    public static final String          FORMAT_NDJSON     = "ndjson";
+
+    /** レスポンス形式：JSON配列 */
+    public static final String          FORMAT_JSON_ARRAY = "jsonarray";
+
+    /** 読み込みバッファサイズ */
+    private static final int            BUFFER_SIZE       = 8192;
+
+    /** レスポンス形式 */
+    private final String                format;
+
+    /** レコードをbyte[]として通知するか */
+    private final boolean               rawBody;
+
+    /** レコードの通知先 */
+    private final RecordListener        listener;
+
+    /** JsonParser、JsonGenerator生成用のファクトリ */
+    private final JsonFactory           factory           = new JsonFactory();
+
+    /** レコード読み込み用のバッファ */
+    private final ByteArrayOutputStream recordBuffer      = new ByteArrayOutputStream(BUFFER_SIZE);
+
+    /**
+     * レスポンス形式と通知先を指定してインスタンスを生成する。
+     *
+     * @param format レスポンス形式(ndjson、jsonarray)
+     * @param rawBody レコードをbyte[]として通知するか
+     * @param listener レコードの通知先
+     * @throws IllegalArgumentException レスポンス形式が不正な場合
+     */
+    public HttpRecordStreamHandler(String format, boolean rawBody, RecordListener listener)
+    {
+        if (FORMAT_NDJSON.equals(format) == false && FORMAT_JSON_ARRAY.equals(format) == false)
+        {
+            throw new IllegalArgumentException("Unsupported record format. : Format=" + format);
+        }
+
+        this.format = format;
+        this.rawBody = rawBody;
+        this.listener = listener;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return 通知したレコード数
+     */
+    @Override
+    public Integer handleResponse(HttpResponse response) throws IOException
+    {
+        StatusLine statusLine = response.getStatusLine();
+        HttpEntity entity = response.getEntity();
+        if (statusLine.getStatusCode() >= 300)
+        {
+            EntityUtils.consume(entity);
+            throw new HttpResponseException(statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase());
+        }
+
+        if (entity == null)
+        {
+            return 0;
+        }
+
+        InputStream input = entity.getContent();
+        try
+        {
+            if (FORMAT_NDJSON.equals(this.format) == true)
+            {
+                return readLines(input, getCharset(entity));
+            }
+
+            return readArray(input);
+        }
+        finally
+        {
+            this.recordBuffer.reset();
+            input.close();
+        }
+    }
+
+    /**
+     * 改行区切りのレコードを読み込み、1行ごとに通知する。
+     *
+     * @param input 入力ストリーム
+     * @param charset 文字コード
+     * @return 通知したレコード数
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private int readLines(InputStream input, Charset charset) throws IOException
+    {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int recordNum = 0;
+        int readSize;
+        while ((readSize = input.read(buffer)) >= 0)
+        {
+            int start = 0;
+            for (int index = 0; index < readSize; index++)
+            {
+                if (buffer[index] != '\n')
+                {
+                    continue;
+                }
+
+                this.recordBuffer.write(buffer, start, index - start);
+                recordNum += flushLine(charset);
+                start = index + 1;
+            }
+
+            this.recordBuffer.write(buffer, start, readSize - start);
+        }
+
+        // 末尾が改行で終わらない場合の最終行
+        recordNum += flushLine(charset);
+        return recordNum;
+    }
+
+    /**
+     * バッファに読み込んだ1行をレコードとして通知する。空行の場合は通知しない。
+     *
+     * @param charset 文字コード
+     * @return 通知したレコード数(0または1)
+     * @throws IOException 通知に失敗した場合
+     */
+    private int flushLine(Charset charset) throws IOException
+    {
+        byte[] line = this.recordBuffer.toByteArray();
+        this.recordBuffer.reset();
+
+        int length = line.length;
+        while (length > 0 && (line[length - 1] == '\r' || line[length - 1] == ' '
+                || line[length - 1] == '\t'))
+        {
+            length--;
+        }
+
+        if (length == 0)
+        {
+            return 0;
+        }
+
+        if (this.rawBody == true)
+        {
+            byte[] record = line;
+            if (length != line.length)
+            {
+                record = new byte[length];
+                System.arraycopy(line, 0, record, 0, length);
+            }
+
+            this.listener.onRecord(record);
+        }
+        else
+        {
+            this.listener.onRecord(new String(line, 0, length, charset));
+        }
+
+        return 1;
+    }
+
+    /**
+     * JSON配列を読み込み、要素ごとに通知する。<br>
+     * 要素はJsonGeneratorでバッファに書き出すため、要素のツリーは生成しない。
+     *
+     * @param input 入力ストリーム
+     * @return 通知したレコード数
+     * @throws IOException 読み込みに失敗した場合、JSON配列でない場合
+     */
+    private int readArray(InputStream input) throws IOException
+    {
+        JsonParser parser = this.factory.createParser(input);
+        try
+        {
+            if (parser.nextToken() != JsonToken.START_ARRAY)
+            {
+                throw new JsonParseException("Response is not JSON array.",
+                        parser.getCurrentLocation());
+            }
+
+            int recordNum = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY)
+            {
+                if (parser.getCurrentToken() == null)
+                {
+                    throw new JsonParseException("Unexpected end of JSON array.",
+                            parser.getCurrentLocation());
+                }
+
+                JsonGenerator generator = this.factory.createGenerator(this.recordBuffer,
+                        JsonEncoding.UTF8);
+                generator.copyCurrentStructure(parser);
+                generator.close();
+
+                byte[] record = this.recordBuffer.toByteArray();
+                this.recordBuffer.reset();
+
+                if (this.rawBody == true)
+                {
+                    this.listener.onRecord(record);
+                }
+                else
+                {
+                    this.listener.onRecord(new String(record, StandardCharsets.UTF_8));
+                }
+
+                recordNum++;
+            }
+
+            return recordNum;
+        }
+        finally
+        {
+            parser.close();
+        }
+    }
+
+    /**
+     * レスポンスの文字コードを取得する。指定されていない場合はUTF-8とする。
+     *
+     * @param entity レスポンスのエンティティ
+     * @return 文字コード
+     */
+    private static Charset getCharset(HttpEntity entity)
+    {
+        ContentType contentType = ContentType.get(entity);
+        if (contentType == null || contentType.getCharset() == null)
+        {
+            return StandardCharsets.UTF_8;
+        }
+
+        return contentType.getCharset();
+    }
+
+    /**
+     * レコードの通知先。
+     */
+    public interface RecordListener
+    {
+        /**
+         * 読み込んだレコードを受け取る。
+         *
+         * @param record レコード(文字列またはbyte[])
+         * @throws IOException レコードの処理を中断する場合
+         */
+        void onRecord(Object record) throws IOException;
+    }
+}
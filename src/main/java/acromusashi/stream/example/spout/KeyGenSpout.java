@@ -0,0 +1,319 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.spout;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import acromusashi.stream.entity.Header;
+import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.generator.HotSetKeySampler;
+import acromusashi.stream.example.generator.KeySampler;
+import acromusashi.stream.example.generator.UniformKeySampler;
+import acromusashi.stream.example.generator.ZipfKeySampler;
+import backtype.storm.spout.SpoutOutputCollector;
+import backtype.storm.task.TopologyContext;
+import backtype.storm.topology.OutputFieldsDeclarer;
+import backtype.storm.tuple.Fields;
+import backtype.storm.tuple.Values;
+
+/**
+ * 偏りのある分布に従って抽出したキーを持つメッセージを送信する、グルーピング評価用のSpout。<br>
+ * キー(単語、IPアドレス)ごとのメッセージボディをopen時に生成してプールし、
+ * 送信時は分布(Zipf分布、ホットセット、一様分布)に従ってキーを抽出して対応するメッセージボディを送信する。
+ * 送信レートの制御はLoadGenSpoutと同じくトークンバケットで行う。<br>
+ * 抽出したキーはHeaderの送信元に設定し、「key」フィールドとしても送信するため、キーによるfieldsGroupingが可能となる。<br>
+ * 乱数のシードにはタスクインデックスを加算して使用するため、同一のシード、並列度であれば送信するキーの順序を再現できる。<br>
+ * メッセージの形式は下記から選択する。
+ * <ul>
+ * <li>message : [キー, キーのインデックス]のList</li>
+ * <li>snmp : [キーを送信元(sender)としたSNMP形式のJSON文字列, キーのインデックス]のList</li>
+ * <li>json : 「contents」にキーを設定したJSON文字列</li>
+ * <li>bytes : キーのUTF-8バイト列</li>
+ * </ul>
+ *
+ * @author kimura
+ */
+public class KeyGenSpout extends LoadGenSpout
+{
+    /** serialVersionUID */
+    private static final long      serialVersionUID  = 4823607511240943871L;
+
+    /** キー種別：英小文字の単語 */
+    public static final String     KEY_WORD          = "word";
+
+    /** キー種別：IPアドレス */
+    public static final String     KEY_IP            = "ip";
+
+    /** 分布：Zipf分布 */
+    public static final String     DIST_ZIPF         = "zipf";
+
+    /** 分布：ホットセット */
+    public static final String     DIST_HOTSET       = "hotset";
+
+    /** 分布：一様分布 */
+    public static final String     DIST_UNIFORM      = "uniform";
+
+    /** デフォルトのキー数 */
+    private static final int       DEFAULT_KEY_COUNT = 10000;
+
+    /** デフォルトのホットセットのキー数 */
+    private static final int       DEFAULT_HOT_COUNT = 100;
+
+    /** デフォルトのホットセットを抽出する確率 */
+    private static final double    DEFAULT_HOT_RATIO = 0.9d;
+
+    /** 単語の生成に使用する文字 */
+    private static final String    KEY_CHARS         = "abcdefghijklmnopqrstuvwxyz";
+
+    /** キー種別 */
+    protected String               keyType           = KEY_WORD;
+
+    /** キー数 */
+    protected int                  keyCount          = DEFAULT_KEY_COUNT;
+
+    /** キーの分布 */
+    protected String               distribution      = DIST_ZIPF;
+
+    /** Zipf分布の指数 */
+    protected double               zipfExponent      = 1.0d;
+
+    /** ホットセットのキー数 */
+    protected int                  hotCount          = DEFAULT_HOT_COUNT;
+
+    /** ホットセットを抽出する確率 */
+    protected double               hotRatio          = DEFAULT_HOT_RATIO;
+
+    /** キー */
+    protected transient String[]   keys;
+
+    /** キーの抽出に使用するKeySampler */
+    protected transient KeySampler sampler;
+
+    /** キーの抽出に使用する乱数 */
+    protected transient Random     sampleRandom;
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public KeyGenSpout()
+    {
+        this.shape = SHAPE_JSON;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void open(Map stormConf, TopologyContext context, SpoutOutputCollector collector)
+    {
+        this.keys = new String[this.keyCount];
+        for (int index = 0; index < this.keyCount; index++)
+        {
+            this.keys[index] = createKey(index);
+        }
+
+        // メッセージボディはキーごとに1件プールする
+        this.poolSize = this.keyCount;
+        super.open(stormConf, context, collector);
+
+        this.sampler = createSampler();
+        this.sampleRandom = new Random(this.seed + context.getThisTaskIndex());
+    }
+
+    /**
+     * キーの分布に応じたKeySamplerを生成する。
+     *
+     * @return KeySampler
+     * @throws IllegalArgumentException 分布が不正な場合
+     */
+    protected KeySampler createSampler()
+    {
+        if (DIST_ZIPF.equals(this.distribution) == true)
+        {
+            return new ZipfKeySampler(this.keyCount, this.zipfExponent);
+        }
+        else if (DIST_HOTSET.equals(this.distribution) == true)
+        {
+            return new HotSetKeySampler(this.keyCount, Math.min(this.hotCount, this.keyCount),
+                    this.hotRatio);
+        }
+        else if (DIST_UNIFORM.equals(this.distribution) == true)
+        {
+            return new UniformKeySampler(this.keyCount);
+        }
+
+        throw new IllegalArgumentException("Unsupported distribution. : Distribution="
+                + this.distribution);
+    }
+
+    /**
+     * インデックスに対応するキーを生成する。<br>
+     * 単語の場合はインデックスを26進数とみなした英小文字の並び(a、b、…、z、aa、ab、…)、
+     * IPアドレスの場合は10.0.0.0/8の範囲でインデックスに対応するアドレスとする。
+     *
+     * @param index キーのインデックス
+     * @return キー
+     * @throws IllegalArgumentException キー種別が不正な場合
+     */
+    protected String createKey(int index)
+    {
+        if (KEY_IP.equals(this.keyType) == true)
+        {
+            return "10." + ((index >>> 16) & 0xFF) + "." + ((index >>> 8) & 0xFF) + "."
+                    + (index & 0xFF);
+        }
+        else if (KEY_WORD.equals(this.keyType) == false)
+        {
+            throw new IllegalArgumentException("Unsupported key type. : KeyType=" + this.keyType);
+        }
+
+        StringBuilder builder = new StringBuilder();
+        int value = index;
+        do
+        {
+            builder.append(KEY_CHARS.charAt(value % KEY_CHARS.length()));
+            value = value / KEY_CHARS.length() - 1;
+        }
+        while (value >= 0);
+
+        return builder.reverse().toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object createBody(int index, Random random)
+    {
+        String key = this.keys[index];
+        if (SHAPE_JSON.equals(this.shape) == true)
+        {
+            return "{\"contents\":\"" + key + "\"}";
+        }
+        else if (SHAPE_BYTES.equals(this.shape) == true)
+        {
+            return key.getBytes(StandardCharsets.UTF_8);
+        }
+
+        List<Object> body = new ArrayList<Object>();
+        if (SHAPE_SNMP.equals(this.shape) == true)
+        {
+            body.add("{\"sender\":\"" + key + "\",\"type\":\"snmp\",\"timestamp\":\""
+                    + System.currentTimeMillis() + "\",\"version\":\"1.0\"}");
+        }
+        else if (SHAPE_MESSAGE.equals(this.shape) == true)
+        {
+            body.add(key);
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unsupported message shape. : Shape=" + this.shape);
+        }
+
+        body.add(index);
+        return body;
+    }
+
+    /**
+     * 分布に従ってキーを抽出する。
+     *
+     * @return 抽出したキーのインデックス
+     */
+    @Override
+    protected int nextPoolIndex()
+    {
+        return this.sampler.next(this.sampleRandom);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Header createHeader(int index, long timestamp)
+    {
+        Header header = super.createHeader(index, timestamp);
+        header.setSource(this.keys[index]);
+        return header;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void emitMessage(Message message, int index)
+    {
+        getCollector().emit(new Values(message, this.keys[index]));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer)
+    {
+        declarer.declare(new Fields("message", "key"));
+    }
+
+    /**
+     * @param keyType セットする keyType
+     */
+    public void setKeyType(String keyType)
+    {
+        this.keyType = keyType;
+    }
+
+    /**
+     * @param keyCount セットする keyCount
+     */
+    public void setKeyCount(int keyCount)
+    {
+        this.keyCount = keyCount;
+    }
+
+    /**
+     * @param distribution セットする distribution
+     */
+    public void setDistribution(String distribution)
+    {
+        this.distribution = distribution;
+    }
+
+    /**
+     * @param zipfExponent セットする zipfExponent
+     */
+    public void setZipfExponent(double zipfExponent)
+    {
+        this.zipfExponent = zipfExponent;
+    }
+
+    /**
+     * @param hotCount セットする hotCount
+     */
+    public void setHotCount(int hotCount)
+    {
+        this.hotCount = hotCount;
+    }
+
+    /**
+     * @param hotRatio セットする hotRatio
+     */
+    public void setHotRatio(double hotRatio)
+    {
+        this.hotRatio = hotRatio;
+    }
+}
@@ -0,0 +1,420 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.spout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import acromusashi.stream.entity.Header;
+import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.generator.MessageIdGenerator;
+import acromusashi.stream.example.generator.SequenceMessageIdGenerator;
+import acromusashi.stream.example.generator.TokenBucket;
+import acromusashi.stream.spout.BaseConfigurationSpout;
+import backtype.storm.Config;
+import backtype.storm.spout.SpoutOutputCollector;
+import backtype.storm.task.TopologyContext;
+import backtype.storm.topology.OutputFieldsDeclarer;
+import backtype.storm.tuple.Fields;
+import backtype.storm.tuple.Values;
+
+/**
+ * 負荷試験用に、指定したレートで共通メッセージを生成してBoltに送信するSpout。<br>
+ * トークンバケットによりタスクあたりの送信レートを制御し、1回のnextTupleでは最大でバースト数分のメッセージを送信する。
+ * 送信可能なメッセージがない間はStormのSpoutWaitStrategyで待機するため、バケット容量はバースト数とは別に、
+ * 待機中に補充されるトークンを保持できる容量(送信レートのSpoutWaitStrategy待機時間の2倍分、最小10ミリ秒分)とする。
+ * レートに0以下を指定した場合はレート制御を行わず、nextTupleごとにバースト数分のメッセージを送信する。<br>
+ * メッセージボディはopen時に指定件数分を生成してプールし、送信時は順番に再利用するため、送信時にボディの生成は行わない。
+ * ボディは送信先で共有されるため、下流のBoltでは変更しないこと。
+ * Headerは送信時刻、メッセージIDを保持するため送信ごとに生成する。<br>
+ * メッセージの形式は下記から選択する。
+ * <ul>
+ * <li>message : PeriodicalMessageGenSpoutと同形式(ボディは[ペイロード文字列, 連番]のList)</li>
+ * <li>snmp : PeriodicalSnmpGenSpoutと同形式(ボディは[SNMP形式のJSON文字列, 連番]のList)</li>
+ * <li>json : 「contents」にペイロード文字列を設定したJSON文字列</li>
+ * <li>bytes : ランダムなbyte[]</li>
+ * </ul>
+ *
+ * @author kimura
+ */
+public class LoadGenSpout extends BaseConfigurationSpout
+{
+    /** serialVersionUID */
+    private static final long       serialVersionUID   = -3159440208117415876L;
+
+    /** メッセージ形式：PeriodicalMessageGenSpoutと同形式 */
+    public static final String      SHAPE_MESSAGE      = "message";
+
+    /** メッセージ形式：PeriodicalSnmpGenSpoutと同形式 */
+    public static final String      SHAPE_SNMP         = "snmp";
+
+    /** メッセージ形式：JSON文字列 */
+    public static final String      SHAPE_JSON         = "json";
+
+    /** メッセージ形式：byte[] */
+    public static final String      SHAPE_BYTES        = "bytes";
+
+    /** デフォルトの送信レート(件/秒) */
+    private static final long       DEFAULT_RATE       = 1000;
+
+    /** デフォルトのペイロードサイズ */
+    private static final int        DEFAULT_PAYLOAD    = 100;
+
+    /** デフォルトのプール件数 */
+    private static final int        DEFAULT_POOL_SIZE  = 1024;
+
+    /** バースト数未指定時に、バースト数として使用する送信レートの割合(10ミリ秒分) */
+    private static final int        AUTO_BURST_DIVISOR = 100;
+
+    /** バケット容量として保持する送信レートの最小時間(ミリ秒) */
+    private static final long       MIN_BUCKET_MILLIS  = 10;
+
+    /** SpoutWaitStrategyの待機時間(ミリ秒)未設定時のデフォルト値 */
+    private static final long       DEFAULT_WAIT_TIME  = 1;
+
+    /** レート制御を行わない場合のデフォルトのバースト数 */
+    private static final int        UNLIMITED_BURST    = 1000;
+
+    /** 送信元 */
+    private static final String     SOURCE             = "192.168.0.1";
+
+    /** ペイロード文字列に使用する文字 */
+    private static final String     WORD_CHARS         = "abcdefghijklmnopqrstuvwxyz";
+
+    /** メッセージ形式 */
+    protected String                shape              = SHAPE_MESSAGE;
+
+    /** タスクあたりの送信レート(件/秒)。0以下の場合はレート制御を行わない */
+    protected long                  rate               = DEFAULT_RATE;
+
+    /** 1回のnextTupleで送信する最大件数。0以下の場合は送信レートから算出する */
+    protected int                   burstSize;
+
+    /** ペイロードサイズ(文字数またはバイト数) */
+    protected int                   payloadSize        = DEFAULT_PAYLOAD;
+
+    /** プールするメッセージボディの件数 */
+    protected int                   poolSize           = DEFAULT_POOL_SIZE;
+
+    /** ペイロード生成に使用する乱数のシード。タスクごとにタスクインデックスを加算して使用する */
+    protected long                  seed;
+
+    /** プールしたメッセージボディ */
+    protected transient Object[]    bodyPool;
+
+    /** 次に送信するメッセージボディのインデックス */
+    protected transient int         poolIndex;
+
+    /** 送信レートの制御に使用するトークンバケット。レート制御を行わない場合はnull */
+    protected transient TokenBucket bucket;
+
+    /** 1回のnextTupleで送信する最大件数 */
+    protected transient int         batchSize;
+
+    /** メッセージIDの生成に使用するMessageIdGenerator */
+    protected MessageIdGenerator    messageIdGenerator = new SequenceMessageIdGenerator();
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public LoadGenSpout()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void open(Map stormConf, TopologyContext context, SpoutOutputCollector collector)
+    {
+        super.open(stormConf, context, collector);
+
+        int taskIndex = context.getThisTaskIndex();
+        Random random = new Random(this.seed + taskIndex);
+        this.bodyPool = new Object[Math.max(this.poolSize, 1)];
+        for (int index = 0; index < this.bodyPool.length; index++)
+        {
+            this.bodyPool[index] = createBody(index, random);
+        }
+
+        this.batchSize = this.burstSize;
+        if (this.rate > 0)
+        {
+            if (this.batchSize <= 0)
+            {
+                this.batchSize = (int) Math.max(1L, this.rate / AUTO_BURST_DIVISOR);
+            }
+
+            this.bucket = new TokenBucket(this.rate, calcBucketCapacity(stormConf),
+                    System.nanoTime());
+        }
+        else if (this.batchSize <= 0)
+        {
+            this.batchSize = UNLIMITED_BURST;
+        }
+
+        this.messageIdGenerator.prepare(context.getThisComponentId(), taskIndex);
+    }
+
+    /**
+     * トークンバケットの容量を算出する。<br>
+     * バケット容量をバースト数とすると、バースト数が小さい場合にSpoutWaitStrategyの待機中に補充されるトークンが
+     * 容量を超えて失われ、送信レートに達しない。このため、待機時間中に補充されるトークンを保持できる容量とする。
+     *
+     * @param stormConf Storm設定
+     * @return バケット容量
+     */
+    @SuppressWarnings("rawtypes")
+    protected long calcBucketCapacity(Map stormConf)
+    {
+        long waitMillis = DEFAULT_WAIT_TIME;
+        Object waitConf = stormConf.get(Config.TOPOLOGY_SLEEP_SPOUT_WAIT_STRATEGY_TIME_MS);
+        if (waitConf instanceof Number)
+        {
+            waitMillis = ((Number) waitConf).longValue();
+        }
+
+        long bucketMillis = Math.max(waitMillis * 2, MIN_BUCKET_MILLIS);
+        return Math.max(this.batchSize, this.rate * bucketMillis / 1000);
+    }
+
+    /**
+     * 送信レートの範囲内でメッセージを送信する。<br>
+     * 送信可能なメッセージがない場合は待機せずに終了し、待機はStormのSpoutWaitStrategyに委ねる。
+     */
+    @Override
+    public void nextTuple()
+    {
+        long count = this.batchSize;
+        if (this.bucket != null)
+        {
+            count = this.bucket.acquire(this.batchSize, System.nanoTime());
+        }
+
+        if (count == 0)
+        {
+            return;
+        }
+
+        long timestamp = System.currentTimeMillis();
+        for (long sent = 0; sent < count; sent++)
+        {
+            int index = nextPoolIndex();
+            Message message = new Message();
+            message.setHeader(createHeader(index, timestamp));
+            message.setBody(this.bodyPool[index]);
+            emitMessage(message, index);
+        }
+    }
+
+    /**
+     * 次に送信するメッセージボディのプール内インデックスを取得する。プールを先頭から順番に使用する。
+     *
+     * @return プール内インデックス
+     */
+    protected int nextPoolIndex()
+    {
+        int index = this.poolIndex;
+        this.poolIndex++;
+        if (this.poolIndex == this.bodyPool.length)
+        {
+            this.poolIndex = 0;
+        }
+
+        return index;
+    }
+
+    /**
+     * メッセージを送信する。
+     *
+     * @param message 送信メッセージ
+     * @param index メッセージボディのプール内インデックス
+     */
+    protected void emitMessage(Message message, int index)
+    {
+        getCollector().emit(new Values(message));
+    }
+
+    /**
+     * 送信するメッセージのHeaderを生成する。
+     *
+     * @param index メッセージボディのプール内インデックス
+     * @param timestamp 送信時刻
+     * @return Header
+     */
+    protected Header createHeader(int index, long timestamp)
+    {
+        Header header = new Header();
+        header.setMessageId(this.messageIdGenerator.nextId());
+        header.setTimestamp(timestamp);
+        header.setSource(SOURCE);
+
+        if (SHAPE_SNMP.equals(this.shape) == true)
+        {
+            header.setType("snmp");
+            header.addAdditionalHeader("SNMPVersion", "v2c");
+        }
+        else if (SHAPE_JSON.equals(this.shape) == true)
+        {
+            header.setType("json");
+        }
+        else if (SHAPE_BYTES.equals(this.shape) == true)
+        {
+            header.setType("raw");
+        }
+        else
+        {
+            header.setType("message");
+        }
+
+        return header;
+    }
+
+    /**
+     * プールするメッセージボディを生成する。
+     *
+     * @param index プール内のインデックス
+     * @param random 乱数
+     * @return メッセージボディ
+     * @throws IllegalArgumentException メッセージ形式が不正な場合
+     */
+    protected Object createBody(int index, Random random)
+    {
+        if (SHAPE_BYTES.equals(this.shape) == true)
+        {
+            byte[] body = new byte[this.payloadSize];
+            random.nextBytes(body);
+            return body;
+        }
+
+        String text = createText(this.payloadSize, random);
+        if (SHAPE_JSON.equals(this.shape) == true)
+        {
+            return "{\"contents\":\"" + text + "\"}";
+        }
+
+        List<Object> body = new ArrayList<Object>();
+        if (SHAPE_SNMP.equals(this.shape) == true)
+        {
+            body.add("{\"sender\":\"localhost\",\"type\":\"snmp\",\"timestamp\":\""
+                    + System.currentTimeMillis() + "\",\"version\":\"1.0\",\"payload\":\"" + text
+                    + "\"}");
+        }
+        else if (SHAPE_MESSAGE.equals(this.shape) == true)
+        {
+            body.add(text);
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unsupported message shape. : Shape=" + this.shape);
+        }
+
+        body.add(index);
+        return body;
+    }
+
+    /**
+     * 空白区切りの英小文字の単語からなるペイロード文字列を生成する。
+     *
+     * @param size 文字数
+     * @param random 乱数
+     * @return ペイロード文字列
+     */
+    protected String createText(int size, Random random)
+    {
+        StringBuilder builder = new StringBuilder(size);
+        while (builder.length() < size)
+        {
+            if (builder.length() > 0)
+            {
+                builder.append(' ');
+            }
+
+            int wordLength = 2 + random.nextInt(7);
+            for (int count = 0; count < wordLength; count++)
+            {
+                builder.append(WORD_CHARS.charAt(random.nextInt(WORD_CHARS.length())));
+            }
+        }
+
+        builder.setLength(size);
+        return builder.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer)
+    {
+        declarer.declare(new Fields("message"));
+    }
+
+    /**
+     * @param shape セットする shape
+     */
+    public void setShape(String shape)
+    {
+        this.shape = shape;
+    }
+
+    /**
+     * @param rate セットする rate
+     */
+    public void setRate(long rate)
+    {
+        this.rate = rate;
+    }
+
+    /**
+     * @param burstSize セットする burstSize
+     */
+    public void setBurstSize(int burstSize)
+    {
+        this.burstSize = burstSize;
+    }
+
+    /**
+     * @param payloadSize セットする payloadSize
+     */
+    public void setPayloadSize(int payloadSize)
+    {
+        this.payloadSize = payloadSize;
+    }
+
+    /**
+     * @param poolSize セットする poolSize
+     */
+    public void setPoolSize(int poolSize)
+    {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * @param seed セットする seed
+     */
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+
+    /**
+     * @param messageIdGenerator セットする messageIdGenerator
+     */
+    public void setMessageIdGenerator(MessageIdGenerator messageIdGenerator)
+    {
+        this.messageIdGenerator = messageIdGenerator;
+    }
+}
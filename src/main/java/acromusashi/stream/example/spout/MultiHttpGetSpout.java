@@ -0,0 +1,463 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.spout;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import acromusashi.stream.entity.Header;
+import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.generator.MessageIdGenerator;
+import acromusashi.stream.example.generator.RandomMessageIdGenerator;
+import acromusashi.stream.spout.BaseConfigurationSpout;
+import backtype.storm.spout.SpoutOutputCollector;
+import backtype.storm.task.TopologyContext;
+import backtype.storm.topology.OutputFieldsDeclarer;
+import backtype.storm.tuple.Fields;
+import backtype.storm.tuple.Values;
+
+/**
+ * 複数のURLに対して取得対象ごとの間隔でHTTPGetを行い、結果を取得して下流に送信するSpout<br>
+ * 取得対象はSpoutのタスクインデックスに従って各タスクに分散して割り当てる。(取得対象のインデックス % タスク数 == タスクインデックス)<br>
+ * HTTPGetはタスク内の全取得対象でKeep-Aliveを行うコネクションプールを共有し、同時接続数の上限と同数のバックグラウンドスレッドで実行する。<br>
+ * 取得結果は上限付きのキューに格納し、nextTupleではキューから取り出したメッセージの送信のみを行う。<br>
+ * 取得対象は「URL」または「URL|取得間隔(ミリ秒)」の形式で指定する。取得間隔を省略した場合はデフォルトの取得間隔を使用する。
+ * 取得間隔が数値でない取得対象、URLが不正な取得対象はエラーログを出力して除外する。<br>
+ * 送信するメッセージのヘッダのsourceには取得対象のURLを設定する。<br>
+ * メッセージIDはバックグラウンドスレッドから並行してMessageIdGeneratorで生成するため、スレッドセーフなMessageIdGeneratorを使用すること。
+ *
+ * @author kimura
+ */
+public class MultiHttpGetSpout extends BaseConfigurationSpout
+{
+    /** serialVersionUID */
+    private static final long                    serialVersionUID         = -6152838004516411447L;
+
+    /** logger */
+    private static final Logger                  logger                   = LoggerFactory.getLogger(MultiHttpGetSpout.class);
+
+    /** URLと取得間隔の区切り文字 */
+    private static final String                  INTERVAL_SEPARATOR       = "|";
+
+    /** デフォルトの取得間隔(ミリ秒) */
+    private static final long                    DEFAULT_INTERVAL         = 100;
+
+    /** デフォルトの同時接続数上限 */
+    private static final int                     DEFAULT_MAX_CONNECTIONS  = 20;
+
+    /** デフォルトの先読み件数 */
+    private static final int                     DEFAULT_PREFETCH_SIZE    = 1000;
+
+    /** デフォルトの接続、読み込みタイムアウト(ミリ秒) */
+    private static final int                     DEFAULT_TIMEOUT          = 10000;
+
+    /** 取得対象定義(「URL」または「URL|取得間隔(ミリ秒)」)のリスト */
+    private List<String>                         targetDefines;
+
+    /** デフォルトの取得間隔(ミリ秒) */
+    protected long                               interval                 = DEFAULT_INTERVAL;
+
+    /** タスクごとの同時接続数上限 */
+    protected int                                maxConnections           = DEFAULT_MAX_CONNECTIONS;
+
+    /** タスクごとの先読み件数 */
+    protected int                                prefetchSize             = DEFAULT_PREFETCH_SIZE;
+
+    /** 接続、読み込みタイムアウト(ミリ秒) */
+    protected int                                timeout                  = DEFAULT_TIMEOUT;
+
+    /** レスポンスボディをbyte[]のまま送信するか */
+    protected boolean                            rawBody;
+
+    /** 条件付きGET(If-None-Match、If-Modified-Since)を行うか */
+    protected boolean                            conditionalGet;
+
+    /** 前回と同一のレスポンスボディを除外するか */
+    protected boolean                            dedup;
+
+    /** 自タスクに割り当てられた取得対象 */
+    protected transient List<HttpTarget>         targets;
+
+    /** コネクションプールを共有するHttpClient */
+    protected transient CloseableHttpClient      client;
+
+    /** 取得したメッセージを格納するキュー */
+    protected transient BlockingQueue<Message>   fetchedQueue;
+
+    /** HTTPGetを行うバックグラウンドスレッド */
+    protected transient ScheduledExecutorService fetcher;
+
+    /** メッセージIDの生成に使用するMessageIdGenerator */
+    protected MessageIdGenerator                 messageIdGenerator       = new RandomMessageIdGenerator();
+
+    /**
+     * 取得対象定義のリストを指定してインスタンスを生成する。
+     *
+     * @param targetDefines 取得対象定義(「URL」または「URL|取得間隔(ミリ秒)」)のリスト
+     */
+    public MultiHttpGetSpout(List<String> targetDefines)
+    {
+        this.targetDefines = new ArrayList<String>(targetDefines);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void open(Map stormConf, TopologyContext context, SpoutOutputCollector collector)
+    {
+        super.open(stormConf, context, collector);
+
+        int taskIndex = context.getThisTaskIndex();
+        int taskNum = context.getComponentTasks(context.getThisComponentId()).size();
+        this.targets = assignTargets(taskIndex, taskNum);
+
+        String logFormat = "Assigned http targets. : TaskIndex={0}, TaskNum={1}, TargetNum={2}";
+        logger.info(MessageFormat.format(logFormat, taskIndex, taskNum, this.targets.size()));
+
+        this.messageIdGenerator.prepare(context.getThisComponentId(), taskIndex);
+        this.fetchedQueue = new ArrayBlockingQueue<Message>(this.prefetchSize);
+        this.client = createClient();
+        this.fetcher = createFetcher();
+
+        for (final HttpTarget target : this.targets)
+        {
+            this.fetcher.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run()
+                {
+                    fetch(target);
+                }
+            }, 0, target.interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close()
+    {
+        if (this.fetcher != null)
+        {
+            this.fetcher.shutdownNow();
+        }
+
+        if (this.client != null)
+        {
+            try
+            {
+                this.client.close();
+            }
+            catch (IOException ex)
+            {
+                logger.warn("Failed to close http client.", ex);
+            }
+        }
+
+        super.close();
+    }
+
+    /**
+     * 取得済みのメッセージを下流に送信する。取得済みのメッセージが存在しない場合は待機せずに終了する。
+     */
+    @Override
+    public void nextTuple()
+    {
+        Message message = this.fetchedQueue.poll();
+        if (message != null)
+        {
+            getCollector().emit(new Values(message));
+        }
+    }
+
+    /**
+     * 取得対象のうち、自タスクに割り当てる取得対象を生成する。
+     *
+     * @param taskIndex 自タスクのインデックス
+     * @param taskNum タスク数
+     * @return 自タスクに割り当てる取得対象
+     */
+    protected List<HttpTarget> assignTargets(int taskIndex, int taskNum)
+    {
+        List<HttpTarget> result = new ArrayList<HttpTarget>();
+        for (int index = taskIndex; index < this.targetDefines.size(); index += taskNum)
+        {
+            HttpTarget target = createTarget(this.targetDefines.get(index));
+            if (target != null)
+            {
+                result.add(target);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 取得対象定義から取得対象を生成する。<br>
+     * 取得間隔が数値でない場合、URLが不正な場合はワーカを停止させないよう取得対象から除外する。
+     *
+     * @param define 取得対象定義(「URL」または「URL|取得間隔(ミリ秒)」)
+     * @return 取得対象。取得対象定義が不正な場合はnull
+     */
+    protected HttpTarget createTarget(String define)
+    {
+        String url = define;
+        long targetInterval = this.interval;
+
+        int separatorIndex = define.lastIndexOf(INTERVAL_SEPARATOR);
+        if (separatorIndex >= 0)
+        {
+            url = define.substring(0, separatorIndex);
+            String intervalStr = define.substring(separatorIndex + 1).trim();
+            try
+            {
+                targetInterval = Long.parseLong(intervalStr);
+            }
+            catch (NumberFormatException ex)
+            {
+                String logFormat = "Http target interval is not a number. Skip target. : Define={0}, Interval={1}";
+                logger.error(MessageFormat.format(logFormat, define, intervalStr));
+                return null;
+            }
+        }
+
+        HttpBodyHandler handler = new HttpBodyHandler(this.rawBody, this.conditionalGet,
+                this.dedup);
+        try
+        {
+            return new HttpTarget(StringUtils.trim(url), Math.max(targetInterval, 1L), handler);
+        }
+        catch (IllegalArgumentException ex)
+        {
+            String logFormat = "Http target url is invalid. Skip target. : Define={0}";
+            logger.error(MessageFormat.format(logFormat, define), ex);
+            return null;
+        }
+    }
+
+    /**
+     * 全取得対象で共有するコネクションプールを使用するHttpClientを生成する。
+     *
+     * @return HttpClient
+     */
+    protected CloseableHttpClient createClient()
+    {
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager();
+        manager.setMaxTotal(this.maxConnections);
+        manager.setDefaultMaxPerRoute(this.maxConnections);
+
+        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(this.timeout)
+                .setSocketTimeout(this.timeout).setConnectionRequestTimeout(this.timeout).build();
+
+        return HttpClients.custom().setConnectionManager(manager).setDefaultRequestConfig(
+                requestConfig).build();
+    }
+
+    /**
+     * 同時接続数上限と同数のスレッドでHTTPGetを行うスケジューラを生成する。
+     *
+     * @return スケジューラ
+     */
+    protected ScheduledExecutorService createFetcher()
+    {
+        final AtomicInteger threadCount = new AtomicInteger();
+        int threadNum = Math.max(1, Math.min(this.maxConnections, this.targets.size()));
+        return new ScheduledThreadPoolExecutor(threadNum, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "MultiHttpGetSpout-fetcher-"
+                        + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * 取得対象にHTTPGetを行い、結果をキューに格納する。<br>
+     * キューが満杯の場合はHTTPGetを行わない。
+     *
+     * @param target 取得対象
+     */
+    protected void fetch(HttpTarget target)
+    {
+        if (this.fetchedQueue.remainingCapacity() == 0)
+        {
+            return;
+        }
+
+        Object response = null;
+
+        // 例外によりスケジュールが停止しないよう、全ての例外をここで捕捉する
+        try
+        {
+            target.handler.prepareRequest(target.request);
+            response = this.client.execute(target.request, target.handler);
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            String logFormat = "Http get failed. Skip target get. : TargetUrl={0}";
+            logger.warn(MessageFormat.format(logFormat, target.url), ex);
+            return;
+        }
+
+        // 更新されていない場合は送信しない
+        if (response == null)
+        {
+            return;
+        }
+
+        Header header = new Header();
+        header.setMessageId(this.messageIdGenerator.nextId());
+        header.setTimestamp(System.currentTimeMillis());
+        header.setSource(target.url);
+        header.setType("http");
+
+        Message message = new Message();
+        message.setHeader(header);
+        message.setBody(response);
+
+        if (this.fetchedQueue.offer(message) == false)
+        {
+            logger.debug("Fetched queue is full. Drop message.");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer)
+    {
+        declarer.declare(new Fields("message"));
+    }
+
+    /**
+     * @param interval セットする interval
+     */
+    public void setInterval(long interval)
+    {
+        this.interval = interval;
+    }
+
+    /**
+     * @param maxConnections セットする maxConnections
+     */
+    public void setMaxConnections(int maxConnections)
+    {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * @param prefetchSize セットする prefetchSize
+     */
+    public void setPrefetchSize(int prefetchSize)
+    {
+        this.prefetchSize = prefetchSize;
+    }
+
+    /**
+     * @param timeout セットする timeout
+     */
+    public void setTimeout(int timeout)
+    {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param rawBody セットする rawBody
+     */
+    public void setRawBody(boolean rawBody)
+    {
+        this.rawBody = rawBody;
+    }
+
+    /**
+     * @param conditionalGet セットする conditionalGet
+     */
+    public void setConditionalGet(boolean conditionalGet)
+    {
+        this.conditionalGet = conditionalGet;
+    }
+
+    /**
+     * @param dedup セットする dedup
+     */
+    public void setDedup(boolean dedup)
+    {
+        this.dedup = dedup;
+    }
+
+    /**
+     * @param messageIdGenerator セットする messageIdGenerator
+     */
+    public void setMessageIdGenerator(MessageIdGenerator messageIdGenerator)
+    {
+        this.messageIdGenerator = messageIdGenerator;
+    }
+
+    /**
+     * 取得対象。
+     */
+    protected static class HttpTarget
+    {
+        /** 取得対象URL */
+        final String          url;
+
+        /** 取得間隔(ミリ秒) */
+        final long            interval;
+
+        /** HTTPGET */
+        final HttpGet         request;
+
+        /** 取得対象ごとの状態を保持するResponseHandler */
+        final HttpBodyHandler handler;
+
+        /**
+         * 取得対象の情報を指定してインスタンスを生成する。
+         *
+         * @param url 取得対象URL
+         * @param interval 取得間隔(ミリ秒)
+         * @param handler ResponseHandler
+         */
+        HttpTarget(String url, long interval, HttpBodyHandler handler)
+        {
+            this.url = url;
+            this.interval = interval;
+            this.request = new HttpGet(url);
+            this.handler = handler;
+        }
+    }
+}
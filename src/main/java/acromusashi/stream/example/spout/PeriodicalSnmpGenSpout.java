@@ -14,7 +14,7 @@ package acromusashi.stream.example.spout;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -22,7 +22,11 @@ import org.slf4j.LoggerFactory;
 
 import acromusashi.stream.entity.Header;
 import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.generator.MessageIdGenerator;
+import acromusashi.stream.example.generator.RandomMessageIdGenerator;
 import acromusashi.stream.spout.BaseConfigurationSpout;
+import backtype.storm.spout.SpoutOutputCollector;
+import backtype.storm.task.TopologyContext;
 import backtype.storm.topology.OutputFieldsDeclarer;
 import backtype.storm.tuple.Fields;
 import backtype.storm.tuple.Values;
@@ -35,13 +39,16 @@ import backtype.storm.tuple.Values;
 public class PeriodicalSnmpGenSpout extends BaseConfigurationSpout
 {
     /** serialVersionUID */
-    private static final long   serialVersionUID = -237111294339742815L;
+    private static final long   serialVersionUID   = -237111294339742815L;
 
     /** logger */
-    private static final Logger logger           = LoggerFactory.getLogger(PeriodicalSnmpGenSpout.class);
+    private static final Logger logger             = LoggerFactory.getLogger(PeriodicalSnmpGenSpout.class);
 
     /** 送信カウンタ */
-    private int                 counter          = 0;
+    private int                 counter            = 0;
+
+    /** メッセージIDの生成に使用するMessageIdGenerator */
+    private MessageIdGenerator  messageIdGenerator = new RandomMessageIdGenerator();
 
     /**
      * パラメータを指定せずにインスタンスを生成する。
@@ -49,6 +56,17 @@ public class PeriodicalSnmpGenSpout extends BaseConfigurationSpout
     public PeriodicalSnmpGenSpout()
     {}
 
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void open(Map stormConf, TopologyContext context, SpoutOutputCollector collector)
+    {
+        super.open(stormConf, context, collector);
+        this.messageIdGenerator.prepare(context.getThisComponentId(), context.getThisTaskIndex());
+    }
+
     /**
      * 一定間隔ごとにデータをBoltに送信する
      */
@@ -57,7 +75,7 @@ public class PeriodicalSnmpGenSpout extends BaseConfigurationSpout
     {
         this.counter++;
         Header header = new Header();
-        header.setMessageId(UUID.randomUUID().toString());
+        header.setMessageId(this.messageIdGenerator.nextId());
         header.setTimestamp(System.currentTimeMillis());
         header.setSource("192.168.0.1");
         header.setType("snmp");
@@ -93,4 +111,12 @@ public class PeriodicalSnmpGenSpout extends BaseConfigurationSpout
     {
         declarer.declare(new Fields("message"));
     }
+
+    /**
+     * @param messageIdGenerator セットする messageIdGenerator
+     */
+    public void setMessageIdGenerator(MessageIdGenerator messageIdGenerator)
+    {
+        this.messageIdGenerator = messageIdGenerator;
+    }
 }
@@ -0,0 +1,192 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.spout;
+
+import java.io.IOException;
+
+import acromusashi.stream.component.rabbitmq.RabbitmqCommunicateException;
+import acromusashi.stream.component.rabbitmq.spout.MessageKeyExtractor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * メッセージ（JSON形式）からキー項目をストリーミング解析で抽出するクラス。<br>
+ * JSON要素"header"の中に含まれるJSON要素"messageKey"の値をキーとして使用する。<br>
+ * JsonExtractorと異なりJSONツリーを生成せず、JsonParserでトークンを順に読み進めて"header"→"messageKey"に到達した時点で値を返す。<br>
+ * 他の要素は子要素ごと読み飛ばし、キー項目より後ろの部分は読み込まないため、後ろの部分の形式は検証しない。<br>
+ * "header"が重複する場合は先頭の"header"から抽出する。メッセージがbyte[]の場合は文字列に変換せずに解析する。
+ *
+ * @author acromusashi
+ */
+public class StreamingJsonExtractor implements MessageKeyExtractor
+{
+    /** serialVersionUID */
+    private static final long       serialVersionUID = 4520797133527414627L;
+
+    /** 親キー */
+    private static final String     PARENT_KEY       = "header";
+
+    /** 子キー */
+    private static final String     CHILD_KEY        = "messageKey";
+
+    /** JsonParser生成用のファクトリ */
+    protected transient JsonFactory factory;
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public StreamingJsonExtractor()
+    {
+        // Do nothing.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String extractMessageKey(Object target) throws RabbitmqCommunicateException
+    {
+        // JsonFactoryはシリアライズ不可のため、必要になったタイミングで生成する。
+        if (this.factory == null)
+        {
+            this.factory = new JsonFactory();
+        }
+
+        JsonParser parser = null;
+        try
+        {
+            parser = createParser(target);
+            return extractMessageKey(parser);
+        }
+        catch (IOException ex)
+        {
+            throw new RabbitmqCommunicateException(ex);
+        }
+        finally
+        {
+            closeQuietly(parser);
+        }
+    }
+
+    /**
+     * JsonParserでトークンを読み進め、親キー→子キーに対応する値を抽出する。
+     *
+     * @param parser JsonParser
+     * @return 子キーに対応する値。値が文字列でない場合はnull
+     * @throws IOException JSONの形式が不正な場合
+     * @throws RabbitmqCommunicateException 親キー、子キーに対応する要素が存在しない場合
+     */
+    private String extractMessageKey(JsonParser parser) throws IOException,
+            RabbitmqCommunicateException
+    {
+        // トップレベルがオブジェクトでない場合、親キーは存在しない
+        if (parser.nextToken() != JsonToken.START_OBJECT)
+        {
+            throw new RabbitmqCommunicateException("Parent Value is not exist.");
+        }
+
+        // 親キーに対応する要素まで読み進める
+        if (moveToField(parser, PARENT_KEY) == false)
+        {
+            throw new RabbitmqCommunicateException("Parent Value is not exist.");
+        }
+
+        // 親キーに対応する要素がオブジェクトでない場合、子キーは存在しない
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT)
+        {
+            throw new RabbitmqCommunicateException("Child Value is not exist.");
+        }
+
+        if (moveToField(parser, CHILD_KEY) == false)
+        {
+            throw new RabbitmqCommunicateException("Child Value is not exist.");
+        }
+
+        // JsonNode#textValueと同じく、文字列以外の値はnullとする
+        if (parser.getCurrentToken() != JsonToken.VALUE_STRING)
+        {
+            return null;
+        }
+
+        return parser.getText();
+    }
+
+    /**
+     * 現在のオブジェクト内で指定したキーに対応する値の先頭トークンまで読み進める。<br>
+     * 指定したキー以外の要素は子要素ごと読み飛ばす。
+     *
+     * @param parser JsonParser(オブジェクトのSTART_OBJECTに位置していること)
+     * @param fieldName キー
+     * @return キーが存在した場合true、オブジェクトの終端に達した場合false
+     * @throws IOException JSONの形式が不正な場合
+     */
+    private boolean moveToField(JsonParser parser, String fieldName) throws IOException
+    {
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String currentName = parser.getCurrentName();
+            parser.nextToken();
+
+            if (fieldName.equals(currentName) == true)
+            {
+                return true;
+            }
+
+            parser.skipChildren();
+        }
+
+        return false;
+    }
+
+    /**
+     * 抽出対象を読み込むJsonParserを生成する。
+     *
+     * @param target 抽出対象(JSON文字列またはJSONのbyte[])
+     * @return JsonParser
+     * @throws IOException JsonParserの生成に失敗した場合
+     */
+    private JsonParser createParser(Object target) throws IOException
+    {
+        if (target instanceof byte[])
+        {
+            return this.factory.createParser((byte[]) target);
+        }
+
+        return this.factory.createParser(target.toString());
+    }
+
+    /**
+     * JsonParserをクローズする。クローズ時の例外は無視する。
+     *
+     * @param parser JsonParser
+     */
+    private void closeQuietly(JsonParser parser)
+    {
+        if (parser == null)
+        {
+            return;
+        }
+
+        try
+        {
+            parser.close();
+        }
+        catch (IOException ex)
+        {
+            // クローズ時の例外は抽出結果に影響しないため無視する
+            return;
+        }
+    }
+}
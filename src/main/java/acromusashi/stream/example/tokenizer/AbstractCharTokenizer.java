@@ -0,0 +1,142 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.tokenizer;
+
+/**
+ * 文章を1文字ずつ走査して単語を切り出すTokenizerの基底クラス。<br>
+ * 単語の文字は小文字に変換しながら作業用バッファに書き込み、単語の終端で1度だけStringを生成する。<br>
+ * ASCII文字は比較と加算のみで小文字に変換し、それ以外の文字のみCharacter#toLowerCaseを使用する。<br>
+ * 作業用バッファはインスタンスごとに再利用するため、本クラスはスレッドセーフではない。
+ *
+ * @author kimura
+ */
+public abstract class AbstractCharTokenizer implements Tokenizer
+{
+    /** serialVersionUID */
+    private static final long serialVersionUID    = 2470155981355409522L;
+
+    /** 作業用バッファの初期サイズ */
+    private static final int  DEFAULT_BUFFER_SIZE = 64;
+
+    /** 作業用バッファ */
+    private transient char[]  scratch;
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    protected AbstractCharTokenizer()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tokenize(String sentence, TokenHandler handler)
+    {
+        if (sentence == null)
+        {
+            return;
+        }
+
+        int length = sentence.length();
+        int index = 0;
+        while (index < length)
+        {
+            // 単語の先頭まで読み飛ばす
+            while (index < length && isTokenChar(sentence.charAt(index)) == false)
+            {
+                index++;
+            }
+
+            int start = index;
+            while (index < length && isTokenChar(sentence.charAt(index)) == true)
+            {
+                index++;
+            }
+
+            if (start < index)
+            {
+                onWord(sentence, start, index, handler);
+            }
+        }
+    }
+
+    /**
+     * 単語を構成する文字かを判定する。
+     *
+     * @param target 判定対象文字
+     * @return 単語を構成する文字の場合true
+     */
+    protected abstract boolean isTokenChar(char target);
+
+    /**
+     * 切り出した単語をHandlerに通知する。<br>
+     * 単語をさらに分割する場合はサブクラスで本メソッドをオーバーライドする。
+     *
+     * @param sentence 文章
+     * @param start 単語の開始位置
+     * @param end 単語の終了位置(この位置の文字は含まない)
+     * @param handler 分割した単語を受け取るHandler
+     */
+    protected void onWord(String sentence, int start, int end, TokenHandler handler)
+    {
+        handler.onToken(toLowerToken(sentence, start, end));
+    }
+
+    /**
+     * 文章の指定範囲を小文字に変換した単語を生成する。
+     *
+     * @param sentence 文章
+     * @param start 開始位置
+     * @param end 終了位置(この位置の文字は含まない)
+     * @return 小文字に変換した単語
+     */
+    protected String toLowerToken(String sentence, int start, int end)
+    {
+        int length = end - start;
+        char[] buffer = this.scratch;
+        if (buffer == null || buffer.length < length)
+        {
+            buffer = new char[Math.max(DEFAULT_BUFFER_SIZE, Integer.highestOneBit(length) << 1)];
+            this.scratch = buffer;
+        }
+
+        for (int index = 0; index < length; index++)
+        {
+            buffer[index] = toLower(sentence.charAt(start + index));
+        }
+
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * 文字を小文字に変換する。
+     *
+     * @param target 変換対象文字
+     * @return 小文字に変換した文字
+     */
+    protected static char toLower(char target)
+    {
+        if (target < 0x80)
+        {
+            if (target >= 'A' && target <= 'Z')
+            {
+                return (char) (target + ('a' - 'A'));
+            }
+
+            return target;
+        }
+
+        return Character.toLowerCase(target);
+    }
+}
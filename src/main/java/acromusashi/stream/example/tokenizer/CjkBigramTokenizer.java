@@ -0,0 +1,116 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.tokenizer;
+
+/**
+ * 文字と数字以外の文字で文章を分割し、さらにCJK文字の連続をbigramに分割するTokenizer。<br>
+ * 空白で区切られない日本語、中国語、韓国語の文章を、連続する2文字ずつずらしながら単語として扱う。<br>
+ * 例)「東京都に住む」は「東京」「京都」「都に」「に住」「住む」に分割される。<br>
+ * CJK文字が1文字のみ連続する場合はその1文字を単語とする。CJK以外の文字はPunctuationTokenizerと同様に分割する。
+ *
+ * @author kimura
+ */
+public class CjkBigramTokenizer extends PunctuationTokenizer
+{
+    /** serialVersionUID */
+    private static final long serialVersionUID = -1907533526040924577L;
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public CjkBigramTokenizer()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onWord(String sentence, int start, int end, TokenHandler handler)
+    {
+        int index = start;
+        while (index < end)
+        {
+            // CJK以外の文字の連続は1単語とする
+            int runStart = index;
+            while (index < end && isCjk(sentence.charAt(index)) == false)
+            {
+                index++;
+            }
+
+            if (runStart < index)
+            {
+                handler.onToken(toLowerToken(sentence, runStart, index));
+            }
+
+            // CJK文字の連続はbigramに分割する
+            runStart = index;
+            while (index < end && isCjk(sentence.charAt(index)) == true)
+            {
+                index++;
+            }
+
+            emitBigrams(sentence, runStart, index, handler);
+        }
+    }
+
+    /**
+     * CJK文字の連続をbigramに分割してHandlerに通知する。
+     *
+     * @param sentence 文章
+     * @param start 開始位置
+     * @param end 終了位置(この位置の文字は含まない)
+     * @param handler 分割した単語を受け取るHandler
+     */
+    private void emitBigrams(String sentence, int start, int end, TokenHandler handler)
+    {
+        int length = end - start;
+        if (length <= 0)
+        {
+            return;
+        }
+
+        if (length == 1)
+        {
+            handler.onToken(sentence.substring(start, end));
+            return;
+        }
+
+        for (int index = start; index < end - 1; index++)
+        {
+            handler.onToken(sentence.substring(index, index + 2));
+        }
+    }
+
+    /**
+     * CJK文字(漢字、ひらがな、カタカナ、ハングル)かを判定する。
+     *
+     * @param target 判定対象文字
+     * @return CJK文字の場合true
+     */
+    protected static boolean isCjk(char target)
+    {
+        if (target < 0x1100)
+        {
+            return false;
+        }
+
+        Character.UnicodeBlock block = Character.UnicodeBlock.of(target);
+        return block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
+                || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A
+                || block == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS
+                || block == Character.UnicodeBlock.HIRAGANA || block == Character.UnicodeBlock.KATAKANA
+                || block == Character.UnicodeBlock.KATAKANA_PHONETIC_EXTENSIONS
+                || block == Character.UnicodeBlock.HANGUL_SYLLABLES
+                || block == Character.UnicodeBlock.HANGUL_JAMO;
+    }
+}
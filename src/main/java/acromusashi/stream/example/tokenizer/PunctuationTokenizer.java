@@ -0,0 +1,47 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.tokenizer;
+
+/**
+ * 文字と数字以外の文字で文章を分割するTokenizer。<br>
+ * 空白文字に加えて句読点や記号も区切り文字とするため、「Hello, world!」は「hello」「world」に分割される。
+ *
+ * @author kimura
+ */
+public class PunctuationTokenizer extends AbstractCharTokenizer
+{
+    /** serialVersionUID */
+    private static final long serialVersionUID = 5310645787240118543L;
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public PunctuationTokenizer()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isTokenChar(char target)
+    {
+        // ASCIIの英数字は比較のみで判定する
+        if (target < 0x80)
+        {
+            return (target >= 'a' && target <= 'z') || (target >= 'A' && target <= 'Z')
+                    || (target >= '0' && target <= '9');
+        }
+
+        return Character.isLetterOrDigit(target);
+    }
+}
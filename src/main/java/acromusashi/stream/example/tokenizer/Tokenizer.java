@@ -0,0 +1,46 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.tokenizer;
+
+import java.io.Serializable;
+
+/**
+ * 文章を単語単位に分割するTokenizer。<br>
+ * 分割結果は配列やリストとして返さず、単語ごとにTokenHandlerを呼び出して通知する。
+ *
+ * @author kimura
+ */
+public interface Tokenizer extends Serializable
+{
+    /**
+     * 文章を単語単位に分割し、単語ごとにTokenHandlerを呼び出す。<br>
+     * 単語は小文字に変換して通知する。
+     *
+     * @param sentence 文章
+     * @param handler 分割した単語を受け取るHandler
+     */
+    void tokenize(String sentence, TokenHandler handler);
+
+    /**
+     * 分割した単語を受け取るHandler。
+     */
+    interface TokenHandler
+    {
+        /**
+         * 分割した単語を受け取る。
+         *
+         * @param token 単語
+         */
+        void onToken(String token);
+    }
+}
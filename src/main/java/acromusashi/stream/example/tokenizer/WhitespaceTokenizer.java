@@ -0,0 +1,51 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.tokenizer;
+
+/**
+ * 空白文字で文章を分割するTokenizer。<br>
+ * StringUtils#splitと同じくCharacter#isWhitespaceを満たす文字を区切り文字とし、記号は単語に含める。
+ *
+ * @author kimura
+ */
+public class WhitespaceTokenizer extends AbstractCharTokenizer
+{
+    /** serialVersionUID */
+    private static final long serialVersionUID = -6502785134213416170L;
+
+    /**
+     * パラメータを指定せずにインスタンスを生成する。
+     */
+    public WhitespaceTokenizer()
+    {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isTokenChar(char target)
+    {
+        // ASCIIの空白文字は比較のみで判定する
+        if (target <= ' ')
+        {
+            return Character.isWhitespace(target) == false;
+        }
+
+        if (target < 0x80)
+        {
+            return true;
+        }
+
+        return Character.isWhitespace(target) == false;
+    }
+}
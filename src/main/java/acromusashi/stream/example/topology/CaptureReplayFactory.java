@@ -0,0 +1,126 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.topology;
+
+import acromusashi.stream.config.StormConfigUtil;
+import acromusashi.stream.example.bolt.CaptureBolt;
+import acromusashi.stream.example.spout.CaptureReplaySpout;
+import backtype.storm.Config;
+
+/**
+ * yamlファイルの設定値から、入力元のレコードを記録するCaptureBolt、記録したレコードを再生するCaptureReplaySpoutを生成するファクトリ。<br>
+ * 性能評価時に、実環境で入力元から受信したレコードを記録しておき、入力元(Kestrel等)の代わりに再生することで、
+ * 実環境と同じ形式、間隔の負荷を繰り返し与えることができる。<br>
+ * yamlファイルから読み込む設定値
+ * <ul>
+ * <li>Capture.Dir : 記録ファイルを配置するディレクトリ(デフォルト値:/tmp/capture)</li>
+ * <li>CaptureBolt.Enabled : 入力元から受信したレコードを記録するか(デフォルト値:false)</li>
+ * <li>CaptureBolt.Parallelism : CaptureBoltの並列度(デフォルト値:1)</li>
+ * <li>CaptureBolt.BufferSize : 書き込みバッファサイズ(バイト)(デフォルト値:65536)</li>
+ * <li>CaptureBolt.FlushIntervalSecs : 記録ファイルに反映する間隔(秒)(デフォルト値:1)</li>
+ * <li>Source.Type : 入力元。replayを指定した場合にCaptureReplaySpoutを使用する(デフォルト値:Topologyごとの入力元)</li>
+ * <li>CaptureReplaySpout.Parallelism : CaptureReplaySpoutの並列度。記録ファイルは各タスクに分散して割り当てる(デフォルト値:1)</li>
+ * <li>CaptureReplaySpout.Speed : 再生速度(1.0:受信時と同じ間隔、N:N倍速、0以下:最大速度)(デフォルト値:1.0)</li>
+ * <li>CaptureReplaySpout.Loop : 全記録ファイルの再生終了後に先頭から繰り返すか(デフォルト値:false)</li>
+ * <li>CaptureReplaySpout.Resume : 前回の再生で保存した送信位置から再開するか(デフォルト値:true)</li>
+ * <li>CaptureReplaySpout.CheckpointInterval : 送信位置を保存する間隔(件)(デフォルト値:1000)</li>
+ * </ul>
+ *
+ * @author kimura
+ */
+public final class CaptureReplayFactory
+{
+    /** Source.Typeに指定する、CaptureReplaySpoutを使用する場合の値 */
+    public static final String  TYPE_REPLAY          = "replay";
+
+    /** CaptureReplaySpoutのコンポーネントID */
+    public static final String  REPLAY_COMPONENT_ID  = "CaptureReplaySpout";
+
+    /** CaptureBoltのコンポーネントID */
+    public static final String  CAPTURE_COMPONENT_ID = "CaptureBolt";
+
+    /** 記録ディレクトリデフォルト値 */
+    private static final String DEFAULT_CAPTURE_DIR  = "/tmp/capture";
+
+    /**
+     * インスタンス化を防止するためのコンストラクタ
+     */
+    private CaptureReplayFactory()
+    {}
+
+    /**
+     * 入力元としてCaptureReplaySpoutを使用するかを判定する。
+     *
+     * @param config Storm設定オブジェクト
+     * @return CaptureReplaySpoutを使用する場合true
+     */
+    public static boolean isReplayEnabled(Config config)
+    {
+        return TYPE_REPLAY.equals(StormConfigUtil.getStringValue(config, "Source.Type", ""));
+    }
+
+    /**
+     * 入力元から受信したレコードをCaptureBoltで記録するかを判定する。
+     *
+     * @param config Storm設定オブジェクト
+     * @return 記録する場合true
+     */
+    public static boolean isCaptureEnabled(Config config)
+    {
+        return ConfigValueUtil.getBooleanValue(config, "CaptureBolt.Enabled", false);
+    }
+
+    /**
+     * yamlファイルの設定値からCaptureReplaySpoutを生成する。
+     *
+     * @param config Storm設定オブジェクト
+     * @return CaptureReplaySpout
+     */
+    public static CaptureReplaySpout createSpout(Config config)
+    {
+        // @formatter:off
+        String captureDir = StormConfigUtil.getStringValue(config, "Capture.Dir", DEFAULT_CAPTURE_DIR);
+        double speed = ConfigValueUtil.getDoubleValue(config, "CaptureReplaySpout.Speed", 1.0d);
+        boolean loop = ConfigValueUtil.getBooleanValue(config, "CaptureReplaySpout.Loop", false);
+        boolean resume = ConfigValueUtil.getBooleanValue(config, "CaptureReplaySpout.Resume", true);
+        int checkpointInterval = StormConfigUtil.getIntValue(config, "CaptureReplaySpout.CheckpointInterval", 1000);
+        // @formatter:on
+
+        CaptureReplaySpout spout = new CaptureReplaySpout(captureDir);
+        spout.setSpeed(speed);
+        spout.setLoop(loop);
+        spout.setResume(resume);
+        spout.setCheckpointInterval(checkpointInterval);
+        return spout;
+    }
+
+    /**
+     * yamlファイルの設定値からCaptureBoltを生成する。
+     *
+     * @param config Storm設定オブジェクト
+     * @return CaptureBolt
+     */
+    public static CaptureBolt createBolt(Config config)
+    {
+        // @formatter:off
+        String captureDir = StormConfigUtil.getStringValue(config, "Capture.Dir", DEFAULT_CAPTURE_DIR);
+        int bufferSize = StormConfigUtil.getIntValue(config, "CaptureBolt.BufferSize", 65536);
+        int flushIntervalSecs = StormConfigUtil.getIntValue(config, "CaptureBolt.FlushIntervalSecs", 1);
+        // @formatter:on
+
+        CaptureBolt bolt = new CaptureBolt(captureDir);
+        bolt.setBufferSize(bufferSize);
+        bolt.setTickIntervalSecs(flushIntervalSecs);
+        return bolt;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.topology;
+
+import java.util.Map;
+
+/**
+ * StormConfigUtilで取得できない型の設定値を取得するユーティリティクラス。<br>
+ * yamlファイルの記述によって設定値の型が異なるため、文字列表現から変換して取得する。
+ *
+ * @author kimura
+ */
+public final class ConfigValueUtil
+{
+    /**
+     * インスタンス化を防止するためのコンストラクタ
+     */
+    private ConfigValueUtil()
+    {}
+
+    /**
+     * 設定値を真偽値として取得する。yamlファイルには真偽値、文字列のいずれで記述してもよい。
+     *
+     * @param config Storm設定オブジェクト
+     * @param key 設定キー
+     * @param defaultValue 設定値が存在しない場合のデフォルト値
+     * @return 設定値
+     */
+    @SuppressWarnings("rawtypes")
+    public static boolean getBooleanValue(Map config, String key, boolean defaultValue)
+    {
+        Object value = config.get(key);
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        return Boolean.parseBoolean(value.toString());
+    }
+
+    /**
+     * 設定値を実数として取得する。yamlファイルには整数、実数、文字列のいずれで記述してもよい。
+     *
+     * @param config Storm設定オブジェクト
+     * @param key 設定キー
+     * @param defaultValue 設定値が存在しない場合のデフォルト値
+     * @return 設定値
+     */
+    @SuppressWarnings("rawtypes")
+    public static double getDoubleValue(Map config, String key, double defaultValue)
+    {
+        Object value = config.get(key);
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        return Double.parseDouble(value.toString());
+    }
+}
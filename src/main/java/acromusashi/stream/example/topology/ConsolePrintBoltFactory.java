@@ -0,0 +1,61 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.topology;
+
+import acromusashi.stream.config.StormConfigUtil;
+import acromusashi.stream.example.bolt.ConsolePrintBolt;
+import backtype.storm.Config;
+
+/**
+ * yamlファイルの設定値から、共通メッセージをコンソールに出力するConsolePrintBoltを生成するファクトリ。<br>
+ * yamlファイルから読み込む設定値
+ * <ul>
+ * <li>ConsolePrintBolt.Async : リングバッファ、出力スレッドを使用して非同期に出力するか(デフォルト値:false)</li>
+ * <li>ConsolePrintBolt.BufferCapacity : 非同期出力時のリングバッファ容量(件)(デフォルト値:8192)</li>
+ * <li>ConsolePrintBolt.WriterBufferSize : 非同期出力時にコンソールに1回で書き込む最大文字数(文字)(デフォルト値:65536)</li>
+ * <li>ConsolePrintBolt.OverflowPolicy : 非同期出力時にリングバッファが満杯の場合の動作(block:空きができるまで待機、drop:メッセージを破棄)(デフォルト値:block)</li>
+ * </ul>
+ *
+ * @author kimura
+ */
+public final class ConsolePrintBoltFactory
+{
+    /**
+     * インスタンス化を防止するためのコンストラクタ
+     */
+    private ConsolePrintBoltFactory()
+    {}
+
+    /**
+     * yamlファイルの設定値からConsolePrintBoltを生成する。
+     *
+     * @param config Storm設定オブジェクト
+     * @return ConsolePrintBolt
+     */
+    public static ConsolePrintBolt createBolt(Config config)
+    {
+        // @formatter:off
+        boolean async = ConfigValueUtil.getBooleanValue(config, "ConsolePrintBolt.Async", false);
+        int bufferCapacity = StormConfigUtil.getIntValue(config, "ConsolePrintBolt.BufferCapacity", 8192);
+        int writerBufferSize = StormConfigUtil.getIntValue(config, "ConsolePrintBolt.WriterBufferSize", 65536);
+        String overflowPolicy = StormConfigUtil.getStringValue(config, "ConsolePrintBolt.OverflowPolicy", ConsolePrintBolt.POLICY_BLOCK);
+        // @formatter:on
+
+        ConsolePrintBolt bolt = new ConsolePrintBolt();
+        bolt.setAsync(async);
+        bolt.setBufferCapacity(bufferCapacity);
+        bolt.setWriterBufferSize(writerBufferSize);
+        bolt.setOverflowPolicy(overflowPolicy);
+        return bolt;
+    }
+}
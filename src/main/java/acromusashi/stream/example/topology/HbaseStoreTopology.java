@@ -23,22 +23,25 @@ import acromusashi.stream.component.snmp.converter.SnmpConverter;
 import acromusashi.stream.config.StormConfigGenerator;
 import acromusashi.stream.config.StormConfigUtil;
 import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.spout.LoadGenSpout;
 import acromusashi.stream.example.spout.PeriodicalMessageGenSpout;
 import acromusashi.stream.topology.BaseTopology;
 import backtype.storm.Config;
+import backtype.storm.topology.IRichSpout;
 
 /**
  * HBase DataStore用のTopologyを起動する。
  * <br/>
  * Topologyの動作フローは下記の通り。<br/>
  * <ol>
- * <li>PeriodicalMessageGenSpoutにてメッセージを生成する</li>
+ * <li>PeriodicalMessageGenSpout(負荷試験時はLoadGenSpout)にてメッセージを生成する</li>
  * <li>CamelHbaseStoreBoltにて[hbase-site.xml]に指定したHBaseに対してデータを投入する</li>
  * </ol>
  * 
  * yamlファイルから読み込む設定値
  * <ul>
  * <li>MessageGenSpout.Parallelism : PeriodicalMessageGenSpoutの並列度(デフォルト値:1)</li>
+ * <li>MessageGenSpout.Type : メッセージを生成するSpout(periodical:PeriodicalMessageGenSpout、loadgen:LoadGenSpout)(デフォルト値:periodical)。LoadGenSpoutの設定値はLoadGenSpoutFactoryを参照</li>
  * <li>CamelHBaseBolt.Parallelism : CamelHbaseStoreBoltの並列度(デフォルト値:1)</li>
  * <li>CamelContext.Path : CamelHBaseBoltにおいて起動するCamelコンテキストパス(デフォルト値:file:/opt/storm/conf/camel-context-example-hbase.xml)</li>
  * <li>HBaseSchema.Define : CamelHBaseBoltにて投入するHBaseスキーマ定義。【Family】_【Quantifier】形式(デフォルト値:無)</li>
@@ -94,6 +97,8 @@ public class HbaseStoreTopology extends BaseTopology
         // Get setting from StormConfig Object
         int msgGenSpoutPara = StormConfigUtil.getIntValue(getConfig(),
                 "MessageGenSpout.Parallelism", 1);
+        String msgGenSpoutType = StormConfigUtil.getStringValue(getConfig(), "MessageGenSpout.Type",
+                "periodical");
         int hbaseBoltPara = StormConfigUtil.getIntValue(getConfig(), "CamelHBaseBolt.Parallelism",
                 1);
         String contextUri = StormConfigUtil.getStringValue(getConfig(), "CamelContext.Path",
@@ -102,8 +107,12 @@ public class HbaseStoreTopology extends BaseTopology
                 "HBaseSchema.Define");
 
         // Topology Setting
-        // Add Spout(PeriodicalMessageGenSpout)
-        PeriodicalMessageGenSpout messageGenSpout = new PeriodicalMessageGenSpout();
+        // Add Spout(PeriodicalMessageGenSpout or LoadGenSpout)
+        IRichSpout messageGenSpout = new PeriodicalMessageGenSpout();
+        if (LoadGenSpoutFactory.TYPE_LOADGEN.equals(msgGenSpoutType) == true)
+        {
+            messageGenSpout = LoadGenSpoutFactory.createSpout(getConfig(), LoadGenSpout.SHAPE_MESSAGE);
+        }
         getBuilder().setSpout("MessageGenSpout", messageGenSpout, msgGenSpoutPara);
 
         // Add Bolt(PeriodicalMessageGenSpout -> CamelHbaseStoreBolt)
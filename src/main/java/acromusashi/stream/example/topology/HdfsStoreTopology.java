@@ -17,21 +17,24 @@ import acromusashi.stream.component.snmp.converter.SnmpConverter;
 import acromusashi.stream.config.StormConfigGenerator;
 import acromusashi.stream.config.StormConfigUtil;
 import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.spout.LoadGenSpout;
 import acromusashi.stream.example.spout.PeriodicalMessageGenSpout;
 import acromusashi.stream.topology.BaseTopology;
 import backtype.storm.Config;
+import backtype.storm.topology.IRichSpout;
 
 /**
  * HDFS DataStore用のTopologyを起動する。
  * <br/>
  * Topologyの動作フローは下記の通り。<br/>
  * <ol>
- * <li>PeriodicalMessageGenSpoutにてメッセージを生成する</li>
+ * <li>PeriodicalMessageGenSpout(負荷試験時はLoadGenSpout)にてメッセージを生成する</li>
  * <li>HdfsStoreBoltにて設定項目[hdfsstorebolt.～]に設定したHDFSに対してデータを投入する</li>
  * </ol>
  * 
  * <ul>
  * <li>MessageGenSpout.Parallelism : PeriodicalMessageGenSpoutの並列度(デフォルト値:1)</li>
+ * <li>MessageGenSpout.Type : メッセージを生成するSpout(periodical:PeriodicalMessageGenSpout、loadgen:LoadGenSpout)(デフォルト値:periodical)。LoadGenSpoutの設定値はLoadGenSpoutFactoryを参照</li>
  * <li>HdfsStoreBolt.Parallelism : HdfsStoreBoltの並列度(デフォルト値:1)</li>
  * <li>hdfsstorebolt.outputuri : HdfsStoreBoltにおける出力先URI(デフォルト値:無)</li>
  * <li>hdfsstorebolt.filenameheader : HDFSに出力するファイル名ヘッダ(デフォルト値:無)</li>
@@ -89,11 +92,17 @@ public class HdfsStoreTopology extends BaseTopology
         // Get setting from StormConfig Object
         int msgGenSpoutPara = StormConfigUtil.getIntValue(getConfig(),
                 "MessageGenSpout.Parallelism", 1);
+        String msgGenSpoutType = StormConfigUtil.getStringValue(getConfig(), "MessageGenSpout.Type",
+                "periodical");
         int hdfsBoltPara = StormConfigUtil.getIntValue(getConfig(), "HdfsStoreBolt.Parallelism", 1);
 
         // Topology Setting
-        // Add Spout(PeriodicalMessageGenSpout)
-        PeriodicalMessageGenSpout spout = new PeriodicalMessageGenSpout();
+        // Add Spout(PeriodicalMessageGenSpout or LoadGenSpout)
+        IRichSpout spout = new PeriodicalMessageGenSpout();
+        if (LoadGenSpoutFactory.TYPE_LOADGEN.equals(msgGenSpoutType) == true)
+        {
+            spout = LoadGenSpoutFactory.createSpout(getConfig(), LoadGenSpout.SHAPE_MESSAGE);
+        }
         getBuilder().setSpout("MessageGenSpout", spout, msgGenSpoutPara);
 
         // Add Bolt(PeriodicalMessageGenSpout -> HdfsStoreBolt)
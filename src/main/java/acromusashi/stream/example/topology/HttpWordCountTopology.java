@@ -12,14 +12,30 @@
 */
 package acromusashi.stream.example.topology;
 
+import java.util.List;
+
 import acromusashi.stream.config.StormConfigGenerator;
 import acromusashi.stream.config.StormConfigUtil;
 import acromusashi.stream.example.bolt.JsonExtractBolt;
 import acromusashi.stream.example.bolt.SplitSentenceBolt;
 import acromusashi.stream.example.bolt.WordCountBolt;
+import acromusashi.stream.example.counter.CountMinSketchWordCounter;
+import acromusashi.stream.example.counter.ExactWordCounter;
+import acromusashi.stream.example.counter.SlidingWindowWordCounter;
+import acromusashi.stream.example.counter.SpaceSavingWordCounter;
+import acromusashi.stream.example.counter.WordCounter;
+import acromusashi.stream.example.grouping.PartialKeyGrouping;
 import acromusashi.stream.example.spout.HttpGetSpout;
+import acromusashi.stream.example.spout.KeyGenSpout;
+import acromusashi.stream.example.spout.LoadGenSpout;
+import acromusashi.stream.example.spout.MultiHttpGetSpout;
+import acromusashi.stream.example.tokenizer.CjkBigramTokenizer;
+import acromusashi.stream.example.tokenizer.PunctuationTokenizer;
+import acromusashi.stream.example.tokenizer.Tokenizer;
+import acromusashi.stream.example.tokenizer.WhitespaceTokenizer;
 import acromusashi.stream.topology.BaseTopology;
 import backtype.storm.Config;
+import backtype.storm.topology.BoltDeclarer;
 import backtype.storm.tuple.Fields;
 
 /**
@@ -31,14 +47,44 @@ import backtype.storm.tuple.Fields;
  * <li>SplitSentenceBoltにて単語単位に分割する</li>
  * <li>WordCountBoltにて単語単位に集計し、一定件数受信ごとに結果をログ出力する</li>
  * </ol>
+ * WordCountBolt.Groupingにpartialkeyを指定した場合、WordCountBoltは単語ごとの部分集計のみを行い、
+ * WordCountMergeBoltにて単語単位に部分集計結果を統合し、結果をログ出力する。<br>
+ * <br>
  *
  * yamlファイルから読み込む設定値
  * <ul>
  * <li>http.get.targetUrl : JSON形式のメッセージを取得する対象URL</li>
+ * <li>http.get.targetUrls : 複数のURLから取得する場合の取得対象(「URL」または「URL|取得間隔(ミリ秒)」)のリスト。指定した場合はMultiHttpGetSpoutを使用し、http.get.targetUrlは使用しない</li>
  * <li>HttpGetSpout.Parallelism : HttpGetSpoutの並列度</li>
+ * <li>Source.Type : 入力元(http:HttpGetSpout、keygen:偏りのある分布に従って単語を生成するKeyGenSpout)(デフォルト値:http)。KeyGenSpoutの設定値はKeyGenSpoutFactoryを参照</li>
  * <li>JsonExtractBolt.Parallelism : JsonExtractBoltの並列度</li>
  * <li>SplitSentenceBolt.Parallelism : SplitSentenceBoltの並列度</li>
  * <li>WordCountBolt.Parallelism : WordCountBoltの並列度</li>
+ * <li>HttpGetSpout.PrefetchSize : HttpGetSpoutでバックグラウンドスレッドが先読みしておくメッセージ数。0の場合はnextTuple内でHTTPGetを行う(デフォルト値:0)</li>
+ * <li>HttpGetSpout.ConditionalGet : HttpGetSpoutでETag、Last-Modifiedを用いた条件付きGETを行うか(デフォルト値:false)</li>
+ * <li>HttpGetSpout.Dedup : HttpGetSpoutで前回と同一のレスポンスボディを送信しないか(デフォルト値:false)</li>
+ * <li>HttpGetSpout.MaxConnections : http.get.targetUrls指定時のタスクごとの同時接続数上限(デフォルト値:20)</li>
+ * <li>HttpGetSpout.RawBody : HttpGetSpoutでレスポンスボディを文字列に変換せずbyte[]のまま送信するか(デフォルト値:false)</li>
+ * <li>HttpGetSpout.Reliable : HttpGetSpoutでメッセージIDを付与して送信し、fail時に再送するか。http.get.targetUrl使用時のみ有効(デフォルト値:false)</li>
+ * <li>HttpGetSpout.MaxPending : 信頼性保証モード時の再送バッファ上限。topology.max.spout.pendingが未設定の場合は同じ値を設定する(デフォルト値:1000)</li>
+ * <li>HttpGetSpout.RecordFormat : HttpGetSpoutのレスポンスのレコード形式(none:レスポンスボディ全体を1メッセージとして送信、ndjson:改行区切りのJSONを1行ずつ送信、jsonarray:JSON配列を要素ごとに送信)(デフォルト値:none)</li>
+ * <li>JsonExtractBolt.Mode : JsonExtractBoltの抽出方式(tree:JSONツリーを生成して抽出、streaming:JsonParserで抽出対象まで読み進めて抽出)(デフォルト値:tree)</li>
+ * <li>JsonExtractBolt.TargetPaths : JsonExtractBoltの抽出定義(「名称=JSON Pointer」)のリスト。指定した場合は先頭の抽出定義の値を文章として使用する(デフォルト値:なし。トップレベルの「contents」を抽出)</li>
+ * <li>SplitSentenceBolt.Tokenizer : SplitSentenceBoltの単語分割方式(whitespace:空白文字で分割、punctuation:文字と数字以外で分割、cjk:文字と数字以外で分割しCJK文字はbigramに分割)(デフォルト値:whitespace)</li>
+ * <li>SplitSentenceBolt.CombineSize : SplitSentenceBoltで単語ごとの出現回数を集約する単語数。0の場合は集約しない(デフォルト値:0)</li>
+ * <li>SplitSentenceBolt.FlushIntervalSecs : SplitSentenceBoltで集約した出現回数を送信する間隔(秒)(デフォルト値:1)</li>
+ * <li>WordCountBolt.Mode : WordCountBoltの集計方式(exact:全単語の厳密集計、topk:上位K件の集計、sketch:Count-Min Sketchによる近似集計、window:直近の時間窓内の集計)(デフォルト値:exact)</li>
+ * <li>WordCountBolt.TopK.Capacity : 上位K件集計時に監視する単語数(デフォルト値:1000)</li>
+ * <li>WordCountBolt.TopK.ReportSize : 上位K件集計時に結果出力する単語数(デフォルト値:20)</li>
+ * <li>WordCountBolt.Sketch.Width : Count-Min Sketchの幅(デフォルト値:65536)</li>
+ * <li>WordCountBolt.Sketch.Depth : Count-Min Sketchの深さ(デフォルト値:4)</li>
+ * <li>WordCountBolt.Sketch.UpdateMode : Count-Min Sketchの更新方式(standard:通常更新、conservative:Conservative Update)(デフォルト値:standard)</li>
+ * <li>WordCountBolt.Window.BucketCount : 時間窓内の集計時に時間窓を分割するバケット数(デフォルト値:60)</li>
+ * <li>WordCountBolt.Window.BucketSecs : 時間窓内の集計時の1バケットあたりの秒数(デフォルト値:1)</li>
+ * <li>WordCountBolt.Grouping : WordCountBoltへのGrouping方式(fields:単語単位のfieldsGrouping、partialkey:単語ごとに2タスクに分散するPartialKeyGrouping)(デフォルト値:fields)</li>
+ * <li>WordCountBolt.Partial.FlushSize : partialkey指定時にWordCountBoltで部分集計する単語数(デフォルト値:1000)</li>
+ * <li>WordCountBolt.Partial.FlushIntervalSecs : partialkey指定時にWordCountBoltで部分集計結果を送信する間隔(秒)(デフォルト値:1)</li>
+ * <li>WordCountMergeBolt.Parallelism : partialkey指定時のWordCountMergeBoltの並列度</li>
  * </ul>
  *
  * ローカル環境での実行方法<br>
@@ -107,29 +153,194 @@ public class HttpWordCountTopology extends BaseTopology
         // @formatter:off
         // Get setting from StormConfig Object
         String targetUrl = StormConfigUtil.getStringValue(getConfig(), "http.get.targetUrl", "");
+        List<String> targetUrls = StormConfigUtil.getStringListValue(getConfig(), "http.get.targetUrls");
+        int maxConnections = StormConfigUtil.getIntValue(getConfig(), "HttpGetSpout.MaxConnections", 20);
         int spoutPara = StormConfigUtil.getIntValue(getConfig(), "HttpGetSpout.Parallelism", 1);
+        boolean keyGen = KeyGenSpoutFactory.isEnabled(getConfig());
+        int keyGenPara = StormConfigUtil.getIntValue(getConfig(), "KeyGenSpout.Parallelism", 1);
         int jsonPara = StormConfigUtil.getIntValue(getConfig(), "JsonExtractBolt.Parallelism", 1);
         int splitPara = StormConfigUtil.getIntValue(getConfig(), "SplitSentenceBolt.Parallelism", 1);
+        int prefetchSize = StormConfigUtil.getIntValue(getConfig(), "HttpGetSpout.PrefetchSize", 0);
+        boolean conditionalGet = ConfigValueUtil.getBooleanValue(getConfig(), "HttpGetSpout.ConditionalGet", false);
+        boolean dedup = ConfigValueUtil.getBooleanValue(getConfig(), "HttpGetSpout.Dedup", false);
+        boolean rawBody = ConfigValueUtil.getBooleanValue(getConfig(), "HttpGetSpout.RawBody", false);
+        String recordFormat = StormConfigUtil.getStringValue(getConfig(), "HttpGetSpout.RecordFormat", "none");
+        boolean reliable = ConfigValueUtil.getBooleanValue(getConfig(), "HttpGetSpout.Reliable", false);
+        int maxPending = StormConfigUtil.getIntValue(getConfig(), "HttpGetSpout.MaxPending", 1000);
+        String jsonMode = StormConfigUtil.getStringValue(getConfig(), "JsonExtractBolt.Mode", "tree");
+        List<String> jsonPaths = StormConfigUtil.getStringListValue(getConfig(), "JsonExtractBolt.TargetPaths");
+        String tokenizerType = StormConfigUtil.getStringValue(getConfig(), "SplitSentenceBolt.Tokenizer", "whitespace");
+        int combineSize = StormConfigUtil.getIntValue(getConfig(), "SplitSentenceBolt.CombineSize", 0);
+        int flushSecs = StormConfigUtil.getIntValue(getConfig(), "SplitSentenceBolt.FlushIntervalSecs", 1);
         int wordcountPara = StormConfigUtil.getIntValue(getConfig(), "WordCountBolt.Parallelism", 1);
+        String wordcountMode = StormConfigUtil.getStringValue(getConfig(), "WordCountBolt.Mode", "exact");
+        int bucketSecs = StormConfigUtil.getIntValue(getConfig(), "WordCountBolt.Window.BucketSecs", 1);
+        String grouping = StormConfigUtil.getStringValue(getConfig(), "WordCountBolt.Grouping", "fields");
+        int partialSize = StormConfigUtil.getIntValue(getConfig(), "WordCountBolt.Partial.FlushSize", 1000);
+        int partialSecs = StormConfigUtil.getIntValue(getConfig(), "WordCountBolt.Partial.FlushIntervalSecs", 1);
+        int mergePara = StormConfigUtil.getIntValue(getConfig(), "WordCountMergeBolt.Parallelism", 1);
         // @formatter:on
 
         // Topology Setting
-        // Add Spout(HttpGetSpout)
-        HttpGetSpout spout = new HttpGetSpout(targetUrl);
-        getBuilder().setSpout("HttpGetSpout", spout, spoutPara);
+        // Add Spout(HttpGetSpout, MultiHttpGetSpout or KeyGenSpout)
+        if (keyGen == true)
+        {
+            KeyGenSpout spout = KeyGenSpoutFactory.createSpout(getConfig(), KeyGenSpout.KEY_WORD,
+                    LoadGenSpout.SHAPE_JSON);
+            getBuilder().setSpout(KeyGenSpoutFactory.COMPONENT_ID, spout, keyGenPara);
+        }
+        else if (targetUrls != null && targetUrls.isEmpty() == false)
+        {
+            MultiHttpGetSpout spout = new MultiHttpGetSpout(targetUrls);
+            spout.setMaxConnections(maxConnections);
+            spout.setRawBody(rawBody);
+            spout.setConditionalGet(conditionalGet);
+            spout.setDedup(dedup);
+            getBuilder().setSpout("HttpGetSpout", spout, spoutPara);
+        }
+        else
+        {
+            HttpGetSpout spout = new HttpGetSpout(targetUrl);
+            spout.setRawBody(rawBody);
+            spout.setPrefetchSize(prefetchSize);
+            spout.setConditionalGet(conditionalGet);
+            spout.setDedup(dedup);
+            if ("none".equals(recordFormat) == false)
+            {
+                spout.setRecordFormat(recordFormat);
+            }
+            if (reliable == true)
+            {
+                spout.setReliable(true);
+                spout.setMaxPending(maxPending);
+                if (getConfig().get(Config.TOPOLOGY_MAX_SPOUT_PENDING) == null)
+                {
+                    getConfig().setMaxSpoutPending(maxPending);
+                }
+            }
+            getBuilder().setSpout("HttpGetSpout", spout, spoutPara);
+        }
 
         // Add Bolt(JsonExtractBolt)
         JsonExtractBolt jsonBolt = new JsonExtractBolt("contents");
-        getBuilder().setBolt("JsonExtractBolt", jsonBolt, jsonPara).shuffleGrouping("HttpGetSpout");
+        if (jsonPaths != null && jsonPaths.isEmpty() == false)
+        {
+            jsonBolt = new JsonExtractBolt(jsonPaths);
+        }
+        jsonBolt.setStreaming("streaming".equals(jsonMode));
+        BoltDeclarer jsonDeclarer = getBuilder().setBolt("JsonExtractBolt", jsonBolt, jsonPara);
+        if (keyGen == true)
+        {
+            KeyGenSpoutFactory.declareGrouping(jsonDeclarer, getConfig());
+        }
+        else
+        {
+            jsonDeclarer.shuffleGrouping("HttpGetSpout");
+        }
 
         // Add Bolt(SplitSentenceBolt)
         SplitSentenceBolt splitBolt = new SplitSentenceBolt();
+        splitBolt.setTokenizer(createTokenizer(tokenizerType));
+        splitBolt.setCombineSize(combineSize);
+        splitBolt.setTickIntervalSecs(flushSecs);
         getBuilder().setBolt("SplitSentenceBolt", splitBolt, splitPara).shuffleGrouping(
                 "JsonExtractBolt");
 
+        if ("partialkey".equals(grouping))
+        {
+            // Add Bolt(WordCountBolt) as partial counter
+            WordCountBolt partialBolt = new WordCountBolt();
+            partialBolt.setPartialSize(partialSize);
+            partialBolt.setTickIntervalSecs(partialSecs);
+            getBuilder().setBolt("WordCountBolt", partialBolt, wordcountPara).customGrouping(
+                    "SplitSentenceBolt", new PartialKeyGrouping("word"));
+
+            // Add Bolt(WordCountMergeBolt)
+            getBuilder().setBolt("WordCountMergeBolt", createWordCountBolt(wordcountMode, bucketSecs),
+                    mergePara).fieldsGrouping("WordCountBolt", new Fields("word"));
+            return;
+        }
+
         // Add Bolt(WordCountBolt)
+        getBuilder().setBolt("WordCountBolt", createWordCountBolt(wordcountMode, bucketSecs),
+                wordcountPara).fieldsGrouping("SplitSentenceBolt", new Fields("word"));
+    }
+
+    /**
+     * 単語分割方式に応じてSplitSentenceBoltで使用するTokenizerを生成する。
+     *
+     * @param type 単語分割方式
+     * @return Tokenizer
+     */
+    private Tokenizer createTokenizer(String type)
+    {
+        if ("punctuation".equals(type))
+        {
+            return new PunctuationTokenizer();
+        }
+
+        if ("cjk".equals(type))
+        {
+            return new CjkBigramTokenizer();
+        }
+
+        return new WhitespaceTokenizer();
+    }
+
+    /**
+     * 集計方式に応じて結果を集計するWordCountBoltを生成する。
+     *
+     * @param mode 集計方式
+     * @param bucketSecs 時間窓内の集計時の1バケットあたりの秒数
+     * @return WordCountBolt
+     */
+    private WordCountBolt createWordCountBolt(String mode, int bucketSecs)
+    {
         WordCountBolt wordcountBolt = new WordCountBolt();
-        getBuilder().setBolt("WordCountBolt", wordcountBolt, wordcountPara).fieldsGrouping(
-                "SplitSentenceBolt", new Fields("word"));
+        wordcountBolt.setCounter(createWordCounter(mode));
+        if ("window".equals(mode))
+        {
+            wordcountBolt.setTickIntervalSecs(bucketSecs);
+        }
+
+        return wordcountBolt;
+    }
+
+    /**
+     * 集計方式に応じてWordCountBoltで使用するカウンタを生成する。
+     *
+     * @param mode 集計方式
+     * @return カウンタ
+     */
+    private WordCounter createWordCounter(String mode)
+    {
+        if ("topk".equals(mode))
+        {
+            // @formatter:off
+            int capacity = StormConfigUtil.getIntValue(getConfig(), "WordCountBolt.TopK.Capacity", SpaceSavingWordCounter.DEFAULT_CAPACITY);
+            int reportSize = StormConfigUtil.getIntValue(getConfig(), "WordCountBolt.TopK.ReportSize", SpaceSavingWordCounter.DEFAULT_REPORTSIZE);
+            // @formatter:on
+            return new SpaceSavingWordCounter(capacity, reportSize);
+        }
+
+        if ("sketch".equals(mode))
+        {
+            // @formatter:off
+            int width = StormConfigUtil.getIntValue(getConfig(), "WordCountBolt.Sketch.Width", CountMinSketchWordCounter.DEFAULT_WIDTH);
+            int depth = StormConfigUtil.getIntValue(getConfig(), "WordCountBolt.Sketch.Depth", CountMinSketchWordCounter.DEFAULT_DEPTH);
+            String updateMode = StormConfigUtil.getStringValue(getConfig(), "WordCountBolt.Sketch.UpdateMode", "standard");
+            // @formatter:on
+            return new CountMinSketchWordCounter(width, depth, "conservative".equals(updateMode));
+        }
+
+        if ("window".equals(mode))
+        {
+            // @formatter:off
+            int bucketCount = StormConfigUtil.getIntValue(getConfig(), "WordCountBolt.Window.BucketCount", SlidingWindowWordCounter.DEFAULT_BUCKET_COUNT);
+            // @formatter:on
+            return new SlidingWindowWordCounter(bucketCount);
+        }
+
+        return new ExactWordCounter();
     }
 }
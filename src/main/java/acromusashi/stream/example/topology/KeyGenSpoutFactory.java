@@ -0,0 +1,125 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.topology;
+
+import acromusashi.stream.config.StormConfigUtil;
+import acromusashi.stream.example.spout.KeyGenSpout;
+import backtype.storm.Config;
+import backtype.storm.topology.BoltDeclarer;
+import backtype.storm.tuple.Fields;
+
+/**
+ * yamlファイルの設定値からKeyGenSpoutを生成するファクトリ。<br>
+ * グルーピングの評価時に、Topologyの実際の入力元(HTTP、Kestrel)の代わりにKeyGenSpoutを使用する。<br>
+ * yamlファイルから読み込む設定値
+ * <ul>
+ * <li>Source.Type : 入力元。keygenを指定した場合にKeyGenSpoutを使用する(デフォルト値:Topologyごとの入力元)</li>
+ * <li>KeyGenSpout.Parallelism : KeyGenSpoutの並列度(デフォルト値:1)</li>
+ * <li>KeyGenSpout.Rate : タスクあたりの送信レート(件/秒)。0以下の場合はレート制御を行わない(デフォルト値:1000)</li>
+ * <li>KeyGenSpout.BurstSize : 1回のnextTupleで送信する最大件数。0の場合は送信レートの10ミリ秒分(デフォルト値:0)</li>
+ * <li>KeyGenSpout.KeyType : キー種別(word:英小文字の単語、ip:IPアドレス)(デフォルト値:Topologyごとに指定)</li>
+ * <li>KeyGenSpout.KeyCount : キー数(デフォルト値:10000)</li>
+ * <li>KeyGenSpout.Distribution : キーの分布(zipf、hotset、uniform)(デフォルト値:zipf)</li>
+ * <li>KeyGenSpout.Zipf.Exponent : Zipf分布の指数(デフォルト値:1.0)</li>
+ * <li>KeyGenSpout.HotSet.Count : ホットセットのキー数(デフォルト値:100)</li>
+ * <li>KeyGenSpout.HotSet.Ratio : ホットセットを抽出する確率(デフォルト値:0.9)</li>
+ * <li>KeyGenSpout.Seed : 乱数のシード(デフォルト値:0)</li>
+ * <li>KeyGenSpout.Grouping : KeyGenSpoutの直後のBoltのグルーピング(localOrShuffle、shuffle、fields:キーによるfieldsGrouping)(デフォルト値:localOrShuffle)</li>
+ * </ul>
+ *
+ * @author kimura
+ */
+public final class KeyGenSpoutFactory
+{
+    /** Source.Typeに指定する、KeyGenSpoutを使用する場合の値 */
+    public static final String TYPE_KEYGEN  = "keygen";
+
+    /** KeyGenSpoutのコンポーネントID */
+    public static final String COMPONENT_ID = "KeyGenSpout";
+
+    /**
+     * インスタンス化を防止するためのコンストラクタ
+     */
+    private KeyGenSpoutFactory()
+    {}
+
+    /**
+     * 入力元としてKeyGenSpoutを使用するかを判定する。
+     *
+     * @param config Storm設定オブジェクト
+     * @return KeyGenSpoutを使用する場合true
+     */
+    public static boolean isEnabled(Config config)
+    {
+        return TYPE_KEYGEN.equals(StormConfigUtil.getStringValue(config, "Source.Type", ""));
+    }
+
+    /**
+     * yamlファイルの設定値からKeyGenSpoutを生成する。
+     *
+     * @param config Storm設定オブジェクト
+     * @param defaultKeyType KeyGenSpout.KeyType未指定時のキー種別
+     * @param shape メッセージ形式
+     * @return KeyGenSpout
+     */
+    public static KeyGenSpout createSpout(Config config, String defaultKeyType, String shape)
+    {
+        // @formatter:off
+        int rate = StormConfigUtil.getIntValue(config, "KeyGenSpout.Rate", 1000);
+        int burstSize = StormConfigUtil.getIntValue(config, "KeyGenSpout.BurstSize", 0);
+        String keyType = StormConfigUtil.getStringValue(config, "KeyGenSpout.KeyType", defaultKeyType);
+        int keyCount = StormConfigUtil.getIntValue(config, "KeyGenSpout.KeyCount", 10000);
+        String distribution = StormConfigUtil.getStringValue(config, "KeyGenSpout.Distribution", "zipf");
+        double exponent = ConfigValueUtil.getDoubleValue(config, "KeyGenSpout.Zipf.Exponent", 1.0d);
+        int hotCount = StormConfigUtil.getIntValue(config, "KeyGenSpout.HotSet.Count", 100);
+        double hotRatio = ConfigValueUtil.getDoubleValue(config, "KeyGenSpout.HotSet.Ratio", 0.9d);
+        int seed = StormConfigUtil.getIntValue(config, "KeyGenSpout.Seed", 0);
+        // @formatter:on
+
+        KeyGenSpout spout = new KeyGenSpout();
+        spout.setRate(rate);
+        spout.setBurstSize(burstSize);
+        spout.setShape(shape);
+        spout.setKeyType(keyType);
+        spout.setKeyCount(keyCount);
+        spout.setDistribution(distribution);
+        spout.setZipfExponent(exponent);
+        spout.setHotCount(hotCount);
+        spout.setHotRatio(hotRatio);
+        spout.setSeed(seed);
+        return spout;
+    }
+
+    /**
+     * KeyGenSpoutの直後のBoltに、yamlファイルの設定値に応じたグルーピングを設定する。
+     *
+     * @param declarer Boltの定義
+     * @param config Storm設定オブジェクト
+     * @return Boltの定義
+     */
+    public static BoltDeclarer declareGrouping(BoltDeclarer declarer, Config config)
+    {
+        String grouping = StormConfigUtil.getStringValue(config, "KeyGenSpout.Grouping",
+                "localOrShuffle");
+        if ("fields".equals(grouping) == true)
+        {
+            return declarer.fieldsGrouping(COMPONENT_ID, new Fields("key"));
+        }
+        else if ("shuffle".equals(grouping) == true)
+        {
+            return declarer.shuffleGrouping(COMPONENT_ID);
+        }
+
+        return declarer.localOrShuffleGrouping(COMPONENT_ID);
+    }
+}
@@ -0,0 +1,72 @@
+/**
+* Copyright (c) Acroquest Technology Co, Ltd. All Rights Reserved.
+* Please read the associated COPYRIGHTS file for more details.
+*
+* THE SOFTWARE IS PROVIDED BY Acroquest Technolog Co., Ltd.,
+* WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING
+* BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+* FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDER BE LIABLE FOR ANY
+* CLAIM, DAMAGES SUFFERED BY LICENSEE AS A RESULT OF USING, MODIFYING
+* OR DISTRIBUTING THIS SOFTWARE OR ITS DERIVATIVES.
+*/
+package acromusashi.stream.example.topology;
+
+import acromusashi.stream.config.StormConfigUtil;
+import acromusashi.stream.example.spout.LoadGenSpout;
+import backtype.storm.Config;
+
+/**
+ * yamlファイルの設定値からLoadGenSpoutを生成するファクトリ。<br>
+ * 負荷試験時にPeriodicalMessageGenSpout、PeriodicalSnmpGenSpoutの代わりに使用する。<br>
+ * yamlファイルから読み込む設定値
+ * <ul>
+ * <li>LoadGenSpout.Rate : タスクあたりの送信レート(件/秒)。0以下の場合はレート制御を行わない(デフォルト値:1000)</li>
+ * <li>LoadGenSpout.BurstSize : 1回のnextTupleで送信する最大件数。0の場合は送信レートの10ミリ秒分(デフォルト値:0)</li>
+ * <li>LoadGenSpout.PayloadSize : ペイロードサイズ(文字数またはバイト数)(デフォルト値:100)</li>
+ * <li>LoadGenSpout.PoolSize : 事前に生成してプールするメッセージボディの件数(デフォルト値:1024)</li>
+ * <li>LoadGenSpout.Shape : メッセージ形式(message、snmp、json、bytes)(デフォルト値:トポロジごとに指定)</li>
+ * <li>LoadGenSpout.Seed : ペイロード生成に使用する乱数のシード(デフォルト値:0)</li>
+ * </ul>
+ *
+ * @author kimura
+ */
+public final class LoadGenSpoutFactory
+{
+    /** MessageGenSpout.Typeに指定する、LoadGenSpoutを使用する場合の値 */
+    public static final String TYPE_LOADGEN = "loadgen";
+
+    /**
+     * インスタンス化を防止するためのコンストラクタ
+     */
+    private LoadGenSpoutFactory()
+    {}
+
+    /**
+     * yamlファイルの設定値からLoadGenSpoutを生成する。
+     *
+     * @param config Storm設定オブジェクト
+     * @param defaultShape LoadGenSpout.Shape未指定時のメッセージ形式
+     * @return LoadGenSpout
+     */
+    public static LoadGenSpout createSpout(Config config, String defaultShape)
+    {
+        // @formatter:off
+        int rate = StormConfigUtil.getIntValue(config, "LoadGenSpout.Rate", 1000);
+        int burstSize = StormConfigUtil.getIntValue(config, "LoadGenSpout.BurstSize", 0);
+        int payloadSize = StormConfigUtil.getIntValue(config, "LoadGenSpout.PayloadSize", 100);
+        int poolSize = StormConfigUtil.getIntValue(config, "LoadGenSpout.PoolSize", 1024);
+        String shape = StormConfigUtil.getStringValue(config, "LoadGenSpout.Shape", defaultShape);
+        int seed = StormConfigUtil.getIntValue(config, "LoadGenSpout.Seed", 0);
+        // @formatter:on
+
+        LoadGenSpout spout = new LoadGenSpout();
+        spout.setRate(rate);
+        spout.setBurstSize(burstSize);
+        spout.setPayloadSize(payloadSize);
+        spout.setPoolSize(poolSize);
+        spout.setShape(shape);
+        spout.setSeed(seed);
+        return spout;
+    }
+}
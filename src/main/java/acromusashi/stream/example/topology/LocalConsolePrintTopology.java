@@ -36,6 +36,7 @@ import backtype.storm.spout.SchemeAsMultiScheme;
  * <ul>
  * <li>MessageGenSpout.Parallelism : PeriodicalMessageGenSpoutの並列度(デフォルト値:2)</li>
  * <li>ConsolePrintBolt.Parallelism : CamelHbaseStoreBoltの並列度(デフォルト値:2)</li>
+ * <li>ConsolePrintBolt.Async : ConsolePrintBoltで非同期に出力するか(デフォルト値:false)。非同期出力の設定値はConsolePrintBoltFactoryを参照</li>
  * </ul>
  * @author kimura
  */
@@ -101,7 +102,7 @@ public class LocalConsolePrintTopology extends BaseTopology
         getBuilder().setSpout("KestrelSpout", kestrelSpout, kestrelSpoutPara);
 
         // Add Bolt(KestrelSpout -> ConsolePrintBolt)
-        ConsolePrintBolt printBolt = new ConsolePrintBolt();
+        ConsolePrintBolt printBolt = ConsolePrintBoltFactory.createBolt(getConfig());
         getBuilder().setBolt("ConsolePrintBolt", printBolt, consoleBoltPara).localOrShuffleGrouping(
                 "KestrelSpout");
 
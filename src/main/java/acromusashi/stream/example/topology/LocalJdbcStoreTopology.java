@@ -17,22 +17,25 @@ import acromusashi.stream.component.snmp.converter.SnmpConverter;
 import acromusashi.stream.config.StormConfigGenerator;
 import acromusashi.stream.config.StormConfigUtil;
 import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.spout.LoadGenSpout;
 import acromusashi.stream.example.spout.PeriodicalSnmpGenSpout;
 import acromusashi.stream.topology.BaseTopology;
 import backtype.storm.Config;
+import backtype.storm.topology.IRichSpout;
 
 /**
  * StormTopologyから外部には接続せず、Snmp型共通メッセージをH2データベースに保存するTopologyを起動する。<br/>
  * <br/>
  * Topologyの動作フローは下記の通り。<br/>
  * <ol>
- * <li>PeriodicalSnmpGenSpoutにてSNMP形式の共通メッセージを生成する</li>
+ * <li>PeriodicalSnmpGenSpout(負荷試験時はLoadGenSpout)にてSNMP形式の共通メッセージを生成する</li>
  * <li>CamelJdbcStoreBoltにて設定項目[dataSource]に設定したDataSourceに対してデータを投入する</li>
  * </ol>
  * 
  * yamlファイルから読み込む設定値
  * <ul>
  * <li>SnmpGenSpout.Parallelism : PeriodicalSnmpGenSpoutの並列度(デフォルト値:1)</li>
+ * <li>SnmpGenSpout.Type : メッセージを生成するSpout(periodical:PeriodicalSnmpGenSpout、loadgen:LoadGenSpout)(デフォルト値:periodical)。LoadGenSpoutの設定値はLoadGenSpoutFactoryを参照</li>
  * <li>JdbcStoreBolt.Parallelism : CamelJdbcStoreBoltの並列度(デフォルト値:1)</li>
  * <li>CamelContext.Path : JdbcStoreBoltにおいて起動するCamelコンテキストパス(デフォルト値:file:/opt/storm/conf/camel-context-example-jdbc.xml)</li>
  * </ul>
@@ -87,13 +90,19 @@ public class LocalJdbcStoreTopology extends BaseTopology
         // Get setting from StormConfig Object
         int snmpGenSpoutPara = StormConfigUtil.getIntValue(getConfig(), "SnmpGenSpout.Parallelism",
                 1);
+        String snmpGenSpoutType = StormConfigUtil.getStringValue(getConfig(), "SnmpGenSpout.Type",
+                "periodical");
         int jdbcBoltPara = StormConfigUtil.getIntValue(getConfig(), "JdbcStoreBolt.Parallelism", 1);
         String contextUri = StormConfigUtil.getStringValue(getConfig(), "CamelContext.Path",
                 "file:/opt/storm/conf/camel-context-example-jdbc.xml");
 
         // Topology Setting
-        // Add Spout(PeriodicalSnmpGenSpout)
-        PeriodicalSnmpGenSpout spout = new PeriodicalSnmpGenSpout();
+        // Add Spout(PeriodicalSnmpGenSpout or LoadGenSpout)
+        IRichSpout spout = new PeriodicalSnmpGenSpout();
+        if (LoadGenSpoutFactory.TYPE_LOADGEN.equals(snmpGenSpoutType) == true)
+        {
+            spout = LoadGenSpoutFactory.createSpout(getConfig(), LoadGenSpout.SHAPE_SNMP);
+        }
         getBuilder().setSpout("SnmpGenSpout", spout, snmpGenSpoutPara);
 
         // Add Bolt(PeriodicalSnmpGenSpout -> CamelJdbcStoreBolt)
@@ -25,10 +25,13 @@ import acromusashi.stream.component.snmp.converter.SnmpConverter;
 import acromusashi.stream.config.StormConfigGenerator;
 import acromusashi.stream.config.StormConfigUtil;
 import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.spout.KeyGenSpout;
+import acromusashi.stream.example.spout.LoadGenSpout;
 import acromusashi.stream.topology.BaseTopology;
 import backtype.storm.Config;
 import backtype.storm.scheme.StringScheme;
 import backtype.storm.spout.SchemeAsMultiScheme;
+import backtype.storm.topology.BoltDeclarer;
 
 /**
  * HBase DataStore用のTopologyを起動する。
@@ -46,6 +49,8 @@ import backtype.storm.spout.SchemeAsMultiScheme;
  * <li>Kestrel.QueueName : Kestrelのキュー名称(デフォルト値:MessageQueue)</li>
  * <li>KestrelSpout.Parallelism : KestrelSpoutの並列度(デフォルト値:1)</li>
  * <li>ConvertBolt.Parallelism : MessageConvertBoltの並列度(デフォルト値:1)</li>
+ * <li>Source.Type : 入力元(kestrel:KestrelSpout、keygen:偏りのある分布に従って送信元IPアドレスを生成するKeyGenSpout。MessageConvertBoltは使用しない、replay:CaptureBoltで記録したJSONを再生するCaptureReplaySpout)(デフォルト値:kestrel)。KeyGenSpoutの設定値はKeyGenSpoutFactoryを参照</li>
+ * <li>CaptureBolt.Enabled : KestrelSpoutで受信したJSONをCaptureBoltで記録ファイルに記録するか(デフォルト値:false)。記録、再生の設定値はCaptureReplayFactoryを参照</li>
  * <li>CamelHBaseBolt.Parallelism : CamelHbaseStoreBoltの並列度(デフォルト値:1)</li>
  * <li>CamelContext.Path : CamelHBaseBoltにおいて起動するCamelコンテキストパス(デフォルト値:file:/opt/storm/conf/camel-context-example-hbase.xml)</li>
  * <li>HBaseSchema.Define : CamelHBaseBoltにて投入するHBaseスキーマ定義。【Family】_【Quantifier】形式(デフォルト値:無)</li>
@@ -105,6 +110,13 @@ public class Snmp2HbaseStoreTopology extends BaseTopology
         int kestrelSpoutPara = StormConfigUtil.getIntValue(getConfig(), "KestrelSpout.Parallelism",
                 1);
         int msgConvertPara = StormConfigUtil.getIntValue(getConfig(), "ConvertBolt.Parallelism", 1);
+        boolean keyGen = KeyGenSpoutFactory.isEnabled(getConfig());
+        int keyGenPara = StormConfigUtil.getIntValue(getConfig(), "KeyGenSpout.Parallelism", 1);
+        boolean replay = CaptureReplayFactory.isReplayEnabled(getConfig());
+        int replayPara = StormConfigUtil.getIntValue(getConfig(), "CaptureReplaySpout.Parallelism",
+                1);
+        boolean capture = CaptureReplayFactory.isCaptureEnabled(getConfig());
+        int capturePara = StormConfigUtil.getIntValue(getConfig(), "CaptureBolt.Parallelism", 1);
         int hbaseBoltPara = StormConfigUtil.getIntValue(getConfig(), "CamelHBaseBolt.Parallelism",
                 1);
         String contextUri = StormConfigUtil.getStringValue(getConfig(), "CamelContext.Path",
@@ -113,16 +125,45 @@ public class Snmp2HbaseStoreTopology extends BaseTopology
                 "HBaseSchema.Define");
 
         // Topology Setting
-        // Add Spout(KestrelSpout)
-        KestrelSpout kestrelSpout = new KestrelSpout(kestrelHosts, kestrelQueueName,
-                new SchemeAsMultiScheme(new StringScheme()));
-        getBuilder().setSpout("KestrelSpout", kestrelSpout, kestrelSpoutPara);
-
-        // Add Bolt(KestrelSpout -> MessageConvertBolt)
-        MessageConvertBolt convertBolt = new MessageConvertBolt();
-        convertBolt.setConverter(new SnmpConverter());
-        getBuilder().setBolt("ConvertBolt", convertBolt, msgConvertPara).shuffleGrouping(
-                "KestrelSpout");
+        if (keyGen == true)
+        {
+            // Add Spout(KeyGenSpout)
+            KeyGenSpout keyGenSpout = KeyGenSpoutFactory.createSpout(getConfig(), KeyGenSpout.KEY_IP,
+                    LoadGenSpout.SHAPE_SNMP);
+            getBuilder().setSpout(KeyGenSpoutFactory.COMPONENT_ID, keyGenSpout, keyGenPara);
+        }
+        else
+        {
+            String sourceId = "KestrelSpout";
+            if (replay == true)
+            {
+                // Add Spout(CaptureReplaySpout)
+                sourceId = CaptureReplayFactory.REPLAY_COMPONENT_ID;
+                getBuilder().setSpout(sourceId, CaptureReplayFactory.createSpout(getConfig()),
+                        replayPara);
+            }
+            else
+            {
+                // Add Spout(KestrelSpout)
+                KestrelSpout kestrelSpout = new KestrelSpout(kestrelHosts, kestrelQueueName,
+                        new SchemeAsMultiScheme(new StringScheme()));
+                getBuilder().setSpout("KestrelSpout", kestrelSpout, kestrelSpoutPara);
+
+                if (capture == true)
+                {
+                    // Add Bolt(KestrelSpout -> CaptureBolt)
+                    getBuilder().setBolt(CaptureReplayFactory.CAPTURE_COMPONENT_ID,
+                            CaptureReplayFactory.createBolt(getConfig()), capturePara)
+                            .localOrShuffleGrouping("KestrelSpout");
+                }
+            }
+
+            // Add Bolt(KestrelSpout or CaptureReplaySpout -> MessageConvertBolt)
+            MessageConvertBolt convertBolt = new MessageConvertBolt();
+            convertBolt.setConverter(new SnmpConverter());
+            getBuilder().setBolt("ConvertBolt", convertBolt, msgConvertPara).shuffleGrouping(
+                    sourceId);
+        }
 
         // Add Bolt(MessageConvertBolt -> CamelHbaseStoreBolt)
         CamelHbaseStoreBolt camelHBaseBolt = new CamelHbaseStoreBolt();
@@ -139,8 +180,16 @@ public class Snmp2HbaseStoreTopology extends BaseTopology
 
         camelHBaseBolt.setCellDefineList(cellList);
 
-        getBuilder().setBolt("CamelHBaseBolt", camelHBaseBolt, hbaseBoltPara).localOrShuffleGrouping(
-                "ConvertBolt");
+        BoltDeclarer camelHBaseBoltDeclarer = getBuilder().setBolt("CamelHBaseBolt",
+                camelHBaseBolt, hbaseBoltPara);
+        if (keyGen == true)
+        {
+            KeyGenSpoutFactory.declareGrouping(camelHBaseBoltDeclarer, getConfig());
+        }
+        else
+        {
+            camelHBaseBoltDeclarer.localOrShuffleGrouping("ConvertBolt");
+        }
 
         // Regist Serialize Setting.
         getConfig().registerSerialization(Message.class);
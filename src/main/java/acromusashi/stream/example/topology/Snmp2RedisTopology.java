@@ -12,6 +12,7 @@
 */
 package acromusashi.stream.example.topology;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import acromusashi.stream.bolt.MessageConvertBolt;
@@ -21,10 +22,20 @@ import acromusashi.stream.config.StormConfigGenerator;
 import acromusashi.stream.config.StormConfigUtil;
 import acromusashi.stream.entity.Message;
 import acromusashi.stream.example.bolt.RedisBolt;
+import acromusashi.stream.example.bolt.RedisEnrichBolt;
+import acromusashi.stream.example.bolt.ShardedRedisBolt;
+import acromusashi.stream.example.encoder.DeflateJsonValueEncoder;
+import acromusashi.stream.example.encoder.KryoValueEncoder;
+import acromusashi.stream.example.encoder.StringValueEncoder;
+import acromusashi.stream.example.encoder.ValueEncoder;
+import acromusashi.stream.example.spout.KeyGenSpout;
+import acromusashi.stream.example.spout.LoadGenSpout;
 import acromusashi.stream.topology.BaseTopology;
 import backtype.storm.Config;
 import backtype.storm.scheme.StringScheme;
 import backtype.storm.spout.SchemeAsMultiScheme;
+import backtype.storm.topology.BoltDeclarer;
+import backtype.storm.topology.IRichBolt;
 
 /**
  * KestrelからSnmpメッセージを取得し、破棄するTopologyを起動する。
@@ -42,8 +53,26 @@ import backtype.storm.spout.SchemeAsMultiScheme;
  * <li>Kestrel.QueueName : Kestrelのキュー名称(デフォルト値:MessageQueue)</li>
  * <li>KestrelSpout.Parallelism : KestrelSpoutの並列度(デフォルト値:1)</li>
  * <li>ConvertBolt.Parallelism : MessageConvertBoltの並列度(デフォルト値:1)</li>
+ * <li>Source.Type : 入力元(kestrel:KestrelSpout、keygen:偏りのある分布に従って送信元IPアドレスを生成するKeyGenSpout。MessageConvertBoltは使用しない、replay:CaptureBoltで記録したJSONを再生するCaptureReplaySpout)(デフォルト値:kestrel)。KeyGenSpoutの設定値はKeyGenSpoutFactoryを参照</li>
+ * <li>CaptureBolt.Enabled : KestrelSpoutで受信したJSONをCaptureBoltで記録ファイルに記録するか(デフォルト値:false)。記録、再生の設定値はCaptureReplayFactoryを参照</li>
  * <li>RedisBolt.RedisHost : Redisの投入先(デフォルト値:localhost)</li>
  * <li>RedisBolt.Parallelism : BlackHoleBoltの並列度(デフォルト値:1)</li>
+ * <li>RedisBolt.BatchSize : 1回のパイプラインでまとめて書き込む件数。0以下の場合はメッセージごとに書き込む(デフォルト値:0)</li>
+ * <li>RedisBolt.FlushIntervalSecs : 蓄積したメッセージを書き込む間隔(秒)(デフォルト値:1)</li>
+ * <li>RedisBolt.RedisHosts : 書き込み先を分散するRedisの「ホスト:ポート」の配列。指定した場合はRedisBolt.RedisHostの代わりにShardedRedisBoltでメッセージIDをキーに各Redisに分散して書き込む(デフォルト値:無)</li>
+ * <li>RedisBolt.MaxPendingBatches : ShardedRedisBoltでシャードごとに同時に書き込むパイプライン数の上限(デフォルト値:2)</li>
+ * <li>RedisBolt.Encoder : 書き込む値の形式(string:toStringの結果、kryo:Kryoによるバイナリ形式、deflate-json:Deflateで圧縮したJSON形式)(デフォルト値:string)</li>
+ * <li>RedisBolt.KryoClasses : RedisBolt.Encoderがkryoの場合にKryoに登録するクラスの完全修飾名の配列。登録したクラスはクラス名の代わりに整数のIDで書き込む。読み出し側と同じ順で指定する(デフォルト値:無)</li>
+ * <li>RedisBolt.TtlSecs : 書き込むキーの有効期限(秒)。0以下の場合は有効期限を設定しない(デフォルト値:0)</li>
+ * <li>RedisEnrichBolt.Enabled : RedisBoltの前段にRedisEnrichBoltを配置し、送信元をキーとしてRedisから取得した機器情報を付与するか(デフォルト値:false)</li>
+ * <li>RedisEnrichBolt.RedisHost : 機器情報を格納したRedisのホスト(デフォルト値:RedisBolt.RedisHostの値)</li>
+ * <li>RedisEnrichBolt.Parallelism : RedisEnrichBoltの並列度(デフォルト値:1)</li>
+ * <li>RedisEnrichBolt.KeyPrefix : 機器情報のキーの接頭辞。キーは「接頭辞 + 送信元」となる(デフォルト値:device:)</li>
+ * <li>RedisEnrichBolt.FieldName : 機器情報を付与するメッセージのフィールド名(デフォルト値:device)</li>
+ * <li>RedisEnrichBolt.CacheSize : 機器情報のキャッシュの保持件数上限(デフォルト値:10000)</li>
+ * <li>RedisEnrichBolt.CacheTtlSecs : 機器情報のキャッシュの有効期限(秒)(デフォルト値:60)</li>
+ * <li>RedisEnrichBolt.MgetBatchSize : キャッシュに存在しない機器情報を1回のMGETで取得する最大キー数(デフォルト値:100)</li>
+ * <li>RedisEnrichBolt.FlushIntervalSecs : キャッシュに存在しない機器情報を取得する間隔(秒)(デフォルト値:1)</li>
  * </ul>
  * @author kimura
  */
@@ -100,27 +129,177 @@ public class Snmp2RedisTopology extends BaseTopology
         int kestrelSpoutPara = StormConfigUtil.getIntValue(getConfig(), "KestrelSpout.Parallelism",
                 1);
         int msgConvertPara = StormConfigUtil.getIntValue(getConfig(), "ConvertBolt.Parallelism", 1);
+        boolean keyGen = KeyGenSpoutFactory.isEnabled(getConfig());
+        int keyGenPara = StormConfigUtil.getIntValue(getConfig(), "KeyGenSpout.Parallelism", 1);
+        boolean replay = CaptureReplayFactory.isReplayEnabled(getConfig());
+        int replayPara = StormConfigUtil.getIntValue(getConfig(), "CaptureReplaySpout.Parallelism",
+                1);
+        boolean capture = CaptureReplayFactory.isCaptureEnabled(getConfig());
+        int capturePara = StormConfigUtil.getIntValue(getConfig(), "CaptureBolt.Parallelism", 1);
         String redisHost = StormConfigUtil.getStringValue(getConfig(), "RedisBolt.RedisHost",
                 "localhost");
         int redisBoltPara = StormConfigUtil.getIntValue(getConfig(), "RedisBolt.Parallelism", 1);
+        int redisBatchSize = StormConfigUtil.getIntValue(getConfig(), "RedisBolt.BatchSize", 0);
+        int redisFlushInterval = StormConfigUtil.getIntValue(getConfig(),
+                "RedisBolt.FlushIntervalSecs", 1);
+        List<String> redisHosts = StormConfigUtil.getStringListValue(getConfig(),
+                "RedisBolt.RedisHosts");
+        int redisMaxPending = StormConfigUtil.getIntValue(getConfig(),
+                "RedisBolt.MaxPendingBatches", 2);
+        String redisEncoder = StormConfigUtil.getStringValue(getConfig(), "RedisBolt.Encoder",
+                "string");
+        int redisTtl = StormConfigUtil.getIntValue(getConfig(), "RedisBolt.TtlSecs", 0);
+        boolean enrich = ConfigValueUtil.getBooleanValue(getConfig(), "RedisEnrichBolt.Enabled",
+                false);
+        int enrichPara = StormConfigUtil.getIntValue(getConfig(), "RedisEnrichBolt.Parallelism", 1);
 
         // Topology Setting
-        // Add Spout(KestrelSpout)
-        KestrelSpout kestrelSpout = new KestrelSpout(kestrelHosts, kestrelQueueName,
-                new SchemeAsMultiScheme(new StringScheme()));
-        getBuilder().setSpout("KestrelSpout", kestrelSpout, kestrelSpoutPara);
+        if (keyGen == true)
+        {
+            // Add Spout(KeyGenSpout)
+            KeyGenSpout keyGenSpout = KeyGenSpoutFactory.createSpout(getConfig(), KeyGenSpout.KEY_IP,
+                    LoadGenSpout.SHAPE_SNMP);
+            getBuilder().setSpout(KeyGenSpoutFactory.COMPONENT_ID, keyGenSpout, keyGenPara);
+        }
+        else
+        {
+            String sourceId = "KestrelSpout";
+            if (replay == true)
+            {
+                // Add Spout(CaptureReplaySpout)
+                sourceId = CaptureReplayFactory.REPLAY_COMPONENT_ID;
+                getBuilder().setSpout(sourceId, CaptureReplayFactory.createSpout(getConfig()),
+                        replayPara);
+            }
+            else
+            {
+                // Add Spout(KestrelSpout)
+                KestrelSpout kestrelSpout = new KestrelSpout(kestrelHosts, kestrelQueueName,
+                        new SchemeAsMultiScheme(new StringScheme()));
+                getBuilder().setSpout("KestrelSpout", kestrelSpout, kestrelSpoutPara);
+
+                if (capture == true)
+                {
+                    // Add Bolt(KestrelSpout -> CaptureBolt)
+                    getBuilder().setBolt(CaptureReplayFactory.CAPTURE_COMPONENT_ID,
+                            CaptureReplayFactory.createBolt(getConfig()), capturePara)
+                            .localOrShuffleGrouping("KestrelSpout");
+                }
+            }
 
-        // Add Bolt(KestrelSpout -> MessageConvertBolt)
-        MessageConvertBolt convertBolt = new MessageConvertBolt();
-        convertBolt.setConverter(new SnmpConverter());
-        getBuilder().setBolt("ConvertBolt", convertBolt, msgConvertPara).localOrShuffleGrouping(
-                "KestrelSpout");
+            // Add Bolt(KestrelSpout or CaptureReplaySpout -> MessageConvertBolt)
+            MessageConvertBolt convertBolt = new MessageConvertBolt();
+            convertBolt.setConverter(new SnmpConverter());
+            getBuilder().setBolt("ConvertBolt", convertBolt, msgConvertPara).localOrShuffleGrouping(
+                    sourceId);
+        }
 
-        // Add Bolt(MessageConvertBolt -> RedisBolt)
-        RedisBolt bolt = new RedisBolt(redisHost);
-        getBuilder().setBolt("RedisBolt", bolt, redisBoltPara).localOrShuffleGrouping("ConvertBolt");
+        // Add Bolt(MessageConvertBolt -> RedisBolt or ShardedRedisBolt)
+        IRichBolt bolt = null;
+        if (redisHosts != null && redisHosts.isEmpty() == false)
+        {
+            ShardedRedisBolt shardedBolt = new ShardedRedisBolt(redisHosts);
+            if (redisBatchSize > 0)
+            {
+                shardedBolt.setBatchSize(redisBatchSize);
+            }
+            shardedBolt.setTickIntervalSecs(redisFlushInterval);
+            shardedBolt.setMaxPendingBatches(redisMaxPending);
+            shardedBolt.setValueEncoder(createValueEncoder(redisEncoder));
+            shardedBolt.setTtlSecs(redisTtl);
+            bolt = shardedBolt;
+        }
+        else
+        {
+            RedisBolt redisBolt = new RedisBolt(redisHost);
+            redisBolt.setBatchSize(redisBatchSize);
+            redisBolt.setTickIntervalSecs(redisFlushInterval);
+            redisBolt.setValueEncoder(createValueEncoder(redisEncoder));
+            redisBolt.setTtlSecs(redisTtl);
+            bolt = redisBolt;
+        }
+
+        // Add Bolt(MessageConvertBolt -> RedisEnrichBolt -> RedisBolt or ShardedRedisBolt)
+        BoltDeclarer boltDeclarer = null;
+        if (enrich == true)
+        {
+            boltDeclarer = getBuilder().setBolt("RedisEnrichBolt", createEnrichBolt(redisHost),
+                    enrichPara);
+            getBuilder().setBolt("RedisBolt", bolt, redisBoltPara).localOrShuffleGrouping(
+                    "RedisEnrichBolt");
+        }
+        else
+        {
+            boltDeclarer = getBuilder().setBolt("RedisBolt", bolt, redisBoltPara);
+        }
+
+        if (keyGen == true)
+        {
+            KeyGenSpoutFactory.declareGrouping(boltDeclarer, getConfig());
+        }
+        else
+        {
+            boltDeclarer.localOrShuffleGrouping("ConvertBolt");
+        }
 
         // Regist Serialize Setting.
         getConfig().registerSerialization(Message.class);
     }
+
+    /**
+     * 機器情報を付与するRedisEnrichBoltを生成する。
+     *
+     * @param defaultRedisHost 機器情報を格納したRedisのホストのデフォルト値
+     * @return RedisEnrichBolt
+     */
+    private RedisEnrichBolt createEnrichBolt(String defaultRedisHost)
+    {
+        // @formatter:off
+        String redisHost = StormConfigUtil.getStringValue(getConfig(), "RedisEnrichBolt.RedisHost", defaultRedisHost);
+        String keyPrefix = StormConfigUtil.getStringValue(getConfig(), "RedisEnrichBolt.KeyPrefix", "device:");
+        String fieldName = StormConfigUtil.getStringValue(getConfig(), "RedisEnrichBolt.FieldName", "device");
+        int cacheSize = StormConfigUtil.getIntValue(getConfig(), "RedisEnrichBolt.CacheSize", 10000);
+        int cacheTtl = StormConfigUtil.getIntValue(getConfig(), "RedisEnrichBolt.CacheTtlSecs", 60);
+        int mgetBatchSize = StormConfigUtil.getIntValue(getConfig(), "RedisEnrichBolt.MgetBatchSize", 100);
+        int flushInterval = StormConfigUtil.getIntValue(getConfig(), "RedisEnrichBolt.FlushIntervalSecs", 1);
+        // @formatter:on
+
+        RedisEnrichBolt enrichBolt = new RedisEnrichBolt(redisHost);
+        enrichBolt.setKeyPrefix(keyPrefix);
+        enrichBolt.setFieldName(fieldName);
+        enrichBolt.setCacheSize(cacheSize);
+        enrichBolt.setCacheTtlSecs(cacheTtl);
+        enrichBolt.setMgetBatchSize(mgetBatchSize);
+        enrichBolt.setTickIntervalSecs(flushInterval);
+        return enrichBolt;
+    }
+
+    /**
+     * 書き込む値の形式に応じてRedisに書き込む値を変換するValueEncoderを生成する。
+     *
+     * @param type 書き込む値の形式
+     * @return ValueEncoder
+     */
+    private ValueEncoder createValueEncoder(String type)
+    {
+        if ("kryo".equals(type))
+        {
+            KryoValueEncoder encoder = new KryoValueEncoder();
+            List<String> kryoClasses = StormConfigUtil.getStringListValue(getConfig(),
+                    "RedisBolt.KryoClasses");
+            if (kryoClasses != null)
+            {
+                encoder.setRegisteredClasses(new ArrayList<String>(kryoClasses));
+            }
+
+            return encoder;
+        }
+
+        if ("deflate-json".equals(type))
+        {
+            return new DeflateJsonValueEncoder();
+        }
+
+        return new StringValueEncoder();
+    }
 }
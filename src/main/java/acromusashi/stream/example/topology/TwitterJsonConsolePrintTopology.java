@@ -42,6 +42,7 @@ import backtype.storm.spout.SchemeAsMultiScheme;
  * <li>KestrelSpout.Parallelism : KestrelSpoutの並列度(デフォルト値:1)</li>
  * <li>ConvertBolt.Parallelism : MessageConvertBoltの並列度(デフォルト値:1)</li>
  * <li>ConsolePrintBolt.Parallelism : ConsolePrintBoltの並列度(デフォルト値:1)</li>
+ * <li>ConsolePrintBolt.Async : ConsolePrintBoltで非同期に出力するか(デフォルト値:false)。非同期出力の設定値はConsolePrintBoltFactoryを参照</li>
  * </ul>
  * 
  * @author kimura
@@ -116,7 +117,7 @@ public class TwitterJsonConsolePrintTopology extends BaseTopology
                 "KestrelSpout");
 
         // Add Bolt(MessageConvertBolt -> ConsolePrintBolt)
-        ConsolePrintBolt bolt = new ConsolePrintBolt();
+        ConsolePrintBolt bolt = ConsolePrintBoltFactory.createBolt(getConfig());
         getBuilder().setBolt("ConsolePrintBolt", bolt, consoleBoltPara).localOrShuffleGrouping(
                 "ConvertBolt");
 
@@ -0,0 +1,232 @@
+package acromusashi.stream.example.bolt;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import acromusashi.stream.entity.StreamMessage;
+import backtype.storm.task.TopologyContext;
+
+/**
+ * ConsolePrintBoltのテストクラス
+ *
+ * @author kimura
+ */
+public class ConsolePrintBoltTest
+{
+    /**
+     * 非同期出力を有効にした場合、受信した全メッセージが受信順に出力されることを確認する。
+     *
+     * @target {@link ConsolePrintBolt#onExecute(StreamMessage)}
+     * @test cleanup後に全メッセージが受信順に出力されていること
+     *    condition:: 非同期出力、リングバッファ容量16で100件のメッセージを受信
+     *    result:: cleanup後に全メッセージが受信順に出力されていることを確認
+     */
+    @Test
+    public void testOnExecute_非同期出力()
+    {
+        // 準備
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ConsolePrintBolt target = new ConsolePrintBolt() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected PrintStream createOutput()
+            {
+                return new PrintStream(output);
+            }
+        };
+        target.setAsync(true);
+        target.setBufferCapacity(16);
+        target.onPrepare(Mockito.mock(Map.class), Mockito.mock(TopologyContext.class));
+        List<String> expected = new ArrayList<String>();
+
+        // 実施
+        for (int index = 0; index < 100; index++)
+        {
+            StreamMessage message = new StreamMessage();
+            message.setBody("body" + index);
+            expected.add(message.toString());
+            target.onExecute(message);
+        }
+        target.cleanup();
+
+        // 検証
+        List<String> actual = Arrays.asList(output.toString().split(System.lineSeparator()));
+        assertThat(actual, is(expected));
+    }
+
+    /**
+     * 溢れ時の動作にdropを指定し、リングバッファが満杯の場合、メッセージが破棄されることを確認する。
+     *
+     * @target {@link ConsolePrintBolt#onExecute(StreamMessage)}
+     * @test 満杯時のメッセージが待機せずに破棄され、リングバッファに格納されたメッセージのみ出力されること
+     *    condition:: リングバッファ容量2、出力スレッドが書き込み中に停止した状態で10件のメッセージを受信
+     *    result:: 満杯時のメッセージが待機せずに破棄され、リングバッファに格納されたメッセージのみ出力されることを確認
+     */
+    @Test
+    public void testOnExecute_満杯時破棄() throws Exception
+    {
+        // 準備
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ConsolePrintBolt target = new ConsolePrintBolt() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected PrintStream createOutput()
+            {
+                return new PrintStream(new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException
+                    {
+                        write(new byte[] {(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException
+                    {
+                        entered.countDown();
+                        try
+                        {
+                            release.await();
+                        }
+                        catch (InterruptedException ex)
+                        {
+                            throw new IOException(ex);
+                        }
+                        output.write(b, off, len);
+                    }
+                });
+            }
+        };
+        target.setAsync(true);
+        target.setBufferCapacity(2);
+        target.setOverflowPolicy(ConsolePrintBolt.POLICY_DROP);
+        target.onPrepare(Mockito.mock(Map.class), Mockito.mock(TopologyContext.class));
+        List<String> messages = new ArrayList<String>();
+        for (int index = 0; index < 10; index++)
+        {
+            messages.add("message" + index);
+        }
+
+        // 実施
+        target.onExecute(createMessage(messages.get(0)));
+        entered.await();
+        for (int index = 1; index < 10; index++)
+        {
+            target.onExecute(createMessage(messages.get(index)));
+        }
+        release.countDown();
+        target.cleanup();
+
+        // 検証
+        assertThat(target.droppedNum, is(7L));
+        List<String> actual = Arrays.asList(output.toString().split(System.lineSeparator()));
+        assertThat(actual, is(messages.subList(0, 3)));
+    }
+
+    /**
+     * 同一JVM内の複数のBoltが同一の出力先に書き込んだ場合、各メッセージが行の途中で混在せずに出力されることを確認する。
+     *
+     * @target {@link ConsolePrintBolt#onExecute(StreamMessage)}
+     * @test 全メッセージが1行ずつ欠けずに出力されること
+     *    condition:: 1回で書き込む最大文字数16の2つのBoltが同一の出力先に並行して各500件のメッセージを出力
+     *    result:: 全メッセージが1行ずつ欠けずに出力されることを確認
+     */
+    @Test
+    public void testOnExecute_複数Bolt出力() throws Exception
+    {
+        // 準備
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final PrintStream shared = new PrintStream(output);
+        final ConsolePrintBolt[] targets = new ConsolePrintBolt[2];
+        for (int boltIndex = 0; boltIndex < targets.length; boltIndex++)
+        {
+            targets[boltIndex] = new ConsolePrintBolt() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected PrintStream createOutput()
+                {
+                    return shared;
+                }
+            };
+            targets[boltIndex].setAsync(true);
+            targets[boltIndex].setWriterBufferSize(16);
+            targets[boltIndex].onPrepare(Mockito.mock(Map.class),
+                    Mockito.mock(TopologyContext.class));
+        }
+
+        List<String> expected = new ArrayList<String>();
+        for (int boltIndex = 0; boltIndex < targets.length; boltIndex++)
+        {
+            for (int index = 0; index < 500; index++)
+            {
+                expected.add("bolt" + boltIndex + "-message" + index + "-0123456789abcdef");
+            }
+        }
+
+        // 実施
+        Thread[] threads = new Thread[targets.length];
+        for (int boltIndex = 0; boltIndex < targets.length; boltIndex++)
+        {
+            final ConsolePrintBolt target = targets[boltIndex];
+            final List<String> messages = expected.subList(boltIndex * 500, (boltIndex + 1) * 500);
+            threads[boltIndex] = new Thread(new Runnable() {
+                @Override
+                public void run()
+                {
+                    for (String message : messages)
+                    {
+                        target.onExecute(createMessage(message));
+                    }
+                    target.cleanup();
+                }
+            });
+            threads[boltIndex].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        // 検証
+        List<String> actual = Arrays.asList(output.toString().split(System.lineSeparator()));
+        assertThat(actual.size(), is(expected.size()));
+        assertThat(new HashSet<String>(actual), is(new HashSet<String>(expected)));
+    }
+
+    /**
+     * 文字列表現を指定した共通メッセージを生成する。
+     *
+     * @param text 文字列表現
+     * @return 共通メッセージ
+     */
+    private StreamMessage createMessage(final String text)
+    {
+        return new StreamMessage() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String toString()
+            {
+                return text;
+            }
+        };
+    }
+}
@@ -8,6 +8,8 @@ import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.never;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -142,4 +144,185 @@ public class JsonExtractBoltTest
 
         assertThat(argList.get(0).toString(), is("Test Message"));
     }
+
+    /**
+     * ストリーミング抽出時、キー項目より前の入れ子要素を読み飛ばしてキー項目が抽出されることを確認する。
+     *
+     * @target {@link JsonExtractBolt#execute(backtype.storm.tuple.Tuple)}
+     * @test キー項目の値が下流コンポーネントに送信されること
+     *    condition:: ストリーミング抽出時、キー項目より前に同名キーを含む入れ子要素を保持するJSONメッセージ受信
+     *    result:: キー項目の値が下流コンポーネントに送信されることを確認
+     */
+    @SuppressWarnings({"rawtypes"})
+    @Test
+    public void testExecute_ストリーミング抽出() throws IOException
+    {
+        // 準備
+        this.target.setStreaming(true);
+        Tuple mockTuple = Mockito.mock(Tuple.class);
+        Message message = new Message();
+        message.setBody("{\"meta\":{\"contents\":\"Nested\",\"list\":[1,{\"a\":2}]},"
+                + "\"contents\":\"Test Message\",\"after\":");
+        Mockito.doReturn(message).when(mockTuple).getValueByField("message");
+
+        // 実行
+        this.target.execute(mockTuple);
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector).emit(argument.capture());
+        assertThat(argument.getValue().get(0).toString(), is("Test Message"));
+    }
+
+    /**
+     * ストリーミング抽出時、形式が不正なメッセージまたはキー項目を保持しないメッセージを破棄することを確認する。
+     *
+     * @target {@link JsonExtractBolt#execute(backtype.storm.tuple.Tuple)}
+     * @test メッセージが下流コンポーネントに送信されないこと
+     *    condition:: ストリーミング抽出時、形式が不正なメッセージ、キー項目を保持しないメッセージを受信
+     *    result:: メッセージが下流コンポーネントに送信されないことを確認
+     */
+    @SuppressWarnings({"unchecked"})
+    @Test
+    public void testExecute_ストリーミング抽出対象なし() throws IOException
+    {
+        // 準備
+        this.target.setStreaming(true);
+        String[] bodies = {"Invalid Message", "{\"key\":\"Test Message\"}", "[\"contents\"]",
+                "{\"key\":{\"contents\":\"Test\"}}"};
+
+        for (String body : bodies)
+        {
+            Tuple mockTuple = Mockito.mock(Tuple.class);
+            Message message = new Message();
+            message.setBody(body);
+            Mockito.doReturn(message).when(mockTuple).getValueByField("message");
+
+            // 実行
+            this.target.execute(mockTuple);
+        }
+
+        // 検証
+        Mockito.verify(this.mockCollector, never()).emit((List<Object>) anyObject());
+    }
+
+    /**
+     * 抽出定義のリストを指定した場合、先頭の抽出定義の値が下流コンポーネントに送信されることを確認する。
+     *
+     * @target {@link JsonExtractBolt#execute(backtype.storm.tuple.Tuple)}
+     * @test 先頭の抽出定義の値が下流コンポーネントに送信されること
+     *    condition:: 抽出定義のリストを指定し、入れ子要素を保持するJSONメッセージ受信
+     *    result:: 先頭の抽出定義の値が下流コンポーネントに送信されることを確認
+     */
+    @SuppressWarnings({"rawtypes"})
+    @Test
+    public void testExecute_複数抽出() throws IOException
+    {
+        // 準備
+        this.target = new JsonExtractBolt(Arrays.asList("text=/status/text", "user=/user/name"));
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Tuple mockTuple = Mockito.mock(Tuple.class);
+        Message message = new Message();
+        message.setBody("{\"user\":{\"name\":\"taro\"},\"status\":{\"text\":\"Test Message\"}}");
+        Mockito.doReturn(message).when(mockTuple).getValueByField("message");
+
+        // 実行
+        this.target.execute(mockTuple);
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector).emit(argument.capture());
+        assertThat(argument.getValue().get(0).toString(), is("Test Message"));
+    }
+
+    /**
+     * 抽出定義のリストを指定した場合、抽出対象が1つも存在しないメッセージを破棄することを確認する。
+     *
+     * @target {@link JsonExtractBolt#execute(backtype.storm.tuple.Tuple)}
+     * @test メッセージが下流コンポーネントに送信されないこと
+     *    condition:: 抽出定義のリストを指定し、抽出対象を保持しないJSONメッセージ受信
+     *    result:: メッセージが下流コンポーネントに送信されないことを確認
+     */
+    @SuppressWarnings({"unchecked"})
+    @Test
+    public void testExecute_複数抽出対象なし() throws IOException
+    {
+        // 準備
+        this.target = new JsonExtractBolt(Arrays.asList("text=/status/text", "user=/user/name"));
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Tuple mockTuple = Mockito.mock(Tuple.class);
+        Message message = new Message();
+        message.setBody("{\"status\":{\"id\":1}}");
+        Mockito.doReturn(message).when(mockTuple).getValueByField("message");
+
+        // 実行
+        this.target.execute(mockTuple);
+
+        // 検証
+        Mockito.verify(this.mockCollector, never()).emit((List<Object>) anyObject());
+    }
+
+    /**
+     * 抽出定義のリストを指定した場合、先頭の抽出対象が存在しないメッセージを破棄することを確認する。
+     *
+     * @target {@link JsonExtractBolt#execute(backtype.storm.tuple.Tuple)}
+     * @test メッセージが下流コンポーネントに送信されないこと
+     *    condition:: 抽出定義のリストを指定し、先頭以外の抽出対象のみを保持するJSONメッセージ受信
+     *    result:: メッセージが下流コンポーネントに送信されないことを確認
+     */
+    @SuppressWarnings({"unchecked"})
+    @Test
+    public void testExecute_複数抽出先頭対象なし() throws IOException
+    {
+        // 準備
+        this.target = new JsonExtractBolt(Arrays.asList("text=/status/text", "user=/user/name"));
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Tuple mockTuple = Mockito.mock(Tuple.class);
+        Message message = new Message();
+        message.setBody("{\"user\":{\"name\":\"taro\"},\"status\":{\"id\":1}}");
+        Mockito.doReturn(message).when(mockTuple).getValueByField("message");
+
+        // 実行
+        this.target.execute(mockTuple);
+
+        // 検証
+        Mockito.verify(this.mockCollector, never()).emit((List<Object>) anyObject());
+    }
+
+    /**
+     * 本体がbyte[]のメッセージを受信した場合、全ての抽出方式でキー項目の値が下流コンポーネントに送信されることを確認する。
+     *
+     * @target {@link JsonExtractBolt#execute(backtype.storm.tuple.Tuple)}
+     * @test キー項目の値が下流コンポーネントに送信されること
+     *    condition:: ツリー抽出、ストリーミング抽出、複数抽出の各方式で本体がbyte[]のメッセージを受信
+     *    result:: キー項目の値が下流コンポーネントに送信されることを確認
+     */
+    @SuppressWarnings({"rawtypes"})
+    @Test
+    public void testExecute_バイト列本体() throws IOException
+    {
+        // 準備
+        JsonExtractBolt streamingBolt = new JsonExtractBolt("contents");
+        streamingBolt.setStreaming(true);
+        JsonExtractBolt[] targets = {this.target, streamingBolt,
+                new JsonExtractBolt(Arrays.asList("text=/contents"))};
+        Tuple mockTuple = Mockito.mock(Tuple.class);
+        Message message = new Message();
+        message.setBody("{\"contents\":\"テスト Message\"}".getBytes(StandardCharsets.UTF_8));
+        Mockito.doReturn(message).when(mockTuple).getValueByField("message");
+
+        for (JsonExtractBolt bolt : targets)
+        {
+            OutputCollector collector = Mockito.mock(OutputCollector.class);
+            bolt.prepare(this.mockConfMap, this.mockContext, collector);
+
+            // 実行
+            bolt.execute(mockTuple);
+
+            // 検証
+            ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+            Mockito.verify(collector).emit(argument.capture());
+            assertThat(argument.getValue().get(0).toString(), is("テスト Message"));
+        }
+    }
 }
@@ -0,0 +1,358 @@
+package acromusashi.stream.example.bolt;
+
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.eq;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import acromusashi.stream.entity.Header;
+import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.encoder.KryoValueEncoder;
+import acromusashi.stream.example.encoder.ValueEncoder;
+import backtype.storm.Constants;
+import backtype.storm.task.OutputCollector;
+import backtype.storm.task.TopologyContext;
+import backtype.storm.tuple.Tuple;
+
+/**
+ * RedisBoltのテストクラス
+ *
+ * @author kimura
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RedisBoltTest
+{
+    /** Redisの応答(OK) */
+    private static final byte[] OK = "OK".getBytes();
+
+    /** テスト対象 */
+    private RedisBolt           target;
+
+    /** テスト用のOutputCollector */
+    @Mock
+    private OutputCollector     mockCollector;
+
+    /** テスト用のStormConfigMap */
+    @SuppressWarnings("rawtypes")
+    @Mock
+    private Map                 mockConfMap;
+
+    /** テスト用のTopologyContext */
+    @Mock
+    private TopologyContext     mockContext;
+
+    /** テスト用のJedisPool */
+    @Mock
+    private JedisPool           mockPool;
+
+    /** テスト用のJedis */
+    @Mock
+    private Jedis               mockJedis;
+
+    /** テスト用のClient(Pipelineはパッケージプライベートのクラスを継承しておりモック化できないため、Clientをモック化する) */
+    @Mock
+    private Client              mockClient;
+
+    /**
+     * 初期化メソッド
+     */
+    @Before
+    public void setUp()
+    {
+        this.target = new RedisBolt("localhost") {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected JedisPool createJedisPool()
+            {
+                return RedisBoltTest.this.mockPool;
+            }
+        };
+        Mockito.doReturn(this.mockJedis).when(this.mockPool).getResource();
+        Pipeline pipeline = new Pipeline();
+        pipeline.setClient(this.mockClient);
+        Mockito.doReturn(pipeline).when(this.mockJedis).pipelined();
+    }
+
+    /**
+     * バッチサイズ分のメッセージを受信した場合、1回のパイプラインで書き込まれ、応答後にackされることを確認する。
+     *
+     * @target {@link RedisBolt#execute(Tuple)}
+     * @test バッチサイズに達するまで書き込まれず、達した時点で1回のパイプラインで書き込まれ、全Tupleがackされること
+     *    condition:: バッチサイズ3で3件のメッセージを受信
+     *    result:: バッチサイズに達するまで書き込まれず、達した時点で1回のパイプラインで書き込まれ、全Tupleがackされることを確認
+     */
+    @Test
+    public void testExecute_バッチサイズ到達() throws Exception
+    {
+        // 準備
+        this.target.setBatchSize(3);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doReturn(Arrays.asList((Object) OK, OK, OK)).when(this.mockClient).getAll();
+        Tuple tuple1 = createTuple("id1", "body1");
+        Tuple tuple2 = createTuple("id2", "body2");
+        Tuple tuple3 = createTuple("id3", "body3");
+
+        // 実施
+        this.target.execute(tuple1);
+        this.target.execute(tuple2);
+
+        // 検証
+        Mockito.verifyZeroInteractions(this.mockPool, this.mockCollector);
+
+        // 実施
+        this.target.execute(tuple3);
+
+        // 検証
+        Mockito.verify(this.mockClient).set(aryEq(bytes("id1")), aryEq(bytes("body1")));
+        Mockito.verify(this.mockClient).set(aryEq(bytes("id3")), aryEq(bytes("body3")));
+        Mockito.verify(this.mockClient).getAll();
+        Mockito.verify(this.mockPool).returnResource(this.mockJedis);
+        Mockito.verify(this.mockCollector).ack(tuple1);
+        Mockito.verify(this.mockCollector).ack(tuple2);
+        Mockito.verify(this.mockCollector).ack(tuple3);
+    }
+
+    /**
+     * TickTupleを受信した場合、バッチサイズに達していないメッセージが書き込まれることを確認する。
+     *
+     * @target {@link RedisBolt#execute(Tuple)}
+     * @test 蓄積したメッセージが書き込まれ、ackされること
+     *    condition:: バッチサイズ100で1件のメッセージを受信後、TickTupleを受信
+     *    result:: 蓄積したメッセージが書き込まれ、ackされることを確認
+     */
+    @Test
+    public void testExecute_TickTuple() throws Exception
+    {
+        // 準備
+        this.target.setBatchSize(100);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doReturn(Arrays.asList((Object) OK)).when(this.mockClient).getAll();
+        Tuple tuple = createTuple("id1", "body1");
+        Tuple tickTuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn(Constants.SYSTEM_COMPONENT_ID).when(tickTuple).getSourceComponent();
+        Mockito.doReturn(Constants.SYSTEM_TICK_STREAM_ID).when(tickTuple).getSourceStreamId();
+
+        // 実施
+        this.target.execute(tuple);
+        this.target.execute(tickTuple);
+
+        // 検証
+        Mockito.verify(this.mockClient).set(aryEq(bytes("id1")), aryEq(bytes("body1")));
+        Mockito.verify(this.mockCollector).ack(tuple);
+        Mockito.verify(this.mockCollector, Mockito.never()).ack(tickTuple);
+    }
+
+    /**
+     * パイプラインの一部のコマンドがエラー応答となった場合、エラー応答のTupleのみfailされることを確認する。
+     *
+     * @target {@link RedisBolt#execute(Tuple)}
+     * @test エラー応答のTupleのみfailされ、その他のTupleはackされること
+     *    condition:: バッチサイズ2で、2件目のコマンドがエラー応答となる
+     *    result:: エラー応答のTupleのみfailされ、その他のTupleはackされることを確認
+     */
+    @Test
+    public void testExecute_エラー応答() throws Exception
+    {
+        // 準備
+        this.target.setBatchSize(2);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doReturn(Arrays.asList((Object) OK, new JedisDataException("ERR"))).when(
+                this.mockClient).getAll();
+        Tuple tuple1 = createTuple("id1", "body1");
+        Tuple tuple2 = createTuple("id2", "body2");
+
+        // 実施
+        this.target.execute(tuple1);
+        this.target.execute(tuple2);
+
+        // 検証
+        Mockito.verify(this.mockCollector).ack(tuple1);
+        Mockito.verify(this.mockCollector).fail(tuple2);
+    }
+
+    /**
+     * パイプラインの通信に失敗した場合、全Tupleがfailされ、コネクションが破棄されることを確認する。
+     *
+     * @target {@link RedisBolt#execute(Tuple)}
+     * @test 全Tupleがfailされ、コネクションが破棄されること
+     *    condition:: バッチサイズ2で、パイプラインの応答受信時に通信エラーが発生
+     *    result:: 全Tupleがfailされ、コネクションが破棄されることを確認
+     */
+    @Test
+    public void testExecute_通信エラー() throws Exception
+    {
+        // 準備
+        this.target.setBatchSize(2);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doThrow(new JedisConnectionException("closed")).when(this.mockClient).getAll();
+        Tuple tuple1 = createTuple("id1", "body1");
+        Tuple tuple2 = createTuple("id2", "body2");
+
+        // 実施
+        this.target.execute(tuple1);
+        this.target.execute(tuple2);
+
+        // 検証
+        Mockito.verify(this.mockCollector).fail(tuple1);
+        Mockito.verify(this.mockCollector).fail(tuple2);
+        Mockito.verify(this.mockPool).returnBrokenResource(this.mockJedis);
+        Mockito.verify(this.mockPool, Mockito.never()).returnResource(this.mockJedis);
+    }
+
+    /**
+     * パイプラインで通信異常以外の例外が発生した場合、全Tupleがfailされ、コネクションがプールに返却されることを確認する。
+     *
+     * @target {@link RedisBolt#execute(Tuple)}
+     * @test 全Tupleがfailされ、コネクションが破棄されてプールに返却されること
+     *    condition:: バッチサイズ2で、パイプラインの応答受信時に通信異常以外の例外が発生
+     *    result:: 全Tupleがfailされ、コネクションが破棄されてプールに返却されることを確認
+     */
+    @Test
+    public void testExecute_通信異常以外の例外() throws Exception
+    {
+        // 準備
+        this.target.setBatchSize(2);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doThrow(new JedisDataException("ERR")).when(this.mockClient).getAll();
+        Tuple tuple1 = createTuple("id1", "body1");
+        Tuple tuple2 = createTuple("id2", "body2");
+
+        // 実施
+        this.target.execute(tuple1);
+        this.target.execute(tuple2);
+
+        // 検証
+        Mockito.verify(this.mockCollector).fail(tuple1);
+        Mockito.verify(this.mockCollector).fail(tuple2);
+        Mockito.verify(this.mockCollector, Mockito.never()).ack(Mockito.any(Tuple.class));
+        Mockito.verify(this.mockPool).returnBrokenResource(this.mockJedis);
+        Mockito.verify(this.mockPool, Mockito.never()).returnResource(this.mockJedis);
+    }
+
+    /**
+     * 有効期限を設定した場合、SETEXで書き込まれることを確認する。
+     *
+     * @target {@link RedisBolt#execute(Tuple)}
+     * @test 有効期限を指定したSETEXで書き込まれ、ackされること
+     *    condition:: バッチサイズ1、有効期限60秒でメッセージを受信
+     *    result:: 有効期限を指定したSETEXで書き込まれ、ackされることを確認
+     */
+    @Test
+    public void testExecute_有効期限() throws Exception
+    {
+        // 準備
+        this.target.setBatchSize(1);
+        this.target.setTtlSecs(60);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doReturn(Arrays.asList((Object) OK)).when(this.mockClient).getAll();
+        Tuple tuple = createTuple("id1", "body1");
+
+        // 実施
+        this.target.execute(tuple);
+
+        // 検証
+        Mockito.verify(this.mockClient).setex(aryEq(bytes("id1")), eq(60), aryEq(bytes("body1")));
+        Mockito.verify(this.mockCollector).ack(tuple);
+    }
+
+    /**
+     * 値の変換に失敗した場合、書き込まれずにfailされることを確認する。
+     *
+     * @target {@link RedisBolt#execute(Tuple)}
+     * @test 変換に失敗したTupleは書き込まれずにfailされること
+     *    condition:: バッチサイズ1で、ValueEncoderが例外を発生させる
+     *    result:: 変換に失敗したTupleは書き込まれずにfailされることを確認
+     */
+    @Test
+    public void testExecute_変換失敗() throws Exception
+    {
+        // 準備
+        ValueEncoder mockEncoder = Mockito.mock(ValueEncoder.class);
+        Mockito.doThrow(new IOException("encode")).when(mockEncoder).encode(Mockito.any());
+        this.target.setBatchSize(1);
+        this.target.setValueEncoder(mockEncoder);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Tuple tuple = createTuple("id1", "body1");
+
+        // 実施
+        this.target.execute(tuple);
+
+        // 検証
+        Mockito.verify(this.mockCollector).fail(tuple);
+        Mockito.verifyZeroInteractions(this.mockPool);
+    }
+
+    /**
+     * バッチサイズ未設定で有効期限を設定した場合、メッセージごとにSETEXで書き込まれることを確認する。
+     *
+     * @target {@link RedisBolt#onMessage(Message)}
+     * @test 変換した値が有効期限を指定したSETEXで書き込まれること
+     *    condition:: バッチサイズ0、有効期限60秒、KryoValueEncoderでメッセージを受信
+     *    result:: 変換した値が有効期限を指定したSETEXで書き込まれることを確認
+     */
+    @Test
+    public void testOnMessage_有効期限() throws Exception
+    {
+        // 準備
+        KryoValueEncoder encoder = new KryoValueEncoder();
+        this.target.setTtlSecs(60);
+        this.target.setValueEncoder(encoder);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Message message = (Message) createTuple("id1", "body1").getValueByField("message");
+
+        // 実施
+        this.target.onMessage(message);
+
+        // 検証
+        Mockito.verify(this.mockJedis).setex(aryEq(bytes("id1")), eq(60),
+                aryEq(encoder.encode("body1")));
+    }
+
+    /**
+     * 文字列をUTF-8のバイト列に変換する。
+     *
+     * @param value 文字列
+     * @return バイト列
+     */
+    private static byte[] bytes(String value)
+    {
+        return value.getBytes(Charset.forName("UTF-8"));
+    }
+
+    /**
+     * 共通メッセージを設定したTupleを生成する。
+     *
+     * @param messageId メッセージID
+     * @param body メッセージボディ
+     * @return Tuple
+     */
+    private Tuple createTuple(String messageId, Object body)
+    {
+        Header header = new Header();
+        header.setMessageId(messageId);
+        Message message = new Message();
+        message.setHeader(header);
+        message.setBody(body);
+
+        Tuple tuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn(message).when(tuple).getValueByField("message");
+        return tuple;
+    }
+}
@@ -0,0 +1,283 @@
+package acromusashi.stream.example.bolt;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import acromusashi.stream.entity.Header;
+import acromusashi.stream.entity.Message;
+import backtype.storm.Constants;
+import backtype.storm.task.OutputCollector;
+import backtype.storm.task.TopologyContext;
+import backtype.storm.tuple.Tuple;
+import backtype.storm.tuple.Values;
+
+/**
+ * RedisEnrichBoltのテストクラス
+ *
+ * @author kimura
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RedisEnrichBoltTest
+{
+    /** テスト対象 */
+    private RedisEnrichBolt target;
+
+    /** テスト用のOutputCollector */
+    @Mock
+    private OutputCollector mockCollector;
+
+    /** テスト用のStormConfigMap */
+    @SuppressWarnings("rawtypes")
+    @Mock
+    private Map             mockConfMap;
+
+    /** テスト用のTopologyContext */
+    @Mock
+    private TopologyContext mockContext;
+
+    /** テスト用のJedisPool */
+    @Mock
+    private JedisPool       mockPool;
+
+    /** テスト用のJedis */
+    @Mock
+    private Jedis           mockJedis;
+
+    /** TickTuple */
+    private Tuple           tickTuple;
+
+    /**
+     * 初期化メソッド
+     */
+    @Before
+    public void setUp()
+    {
+        this.target = new RedisEnrichBolt("localhost") {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected JedisPool createJedisPool()
+            {
+                return RedisEnrichBoltTest.this.mockPool;
+            }
+        };
+        Mockito.doReturn(this.mockJedis).when(this.mockPool).getResource();
+
+        this.tickTuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn(Constants.SYSTEM_COMPONENT_ID).when(this.tickTuple).getSourceComponent();
+        Mockito.doReturn(Constants.SYSTEM_TICK_STREAM_ID).when(this.tickTuple).getSourceStreamId();
+    }
+
+    /**
+     * キャッシュに存在しない送信元のメッセージを受信した場合、送信元ごとにまとめて1回のMGETで取得されることを確認する。
+     *
+     * @target {@link RedisEnrichBolt#execute(Tuple)}
+     * @test TickTuple受信まで保留され、同一の送信元は1キーにまとめて1回のMGETで取得され、機器情報を付与して送信後にackされること
+     *    condition:: 2種類の送信元の3件のメッセージを受信後、TickTupleを受信
+     *    result:: TickTuple受信まで保留され、同一の送信元は1キーにまとめて1回のMGETで取得され、機器情報を付与して送信後にackされることを確認
+     */
+    @Test
+    public void testExecute_取得まとめ()
+    {
+        // 準備
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doReturn(Arrays.asList("deviceA", null)).when(this.mockJedis).mget(
+                "device:10.0.0.1", "device:10.0.0.2");
+        Tuple tuple1 = createTuple("10.0.0.1");
+        Tuple tuple2 = createTuple("10.0.0.2");
+        Tuple tuple3 = createTuple("10.0.0.1");
+
+        // 実施
+        this.target.execute(tuple1);
+        this.target.execute(tuple2);
+        this.target.execute(tuple3);
+
+        // 検証
+        Mockito.verifyZeroInteractions(this.mockPool, this.mockCollector);
+
+        // 実施
+        this.target.execute(this.tickTuple);
+
+        // 検証
+        Mockito.verify(this.mockJedis).mget("device:10.0.0.1", "device:10.0.0.2");
+        Mockito.verify(this.mockPool).returnResource(this.mockJedis);
+        assertThat(getMessage(tuple1).getField("device"), is((Object) "deviceA"));
+        assertThat(getMessage(tuple2).getField("device"), nullValue());
+        assertThat(getMessage(tuple3).getField("device"), is((Object) "deviceA"));
+        for (Tuple tuple : Arrays.asList(tuple1, tuple2, tuple3))
+        {
+            Mockito.verify(this.mockCollector).emit(tuple, new Values(getMessage(tuple)));
+            Mockito.verify(this.mockCollector).ack(tuple);
+        }
+    }
+
+    /**
+     * キャッシュに存在する送信元のメッセージを受信した場合、Redisにアクセスせずに機器情報が付与されることを確認する。
+     *
+     * @target {@link RedisEnrichBolt#execute(Tuple)}
+     * @test Redisにアクセスせずに機器情報を付与して即時に送信されること
+     *    condition:: 送信元の機器情報を取得後、同一の送信元、値が存在しない送信元のメッセージを受信
+     *    result:: Redisにアクセスせずに機器情報を付与して即時に送信されることを確認
+     */
+    @Test
+    public void testExecute_キャッシュ参照()
+    {
+        // 準備
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doReturn(Arrays.asList("deviceA", null)).when(this.mockJedis).mget(
+                "device:10.0.0.1", "device:10.0.0.2");
+        this.target.execute(createTuple("10.0.0.1"));
+        this.target.execute(createTuple("10.0.0.2"));
+        this.target.execute(this.tickTuple);
+        Tuple tuple1 = createTuple("10.0.0.1");
+        Tuple tuple2 = createTuple("10.0.0.2");
+
+        // 実施
+        this.target.execute(tuple1);
+        this.target.execute(tuple2);
+
+        // 検証
+        Mockito.verify(this.mockPool, Mockito.times(1)).getResource();
+        assertThat(getMessage(tuple1).getField("device"), is((Object) "deviceA"));
+        assertThat(getMessage(tuple2).getField("device"), nullValue());
+        Mockito.verify(this.mockCollector).ack(tuple1);
+        Mockito.verify(this.mockCollector).ack(tuple2);
+    }
+
+    /**
+     * 保留中の送信元数がMGETの最大キー数に達した場合、TickTupleを待たずに取得されることを確認する。
+     *
+     * @target {@link RedisEnrichBolt#execute(Tuple)}
+     * @test TickTupleを待たずに取得され、送信されること
+     *    condition:: MGETの最大キー数2で2種類の送信元のメッセージを受信
+     *    result:: TickTupleを待たずに取得され、送信されることを確認
+     */
+    @Test
+    public void testExecute_最大キー数到達()
+    {
+        // 準備
+        this.target.setMgetBatchSize(2);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doReturn(Arrays.asList("deviceA", "deviceB")).when(this.mockJedis).mget(
+                "device:10.0.0.1", "device:10.0.0.2");
+        Tuple tuple1 = createTuple("10.0.0.1");
+        Tuple tuple2 = createTuple("10.0.0.2");
+
+        // 実施
+        this.target.execute(tuple1);
+        this.target.execute(tuple2);
+
+        // 検証
+        assertThat(getMessage(tuple2).getField("device"), is((Object) "deviceB"));
+        Mockito.verify(this.mockCollector).ack(tuple1);
+        Mockito.verify(this.mockCollector).ack(tuple2);
+    }
+
+    /**
+     * Redisからの取得に失敗した場合、保留中のTupleがfailされ、コネクションが破棄されることを確認する。
+     *
+     * @target {@link RedisEnrichBolt#execute(Tuple)}
+     * @test 保留中のTupleがfailされ、コネクションが破棄されること
+     *    condition:: MGET時に通信エラーが発生
+     *    result:: 保留中のTupleがfailされ、コネクションが破棄されることを確認
+     */
+    @Test
+    public void testExecute_通信エラー()
+    {
+        // 準備
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doThrow(new JedisConnectionException("closed")).when(this.mockJedis).mget(
+                "device:10.0.0.1");
+        Tuple tuple1 = createTuple("10.0.0.1");
+        Tuple tuple2 = createTuple("10.0.0.1");
+
+        // 実施
+        this.target.execute(tuple1);
+        this.target.execute(tuple2);
+        this.target.execute(this.tickTuple);
+
+        // 検証
+        Mockito.verify(this.mockCollector).fail(tuple1);
+        Mockito.verify(this.mockCollector).fail(tuple2);
+        Mockito.verify(this.mockPool).returnBrokenResource(this.mockJedis);
+        Mockito.verify(this.mockCollector, Mockito.never()).ack(Mockito.any(Tuple.class));
+    }
+
+    /**
+     * Redisからエラー応答を受信した場合、保留中のTupleがfailされて保留が解除され、コネクションが破棄されることを確認する。
+     *
+     * @target {@link RedisEnrichBolt#execute(Tuple)}
+     * @test 保留中のTupleが1回ずつfailされ、次のTickTupleで再取得されず、コネクションが破棄されること
+     *    condition:: MGET時にエラー応答(LOADING)を受信した後、再度TickTupleを受信
+     *    result:: 保留中のTupleが1回ずつfailされ、次のTickTupleで再取得されず、コネクションが破棄されることを確認
+     */
+    @Test
+    public void testExecute_エラー応答()
+    {
+        // 準備
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Mockito.doThrow(new JedisDataException("LOADING")).when(this.mockJedis).mget(
+                "device:10.0.0.1", "device:10.0.0.2");
+        Tuple tuple1 = createTuple("10.0.0.1");
+        Tuple tuple2 = createTuple("10.0.0.2");
+
+        // 実施
+        this.target.execute(tuple1);
+        this.target.execute(tuple2);
+        this.target.execute(this.tickTuple);
+        this.target.execute(this.tickTuple);
+
+        // 検証
+        Mockito.verify(this.mockCollector).fail(tuple1);
+        Mockito.verify(this.mockCollector).fail(tuple2);
+        Mockito.verify(this.mockCollector, Mockito.never()).ack(Mockito.any(Tuple.class));
+        Mockito.verify(this.mockJedis).mget("device:10.0.0.1", "device:10.0.0.2");
+        Mockito.verify(this.mockPool).returnBrokenResource(this.mockJedis);
+        Mockito.verify(this.mockPool, Mockito.never()).returnResource(this.mockJedis);
+    }
+
+    /**
+     * Tupleに設定した共通メッセージを取得する。
+     *
+     * @param tuple Tuple
+     * @return 共通メッセージ
+     */
+    private Message getMessage(Tuple tuple)
+    {
+        return (Message) tuple.getValueByField("message");
+    }
+
+    /**
+     * 共通メッセージを設定したTupleを生成する。
+     *
+     * @param source 送信元
+     * @return Tuple
+     */
+    private Tuple createTuple(String source)
+    {
+        Header header = new Header();
+        header.setSource(source);
+        Message message = new Message();
+        message.setHeader(header);
+        message.setBody("body");
+
+        Tuple tuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn(message).when(tuple).getValueByField("message");
+        return tuple;
+    }
+}
@@ -0,0 +1,109 @@
+package acromusashi.stream.example.bolt;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.util.Sharded;
+
+/**
+ * RedisShardRingのテストクラス
+ *
+ * @author kimura
+ */
+public class RedisShardRingTest
+{
+    /**
+     * 多数のキーを振り分けた場合、各シャードに偏りなく振り分けられることを確認する。
+     *
+     * @target {@link RedisShardRing#getShard(String)}
+     * @test 各シャードに振り分けられるキー数が平均の±20%以内となること
+     *    condition:: 4シャードに10万件のキーを振り分け
+     *    result:: 各シャードに振り分けられるキー数が平均の±20%以内となることを確認
+     */
+    @Test
+    public void testGetShard_均等振り分け()
+    {
+        // 準備
+        RedisShardRing target = new RedisShardRing(4);
+        int[] counts = new int[4];
+
+        // 実施
+        for (int index = 0; index < 100000; index++)
+        {
+            counts[target.getShard("key" + index)]++;
+        }
+
+        // 検証
+        for (int count : counts)
+        {
+            assertThat(count > 20000 && count < 30000, is(true));
+        }
+    }
+
+    /**
+     * シャードを追加した場合、振り分け先が変わるキーは全て追加したシャードに振り分けられることを確認する。
+     *
+     * @target {@link RedisShardRing#getShard(String)}
+     * @test 振り分け先が変わるキーは全て追加したシャードに振り分けられ、その件数は全体の半分未満となること
+     *    condition:: 3シャードから4シャードに追加
+     *    result:: 振り分け先が変わるキーは全て追加したシャードに振り分けられ、その件数は全体の半分未満となることを確認
+     */
+    @Test
+    public void testGetShard_シャード追加()
+    {
+        // 準備
+        RedisShardRing before = new RedisShardRing(3);
+        RedisShardRing after = new RedisShardRing(4);
+        int movedNum = 0;
+
+        // 実施・検証
+        for (int index = 0; index < 10000; index++)
+        {
+            String key = "key" + index;
+            int afterShard = after.getShard(key);
+            if (before.getShard(key) != afterShard)
+            {
+                assertThat(afterShard, is(3));
+                movedNum++;
+            }
+        }
+
+        assertThat(movedNum > 0 && movedNum < 5000, is(true));
+    }
+
+    /**
+     * JedisのShardedと同一のシャード構成の場合、同一のシャードに振り分けられることを確認する。
+     *
+     * @target {@link RedisShardRing#getShard(String)}
+     * @test JedisのShardedと同一のシャードに振り分けられること
+     *    condition:: 3シャードでキーを振り分け
+     *    result:: JedisのShardedと同一のシャードに振り分けられることを確認
+     */
+    @Test
+    public void testGetShard_ShardedJedis互換()
+    {
+        // 準備
+        RedisShardRing target = new RedisShardRing(3);
+        List<JedisShardInfo> shardInfos = new ArrayList<JedisShardInfo>();
+        for (int index = 0; index < 3; index++)
+        {
+            shardInfos.add(new JedisShardInfo("host" + index, 6379));
+        }
+        Sharded<Jedis, JedisShardInfo> sharded = new Sharded<Jedis, JedisShardInfo>(shardInfos);
+
+        // 実施・検証
+        for (int index = 0; index < 1000; index++)
+        {
+            String key = "key" + index;
+            JedisShardInfo expected = sharded.getShardInfo(key);
+            assertThat(shardInfos.get(target.getShard(key)), is(expected));
+        }
+    }
+}
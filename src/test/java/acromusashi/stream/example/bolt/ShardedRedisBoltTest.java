@@ -0,0 +1,297 @@
+package acromusashi.stream.example.bolt;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.AdditionalMatchers.aryEq;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import acromusashi.stream.entity.Header;
+import acromusashi.stream.entity.Message;
+import backtype.storm.Constants;
+import backtype.storm.task.OutputCollector;
+import backtype.storm.task.TopologyContext;
+import backtype.storm.tuple.Tuple;
+
+/**
+ * ShardedRedisBoltのテストクラス
+ *
+ * @author kimura
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ShardedRedisBoltTest
+{
+    /** Redisの応答(OK) */
+    private static final byte[] OK          = "OK".getBytes();
+
+    /** 書き込み結果の回収を待つ時間(ミリ秒) */
+    private static final long   WAIT_MILLIS = 5000L;
+
+    /** テスト対象 */
+    private ShardedRedisBolt    target;
+
+    /** テスト用のOutputCollector */
+    @Mock
+    private OutputCollector     mockCollector;
+
+    /** テスト用のStormConfigMap */
+    @SuppressWarnings("rawtypes")
+    @Mock
+    private Map                 mockConfMap;
+
+    /** テスト用のTopologyContext */
+    @Mock
+    private TopologyContext     mockContext;
+
+    /** シャードごとのテスト用のJedisPool */
+    private JedisPool[]         mockPools;
+
+    /** シャードごとのテスト用のClient(Pipelineはモック化できないため、Clientをモック化する) */
+    private Client[]            mockClients;
+
+    /** ackされたTuple */
+    private List<Tuple>         ackedTuples;
+
+    /** TickTuple */
+    private Tuple               tickTuple;
+
+    /**
+     * 初期化メソッド
+     */
+    @Before
+    public void setUp()
+    {
+        this.mockPools = new JedisPool[2];
+        this.mockClients = new Client[2];
+        for (int index = 0; index < 2; index++)
+        {
+            this.mockPools[index] = Mockito.mock(JedisPool.class);
+            this.mockClients[index] = Mockito.mock(Client.class);
+            Jedis mockJedis = Mockito.mock(Jedis.class);
+            Pipeline pipeline = new Pipeline();
+            pipeline.setClient(this.mockClients[index]);
+            Mockito.doReturn(mockJedis).when(this.mockPools[index]).getResource();
+            Mockito.doReturn(pipeline).when(mockJedis).pipelined();
+        }
+
+        this.target = new ShardedRedisBolt(Arrays.asList("redis0:6379", "redis1:6379")) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected JedisPool createJedisPool(String redisHost)
+            {
+                return ShardedRedisBoltTest.this.mockPools[Integer.parseInt(redisHost.substring(5,
+                        6))];
+            }
+        };
+
+        this.ackedTuples = Collections.synchronizedList(new ArrayList<Tuple>());
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation)
+            {
+                ShardedRedisBoltTest.this.ackedTuples.add((Tuple) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(this.mockCollector).ack(Mockito.any(Tuple.class));
+
+        this.tickTuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn(Constants.SYSTEM_COMPONENT_ID).when(this.tickTuple).getSourceComponent();
+        Mockito.doReturn(Constants.SYSTEM_TICK_STREAM_ID).when(this.tickTuple).getSourceStreamId();
+    }
+
+    /**
+     * 終了メソッド
+     */
+    @After
+    public void tearDown()
+    {
+        this.target.cleanup();
+    }
+
+    /**
+     * 複数シャードのメッセージを受信した場合、メッセージIDに対応するシャードに書き込まれ、書き込み後にackされることを確認する。
+     *
+     * @target {@link ShardedRedisBolt#execute(Tuple)}
+     * @test メッセージIDに対応するシャードに書き込まれ、書き込み後にackされること
+     *    condition:: バッチサイズ2で各シャードに2件ずつメッセージを受信
+     *    result:: メッセージIDに対応するシャードに書き込まれ、書き込み後にackされることを確認
+     */
+    @Test
+    public void testExecute_シャード振り分け() throws Exception
+    {
+        // 準備
+        this.target.setBatchSize(2);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        List<String> shard0Ids = findIds(0, 2);
+        List<String> shard1Ids = findIds(1, 2);
+        Mockito.doReturn(Arrays.asList((Object) OK, OK)).when(this.mockClients[0]).getAll();
+        Mockito.doReturn(Arrays.asList((Object) OK, OK)).when(this.mockClients[1]).getAll();
+        List<Tuple> tuples = new ArrayList<Tuple>();
+        for (String messageId : Arrays.asList(shard0Ids.get(0), shard1Ids.get(0), shard0Ids.get(1),
+                shard1Ids.get(1)))
+        {
+            tuples.add(createTuple(messageId, "body-" + messageId));
+        }
+
+        // 実施
+        for (Tuple tuple : tuples)
+        {
+            this.target.execute(tuple);
+        }
+        awaitAcked(tuples);
+
+        // 検証
+        for (String messageId : shard0Ids)
+        {
+            byte[] value = bytes("body-" + messageId);
+            Mockito.verify(this.mockClients[0]).set(aryEq(bytes(messageId)), aryEq(value));
+            Mockito.verify(this.mockClients[1], Mockito.never()).set(aryEq(bytes(messageId)),
+                    aryEq(value));
+        }
+        for (String messageId : shard1Ids)
+        {
+            byte[] value = bytes("body-" + messageId);
+            Mockito.verify(this.mockClients[1]).set(aryEq(bytes(messageId)), aryEq(value));
+            Mockito.verify(this.mockClients[0], Mockito.never()).set(aryEq(bytes(messageId)),
+                    aryEq(value));
+        }
+        Mockito.verify(this.mockCollector, Mockito.never()).fail(Mockito.any(Tuple.class));
+    }
+
+    /**
+     * 応答の遅いシャードが存在する場合、他のシャードへの書き込みが待たされずにackされることを確認する。
+     *
+     * @target {@link ShardedRedisBolt#execute(Tuple)}
+     * @test 他のシャードのメッセージは応答の遅いシャードの書き込み完了を待たずにackされ、応答後に遅いシャードのメッセージもackされること
+     *    condition:: シャード0の応答を停止した状態で各シャードのメッセージを受信
+     *    result:: 他のシャードのメッセージは応答の遅いシャードの書き込み完了を待たずにackされ、応答後に遅いシャードのメッセージもackされることを確認
+     */
+    @Test
+    public void testExecute_応答の遅いシャード() throws Exception
+    {
+        // 準備
+        this.target.setBatchSize(1);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        final CountDownLatch latch = new CountDownLatch(1);
+        Mockito.doAnswer(new Answer<List<Object>>() {
+            @Override
+            public List<Object> answer(InvocationOnMock invocation) throws Exception
+            {
+                latch.await();
+                return Arrays.asList((Object) OK);
+            }
+        }).when(this.mockClients[0]).getAll();
+        Mockito.doReturn(Arrays.asList((Object) OK)).when(this.mockClients[1]).getAll();
+        Tuple slowTuple = createTuple(findIds(0, 1).get(0), "slow");
+        Tuple fastTuple = createTuple(findIds(1, 1).get(0), "fast");
+
+        // 実施
+        this.target.execute(slowTuple);
+        this.target.execute(fastTuple);
+        awaitAcked(Arrays.asList(fastTuple));
+
+        // 検証
+        assertThat(this.ackedTuples.contains(slowTuple), is(false));
+
+        // 実施
+        latch.countDown();
+        awaitAcked(Arrays.asList(slowTuple));
+
+        // 検証
+        Mockito.verify(this.mockCollector, Mockito.never()).fail(Mockito.any(Tuple.class));
+    }
+
+    /**
+     * 指定したシャードに振り分けられるメッセージIDを取得する。
+     *
+     * @param shardIndex シャードのインデックス
+     * @param num 取得件数
+     * @return メッセージID
+     */
+    private List<String> findIds(int shardIndex, int num)
+    {
+        RedisShardRing ring = new RedisShardRing(2);
+        List<String> result = new ArrayList<String>();
+        for (int index = 0; result.size() < num; index++)
+        {
+            String messageId = "id" + index;
+            if (ring.getShard(messageId) == shardIndex)
+            {
+                result.add(messageId);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * TickTupleを送信して書き込み結果を回収し、指定したTupleが全てackされるまで待つ。
+     *
+     * @param expected ackされるTuple
+     * @throws InterruptedException 割り込み発生時
+     */
+    private void awaitAcked(List<Tuple> expected) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (this.ackedTuples.containsAll(expected) == false
+                && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10L);
+            this.target.execute(this.tickTuple);
+        }
+
+        assertThat(this.ackedTuples.containsAll(expected), is(true));
+    }
+
+    /**
+     * 文字列をUTF-8のバイト列に変換する。
+     *
+     * @param value 文字列
+     * @return バイト列
+     */
+    private static byte[] bytes(String value)
+    {
+        return value.getBytes(Charset.forName("UTF-8"));
+    }
+
+    /**
+     * 共通メッセージを設定したTupleを生成する。
+     *
+     * @param messageId メッセージID
+     * @param body メッセージボディ
+     * @return Tuple
+     */
+    private Tuple createTuple(String messageId, Object body)
+    {
+        Header header = new Header();
+        header.setMessageId(messageId);
+        Message message = new Message();
+        message.setHeader(header);
+        message.setBody(body);
+
+        Tuple tuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn(message).when(tuple).getValueByField("message");
+        return tuple;
+    }
+}
@@ -3,6 +3,8 @@ package acromusashi.stream.example.bolt;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
 import java.io.IOException;
@@ -17,6 +19,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import backtype.storm.Constants;
 import backtype.storm.task.OutputCollector;
 import backtype.storm.task.TopologyContext;
 import backtype.storm.tuple.Tuple;
@@ -85,4 +88,86 @@ public class SplitSentenceBoltTest
         assertThat(argList.get(0).get(0).toString(), is("Test"));
         assertThat(argList.get(1).get(0).toString(), is("Message"));
     }
+
+    /**
+     * 集約単語数を設定した場合、集約単語数に達した時点で単語ごとの出現回数が送信されることを確認する。
+     *
+     * @target {@link SplitSentenceBolt#execute(backtype.storm.tuple.Tuple)}
+     * @test 単語ごとの出現回数が送信されること
+     *    condition:: 集約単語数を2に設定し、2種類の単語を含む文章を受信
+     *    result:: 単語ごとの出現回数が送信されることを確認
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    public void testExecute_集約単語数到達() throws IOException
+    {
+        // 準備
+        this.target.setCombineSize(2);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Tuple mockTuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn("word Test test").when(mockTuple).getStringByField("message");
+
+        // 実行
+        this.target.execute(mockTuple);
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector, times(2)).emit(argument.capture());
+        List<List> argList = argument.getAllValues();
+
+        long testCount = 0;
+        long wordCount = 0;
+        for (List values : argList)
+        {
+            if ("test".equals(values.get(0)))
+            {
+                testCount = (Long) values.get(1);
+            }
+            else if ("word".equals(values.get(0)))
+            {
+                wordCount = (Long) values.get(1);
+            }
+        }
+
+        assertThat(testCount, is(2L));
+        assertThat(wordCount, is(1L));
+    }
+
+    /**
+     * 集約単語数に達していない場合、TickTuple受信時に単語ごとの出現回数が送信されることを確認する。
+     *
+     * @target {@link SplitSentenceBolt#execute(backtype.storm.tuple.Tuple)}
+     * @test 文章受信時は送信されず、TickTuple受信時に送信されること
+     *    condition:: 集約単語数に達しない文章を受信後、TickTupleを受信
+     *    result:: 文章受信時は送信されず、TickTuple受信時に送信されることを確認
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    public void testExecute_TickTuple受信() throws IOException
+    {
+        // 準備
+        this.target.setCombineSize(100);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Tuple mockTuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn("test test").when(mockTuple).getStringByField("message");
+        Tuple tickTuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn(Constants.SYSTEM_COMPONENT_ID).when(tickTuple).getSourceComponent();
+        Mockito.doReturn(Constants.SYSTEM_TICK_STREAM_ID).when(tickTuple).getSourceStreamId();
+
+        // 実行
+        this.target.execute(mockTuple);
+
+        // 検証
+        Mockito.verify(this.mockCollector, never()).emit((List<Object>) anyObject());
+
+        // 実行
+        this.target.execute(tickTuple);
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector).emit(argument.capture());
+        assertThat(argument.getValue().size(), equalTo(2));
+        assertThat(argument.getValue().get(0).toString(), is("test"));
+        assertThat((Long) argument.getValue().get(1), is(2L));
+    }
 }
@@ -5,15 +5,20 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import acromusashi.stream.example.counter.ExactWordCounter;
+import acromusashi.stream.example.counter.StringLongCounterMap;
+import backtype.storm.Constants;
 import backtype.storm.task.OutputCollector;
 import backtype.storm.task.TopologyContext;
 import backtype.storm.tuple.Tuple;
@@ -81,10 +86,46 @@ public class WordCountBoltTest
         this.target.execute(mockTuple3);
 
         // 検証
-        assertThat(this.target.counts.size(), equalTo(2));
-        assertThat(this.target.counts.containsKey("test"), is(true));
-        assertThat(this.target.counts.containsKey("word"), is(true));
-        assertThat(this.target.counts.get("test"), is(2));
-        assertThat(this.target.counts.get("word"), is(1));
+        StringLongCounterMap counts = ((ExactWordCounter) this.target.counter).getCounts();
+        assertThat(counts.size(), equalTo(2));
+        assertThat(counts.containsKey("test"), is(true));
+        assertThat(counts.containsKey("word"), is(true));
+        assertThat(counts.get("test"), is(2L));
+        assertThat(counts.get("word"), is(1L));
+    }
+
+    /**
+     * 部分集計単語数を設定した状態で単語を受信した場合、TickTuple受信時に単語ごとの出現回数が下流に送信されることを確認する。
+     *
+     * @target {@link WordCountBolt#execute(backtype.storm.tuple.Tuple)}
+     * @test 単語ごとの出現回数が下流に送信され、自Boltのカウンタには加算されないこと
+     *    condition:: 部分集計単語数を設定した状態で単語、TickTupleを受信
+     *    result:: 単語ごとの出現回数が下流に送信され、自Boltのカウンタには加算されないことを確認
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    public void testExecute_部分集計() throws IOException
+    {
+        // 準備
+        this.target.setPartialSize(100);
+        this.target.prepare(this.mockConfMap, this.mockContext, this.mockCollector);
+        Tuple mockTuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn("test").when(mockTuple).getStringByField("word");
+        Tuple tickTuple = Mockito.mock(Tuple.class);
+        Mockito.doReturn(Constants.SYSTEM_COMPONENT_ID).when(tickTuple).getSourceComponent();
+        Mockito.doReturn(Constants.SYSTEM_TICK_STREAM_ID).when(tickTuple).getSourceStreamId();
+
+        // 実行
+        this.target.execute(mockTuple);
+        this.target.execute(mockTuple);
+        this.target.execute(tickTuple);
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector).emit(argument.capture());
+        assertThat(argument.getValue().get(0).toString(), is("test"));
+        assertThat((Long) argument.getValue().get(1), is(2L));
+        StringLongCounterMap counts = ((ExactWordCounter) this.target.counter).getCounts();
+        assertThat(counts.size(), equalTo(0));
     }
 }
@@ -0,0 +1,89 @@
+package acromusashi.stream.example.cache;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * ExpiringLruCacheのテストクラス
+ *
+ * @author kimura
+ */
+public class ExpiringLruCacheTest
+{
+    /**
+     * 保持件数上限を超えて格納した場合、最も長く参照されていないエントリが削除されることを確認する。
+     *
+     * @target {@link ExpiringLruCache#put(Object, Object, long)}
+     * @test 最も長く参照されていないエントリが削除され、参照したエントリは保持されること
+     *    condition:: 保持件数上限2で、a、bを格納後にaを参照し、cを格納
+     *    result:: 最も長く参照されていないエントリが削除され、参照したエントリは保持されることを確認
+     */
+    @Test
+    public void testPut_保持件数超過()
+    {
+        // 準備
+        ExpiringLruCache<String, String> target = new ExpiringLruCache<String, String>(2, 0L);
+        target.put("a", "valueA", 0L);
+        target.put("b", "valueB", 0L);
+        target.get("a", 0L);
+
+        // 実施
+        target.put("c", "valueC", 0L);
+
+        // 検証
+        assertThat(target.size(), is(2));
+        assertThat(target.get("a", 0L).getValue(), is("valueA"));
+        assertThat(target.get("b", 0L), nullValue());
+        assertThat(target.get("c", 0L).getValue(), is("valueC"));
+    }
+
+    /**
+     * 有効期限を経過したエントリを参照した場合、エントリが存在しないものとして扱われることを確認する。
+     *
+     * @target {@link ExpiringLruCache#get(Object, long)}
+     * @test 有効期限内は取得でき、有効期限経過後はnullが返却されてエントリが削除されること
+     *    condition:: 有効期限1000ミリ秒で格納し、999ミリ秒後、1000ミリ秒後に参照
+     *    result:: 有効期限内は取得でき、有効期限経過後はnullが返却されてエントリが削除されることを確認
+     */
+    @Test
+    public void testGet_有効期限経過()
+    {
+        // 準備
+        ExpiringLruCache<String, String> target = new ExpiringLruCache<String, String>(10, 1000L);
+        target.put("a", "valueA", 5000L);
+
+        // 実施・検証
+        assertThat(target.get("a", 5999L).getValue(), is("valueA"));
+        assertThat(target.get("a", 6000L), nullValue());
+        assertThat(target.size(), is(0));
+        assertThat(target.getHitCount(), is(1L));
+        assertThat(target.getMissCount(), is(1L));
+    }
+
+    /**
+     * 値にnullを格納した場合、値が存在しないことがキャッシュされることを確認する。
+     *
+     * @target {@link ExpiringLruCache#get(Object, long)}
+     * @test エントリが取得でき、値がnullであること
+     *    condition:: 値にnullを格納
+     *    result:: エントリが取得でき、値がnullであることを確認
+     */
+    @Test
+    public void testGet_値なし()
+    {
+        // 準備
+        ExpiringLruCache<String, String> target = new ExpiringLruCache<String, String>(10, 1000L);
+        target.put("a", null, 0L);
+
+        // 実施
+        ExpiringLruCache.CacheEntry<String> result = target.get("a", 0L);
+
+        // 検証
+        assertThat(result, notNullValue());
+        assertThat(result.getValue(), nullValue());
+    }
+}
@@ -0,0 +1,149 @@
+package acromusashi.stream.example.capture;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * CaptureFileReaderのテストクラス
+ *
+ * @author kimura
+ */
+public class CaptureFileReaderTest
+{
+    /** テスト用の一時ディレクトリ */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * ウィンドウサイズを超える記録ファイルを読み込んだ場合、全レコードを記録順に読み込めることを確認する。
+     *
+     * @target {@link CaptureFileReader#next()}
+     * @test 全レコードの受信時刻、本体を記録順に読み込めること
+     *    condition:: ウィンドウサイズ64バイトで、100件のレコードを記録した記録ファイルを読み込み
+     *    result:: 全レコードの受信時刻、本体を記録順に読み込めることを確認
+     */
+    @Test
+    public void testNext_ウィンドウ再マップ() throws Exception
+    {
+        // 準備
+        File file = this.folder.newFile("test.cap");
+        writeRecords(file, 0, 100);
+        CaptureFileReader target = new CaptureFileReader(file, 0L, 64);
+
+        // 実施・検証
+        for (int index = 0; index < 100; index++)
+        {
+            assertThat(target.next(), is(true));
+            assertThat(target.getTimestamp(), is(1000L + index));
+            assertThat(new String(target.getPayload(), "UTF-8"), is(createPayload(index)));
+        }
+
+        assertThat(target.next(), is(false));
+        assertThat(target.getOffset(), is(file.length()));
+        target.close();
+    }
+
+    /**
+     * 読み込み位置を指定した場合、指定位置のレコードから読み込めることを確認する。
+     *
+     * @target {@link CaptureFileReader#CaptureFileReader(File, long)}
+     * @test 指定位置のレコードから読み込めること
+     *    condition:: 3件目のレコードを読み込んだ後の読み込み位置を指定して読み込み
+     *    result:: 4件目のレコードから読み込めることを確認
+     */
+    @Test
+    public void testConstructor_読み込み再開() throws Exception
+    {
+        // 準備
+        File file = this.folder.newFile("test.cap");
+        writeRecords(file, 0, 10);
+        CaptureFileReader first = new CaptureFileReader(file, 0L);
+        first.next();
+        first.next();
+        first.next();
+        long offset = first.getOffset();
+        first.close();
+
+        // 実施
+        CaptureFileReader target = new CaptureFileReader(file, offset);
+
+        // 検証
+        assertThat(target.next(), is(true));
+        assertThat(target.getRecordOffset(), is(offset));
+        assertThat(new String(target.getPayload(), "UTF-8"), is(createPayload(3)));
+        target.close();
+    }
+
+    /**
+     * 末尾に書き込み途中のレコードがある記録ファイルを読み込んだ場合、完全なレコードのみ読み込めることを確認する。
+     *
+     * @target {@link CaptureFileReader#getValidLength(File)}
+     * @test 完全なレコードのみ読み込め、有効範囲が完全なレコードの終端となること
+     *    condition:: 5件のレコードの後に書き込み途中のレコードがある記録ファイルを読み込み
+     *    result:: 完全なレコードのみ読み込め、有効範囲が完全なレコードの終端となることを確認
+     */
+    @Test
+    public void testGetValidLength_書き込み途中() throws Exception
+    {
+        // 準備
+        File file = this.folder.newFile("test.cap");
+        writeRecords(file, 0, 5);
+        long validLength = file.length();
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(validLength);
+        raw.writeInt(100);
+        raw.writeLong(2000L);
+        raw.write(new byte[10]);
+        raw.close();
+
+        // 実施
+        long result = CaptureFileReader.getValidLength(file);
+
+        // 検証
+        assertThat(result, is(validLength));
+        CaptureFileReader reader = new CaptureFileReader(file, 0L);
+        int count = 0;
+        while (reader.next() == true)
+        {
+            count++;
+        }
+        reader.close();
+        assertThat(count, is(5));
+    }
+
+    /**
+     * 記録ファイルにレコードを記録する。
+     *
+     * @param file 記録ファイル
+     * @param from 開始インデックス
+     * @param to 終了インデックス(含まない)
+     * @throws Exception 記録に失敗した場合
+     */
+    static void writeRecords(File file, int from, int to) throws Exception
+    {
+        CaptureFileWriter writer = new CaptureFileWriter(file, 1024);
+        for (int index = from; index < to; index++)
+        {
+            writer.write(1000L + index, createPayload(index).getBytes("UTF-8"));
+        }
+        writer.close();
+    }
+
+    /**
+     * テスト用のレコード本体を生成する。
+     *
+     * @param index インデックス
+     * @return レコード本体
+     */
+    static String createPayload(int index)
+    {
+        return "{\"sender\":\"10.0.0." + index + "\",\"type\":\"snmp\"}";
+    }
+}
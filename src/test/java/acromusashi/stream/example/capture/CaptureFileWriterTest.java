@@ -0,0 +1,95 @@
+package acromusashi.stream.example.capture;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * CaptureFileWriterのテストクラス
+ *
+ * @author kimura
+ */
+public class CaptureFileWriterTest
+{
+    /** テスト用の一時ディレクトリ */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 既存の記録ファイルを開いた場合、末尾に追記されることを確認する。
+     *
+     * @target {@link CaptureFileWriter#write(long, byte[])}
+     * @test 既存のレコードの後に追記されること
+     *    condition:: 5件のレコードを記録した記録ファイルを開き、5件のレコードを記録
+     *    result:: 10件のレコードを記録順に読み込めることを確認
+     */
+    @Test
+    public void testWrite_追記() throws Exception
+    {
+        // 準備
+        File file = this.folder.newFile("test.cap");
+        CaptureFileReaderTest.writeRecords(file, 0, 5);
+
+        // 実施
+        CaptureFileReaderTest.writeRecords(file, 5, 10);
+
+        // 検証
+        assertRecords(file, 10);
+    }
+
+    /**
+     * 末尾に書き込み途中のレコードがある記録ファイルを開いた場合、切り詰めてから追記されることを確認する。
+     *
+     * @target {@link CaptureFileWriter#CaptureFileWriter(File, int)}
+     * @test 書き込み途中のレコードが切り詰められ、追記したレコードを読み込めること
+     *    condition:: 5件のレコードの後に書き込み途中のレコードがある記録ファイルを開き、5件のレコードを記録
+     *    result:: 10件のレコードを記録順に読み込めることを確認
+     */
+    @Test
+    public void testConstructor_書き込み途中の切り詰め() throws Exception
+    {
+        // 準備
+        File file = this.folder.newFile("test.cap");
+        CaptureFileReaderTest.writeRecords(file, 0, 5);
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(raw.length());
+        raw.writeInt(100);
+        raw.write(new byte[3]);
+        raw.close();
+
+        // 実施
+        CaptureFileReaderTest.writeRecords(file, 5, 10);
+
+        // 検証
+        assertRecords(file, 10);
+    }
+
+    /**
+     * 記録ファイルのレコードが記録順に格納されていることを検証する。
+     *
+     * @param file 記録ファイル
+     * @param expectedNum 期待するレコード数
+     * @throws Exception 読み込みに失敗した場合
+     */
+    private void assertRecords(File file, int expectedNum) throws Exception
+    {
+        CaptureFileReader reader = new CaptureFileReader(file, 0L);
+        for (int index = 0; index < expectedNum; index++)
+        {
+            assertThat(reader.next(), is(true));
+            assertThat(reader.getTimestamp(), is(1000L + index));
+            assertThat(new String(reader.getPayload(), "UTF-8"),
+                    is(CaptureFileReaderTest.createPayload(index)));
+        }
+
+        assertThat(reader.next(), is(false));
+        assertThat(reader.getOffset(), is(file.length()));
+        reader.close();
+    }
+}
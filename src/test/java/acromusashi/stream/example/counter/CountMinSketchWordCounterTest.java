@@ -0,0 +1,119 @@
+package acromusashi.stream.example.counter;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * CountMinSketchWordCounterのテストクラス
+ *
+ * @author kimura
+ */
+public class CountMinSketchWordCounterTest
+{
+    /**
+     * 衝突が発生しない規模の単語を受信した場合、推定値が実際の出現回数と一致することを確認する。
+     *
+     * @target {@link CountMinSketchWordCounter#getCount(String)}
+     * @test 推定値が実際の出現回数と一致すること
+     *    condition:: 衝突が発生しない規模の単語を受信
+     *    result:: 推定値が実際の出現回数と一致することを確認
+     */
+    @Test
+    public void testGetCount_少数単語()
+    {
+        // 準備
+        CountMinSketchWordCounter target = new CountMinSketchWordCounter();
+        target.add("test", 1L);
+        target.add("word", 1L);
+        target.add("test", 1L);
+
+        // 実施・検証
+        assertThat(target.getCount("test"), is(2L));
+        assertThat(target.getCount("word"), is(1L));
+        assertThat(target.getCount("none"), is(0L));
+        assertThat(target.getTotalCount(), is(3L));
+    }
+
+    /**
+     * 幅を超える種類の単語を受信した場合、推定値が実際の出現回数以上となることを確認する。
+     *
+     * @target {@link CountMinSketchWordCounter#getCount(String)}
+     * @test 推定値が実際の出現回数以上、かつConservative Updateの推定値は通常更新の推定値以下となること
+     *    condition:: 幅を超える種類の単語を受信
+     *    result:: 推定値が実際の出現回数以上、かつConservative Updateの推定値は通常更新の推定値以下となることを確認
+     */
+    @Test
+    public void testGetCount_過大評価()
+    {
+        // 準備
+        CountMinSketchWordCounter standard = new CountMinSketchWordCounter(64, 4, false);
+        CountMinSketchWordCounter conservative = new CountMinSketchWordCounter(64, 4, true);
+        StringLongCounterMap actual = new StringLongCounterMap();
+
+        // 実施
+        for (int count = 0; count < 5000; count++)
+        {
+            String word = "word" + (count % 500);
+            standard.add(word, 1L);
+            conservative.add(word, 1L);
+            actual.increment(word);
+        }
+
+        // 検証
+        for (int index = 0; index < 500; index++)
+        {
+            String word = "word" + index;
+            assertThat(standard.getCount(word) >= actual.get(word), is(true));
+            assertThat(conservative.getCount(word) >= actual.get(word), is(true));
+            assertThat(conservative.getCount(word) <= standard.getCount(word), is(true));
+        }
+    }
+
+    /**
+     * 同一パラメータのカウンタを統合した場合、各カウンタの出現回数が合算されることを確認する。
+     *
+     * @target {@link CountMinSketchWordCounter#merge(CountMinSketchWordCounter)}
+     * @test 各カウンタの出現回数が合算されること
+     *    condition:: 同一パラメータのカウンタを統合
+     *    result:: 各カウンタの出現回数が合算されることを確認
+     */
+    @Test
+    public void testMerge_統合()
+    {
+        // 準備
+        CountMinSketchWordCounter target = new CountMinSketchWordCounter();
+        CountMinSketchWordCounter other = new CountMinSketchWordCounter();
+        target.add("test", 2L);
+        other.add("test", 3L);
+        other.add("word", 1L);
+
+        // 実施
+        target.merge(other);
+
+        // 検証
+        assertThat(target.getCount("test"), is(5L));
+        assertThat(target.getCount("word"), is(1L));
+        assertThat(target.getTotalCount(), is(6L));
+    }
+
+    /**
+     * 幅が異なるカウンタを統合した場合、例外が発生することを確認する。
+     *
+     * @target {@link CountMinSketchWordCounter#merge(CountMinSketchWordCounter)}
+     * @test IllegalArgumentExceptionが発生すること
+     *    condition:: 幅が異なるカウンタを統合
+     *    result:: IllegalArgumentExceptionが発生することを確認
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMerge_パラメータ不一致()
+    {
+        // 準備
+        CountMinSketchWordCounter target = new CountMinSketchWordCounter(128, 4, false);
+        CountMinSketchWordCounter other = new CountMinSketchWordCounter(256, 4, false);
+
+        // 実施
+        target.merge(other);
+    }
+}
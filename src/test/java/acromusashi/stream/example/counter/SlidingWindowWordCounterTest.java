@@ -0,0 +1,75 @@
+package acromusashi.stream.example.counter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * SlidingWindowWordCounterのテストクラス
+ *
+ * @author kimura
+ */
+public class SlidingWindowWordCounterTest
+{
+    /**
+     * 時間窓内で受信した単語の場合、全バケットの合計値が取得できることを確認する。
+     *
+     * @target {@link SlidingWindowWordCounter#getCount(String)}
+     * @test 全バケットの合計値が取得できること
+     *    condition:: 時間窓内の複数バケットで同一単語を受信
+     *    result:: 全バケットの合計値が取得できることを確認
+     */
+    @Test
+    public void testGetCount_時間窓内()
+    {
+        // 準備
+        SlidingWindowWordCounter target = new SlidingWindowWordCounter(3);
+        target.add("test", 1L);
+        target.onTick();
+        target.add("test", 2L);
+        target.add("word", 1L);
+        target.onTick();
+        target.add("test", 3L);
+
+        // 実施・検証
+        assertThat(target.getCount("test"), is(6L));
+        assertThat(target.getCount("word"), is(1L));
+        assertThat(target.report(), is("{test=6, word=1}"));
+    }
+
+    /**
+     * 時間窓から外れたバケットの場合、合計値から減算され、合計値が0の単語は削除されることを確認する。
+     *
+     * @target {@link SlidingWindowWordCounter#onTick()}
+     * @test 合計値から減算され、合計値が0の単語は削除されること
+     *    condition:: バケット数を超えて時間経過を通知
+     *    result:: 合計値から減算され、合計値が0の単語は削除されることを確認
+     */
+    @Test
+    public void testOnTick_時間窓外()
+    {
+        // 準備
+        SlidingWindowWordCounter target = new SlidingWindowWordCounter(2);
+        target.add("test", 1L);
+        target.add("word", 1L);
+        target.onTick();
+        target.add("test", 2L);
+
+        // 実施
+        target.onTick();
+
+        // 検証
+        assertThat(target.getCount("test"), is(2L));
+        assertThat(target.getCount("word"), is(0L));
+        assertThat(target.size(), equalTo(1));
+
+        // 実施
+        target.onTick();
+
+        // 検証
+        assertThat(target.getCount("test"), is(0L));
+        assertThat(target.size(), equalTo(0));
+    }
+}
@@ -0,0 +1,121 @@
+package acromusashi.stream.example.counter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * SpaceSavingWordCounterのテストクラス
+ *
+ * @author kimura
+ */
+public class SpaceSavingWordCounterTest
+{
+    /**
+     * 監視対象件数以内の単語を受信した場合、誤差なしで出現回数の降順に取得できることを確認する。
+     *
+     * @target {@link SpaceSavingWordCounter#top(int)}
+     * @test 誤差なしで出現回数の降順に取得できること
+     *    condition:: 監視対象件数以内の単語を受信
+     *    result:: 誤差なしで出現回数の降順に取得できることを確認
+     */
+    @Test
+    public void testTop_監視対象件数以内()
+    {
+        // 準備
+        SpaceSavingWordCounter target = new SpaceSavingWordCounter(10, 10);
+        target.add("a", 1L);
+        target.add("b", 3L);
+        target.add("c", 2L);
+        target.add("a", 5L);
+
+        // 実施
+        List<HeavyHitter> result = target.top(2);
+
+        // 検証
+        assertThat(result.size(), equalTo(2));
+        assertThat(result.get(0).toString(), is("a=6(error=0)"));
+        assertThat(result.get(1).toString(), is("b=3(error=0)"));
+        assertThat(target.getCount("c"), is(2L));
+        assertThat(target.getCount("none"), is(0L));
+    }
+
+    /**
+     * 監視対象件数を超える単語を受信した場合、最小カウンタの単語が置き換えられることを確認する。
+     *
+     * @target {@link SpaceSavingWordCounter#add(String, long)}
+     * @test 最小カウンタの単語が置き換えられ、誤差上限が設定されること
+     *    condition:: 監視対象件数を超える単語を受信
+     *    result:: 最小カウンタの単語が置き換えられ、誤差上限が設定されることを確認
+     */
+    @Test
+    public void testAdd_監視対象件数超過()
+    {
+        // 準備
+        SpaceSavingWordCounter target = new SpaceSavingWordCounter(2, 2);
+        target.add("a", 5L);
+        target.add("b", 2L);
+
+        // 実施
+        target.add("c", 1L);
+
+        // 検証
+        assertThat(target.size(), equalTo(2));
+        assertThat(target.getCount("b"), is(0L));
+        assertThat(target.getCount("c"), is(3L));
+        assertThat(target.getError("c"), is(2L));
+        assertThat(target.getCount("a"), is(5L));
+    }
+
+    /**
+     * 偏りのある単語列を受信した場合、上位の単語が実際の出現回数の範囲内で取得できることを確認する。
+     *
+     * @target {@link SpaceSavingWordCounter#top(int)}
+     * @test 上位の単語が実際の出現回数の範囲内で取得できること
+     *    condition:: 偏りのある単語列を受信
+     *    result:: 上位の単語が実際の出現回数の範囲内で取得できることを確認
+     */
+    @Test
+    public void testTop_偏りのある単語列()
+    {
+        // 準備
+        SpaceSavingWordCounter target = new SpaceSavingWordCounter(20, 3);
+        StringLongCounterMap actual = new StringLongCounterMap();
+
+        // 実施
+        for (int count = 0; count < 10000; count++)
+        {
+            String word;
+            if (count % 2 == 0)
+            {
+                word = "the";
+            }
+            else if (count % 5 == 0)
+            {
+                word = "a";
+            }
+            else
+            {
+                word = "word" + count;
+            }
+
+            target.add(word, 1L);
+            actual.increment(word);
+        }
+
+        // 検証
+        List<HeavyHitter> result = target.top(2);
+        assertThat(result.get(0).getWord(), is("the"));
+        assertThat(result.get(1).getWord(), is("a"));
+        for (HeavyHitter hitter : result)
+        {
+            long real = actual.get(hitter.getWord());
+            assertThat(hitter.getCount() >= real, is(true));
+            assertThat(hitter.getCount() - hitter.getError() <= real, is(true));
+        }
+    }
+}
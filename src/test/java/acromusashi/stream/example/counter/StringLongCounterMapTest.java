@@ -0,0 +1,161 @@
+package acromusashi.stream.example.counter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * StringLongCounterMapのテストクラス
+ *
+ * @author kimura
+ */
+public class StringLongCounterMapTest
+{
+    /** テスト対象 */
+    private StringLongCounterMap target;
+
+    /**
+     * 初期化メソッド
+     */
+    @Before
+    public void setUp()
+    {
+        this.target = new StringLongCounterMap();
+    }
+
+    /**
+     * 同一キーに対して加算を行った場合、加算結果が保持されることを確認する。
+     *
+     * @target {@link StringLongCounterMap#add(String, long)}
+     * @test 加算結果が保持されること
+     *    condition:: 同一キーに対して複数回加算
+     *    result:: 加算結果が保持されることを確認
+     */
+    @Test
+    public void testAdd_同一キー加算()
+    {
+        // 実施
+        this.target.increment("test");
+        this.target.add("test", 5L);
+        long result = this.target.increment("test");
+
+        // 検証
+        assertThat(result, is(7L));
+        assertThat(this.target.get("test"), is(7L));
+        assertThat(this.target.get("none"), is(0L));
+        assertThat(this.target.size(), equalTo(1));
+    }
+
+    /**
+     * 初期容量を超えるキーを追加した場合、全てのキーのカウンタ値が保持されることを確認する。
+     *
+     * @target {@link StringLongCounterMap#add(String, long)}
+     * @test 全てのキーのカウンタ値が保持されること
+     *    condition:: 初期容量を超えるキーを追加
+     *    result:: 全てのキーのカウンタ値が保持されることを確認
+     */
+    @Test
+    public void testAdd_容量拡張()
+    {
+        // 実施
+        for (int count = 0; count < 10000; count++)
+        {
+            this.target.add("word" + (count % 1000), count);
+        }
+
+        // 検証
+        assertThat(this.target.size(), equalTo(1000));
+        for (int index = 0; index < 1000; index++)
+        {
+            long expected = 0;
+            for (int count = index; count < 10000; count += 1000)
+            {
+                expected += count;
+            }
+
+            assertThat(this.target.get("word" + index), is(expected));
+        }
+    }
+
+    /**
+     * ランダムに追加、削除を行った場合、HashMapと同一の結果となることを確認する。
+     *
+     * @target {@link StringLongCounterMap#remove(String)}
+     * @test HashMapと同一の結果となること
+     *    condition:: ランダムに追加、削除を実施
+     *    result:: HashMapと同一の結果となることを確認
+     */
+    @Test
+    public void testRemove_ランダム追加削除()
+    {
+        // 準備
+        Random random = new Random(0L);
+        Map<String, Long> expected = new HashMap<String, Long>();
+
+        // 実施
+        for (int count = 0; count < 100000; count++)
+        {
+            String key = "key" + random.nextInt(500);
+            if (random.nextInt(3) == 0)
+            {
+                Long removed = expected.remove(key);
+                long expectedRemoved = 0L;
+                if (removed != null)
+                {
+                    expectedRemoved = removed;
+                }
+
+                assertThat(this.target.remove(key), is(expectedRemoved));
+            }
+            else
+            {
+                Long current = expected.get(key);
+                if (current == null)
+                {
+                    current = 0L;
+                }
+
+                expected.put(key, current + 1);
+                this.target.increment(key);
+            }
+        }
+
+        // 検証
+        assertThat(this.target.size(), equalTo(expected.size()));
+        for (Map.Entry<String, Long> entry : expected.entrySet())
+        {
+            assertThat(this.target.get(entry.getKey()), is(entry.getValue()));
+        }
+    }
+
+    /**
+     * ソート済みエントリを取得した場合、キーの昇順で取得できることを確認する。
+     *
+     * @target {@link StringLongCounterMap#toSortedMap()}
+     * @test キーの昇順で取得できること
+     *    condition:: 複数キーを追加
+     *    result:: キーの昇順で取得できることを確認
+     */
+    @Test
+    public void testToSortedMap_昇順取得()
+    {
+        // 準備
+        this.target.increment("word");
+        this.target.increment("test");
+        this.target.increment("test");
+
+        // 実施
+        SortedMap<String, Long> result = this.target.toSortedMap();
+
+        // 検証
+        assertThat(result.toString(), is("{test=2, word=1}"));
+    }
+}
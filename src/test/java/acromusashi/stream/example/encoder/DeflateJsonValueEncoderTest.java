@@ -0,0 +1,92 @@
+package acromusashi.stream.example.encoder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Inflater;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * DeflateJsonValueEncoderのテストクラス
+ *
+ * @author kimura
+ */
+public class DeflateJsonValueEncoderTest
+{
+    /**
+     * 変換したバイト列を伸長してJSONとして読み込んだ場合、元の値が復元できることを確認する。
+     *
+     * @target {@link DeflateJsonValueEncoder#encode(Object)}
+     * @test 元の値が復元でき、toStringの結果より出力サイズが小さいこと
+     *    condition:: SNMPのVarbindを模したMapのListを変換
+     *    result:: 元の値が復元でき、toStringの結果より出力サイズが小さいことを確認
+     */
+    @Test
+    public void testEncode_復元() throws Exception
+    {
+        // 準備
+        DeflateJsonValueEncoder target = new DeflateJsonValueEncoder();
+        target.prepare();
+        List<Map<String, Object>> value = KryoValueEncoderTest.createVarbinds();
+
+        // 実施
+        byte[] result = target.encode(value);
+
+        // 検証
+        Object restored = new ObjectMapper().readValue(inflate(result), List.class);
+        assertThat(restored.equals(value), is(true));
+        assertThat(result.length < value.toString().getBytes().length, is(true));
+    }
+
+    /**
+     * 繰り返し変換した場合、前回の変換結果が混入しないことを確認する。
+     *
+     * @target {@link DeflateJsonValueEncoder#encode(Object)}
+     * @test 2回目の変換結果を伸長した結果が2回目の値のJSONと一致すること
+     *    condition:: Listを変換後、文字列を変換
+     *    result:: 2回目の変換結果を伸長した結果が2回目の値のJSONと一致することを確認
+     */
+    @Test
+    public void testEncode_繰り返し変換() throws Exception
+    {
+        // 準備
+        DeflateJsonValueEncoder target = new DeflateJsonValueEncoder();
+        target.prepare();
+
+        // 実施
+        target.encode(KryoValueEncoderTest.createVarbinds());
+        byte[] result = target.encode("short");
+
+        // 検証
+        assertThat(new String(inflate(result), "UTF-8"), is("\"short\""));
+    }
+
+    /**
+     * Deflate形式のバイト列を伸長する。
+     *
+     * @param compressed 圧縮されたバイト列
+     * @return 伸長したバイト列
+     * @throws Exception 伸長に失敗した場合
+     */
+    private byte[] inflate(byte[] compressed) throws Exception
+    {
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        while (inflater.finished() == false)
+        {
+            int length = inflater.inflate(buffer);
+            result.write(buffer, 0, length);
+        }
+
+        inflater.end();
+        return result.toByteArray();
+    }
+}
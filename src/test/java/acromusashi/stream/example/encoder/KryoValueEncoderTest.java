@@ -0,0 +1,174 @@
+package acromusashi.stream.example.encoder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.esotericsoftware.kryo.io.Input;
+
+/**
+ * KryoValueEncoderのテストクラス
+ *
+ * @author kimura
+ */
+public class KryoValueEncoderTest
+{
+    /**
+     * 変換したバイト列をKryoで読み込んだ場合、元の値が復元できることを確認する。
+     *
+     * @target {@link KryoValueEncoder#encode(Object)}
+     * @test 元の値が復元でき、toStringの結果より出力サイズが小さいこと
+     *    condition:: SNMPのVarbindを模したMapのListを変換
+     *    result:: 元の値が復元でき、toStringの結果より出力サイズが小さいことを確認
+     */
+    @Test
+    public void testEncode_復元()
+    {
+        // 準備
+        KryoValueEncoder target = new KryoValueEncoder();
+        target.prepare();
+        List<Map<String, Object>> value = createVarbinds();
+
+
+        // 実施
+        byte[] result = target.encode(value);
+
+        // 検証
+        Object restored = target.createKryo().readClassAndObject(new Input(result));
+        assertThat(restored.equals(value), is(true));
+        assertThat(result.length < value.toString().getBytes().length, is(true));
+    }
+
+    /**
+     * 登録クラスを指定した場合、クラス名を出力せずにStringValueEncoderより大幅に小さく変換されることを確認する。
+     *
+     * @target {@link KryoValueEncoder#encode(Object)}
+     * @test 元の値が復元でき、StringValueEncoderの出力サイズの6割未満、登録クラス未指定時より小さいこと
+     *    condition:: SNMPのVarbindを模したクラスのListを、Varbindのクラスを登録クラスに指定して変換
+     *    result:: 元の値が復元でき、StringValueEncoderの出力サイズの6割未満、登録クラス未指定時より小さいことを確認
+     */
+    @Test
+    public void testEncode_登録クラス()
+    {
+        // 準備
+        KryoValueEncoder target = new KryoValueEncoder();
+        target.setRegisteredClasses(Arrays.asList(Varbind.class.getName()));
+        target.prepare();
+        KryoValueEncoder unregistered = new KryoValueEncoder();
+        unregistered.prepare();
+        StringValueEncoder stringEncoder = new StringValueEncoder();
+        stringEncoder.prepare();
+        List<Varbind> value = new ArrayList<Varbind>();
+        for (int index = 0; index < 10; index++)
+        {
+            value.add(new Varbind("1.3.6.1.4.1.99999.1.2.3." + index, "Integer32", index * 100));
+        }
+
+        // 実施
+        byte[] result = target.encode(value);
+
+        // 検証
+        Object restored = target.createKryo().readClassAndObject(new Input(result));
+        assertThat(restored.toString(), is(value.toString()));
+        assertThat(result.length * 10 < stringEncoder.encode(value).length * 6, is(true));
+        assertThat(result.length < unregistered.encode(value).length, is(true));
+    }
+
+    /**
+     * 繰り返し変換した場合、前回の変換結果が混入しないことを確認する。
+     *
+     * @target {@link KryoValueEncoder#encode(Object)}
+     * @test 2回目の変換結果が単独で変換した結果と一致すること
+     *    condition:: 長い文字列を変換後、短い文字列を変換
+     *    result:: 2回目の変換結果が単独で変換した結果と一致することを確認
+     */
+    @Test
+    public void testEncode_繰り返し変換()
+    {
+        // 準備
+        KryoValueEncoder target = new KryoValueEncoder();
+        target.setBufferSize(16);
+        target.prepare();
+        KryoValueEncoder expected = new KryoValueEncoder();
+        expected.prepare();
+
+        // 実施
+        target.encode(createVarbinds());
+        byte[] result = target.encode("short");
+
+        // 検証
+        assertThat(result, is(expected.encode("short")));
+    }
+
+    /**
+     * SNMPのVarbindを模したクラス
+     */
+    public static class Varbind
+    {
+        /** OID */
+        private String oid;
+
+        /** 型 */
+        private String type;
+
+        /** 値 */
+        private int    value;
+
+        /**
+         * パラメータを指定せずにインスタンスを生成する。
+         */
+        public Varbind()
+        {}
+
+        /**
+         * OID、型、値を指定してインスタンスを生成する。
+         *
+         * @param oid OID
+         * @param type 型
+         * @param value 値
+         */
+        public Varbind(String oid, String type, int value)
+        {
+            this.oid = oid;
+            this.type = type;
+            this.value = value;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return "Varbind [oid=" + this.oid + ", type=" + this.type + ", value=" + this.value
+                    + "]";
+        }
+    }
+
+    /**
+     * SNMPのVarbindを模したMapのListを生成する。
+     *
+     * @return VarbindのList
+     */
+    static List<Map<String, Object>> createVarbinds()
+    {
+        List<Map<String, Object>> varbinds = new ArrayList<Map<String, Object>>();
+        for (int index = 0; index < 10; index++)
+        {
+            Map<String, Object> varbind = new LinkedHashMap<String, Object>();
+            varbind.put("oid", "1.3.6.1.4.1.99999.1.2.3." + index);
+            varbind.put("type", "Integer32");
+            varbind.put("value", Integer.valueOf(index * 100));
+            varbinds.add(varbind);
+        }
+
+        return varbinds;
+    }
+}
@@ -0,0 +1,66 @@
+package acromusashi.stream.example.generator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * HotSetKeySamplerのテストクラス
+ *
+ * @author kimura
+ */
+public class HotSetKeySamplerTest
+{
+    /**
+     * ホットセットを指定して抽出した場合、指定した割合でホットセットのキーが抽出されることを確認する。
+     *
+     * @target {@link HotSetKeySampler#next(Random)}
+     * @test 約90%がホットセットのキーとなり、抽出結果がキー数の範囲内であること
+     *    condition:: キー数1000、ホットセットのキー数10、確率0.9で10万回抽出
+     *    result:: 約90%がホットセットのキーとなり、抽出結果がキー数の範囲内であることを確認
+     */
+    @Test
+    public void testNext_ホットセット()
+    {
+        // 準備
+        HotSetKeySampler target = new HotSetKeySampler(1000, 10, 0.9d);
+        Random random = new Random(0L);
+        int hotNum = 0;
+        int maxIndex = 0;
+
+        // 実施
+        for (int count = 0; count < 100000; count++)
+        {
+            int index = target.next(random);
+            if (index < 10)
+            {
+                hotNum++;
+            }
+
+            maxIndex = Math.max(maxIndex, index);
+        }
+
+        // 検証
+        assertThat(hotNum > 89000 && hotNum < 91000, is(true));
+        assertThat(maxIndex < 1000, is(true));
+        assertThat(maxIndex >= 10, is(true));
+    }
+
+    /**
+     * ホットセットのキー数がキー数を超える場合、例外が発生することを確認する。
+     *
+     * @target {@link HotSetKeySampler#HotSetKeySampler(int, int, double)}
+     * @test IllegalArgumentExceptionが発生すること
+     *    condition:: ホットセットのキー数がキー数を超える
+     *    result:: IllegalArgumentExceptionが発生することを確認
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_ホットセット超過()
+    {
+        // 実施
+        new HotSetKeySampler(10, 11, 0.5d);
+    }
+}
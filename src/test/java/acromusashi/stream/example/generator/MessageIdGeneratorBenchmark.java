@@ -0,0 +1,171 @@
+package acromusashi.stream.example.generator;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * MessageIdGeneratorの性能を従来のUUID#randomUUIDと比較するベンチマーク。<br>
+ * 同一ワーカ内の複数Executorからの生成を想定し、指定スレッド数で並行して生成した場合のスループットを測定する。<br>
+ * 単体テストとしては実行されないため、mainメソッドから実行する。<br>
+ * 引数:arg[0] スレッドあたりの測定回数(省略時は1000000)、arg[1] 最大スレッド数(省略時は4)
+ *
+ * @author kimura
+ */
+public final class MessageIdGeneratorBenchmark
+{
+    /** 測定回数デフォルト値 */
+    private static final int    DEFAULT_ITERATIONS  = 1000000;
+
+    /** 最大スレッド数デフォルト値 */
+    private static final int    DEFAULT_MAX_THREADS = 4;
+
+    /** 測定前のウォームアップ回数 */
+    private static final int    WARMUP_ITERATIONS   = 100000;
+
+    /** JITによる処理の除去を防ぐための結果保持 */
+    private static volatile int sink;
+
+    /**
+     * インスタンス化を防止するためのコンストラクタ
+     */
+    private MessageIdGeneratorBenchmark()
+    {}
+
+    /**
+     * プログラムエントリポイント
+     *
+     * @param args 起動引数
+     * @throws InterruptedException 測定中に割り込みが発生した場合
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        int iterations = DEFAULT_ITERATIONS;
+        int maxThreads = DEFAULT_MAX_THREADS;
+        if (args.length > 0)
+        {
+            iterations = Integer.parseInt(args[0]);
+        }
+
+        if (args.length > 1)
+        {
+            maxThreads = Integer.parseInt(args[1]);
+        }
+
+        MessageIdGenerator[] generators = {new UuidGenerator(), new RandomMessageIdGenerator(),
+                new SequenceMessageIdGenerator()};
+
+        for (MessageIdGenerator generator : generators)
+        {
+            generator.prepare("BenchmarkSpout", 0);
+            measure(generator, 1, WARMUP_ITERATIONS);
+        }
+
+        for (int threadNum = 1; threadNum <= maxThreads; threadNum <<= 1)
+        {
+            for (MessageIdGenerator generator : generators)
+            {
+                long elapsed = measure(generator, threadNum, iterations);
+                report(generator.getClass().getSimpleName(), threadNum, elapsed,
+                        (long) iterations * threadNum);
+            }
+        }
+
+        System.out.println("sink=" + sink);
+    }
+
+    /**
+     * 指定スレッド数で並行して生成した場合の処理時間を測定する。
+     *
+     * @param generator MessageIdGenerator
+     * @param threadNum スレッド数
+     * @param iterations スレッドあたりの生成回数
+     * @return 処理時間(ナノ秒)
+     * @throws InterruptedException 測定中に割り込みが発生した場合
+     */
+    private static long measure(final MessageIdGenerator generator, int threadNum,
+            final int iterations) throws InterruptedException
+    {
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch endLatch = new CountDownLatch(threadNum);
+        for (int index = 0; index < threadNum; index++)
+        {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run()
+                {
+                    int total = 0;
+                    try
+                    {
+                        startLatch.await();
+                        for (int count = 0; count < iterations; count++)
+                        {
+                            total += generator.nextId().length();
+                        }
+                    }
+                    catch (InterruptedException ex)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    finally
+                    {
+                        sink += total;
+                        endLatch.countDown();
+                    }
+                }
+            });
+            thread.start();
+        }
+
+        long start = System.nanoTime();
+        startLatch.countDown();
+        endLatch.await();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 測定結果を出力する。
+     *
+     * @param name 測定対象名
+     * @param threadNum スレッド数
+     * @param elapsed 処理時間(ナノ秒)
+     * @param total 総生成回数
+     */
+    private static void report(String name, int threadNum, long elapsed, long total)
+    {
+        System.out.println(String.format("%-28s threads=%-3d : %10.0f ids/sec", name, threadNum,
+                total * 1000000000.0d / elapsed));
+    }
+
+    /**
+     * 比較対象としてUUID#randomUUIDでメッセージIDを生成するMessageIdGenerator。
+     */
+    private static class UuidGenerator implements MessageIdGenerator
+    {
+        /** serialVersionUID */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * パラメータを指定せずにインスタンスを生成する。
+         */
+        UuidGenerator()
+        {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void prepare(String componentId, int taskIndex)
+        {
+            // 準備は不要
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String nextId()
+        {
+            return UUID.randomUUID().toString();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package acromusashi.stream.example.generator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * RandomMessageIdGeneratorのテストクラス
+ *
+ * @author kimura
+ */
+public class RandomMessageIdGeneratorTest
+{
+    /**
+     * メッセージIDを生成した場合、UUID(バージョン4)形式で重複なく生成されることを確認する。
+     *
+     * @target {@link RandomMessageIdGenerator#nextId()}
+     * @test UUID(バージョン4、IETFバリアント)形式で重複なく生成されること
+     *    condition:: 10000回生成
+     *    result:: UUID(バージョン4、IETFバリアント)形式で重複なく生成されることを確認
+     */
+    @Test
+    public void testNextId_UUID形式()
+    {
+        // 準備
+        RandomMessageIdGenerator target = new RandomMessageIdGenerator();
+        target.prepare("TestSpout", 0);
+        Set<String> ids = new HashSet<String>();
+
+        // 実施
+        for (int count = 0; count < 10000; count++)
+        {
+            String id = target.nextId();
+            ids.add(id);
+
+            // 検証
+            UUID uuid = UUID.fromString(id);
+            assertThat(uuid.version(), is(4));
+            assertThat(uuid.variant(), is(2));
+            assertThat(uuid.toString(), is(id));
+        }
+
+        // 検証
+        assertThat(ids.size(), is(10000));
+    }
+}
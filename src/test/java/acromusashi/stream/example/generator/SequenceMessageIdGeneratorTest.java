@@ -0,0 +1,126 @@
+package acromusashi.stream.example.generator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+/**
+ * SequenceMessageIdGeneratorのテストクラス
+ *
+ * @author kimura
+ */
+public class SequenceMessageIdGeneratorTest
+{
+    /**
+     * メッセージIDを生成した場合、コンポーネントID、タスクインデックス、連番を含む形式で生成されることを確認する。
+     *
+     * @target {@link SequenceMessageIdGenerator#nextId()}
+     * @test コンポーネントID、タスクインデックス、準備時刻、連番の形式で生成されること
+     *    condition:: コンポーネントID「TestSpout」、タスクインデックス3で準備して18回生成
+     *    result:: コンポーネントID、タスクインデックス、準備時刻、16進数の連番の形式で生成されることを確認
+     */
+    @Test
+    public void testNextId_形式()
+    {
+        // 準備
+        SequenceMessageIdGenerator target = new SequenceMessageIdGenerator();
+        target.prepare("TestSpout", 3);
+
+        // 実施
+        String first = target.nextId();
+        String last = null;
+        for (int count = 1; count < 18; count++)
+        {
+            last = target.nextId();
+        }
+
+        // 検証
+        String[] elements = first.split("-");
+        assertThat(elements.length, is(4));
+        assertThat(elements[0], is("TestSpout"));
+        assertThat(elements[1], is("3"));
+        assertThat(Long.parseLong(elements[2], 16) <= System.currentTimeMillis(), is(true));
+        assertThat(elements[3], is("0"));
+        assertThat(last, is(elements[0] + "-" + elements[1] + "-" + elements[2] + "-11"));
+    }
+
+    /**
+     * 複数スレッドから並行して生成した場合、重複しないメッセージIDが生成されることを確認する。
+     *
+     * @target {@link SequenceMessageIdGenerator#nextId()}
+     * @test 重複しないメッセージIDが生成されること
+     *    condition:: 4スレッドから並行して10000回ずつ生成
+     *    result:: 重複しないメッセージIDが40000件生成されることを確認
+     */
+    @Test
+    public void testNextId_並行生成() throws InterruptedException
+    {
+        // 準備
+        final SequenceMessageIdGenerator target = new SequenceMessageIdGenerator();
+        target.prepare("TestSpout", 0);
+        final Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        Thread[] threads = new Thread[4];
+        for (int index = 0; index < threads.length; index++)
+        {
+            threads[index] = new Thread(new Runnable() {
+                @Override
+                public void run()
+                {
+                    for (int count = 0; count < 10000; count++)
+                    {
+                        ids.add(target.nextId());
+                    }
+                }
+            });
+        }
+
+        // 実施
+        for (Thread thread : threads)
+        {
+            thread.start();
+        }
+
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        // 検証
+        assertThat(ids.size(), is(40000));
+    }
+
+    /**
+     * タスクインデックスが異なるインスタンスで生成した場合、重複しないメッセージIDが生成されることを確認する。
+     *
+     * @target {@link SequenceMessageIdGenerator#nextId()}
+     * @test 重複しないメッセージIDが生成されること
+     *    condition:: タスクインデックス1、11で準備したインスタンスで1000回ずつ生成
+     *    result:: 重複しないメッセージIDが2000件生成されることを確認
+     */
+    @Test
+    public void testNextId_タスク間重複なし()
+    {
+        // 準備
+        SequenceMessageIdGenerator first = new SequenceMessageIdGenerator();
+        SequenceMessageIdGenerator second = new SequenceMessageIdGenerator();
+        first.prepare("TestSpout", 1);
+        second.prepare("TestSpout", 11);
+        Set<String> ids = new HashSet<String>();
+
+        // 実施
+        for (int count = 0; count < 1000; count++)
+        {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+
+        // 検証
+        assertThat(ids.size(), is(2000));
+    }
+}
@@ -0,0 +1,91 @@
+package acromusashi.stream.example.generator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * TokenBucketのテストクラス
+ *
+ * @author kimura
+ */
+public class TokenBucketTest
+{
+    /**
+     * 生成直後にトークンを取得した場合、バケット容量まで取得できることを確認する。
+     *
+     * @target {@link TokenBucket#acquire(long, long)}
+     * @test バケット容量まで取得でき、以降は時間が経過するまで取得できないこと
+     *    condition:: 生成直後にバケット容量を超える数を取得
+     *    result:: バケット容量まで取得でき、以降は時間が経過するまで取得できないことを確認
+     */
+    @Test
+    public void testAcquire_バケット容量()
+    {
+        // 準備
+        TokenBucket target = new TokenBucket(1000, 10, 0L);
+
+        // 実施・検証
+        assertThat(target.acquire(100, 0L), is(10L));
+        assertThat(target.acquire(100, 0L), is(0L));
+    }
+
+    /**
+     * 時間が経過した場合、経過時間とレートに応じたトークンが補充されることを確認する。
+     *
+     * @target {@link TokenBucket#acquire(long, long)}
+     * @test 経過時間とレートに応じたトークンが補充されること
+     *    condition:: トークンを使い切った後、1ミリ秒ずつ経過させて取得
+     *    result:: 1ミリ秒あたりレート/1000のトークンが補充されることを確認
+     */
+    @Test
+    public void testAcquire_補充()
+    {
+        // 準備
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+        TokenBucket target = new TokenBucket(500, 10, 0L);
+        target.acquire(10, 0L);
+
+        // 実施・検証
+        assertThat(target.acquire(100, millis), is(0L));
+        assertThat(target.acquire(100, millis * 2), is(1L));
+        assertThat(target.acquire(100, millis * 10), is(4L));
+    }
+
+    /**
+     * 長時間経過した場合、バケット容量を超えてトークンが蓄積されないことを確認する。
+     *
+     * @target {@link TokenBucket#acquire(long, long)}
+     * @test バケット容量を超えてトークンが蓄積されないこと
+     *    condition:: トークンを使い切った後、10秒経過させて取得
+     *    result:: バケット容量分のみ取得できることを確認
+     */
+    @Test
+    public void testAcquire_バースト上限()
+    {
+        // 準備
+        TokenBucket target = new TokenBucket(1000, 50, 0L);
+        target.acquire(50, 0L);
+
+        // 実施・検証
+        assertThat(target.acquire(1000000, TimeUnit.SECONDS.toNanos(10)), is(50L));
+    }
+
+    /**
+     * レートに0を指定した場合、例外が発生することを確認する。
+     *
+     * @target {@link TokenBucket#TokenBucket(double, long, long)}
+     * @test IllegalArgumentExceptionが発生すること
+     *    condition:: レートに0を指定
+     *    result:: IllegalArgumentExceptionが発生することを確認
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_不正なレート()
+    {
+        // 実施
+        new TokenBucket(0, 10, 0L);
+    }
+}
@@ -0,0 +1,84 @@
+package acromusashi.stream.example.generator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * ZipfKeySamplerのテストクラス
+ *
+ * @author kimura
+ */
+public class ZipfKeySamplerTest
+{
+    /**
+     * 指数1で抽出した場合、抽出回数がキーのインデックスの逆数に比例することを確認する。
+     *
+     * @target {@link ZipfKeySampler#next(Random)}
+     * @test 抽出結果がキー数の範囲内であり、インデックス0のキーの抽出回数がインデックス1のキーの約2倍、インデックス3のキーの約4倍となること
+     *    condition:: キー数100、指数1で10万回抽出
+     *    result:: 抽出結果がキー数の範囲内であり、抽出回数がインデックスの逆数に比例することを確認
+     */
+    @Test
+    public void testNext_指数1()
+    {
+        // 準備
+        ZipfKeySampler target = new ZipfKeySampler(100, 1.0d);
+        Random random = new Random(0L);
+        int[] counts = new int[100];
+
+        // 実施
+        for (int count = 0; count < 100000; count++)
+        {
+            counts[target.next(random)]++;
+        }
+
+        // 検証
+        double ratio1 = (double) counts[0] / counts[1];
+        double ratio3 = (double) counts[0] / counts[3];
+        assertThat(ratio1 > 1.8d && ratio1 < 2.2d, is(true));
+        assertThat(ratio3 > 3.6d && ratio3 < 4.4d, is(true));
+        assertThat(target.getKeyCount(), is(100));
+    }
+
+    /**
+     * 同一のシードで抽出した場合、同一の抽出結果となることを確認する。
+     *
+     * @target {@link ZipfKeySampler#next(Random)}
+     * @test 同一の抽出結果となること
+     *    condition:: 同一のシードの乱数で1000回ずつ抽出
+     *    result:: 同一の抽出結果となることを確認
+     */
+    @Test
+    public void testNext_シード再現()
+    {
+        // 準備
+        ZipfKeySampler target = new ZipfKeySampler(1000, 1.2d);
+        Random first = new Random(42L);
+        Random second = new Random(42L);
+
+        // 実施・検証
+        for (int count = 0; count < 1000; count++)
+        {
+            assertThat(target.next(first), is(target.next(second)));
+        }
+    }
+
+    /**
+     * 負の指数を指定した場合、例外が発生することを確認する。
+     *
+     * @target {@link ZipfKeySampler#ZipfKeySampler(int, double)}
+     * @test IllegalArgumentExceptionが発生すること
+     *    condition:: 負の指数を指定
+     *    result:: IllegalArgumentExceptionが発生することを確認
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_負の指数()
+    {
+        // 実施
+        new ZipfKeySampler(100, -1.0d);
+    }
+}
@@ -0,0 +1,220 @@
+package acromusashi.stream.example.grouping;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import backtype.storm.generated.GlobalStreamId;
+import backtype.storm.task.WorkerTopologyContext;
+import backtype.storm.tuple.Fields;
+
+/**
+ * PartialKeyGroupingのテストクラス
+ *
+ * @author kimura
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PartialKeyGroupingTest
+{
+    /** 送信先タスクID */
+    private static final List<Integer> TARGET_TASKS = Arrays.asList(11, 12, 13, 14, 15, 16, 17, 18);
+
+    /** テスト用のWorkerTopologyContext */
+    @Mock
+    private WorkerTopologyContext      mockContext;
+
+    /** テスト用のストリームID */
+    private GlobalStreamId             stream;
+
+    /**
+     * 初期化メソッド
+     */
+    @Before
+    public void setUp()
+    {
+        this.stream = new GlobalStreamId("SplitSentence", "default");
+        Mockito.doReturn(new Fields("word", "count")).when(this.mockContext).getComponentOutputFields(
+                this.stream);
+    }
+
+    /**
+     * 同一キーのTupleを繰り返し受信した場合、送信先が2タスク以内に限られることを確認する。
+     *
+     * @target {@link PartialKeyGrouping#chooseTasks(int, List)}
+     * @test 各キーの送信先が2タスク以内で、送信先リストに1タスクのみ含まれること
+     *    condition:: 8タスクに対して100種類のキーをそれぞれ50回受信
+     *    result:: 各キーの送信先が2タスク以内で、送信先リストに1タスクのみ含まれることを確認
+     */
+    @Test
+    public void testChooseTasks_候補タスク()
+    {
+        // 準備
+        PartialKeyGrouping target = createGrouping(TARGET_TASKS);
+        Map<String, Set<Integer>> keyTasks = new HashMap<String, Set<Integer>>();
+
+        // 実施
+        for (int count = 0; count < 50; count++)
+        {
+            for (int index = 0; index < 100; index++)
+            {
+                String key = "key" + index;
+                List<Integer> result = target.chooseTasks(1, createValues(key));
+
+                // 検証
+                assertThat(result.size(), is(1));
+                assertThat(TARGET_TASKS.contains(result.get(0)), is(true));
+                if (keyTasks.containsKey(key) == false)
+                {
+                    keyTasks.put(key, new HashSet<Integer>());
+                }
+                keyTasks.get(key).add(result.get(0));
+            }
+        }
+
+        // 検証
+        for (Set<Integer> tasks : keyTasks.values())
+        {
+            assertThat(tasks.size() <= 2, is(true));
+        }
+    }
+
+    /**
+     * 出現頻度に偏りのあるキーを受信した場合、高頻度キーが2タスクに均等に分散されることを確認する。
+     *
+     * @target {@link PartialKeyGrouping#chooseTasks(int, List)}
+     * @test 高頻度キーが2タスクに均等に分散され、最大負荷のタスクの送信件数が全体の40%未満となること
+     *    condition:: 8タスクに対して全体の半数を1キーが占めるキー列を受信
+     *    result:: 高頻度キーが2タスクに均等に分散され、最大負荷のタスクの送信件数が全体の40%未満となることを確認
+     */
+    @Test
+    public void testChooseTasks_負荷分散()
+    {
+        // 準備
+        String hotKey = findSplitKey();
+        PartialKeyGrouping target = createGrouping(TARGET_TASKS);
+        Map<Integer, Integer> hotCounts = new HashMap<Integer, Integer>();
+        Map<Integer, Integer> totalCounts = new HashMap<Integer, Integer>();
+        int totalNum = 20000;
+
+        // 実施
+        for (int index = 0; index < totalNum; index++)
+        {
+            String key = hotKey;
+            if (index % 2 == 1)
+            {
+                key = "key" + (index % 1000);
+            }
+
+            Integer task = target.chooseTasks(1, createValues(key)).get(0);
+            increment(totalCounts, task);
+            if (key.equals(hotKey) == true)
+            {
+                increment(hotCounts, task);
+            }
+        }
+
+        // 検証
+        assertThat(hotCounts.size(), is(2));
+        List<Integer> hotValues = new ArrayList<Integer>(hotCounts.values());
+        assertThat(Math.abs(hotValues.get(0) - hotValues.get(1)) < totalNum / 20, is(true));
+        assertThat(Collections.max(totalCounts.values()) < totalNum * 4 / 10, is(true));
+    }
+
+    /**
+     * 送信先が1タスクの場合、全てのTupleが同一タスクに送信されることを確認する。
+     *
+     * @target {@link PartialKeyGrouping#chooseTasks(int, List)}
+     * @test 全てのTupleが同一タスクに送信されること
+     *    condition:: 1タスクに対して複数種類のキーを受信
+     *    result:: 全てのTupleが同一タスクに送信されることを確認
+     */
+    @Test
+    public void testChooseTasks_単一タスク()
+    {
+        // 準備
+        PartialKeyGrouping target = createGrouping(Arrays.asList(5));
+
+        // 実施・検証
+        for (int index = 0; index < 100; index++)
+        {
+            assertThat(target.chooseTasks(1, createValues("key" + (index % 10))),
+                    is(Arrays.asList(5)));
+        }
+    }
+
+    /**
+     * 2つの候補タスクが異なるキーを取得する。
+     *
+     * @return 2つの候補タスクが異なるキー
+     */
+    private String findSplitKey()
+    {
+        for (int index = 0;; index++)
+        {
+            String key = "hot" + index;
+            PartialKeyGrouping probe = createGrouping(TARGET_TASKS);
+            List<Integer> first = probe.chooseTasks(1, createValues(key));
+            List<Integer> second = probe.chooseTasks(1, createValues(key));
+            if (first.equals(second) == false)
+            {
+                return key;
+            }
+        }
+    }
+
+    /**
+     * 送信先タスクを指定して初期化したGroupingを生成する。
+     *
+     * @param targetTasks 送信先タスクID
+     * @return 初期化したGrouping
+     */
+    private PartialKeyGrouping createGrouping(List<Integer> targetTasks)
+    {
+        PartialKeyGrouping grouping = new PartialKeyGrouping("word");
+        grouping.prepare(this.mockContext, this.stream, targetTasks);
+        return grouping;
+    }
+
+    /**
+     * キーを設定したTupleの値リストを生成する。
+     *
+     * @param key キー
+     * @return 値リスト
+     */
+    private static List<Object> createValues(String key)
+    {
+        return Arrays.asList((Object) key, 1L);
+    }
+
+    /**
+     * タスクごとの件数を加算する。
+     *
+     * @param counts タスクごとの件数
+     * @param task タスクID
+     */
+    private static void increment(Map<Integer, Integer> counts, Integer task)
+    {
+        Integer current = counts.get(task);
+        if (current == null)
+        {
+            current = 0;
+        }
+
+        counts.put(task, current + 1);
+    }
+}
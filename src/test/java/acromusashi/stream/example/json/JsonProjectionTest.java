@@ -0,0 +1,131 @@
+package acromusashi.stream.example.json;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JsonProjectionのテストクラス
+ *
+ * @author kimura
+ */
+public class JsonProjectionTest
+{
+    /** JsonParser生成用のマッパー */
+    private ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * 入れ子要素、配列要素を含む複数の抽出定義を指定した場合、全ての抽出対象が抽出されることを確認する。
+     *
+     * @target {@link JsonProjection#project(JsonParser)}
+     * @test 全ての抽出対象が抽出されること
+     *    condition:: 入れ子要素、配列要素、オブジェクト、存在しない要素を含む抽出定義を指定
+     *    result:: 全ての抽出対象が抽出され、存在しない要素はnullとなることを確認
+     */
+    @Test
+    public void testProject_複数抽出() throws IOException
+    {
+        // 準備
+        JsonProjection target = new JsonProjection(Arrays.asList("text=/contents", "user=/user/name",
+                "/tags/1", "/user", "count=/count", "none=/user/none", "empty=/empty"));
+        String json = "{\"skip\":{\"contents\":\"x\"},\"user\":{\"name\":\"taro\",\"id\":1},"
+                + "\"tags\":[\"a\",\"b\",\"c\"],\"contents\":\"Test Message\",\"count\":10,"
+                + "\"empty\":null}";
+
+        // 実施
+        String[] result = project(target, json);
+
+        // 検証
+        assertThat(Arrays.asList(target.getNames()).toString(),
+                is("[text, user, /tags/1, /user, count, none, empty]"));
+        assertThat(result[0], is("Test Message"));
+        assertThat(result[1], is("taro"));
+        assertThat(result[2], is("b"));
+        assertThat(result[3], is("{\"name\":\"taro\",\"id\":1}"));
+        assertThat(result[4], is("10"));
+        assertThat(result[5], nullValue());
+        assertThat(result[6], nullValue());
+    }
+
+    /**
+     * 全ての抽出対象を読み込んだ場合、それより後ろの部分を読み込まずに終了することを確認する。
+     *
+     * @target {@link JsonProjection#project(JsonParser)}
+     * @test 後ろの部分の形式が不正でも抽出結果が返ること
+     *    condition:: 抽出対象より後ろの部分の形式が不正なJSONを抽出
+     *    result:: 後ろの部分の形式が不正でも抽出結果が返ることを確認
+     */
+    @Test
+    public void testProject_抽出完了後終了() throws IOException
+    {
+        // 準備
+        JsonProjection target = new JsonProjection(Arrays.asList("a=/a", "b=/b/0"));
+
+        // 実施
+        String[] result = project(target, "{\"a\":\"1\",\"b\":[2,3],\"c\":");
+
+        // 検証
+        assertThat(result[0], is("1"));
+        assertThat(result[1], is("2"));
+    }
+
+    /**
+     * エスケープを含むJSON Pointerを変換した場合、参照トークンに変換されることを確認する。
+     *
+     * @target {@link JsonProjection#parsePointer(String)}
+     * @test エスケープが展開された参照トークンに変換されること
+     *    condition:: 「~0」「~1」を含むJSON Pointerを変換
+     *    result:: エスケープが展開された参照トークンに変換されることを確認
+     */
+    @Test
+    public void testParsePointer_エスケープ()
+    {
+        // 実施・検証
+        assertThat(JsonProjection.parsePointer("/a~1b/c~0d//0").toString(), is("[a/b, c~d, , 0]"));
+        assertThat(JsonProjection.parsePointer("").isEmpty(), is(true));
+    }
+
+    /**
+     * 「/」から始まらないJSON Pointerを指定した場合、例外が発生することを確認する。
+     *
+     * @target {@link JsonProjection#JsonProjection(java.util.List)}
+     * @test IllegalArgumentExceptionが発生すること
+     *    condition:: 「/」から始まらないJSON Pointerを指定
+     *    result:: IllegalArgumentExceptionが発生することを確認
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testJsonProjection_形式不正()
+    {
+        // 実施
+        new JsonProjection(Arrays.asList("name=contents"));
+    }
+
+    /**
+     * JSON文字列から抽出を行う。
+     *
+     * @param target テスト対象
+     * @param json JSON文字列
+     * @return 抽出結果
+     * @throws IOException JSONの形式が不正な場合
+     */
+    private String[] project(JsonProjection target, String json) throws IOException
+    {
+        JsonParser parser = this.mapper.getFactory().createParser(json);
+        try
+        {
+            return target.project(parser);
+        }
+        finally
+        {
+            parser.close();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package acromusashi.stream.example.spout;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import acromusashi.stream.example.capture.CaptureFileWriter;
+import backtype.storm.spout.SpoutOutputCollector;
+import backtype.storm.task.TopologyContext;
+
+/**
+ * CaptureReplaySpoutのテストクラス
+ *
+ * @author kimura
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CaptureReplaySpoutTest
+{
+    /** テスト用の一時ディレクトリ */
+    @Rule
+    public TemporaryFolder       folder = new TemporaryFolder();
+
+    /** テスト用のSpoutOutputCollector */
+    @Mock
+    private SpoutOutputCollector mockCollector;
+
+    /** テスト用のStormConfigMap */
+    @SuppressWarnings("rawtypes")
+    @Mock
+    private Map                  mockConfMap;
+
+    /** テスト用のTopologyContext */
+    @Mock
+    private TopologyContext      mockContext;
+
+    /**
+     * 初期化メソッド
+     */
+    @Before
+    public void setUp()
+    {
+        Mockito.doReturn(0).when(this.mockContext).getThisTaskIndex();
+        Mockito.doReturn("CaptureReplaySpout").when(this.mockContext).getThisComponentId();
+        Mockito.doReturn(Arrays.asList(1)).when(this.mockContext).getComponentTasks(
+                "CaptureReplaySpout");
+    }
+
+    /**
+     * 最大速度で再生した場合、全記録ファイルのレコードがファイル名順、記録順に送信されることを確認する。
+     *
+     * @target {@link CaptureReplaySpout#nextTuple()}
+     * @test 全記録ファイルのレコードがファイル名順、記録順に送信され、再生終了後は送信されないこと
+     *    condition:: 2つの記録ファイルを最大速度で再生
+     *    result:: 全記録ファイルのレコードがファイル名順、記録順に送信され、再生終了後は送信されないことを確認
+     */
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testNextTuple_最大速度() throws Exception
+    {
+        // 準備
+        writeRecords("b" + CaptureFileWriter.FILE_SUFFIX, 3, 0L, 1000L);
+        writeRecords("a" + CaptureFileWriter.FILE_SUFFIX, 2, 0L, 1000L);
+        CaptureReplaySpout target = new CaptureReplaySpout(this.folder.getRoot().getPath());
+        target.setSpeed(0.0d);
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        target.nextTuple();
+        target.nextTuple();
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector, Mockito.times(5)).emit(argument.capture());
+        List<List> values = argument.getAllValues();
+        assertThat(values.get(0).get(0), is((Object) "a-0"));
+        assertThat(values.get(1).get(0), is((Object) "a-1"));
+        assertThat(values.get(2).get(0), is((Object) "b-0"));
+        assertThat(values.get(4).get(0), is((Object) "b-2"));
+    }
+
+    /**
+     * 再生速度1.0で再生した場合、受信時刻の間隔に達していないレコードは送信されないことを確認する。
+     *
+     * @target {@link CaptureReplaySpout#nextTuple()}
+     * @test 先頭レコードのみ送信されること
+     *    condition:: 受信時刻の間隔が1分のレコードを再生速度1.0で再生
+     *    result:: 先頭レコードのみ送信されることを確認
+     */
+    @Test
+    public void testNextTuple_等速再生() throws Exception
+    {
+        // 準備
+        writeRecords("a" + CaptureFileWriter.FILE_SUFFIX, 3, 0L, 60000L);
+        CaptureReplaySpout target = new CaptureReplaySpout(this.folder.getRoot().getPath());
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        target.nextTuple();
+        target.nextTuple();
+
+        // 検証
+        Mockito.verify(this.mockCollector).emit(Arrays.asList((Object) "a-0"));
+        Mockito.verifyNoMoreInteractions(this.mockCollector);
+    }
+
+    /**
+     * 再生を中断して再度再生した場合、保存した送信位置から再生が再開されることを確認する。
+     *
+     * @target {@link CaptureReplaySpout#open(Map, TopologyContext, SpoutOutputCollector)}
+     * @test 中断時に送信時刻を待っていたレコードから再生が再開されること
+     *    condition:: 受信時刻の間隔が1分のレコードを再生速度1.0で1件送信した時点で中断し、最大速度で再度再生
+     *    result:: 2件目のレコードから再生が再開されることを確認
+     */
+    @Test
+    public void testOpen_再生再開() throws Exception
+    {
+        // 準備
+        writeRecords("a" + CaptureFileWriter.FILE_SUFFIX, 5, 0L, 60000L);
+        CaptureReplaySpout first = new CaptureReplaySpout(this.folder.getRoot().getPath());
+        first.open(this.mockConfMap, this.mockContext, this.mockCollector);
+        first.nextTuple();
+        first.close();
+        Mockito.verify(this.mockCollector).emit(Arrays.asList((Object) "a-0"));
+
+        SpoutOutputCollector otherCollector = Mockito.mock(SpoutOutputCollector.class);
+        CaptureReplaySpout target = new CaptureReplaySpout(this.folder.getRoot().getPath());
+        target.setSpeed(0.0d);
+
+        // 実施
+        target.open(this.mockConfMap, this.mockContext, otherCollector);
+        target.nextTuple();
+
+        // 検証
+        Mockito.verify(otherCollector, Mockito.times(4)).emit(Mockito.anyList());
+        Mockito.verify(otherCollector).emit(Arrays.asList((Object) "a-1"));
+        Mockito.verify(otherCollector).emit(Arrays.asList((Object) "a-4"));
+    }
+
+    /**
+     * 再開を無効にして再生した場合、保存した送信位置に関わらず先頭から再生されることを確認する。
+     *
+     * @target {@link CaptureReplaySpout#open(Map, TopologyContext, SpoutOutputCollector)}
+     * @test 先頭のレコードから再生されること
+     *    condition:: 全レコードを送信した後、再開を無効にして再度再生
+     *    result:: 先頭のレコードから再生されることを確認
+     */
+    @Test
+    public void testOpen_再開無効() throws Exception
+    {
+        // 準備
+        writeRecords("a" + CaptureFileWriter.FILE_SUFFIX, 3, 0L, 0L);
+        CaptureReplaySpout first = new CaptureReplaySpout(this.folder.getRoot().getPath());
+        first.setSpeed(0.0d);
+        first.open(this.mockConfMap, this.mockContext, this.mockCollector);
+        first.nextTuple();
+        first.close();
+
+        SpoutOutputCollector otherCollector = Mockito.mock(SpoutOutputCollector.class);
+        CaptureReplaySpout target = new CaptureReplaySpout(this.folder.getRoot().getPath());
+        target.setSpeed(0.0d);
+        target.setResume(false);
+
+        // 実施
+        target.open(this.mockConfMap, this.mockContext, otherCollector);
+        target.nextTuple();
+
+        // 検証
+        Mockito.verify(otherCollector, Mockito.times(3)).emit(Mockito.anyList());
+        Mockito.verify(otherCollector).emit(Arrays.asList((Object) "a-0"));
+    }
+
+    /**
+     * 繰り返しを有効にした場合、2周目以降も全記録ファイルが先頭から再生されることを確認する。
+     *
+     * @target {@link CaptureReplaySpout#nextTuple()}
+     * @test 2周目以降も全記録ファイルのレコードがファイル名順、記録順に送信されること
+     *    condition:: 2つの記録ファイルを繰り返し、再開を有効にして最大速度で3周分再生
+     *    result:: 2周目以降も全記録ファイルのレコードがファイル名順、記録順に送信されることを確認
+     */
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testNextTuple_繰り返し() throws Exception
+    {
+        // 準備
+        writeRecords("a" + CaptureFileWriter.FILE_SUFFIX, 2, 0L, 1000L);
+        writeRecords("b" + CaptureFileWriter.FILE_SUFFIX, 3, 0L, 1000L);
+        CaptureReplaySpout target = new CaptureReplaySpout(this.folder.getRoot().getPath());
+        target.setSpeed(0.0d);
+        target.setLoop(true);
+        target.setResume(true);
+        target.setMaxBatch(15);
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        target.nextTuple();
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector, Mockito.times(15)).emit(argument.capture());
+        List<Object> expected = Arrays.asList((Object) "a-0", "a-1", "b-0", "b-1", "b-2");
+        List<List> values = argument.getAllValues();
+        for (int index = 0; index < values.size(); index++)
+        {
+            assertThat(values.get(index).get(0), is(expected.get(index % expected.size())));
+        }
+    }
+
+    /**
+     * 繰り返しを有効にし、記録ファイルにレコードが無い場合、待ち続けずに再生を終了することを確認する。
+     *
+     * @target {@link CaptureReplaySpout#nextTuple()}
+     * @test nextTupleが終了し、レコードが送信されないこと
+     *    condition:: レコードの無い記録ファイルを繰り返しを有効にして最大速度で再生
+     *    result:: nextTupleが終了し、レコードが送信されないことを確認
+     */
+    @Test(timeout = 3000)
+    public void testNextTuple_繰り返しレコードなし() throws Exception
+    {
+        // 準備
+        writeRecords("a" + CaptureFileWriter.FILE_SUFFIX, 0, 0L, 0L);
+        CaptureReplaySpout target = new CaptureReplaySpout(this.folder.getRoot().getPath());
+        target.setSpeed(0.0d);
+        target.setLoop(true);
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        target.nextTuple();
+        target.nextTuple();
+
+        // 検証
+        assertThat(target.finished, is(true));
+        Mockito.verify(this.mockCollector, Mockito.never()).emit(Mockito.anyList());
+    }
+
+    /**
+     * 複数タスクで再生する場合、記録ファイルがタスクインデックスに従って割り当てられることを確認する。
+     *
+     * @target {@link CaptureReplaySpout#assignFiles(int, int)}
+     * @test 記録ファイルのインデックス % タスク数 == タスクインデックスの記録ファイルが割り当てられること
+     *    condition:: 3つの記録ファイル、1つの記録ファイル以外のファイルを、タスク数2、タスクインデックス1で割り当て
+     *    result:: 2番目の記録ファイルのみ割り当てられることを確認
+     */
+    @Test
+    public void testAssignFiles_タスク分散() throws Exception
+    {
+        // 準備
+        writeRecords("a" + CaptureFileWriter.FILE_SUFFIX, 1, 0L, 0L);
+        writeRecords("b" + CaptureFileWriter.FILE_SUFFIX, 1, 0L, 0L);
+        writeRecords("c" + CaptureFileWriter.FILE_SUFFIX, 1, 0L, 0L);
+        this.folder.newFile("b" + CaptureFileWriter.FILE_SUFFIX + CaptureReplaySpout.OFFSET_SUFFIX);
+        CaptureReplaySpout target = new CaptureReplaySpout(this.folder.getRoot().getPath());
+
+        // 実施
+        List<File> result = target.assignFiles(1, 2);
+
+        // 検証
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getName(), is("b" + CaptureFileWriter.FILE_SUFFIX));
+    }
+
+    /**
+     * 一時ディレクトリに記録ファイルを作成する。
+     *
+     * @param fileName ファイル名
+     * @param recordNum レコード数
+     * @param baseTimestamp 先頭レコードの受信時刻
+     * @param interval レコードの受信時刻の間隔
+     * @throws Exception 記録に失敗した場合
+     */
+    private void writeRecords(String fileName, int recordNum, long baseTimestamp, long interval)
+            throws Exception
+    {
+        File file = new File(this.folder.getRoot(), fileName);
+        String prefix = fileName.substring(0, fileName.indexOf('.'));
+        CaptureFileWriter writer = new CaptureFileWriter(file, 1024);
+        for (int index = 0; index < recordNum; index++)
+        {
+            writer.write(baseTimestamp + interval * index, (prefix + "-" + index).getBytes("UTF-8"));
+        }
+        writer.close();
+    }
+}
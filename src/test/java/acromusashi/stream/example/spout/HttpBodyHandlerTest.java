@@ -0,0 +1,151 @@
+package acromusashi.stream.example.spout;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+/**
+ * HttpBodyHandlerのテストクラス
+ *
+ * @author kimura
+ */
+public class HttpBodyHandlerTest
+{
+    /**
+     * 条件付きGETを有効にした場合、受信したETag、Last-Modifiedが次回のリクエストに設定され、304受信時にnullが返ることを確認する。
+     *
+     * @target {@link HttpBodyHandler#handleResponse(HttpResponse)}
+     * @test ETag、Last-Modifiedが次回のリクエストに設定され、304受信時にnullが返ること
+     *    condition:: 条件付きGETを有効にし、200、304の順に受信
+     *    result:: ETag、Last-Modifiedが次回のリクエストに設定され、304受信時にnullが返ることを確認
+     */
+    @Test
+    public void testHandleResponse_条件付きGET() throws IOException
+    {
+        // 準備
+        HttpBodyHandler target = new HttpBodyHandler(false, true, false);
+        HttpResponse okResponse = createResponse(200, "{\"contents\":\"Test\"}");
+        okResponse.setHeader("ETag", "\"v1\"");
+        okResponse.setHeader("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+        HttpGet request = new HttpGet("http://localhost:8080/message");
+
+        // 実施
+        target.prepareRequest(request);
+        Object first = target.handleResponse(okResponse);
+        HttpGet nextRequest = new HttpGet("http://localhost:8080/message");
+        target.prepareRequest(nextRequest);
+        Object second = target.handleResponse(createResponse(304, null));
+
+        // 検証
+        assertThat(request.getFirstHeader("If-None-Match"), nullValue());
+        assertThat(first.toString(), is("{\"contents\":\"Test\"}"));
+        assertThat(nextRequest.getFirstHeader("If-None-Match").getValue(), is("\"v1\""));
+        assertThat(nextRequest.getFirstHeader("If-Modified-Since").getValue(),
+                is("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertThat(second, nullValue());
+    }
+
+    /**
+     * 条件付きGETを有効にした場合、ETag、Last-Modifiedを返さないレスポンスの受信後は同一リクエストから条件ヘッダが削除されることを確認する。
+     *
+     * @target {@link HttpBodyHandler#prepareRequest(org.apache.http.client.methods.HttpRequestBase)}
+     * @test ETag、Last-Modifiedを返さないレスポンスの受信後は同一リクエストにIf-None-Match、If-Modified-Sinceが設定されないこと
+     *    condition:: 条件付きGETを有効にし、同一リクエストでETag、Last-Modifiedありの200、なしの200の順に受信
+     *    result:: ETag、Last-Modifiedを返さないレスポンスの受信後は同一リクエストにIf-None-Match、If-Modified-Sinceが設定されないことを確認
+     */
+    @Test
+    public void testPrepareRequest_条件ヘッダ削除() throws IOException
+    {
+        // 準備
+        HttpBodyHandler target = new HttpBodyHandler(false, true, false);
+        HttpResponse validatedResponse = createResponse(200, "A");
+        validatedResponse.setHeader("ETag", "\"v1\"");
+        validatedResponse.setHeader("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+        HttpGet request = new HttpGet("http://localhost:8080/message");
+        target.prepareRequest(request);
+        target.handleResponse(validatedResponse);
+        target.prepareRequest(request);
+        assertThat(request.getFirstHeader("If-None-Match").getValue(), is("\"v1\""));
+
+        // 実施
+        target.handleResponse(createResponse(200, "B"));
+        target.prepareRequest(request);
+
+        // 検証
+        assertThat(request.getFirstHeader("If-None-Match"), nullValue());
+        assertThat(request.getFirstHeader("If-Modified-Since"), nullValue());
+    }
+
+    /**
+     * 重複除外を有効にした場合、前回と同一のレスポンスボディを受信した場合のみnullが返ることを確認する。
+     *
+     * @target {@link HttpBodyHandler#handleResponse(HttpResponse)}
+     * @test 前回と同一のレスポンスボディを受信した場合のみnullが返ること
+     *    condition:: 重複除外を有効にし、A、A、B、Aの順に受信
+     *    result:: 2回目のAのみnullが返ることを確認
+     */
+    @Test
+    public void testHandleResponse_重複除外() throws IOException
+    {
+        // 準備
+        HttpBodyHandler target = new HttpBodyHandler(true, false, true);
+
+        // 実施
+        Object first = target.handleResponse(createResponse(200, "A"));
+        Object second = target.handleResponse(createResponse(200, "A"));
+        Object third = target.handleResponse(createResponse(200, "B"));
+        Object fourth = target.handleResponse(createResponse(200, "A"));
+
+        // 検証
+        assertThat(new String((byte[]) first, "UTF-8"), is("A"));
+        assertThat(second, nullValue());
+        assertThat(new String((byte[]) third, "UTF-8"), is("B"));
+        assertThat(new String((byte[]) fourth, "UTF-8"), is("A"));
+    }
+
+    /**
+     * 条件付きGETを無効にした状態で304を受信した場合、HttpResponseExceptionが発生することを確認する。
+     *
+     * @target {@link HttpBodyHandler#handleResponse(HttpResponse)}
+     * @test HttpResponseExceptionが発生すること
+     *    condition:: 条件付きGETを無効にし、304を受信
+     *    result:: HttpResponseExceptionが発生することを確認
+     */
+    @Test(expected = HttpResponseException.class)
+    public void testHandleResponse_条件付きGET無効() throws IOException
+    {
+        // 準備
+        HttpBodyHandler target = new HttpBodyHandler(false, false, false);
+
+        // 実施
+        target.handleResponse(createResponse(304, null));
+    }
+
+    /**
+     * テスト用のレスポンスを生成する。
+     *
+     * @param statusCode ステータスコード
+     * @param body レスポンスボディ。nullの場合はボディなし
+     * @return レスポンス
+     */
+    private HttpResponse createResponse(int statusCode, String body)
+    {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, "status");
+        if (body != null)
+        {
+            response.setEntity(new StringEntity(body, "UTF-8"));
+        }
+
+        return response;
+    }
+}
@@ -9,18 +9,28 @@ import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.never;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import acromusashi.stream.entity.Header;
@@ -64,9 +74,9 @@ public class HttpGetSpoutTest
     {
         String url = "http://localhost:8080/message";
         this.target = new HttpGetSpout(url);
+        this.target.client = this.httpClient;
         // 初期化処理実施
         this.target.open(this.mockConfMap, this.mockContext, this.mockCollector);
-        this.target.client = this.httpClient;
     }
 
     /**
@@ -131,4 +141,302 @@ public class HttpGetSpoutTest
         // 検証
         Mockito.verify(this.mockCollector, never()).emit((List<Object>) anyObject());
     }
+
+    /**
+     * バイト列送信を有効にした場合、レスポンスボディが文字列に変換されずにbyte[]のまま送信されることを確認する。
+     *
+     * @target {@link HttpGetSpout#nextTuple()}
+     * @test レスポンスボディのバイト列がそのまま下流コンポーネントに送信されること
+     *    condition:: バイト列送信を有効にし、HTTPGet成功時
+     *    result:: レスポンスボディのバイト列がそのまま下流コンポーネントに送信されることを確認
+     */
+    @SuppressWarnings({"rawtypes"})
+    @Test
+    public void testNextTuple_バイト列送信() throws Exception
+    {
+        // 準備
+        final byte[] getResult = "{\"contents\":\"テスト\"}".getBytes("UTF-8");
+        Mockito.doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable
+            {
+                HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+                response.setEntity(new ByteArrayEntity(getResult));
+                return ((ResponseHandler) invocation.getArguments()[1]).handleResponse(response);
+            }
+        }).when(this.httpClient).execute((HttpUriRequest) anyObject(), (ResponseHandler) anyObject());
+        this.target = new HttpGetSpout("http://localhost:8080/message");
+        this.target.setRawBody(true);
+        this.target.setInterval(0);
+        this.target.client = this.httpClient;
+        this.target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        this.target.nextTuple();
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector).emit(argument.capture());
+        Object body = ((Message) argument.getValue().get(0)).getBody();
+        assertThat(body, instanceOf(byte[].class));
+        assertThat(Arrays.equals((byte[]) body, getResult), is(true));
+    }
+
+    /**
+     * 先読み件数を設定した場合、バックグラウンドスレッドで取得したメッセージがnextTupleで送信されることを確認する。
+     *
+     * @target {@link HttpGetSpout#nextTuple()}
+     * @test バックグラウンドスレッドで取得したメッセージが下流コンポーネントに送信されること
+     *    condition:: 先読み件数を設定し、HTTPGet成功時
+     *    result:: バックグラウンドスレッドで取得したメッセージが下流コンポーネントに送信されることを確認
+     */
+    @SuppressWarnings({"rawtypes"})
+    @Test
+    public void testNextTuple_先読み() throws Exception
+    {
+        // 準備
+        String getResult = "{\"contents\":\"Test Message\"}";
+        Mockito.doReturn(getResult).when(this.httpClient).execute((HttpUriRequest) anyObject(),
+                (ResponseHandler) anyObject());
+        this.target = new HttpGetSpout("http://localhost:8080/message");
+        this.target.setPrefetchSize(2);
+        this.target.setInterval(10);
+        this.target.client = this.httpClient;
+        this.target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        try
+        {
+            // 実施
+            long limit = System.currentTimeMillis() + 5000;
+            while (this.target.prefetchQueue.isEmpty() == true
+                    && System.currentTimeMillis() < limit)
+            {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+
+            this.target.nextTuple();
+
+            // 検証
+            ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+            Mockito.verify(this.mockCollector).emit(argument.capture());
+            Message emitResult = (Message) argument.getValue().get(0);
+            assertThat(emitResult.getBody().toString(), is(getResult));
+            assertThat(this.target.prefetchQueue.size() <= 2, is(true));
+        }
+        finally
+        {
+            this.target.close();
+        }
+    }
+
+    /**
+     * レコード形式を設定した場合、レスポンスのレコードごとにメッセージが送信されることを確認する。
+     *
+     * @target {@link HttpGetSpout#nextTuple()}
+     * @test レスポンスのレコードごとにメッセージが下流コンポーネントに送信されること
+     *    condition:: レコード形式にndjsonを設定し、2レコードのレスポンスを受信
+     *    result:: レスポンスのレコードごとにメッセージが下流コンポーネントに送信されることを確認
+     */
+    @SuppressWarnings({"rawtypes"})
+    @Test
+    public void testNextTuple_レコード分割() throws Exception
+    {
+        // 準備
+        Mockito.doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable
+            {
+                HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+                response.setEntity(new StringEntity("{\"contents\":\"A\"}\n{\"contents\":\"B\"}\n",
+                        "UTF-8"));
+                return ((ResponseHandler) invocation.getArguments()[1]).handleResponse(response);
+            }
+        }).when(this.httpClient).execute((HttpUriRequest) anyObject(), (ResponseHandler) anyObject());
+        this.target = new HttpGetSpout("http://localhost:8080/message");
+        this.target.setRecordFormat("ndjson");
+        this.target.setInterval(0);
+        this.target.client = this.httpClient;
+        this.target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        this.target.nextTuple();
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector, Mockito.times(2)).emit(argument.capture());
+        List<List> emitted = argument.getAllValues();
+        assertThat(((Message) emitted.get(0).get(0)).getBody().toString(), is("{\"contents\":\"A\"}"));
+        assertThat(((Message) emitted.get(1).get(0)).getBody().toString(), is("{\"contents\":\"B\"}"));
+    }
+
+    /**
+     * 信頼性保証モードでfailを受けた場合、HTTPGetを行わずに同一メッセージIDで再送されることを確認する。
+     *
+     * @target {@link HttpGetSpout#fail(Object)}
+     * @test HTTPGetを行わずに同一メッセージIDで同一メッセージが再送されること
+     *    condition:: 信頼性保証モードで送信したメッセージのfailを受信
+     *    result:: HTTPGetを行わずに同一メッセージIDで同一メッセージが再送されることを確認
+     */
+    @SuppressWarnings({"rawtypes"})
+    @Test
+    public void testFail_再送() throws Exception
+    {
+        // 準備
+        Mockito.doReturn("{\"contents\":\"Test Message\"}").when(this.httpClient).execute(
+                (HttpUriRequest) anyObject(), (ResponseHandler) anyObject());
+        this.target = new HttpGetSpout("http://localhost:8080/message");
+        this.target.setReliable(true);
+        this.target.setInterval(0);
+        this.target.client = this.httpClient;
+        this.target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+        this.target.nextTuple();
+        ArgumentCaptor<List> firstValues = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object> firstId = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(this.mockCollector).emit(firstValues.capture(), firstId.capture());
+
+        // 実施
+        this.target.fail(firstId.getValue());
+        this.target.nextTuple();
+
+        // 検証
+        ArgumentCaptor<List> values = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object> messageIds = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(this.mockCollector, Mockito.times(2)).emit(values.capture(), messageIds.capture());
+        Message first = (Message) firstValues.getValue().get(0);
+        assertThat(firstId.getValue(), is((Object) first.getHeader().getMessageId()));
+        assertThat(messageIds.getAllValues().get(1), is(firstId.getValue()));
+        assertThat(values.getAllValues().get(1).get(0), is((Object) first));
+        Mockito.verify(this.httpClient, Mockito.times(1)).execute((HttpUriRequest) anyObject(),
+                (ResponseHandler) anyObject());
+        assertThat(this.target.pendingMessages.size(), is(1));
+    }
+
+    /**
+     * 信頼性保証モードで再送バッファが上限に達した場合、ackを受けるまでHTTPGetを行わないことを確認する。
+     *
+     * @target {@link HttpGetSpout#nextTuple()}
+     * @test ackを受けるまでHTTPGetを行わず、ack受信後にHTTPGetを行うこと
+     *    condition:: 再送バッファ上限を1とし、送信したメッセージのack受信前後にnextTupleを実施
+     *    result:: ackを受けるまでHTTPGetを行わず、ack受信後にHTTPGetを行うことを確認
+     */
+    @SuppressWarnings({"rawtypes"})
+    @Test
+    public void testNextTuple_再送バッファ上限() throws Exception
+    {
+        // 準備
+        Mockito.doReturn("{\"contents\":\"Test Message\"}").when(this.httpClient).execute(
+                (HttpUriRequest) anyObject(), (ResponseHandler) anyObject());
+        this.target = new HttpGetSpout("http://localhost:8080/message");
+        this.target.setReliable(true);
+        this.target.setMaxPending(1);
+        this.target.setInterval(0);
+        this.target.client = this.httpClient;
+        this.target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        this.target.nextTuple();
+        this.target.nextTuple();
+        ArgumentCaptor<Object> messageId = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(this.mockCollector).emit((List) anyObject(), messageId.capture());
+        this.target.ack(messageId.getValue());
+        this.target.nextTuple();
+
+        // 検証
+        Mockito.verify(this.httpClient, Mockito.times(2)).execute((HttpUriRequest) anyObject(),
+                (ResponseHandler) anyObject());
+        Mockito.verify(this.mockCollector, Mockito.times(2)).emit((List) anyObject(), anyObject());
+        assertThat(this.target.pendingMessages.size(), is(1));
+    }
+
+    /**
+     * 信頼性保証モードで再送バッファ上限を超えるレコードを含むレスポンスを受信した場合、全レコードがack/failを受けるまで再送バッファに保持されることを確認する。
+     *
+     * @target {@link HttpGetSpout#nextTuple()}
+     * @test 再送バッファ上限を超えて送信されず、残りのレコードはHTTPGetを行わずに後続のnextTupleで送信され、全レコードがfail時に再送されること
+     *    condition:: 再送バッファ上限を2とし、5レコードのレスポンスを受信。送信したレコードをfail、再送後にack
+     *    result:: 再送バッファ上限を超えて送信されず、残りのレコードはHTTPGetを行わずに後続のnextTupleで送信され、全レコードがfail時に再送されることを確認
+     */
+    @SuppressWarnings({"rawtypes"})
+    @Test
+    public void testNextTuple_再送バッファ上限超過レコード() throws Exception
+    {
+        // 準備
+        Mockito.doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable
+            {
+                StringBuilder builder = new StringBuilder();
+                for (int index = 0; index < 5; index++)
+                {
+                    builder.append("{\"contents\":\"R").append(index).append("\"}\n");
+                }
+
+                HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+                response.setEntity(new StringEntity(builder.toString(), "UTF-8"));
+                return ((ResponseHandler) invocation.getArguments()[1]).handleResponse(response);
+            }
+        }).when(this.httpClient).execute((HttpUriRequest) anyObject(), (ResponseHandler) anyObject());
+        final List<Object[]> emitted = new ArrayList<Object[]>();
+        Mockito.doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation)
+            {
+                List values = (List) invocation.getArguments()[0];
+                emitted.add(new Object[]{values.get(0), invocation.getArguments()[1]});
+                return null;
+            }
+        }).when(this.mockCollector).emit((List) anyObject(), anyObject());
+        this.target = new HttpGetSpout("http://localhost:8080/message");
+        this.target.setReliable(true);
+        this.target.setMaxPending(2);
+        this.target.setRecordFormat("ndjson");
+        this.target.setInterval(0);
+        this.target.client = this.httpClient;
+        this.target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+        List<String> bodies = new ArrayList<String>();
+
+        // 実施・検証
+        for (int round = 0; round < 3; round++)
+        {
+            int emittedNum = emitted.size();
+            this.target.nextTuple();
+            List<Object[]> sent = new ArrayList<Object[]>(emitted.subList(emittedNum,
+                    emitted.size()));
+            assertThat(sent.size(), is(Math.min(2, 5 - bodies.size())));
+            assertThat(this.target.pendingMessages.size(), is(sent.size()));
+
+            // 再送バッファが上限の間は送信されないこと
+            if (sent.size() == 2)
+            {
+                this.target.nextTuple();
+                assertThat(emitted.size(), is(emittedNum + sent.size()));
+            }
+
+            // 送信した全レコードがfail時に同一メッセージIDで再送されること
+            for (Object[] message : sent)
+            {
+                this.target.fail(message[1]);
+            }
+
+            for (Object[] message : sent)
+            {
+                this.target.nextTuple();
+                Object[] replayed = emitted.get(emitted.size() - 1);
+                assertThat(replayed[1], is(message[1]));
+                assertThat(replayed[0], is(message[0]));
+            }
+
+            for (Object[] message : sent)
+            {
+                this.target.ack(message[1]);
+                bodies.add(((Message) message[0]).getBody().toString());
+            }
+        }
+
+        assertThat(bodies, is(Arrays.asList("{\"contents\":\"R0\"}", "{\"contents\":\"R1\"}",
+                "{\"contents\":\"R2\"}", "{\"contents\":\"R3\"}", "{\"contents\":\"R4\"}")));
+        assertThat(this.target.pendingMessages.isEmpty(), is(true));
+        Mockito.verify(this.httpClient, Mockito.times(1)).execute((HttpUriRequest) anyObject(),
+                (ResponseHandler) anyObject());
+    }
 }
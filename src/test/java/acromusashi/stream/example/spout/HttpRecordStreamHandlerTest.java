@@ -0,0 +1,210 @@
+package acromusashi.stream.example.spout;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+/**
+ * HttpRecordStreamHandlerのテストクラス
+ *
+ * @author kimura
+ */
+public class HttpRecordStreamHandlerTest
+{
+    /**
+     * 改行区切りのJSONを受信した場合、空行を除いた1行ごとにレコードが通知されることを確認する。
+     *
+     * @target {@link HttpRecordStreamHandler#handleResponse(HttpResponse)}
+     * @test 空行を除いた1行ごとに改行コードを除いたレコードが通知されること
+     *    condition:: CRLF、空行を含み、末尾が改行で終わらない改行区切りのJSONを受信
+     *    result:: 空行を除いた1行ごとに改行コードを除いたレコードが通知されることを確認
+     */
+    @Test
+    public void testHandleResponse_NDJSON() throws IOException
+    {
+        // 準備
+        RecordCollector collector = new RecordCollector();
+        HttpRecordStreamHandler target = new HttpRecordStreamHandler("ndjson", false, collector);
+        String body = "{\"contents\":\"テスト\"}\r\n\n{\"contents\":\"B\"}\n{\"contents\":\"C\"}";
+
+        // 実施
+        int result = target.handleResponse(createResponse(200, body));
+
+        // 検証
+        assertThat(result, is(3));
+        assertThat(collector.records.size(), is(3));
+        assertThat((String) collector.records.get(0), is("{\"contents\":\"テスト\"}"));
+        assertThat((String) collector.records.get(1), is("{\"contents\":\"B\"}"));
+        assertThat((String) collector.records.get(2), is("{\"contents\":\"C\"}"));
+    }
+
+    /**
+     * JSON配列をバイト列送信で受信した場合、要素ごとにbyte[]のレコードが通知されることを確認する。
+     *
+     * @target {@link HttpRecordStreamHandler#handleResponse(HttpResponse)}
+     * @test 入れ子の要素を含め、要素ごとにbyte[]のレコードが通知されること
+     *    condition:: バイト列送信を有効にし、入れ子のオブジェクトを含むJSON配列を受信
+     *    result:: 入れ子の要素を含め、要素ごとにbyte[]のレコードが通知されることを確認
+     */
+    @Test
+    public void testHandleResponse_JSON配列() throws IOException
+    {
+        // 準備
+        RecordCollector collector = new RecordCollector();
+        HttpRecordStreamHandler target = new HttpRecordStreamHandler("jsonarray", true, collector);
+        String body = "[ {\"contents\":\"A\",\"meta\":{\"tags\":[1,2]}}, {\"contents\":\"B\"} ]";
+
+        // 実施
+        int result = target.handleResponse(createResponse(200, body));
+
+        // 検証
+        assertThat(result, is(2));
+        assertThat(new String((byte[]) collector.records.get(0), "UTF-8"),
+                is("{\"contents\":\"A\",\"meta\":{\"tags\":[1,2]}}"));
+        assertThat(new String((byte[]) collector.records.get(1), "UTF-8"),
+                is("{\"contents\":\"B\"}"));
+    }
+
+    /**
+     * レスポンスの途中で読み込みに失敗した場合、失敗前に読み込んだレコードが通知済みであることを確認する。
+     *
+     * @target {@link HttpRecordStreamHandler#handleResponse(HttpResponse)}
+     * @test 失敗前に読み込んだレコードが通知済みであり、IOExceptionが発生すること
+     *    condition:: 1レコード目の読み込み後にIOExceptionが発生するレスポンスを受信
+     *    result:: 失敗前に読み込んだレコードが通知済みであり、IOExceptionが発生することを確認
+     */
+    @Test
+    public void testHandleResponse_読み込み途中で失敗() throws IOException
+    {
+        // 準備
+        RecordCollector collector = new RecordCollector();
+        HttpRecordStreamHandler target = new HttpRecordStreamHandler("ndjson", false, collector);
+        InputStream input = new SequenceInputStream(new ByteArrayInputStream(
+                "{\"contents\":\"A\"}\n".getBytes("UTF-8")), new InputStream() {
+            @Override
+            public int read() throws IOException
+            {
+                throw new IOException("Connection reset.");
+            }
+        });
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "status");
+        response.setEntity(new InputStreamEntity(input, -1, ContentType.APPLICATION_JSON));
+
+        // 実施
+        try
+        {
+            target.handleResponse(response);
+            fail();
+        }
+        catch (IOException ex)
+        {
+            // 検証
+            assertThat(ex.getMessage(), is("Connection reset."));
+            assertThat(collector.records.size(), is(1));
+            assertThat((String) collector.records.get(0), is("{\"contents\":\"A\"}"));
+        }
+    }
+
+    /**
+     * JSON配列の形式でレスポンスを受信した場合、JsonParseExceptionが発生することを確認する。
+     *
+     * @target {@link HttpRecordStreamHandler#handleResponse(HttpResponse)}
+     * @test JsonParseExceptionが発生すること
+     *    condition:: JSON配列の形式を指定し、JSONオブジェクトを受信
+     *    result:: JsonParseExceptionが発生することを確認
+     */
+    @Test(expected = JsonParseException.class)
+    public void testHandleResponse_JSON配列以外() throws IOException
+    {
+        // 準備
+        HttpRecordStreamHandler target = new HttpRecordStreamHandler("jsonarray", false,
+                new RecordCollector());
+
+        // 実施
+        target.handleResponse(createResponse(200, "{\"contents\":\"A\"}"));
+    }
+
+    /**
+     * エラーステータスを受信した場合、HttpResponseExceptionが発生することを確認する。
+     *
+     * @target {@link HttpRecordStreamHandler#handleResponse(HttpResponse)}
+     * @test HttpResponseExceptionが発生すること
+     *    condition:: 500を受信
+     *    result:: HttpResponseExceptionが発生することを確認
+     */
+    @Test(expected = HttpResponseException.class)
+    public void testHandleResponse_エラーステータス() throws IOException
+    {
+        // 準備
+        HttpRecordStreamHandler target = new HttpRecordStreamHandler("ndjson", false,
+                new RecordCollector());
+
+        // 実施
+        target.handleResponse(createResponse(500, "error"));
+    }
+
+    /**
+     * 不正なレコード形式を指定した場合、IllegalArgumentExceptionが発生することを確認する。
+     *
+     * @target {@link HttpRecordStreamHandler#HttpRecordStreamHandler(String, boolean, HttpRecordStreamHandler.RecordListener)}
+     * @test IllegalArgumentExceptionが発生すること
+     *    condition:: 不正なレコード形式を指定
+     *    result:: IllegalArgumentExceptionが発生することを確認
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_不正なレコード形式()
+    {
+        // 実施
+        new HttpRecordStreamHandler("csv", false, new RecordCollector());
+    }
+
+    /**
+     * テスト用のレスポンスを生成する。
+     *
+     * @param statusCode ステータスコード
+     * @param body レスポンスボディ
+     * @return レスポンス
+     */
+    private HttpResponse createResponse(int statusCode, String body)
+    {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, "status");
+        response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return response;
+    }
+
+    /**
+     * 通知されたレコードを保持するRecordListener
+     */
+    private static class RecordCollector implements HttpRecordStreamHandler.RecordListener
+    {
+        /** 通知されたレコード */
+        List<Object> records = new ArrayList<Object>();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onRecord(Object record)
+        {
+            this.records.add(record);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package acromusashi.stream.example.spout;
+
+import java.nio.charset.StandardCharsets;
+
+import acromusashi.stream.component.rabbitmq.RabbitmqCommunicateException;
+import acromusashi.stream.component.rabbitmq.spout.MessageKeyExtractor;
+
+/**
+ * StreamingJsonExtractorの性能をJsonExtractorと比較するベンチマーク。<br>
+ * ペイロードサイズ(約1KB、16KB、256KB)と"header"の位置(先頭、末尾)を変えて1件あたりの抽出時間を測定する。<br>
+ * 単体テストとしては実行されないため、mainメソッドから実行する。<br>
+ * 引数:arg[0] 1KBペイロードの測定回数(省略時は200000。ペイロードサイズに反比例して減らす)
+ *
+ * @author acromusashi
+ */
+public final class JsonExtractorBenchmark
+{
+    /** 測定回数デフォルト値 */
+    private static final int   DEFAULT_ITERATIONS = 200000;
+
+    /** ペイロードサイズ(KB) */
+    private static final int[] PAYLOAD_KB         = {1, 16, 256};
+
+    /** JITによる処理の除去を防ぐための結果保持 */
+    private static long        sink;
+
+    /**
+     * インスタンス化を防止するためのコンストラクタ
+     */
+    private JsonExtractorBenchmark()
+    {}
+
+    /**
+     * プログラムエントリポイント
+     *
+     * @param args 起動引数
+     * @throws RabbitmqCommunicateException 抽出失敗時
+     */
+    public static void main(String[] args) throws RabbitmqCommunicateException
+    {
+        int baseIterations = DEFAULT_ITERATIONS;
+        if (args.length > 0)
+        {
+            baseIterations = Integer.parseInt(args[0]);
+        }
+
+        MessageKeyExtractor tree = new JsonExtractor();
+        MessageKeyExtractor streaming = new StreamingJsonExtractor();
+
+        for (int payloadKb : PAYLOAD_KB)
+        {
+            int iterations = Math.max(baseIterations / payloadKb, 100);
+            for (boolean headerFirst : new boolean[] {true, false})
+            {
+                String json = createPayload(payloadKb, headerFirst);
+                byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+                String label = payloadKb + "KB header=" + position(headerFirst);
+
+                measure(tree, json, iterations / 10);
+                report("JsonExtractor(String)", label, measure(tree, json, iterations), iterations);
+                measure(streaming, json, iterations / 10);
+                report("StreamingJsonExtractor(String)", label, measure(streaming, json, iterations),
+                        iterations);
+                measure(streaming, bytes, iterations / 10);
+                report("StreamingJsonExtractor(byte[])", label,
+                        measure(streaming, bytes, iterations), iterations);
+            }
+        }
+
+        System.out.println("sink=" + sink);
+    }
+
+    /**
+     * 抽出時間を測定する。
+     *
+     * @param extractor 抽出クラス
+     * @param payload 抽出対象
+     * @param iterations 測定回数
+     * @return 処理時間(ナノ秒)
+     * @throws RabbitmqCommunicateException 抽出失敗時
+     */
+    private static long measure(MessageKeyExtractor extractor, Object payload, int iterations)
+            throws RabbitmqCommunicateException
+    {
+        long start = System.nanoTime();
+        for (int count = 0; count < iterations; count++)
+        {
+            sink += extractor.extractMessageKey(payload).length();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 測定結果を出力する。
+     *
+     * @param name 測定対象名
+     * @param label 条件
+     * @param elapsed 処理時間(ナノ秒)
+     * @param iterations 測定回数
+     */
+    private static void report(String name, String label, long elapsed, int iterations)
+    {
+        System.out.println(String.format("%-32s %-20s : %10.2f us/message", name, label,
+                elapsed / 1000.0 / iterations));
+    }
+
+    /**
+     * "header"の位置を表す文字列を取得する。
+     *
+     * @param headerFirst "header"を先頭に配置する場合true
+     * @return 位置を表す文字列
+     */
+    private static String position(boolean headerFirst)
+    {
+        if (headerFirst == true)
+        {
+            return "first";
+        }
+
+        return "last";
+    }
+
+    /**
+     * 共通メッセージ形式のペイロードを生成する。
+     *
+     * @param payloadKb ペイロードサイズ(KB)
+     * @param headerFirst "header"を先頭に配置する場合true
+     * @return ペイロード
+     */
+    private static String createPayload(int payloadKb, boolean headerFirst)
+    {
+        String header = "\"header\":{\"messageId\":\"2f1e4c1a-0c1b-4b8e-9d55-0a1f6c1d2e3f\","
+                + "\"messageKey\":\"192.168.0.1\",\"source\":\"192.168.0.1\",\"type\":\"snmp\","
+                + "\"timestamp\":1400000000000,\"version\":\"1.0\"}";
+
+        StringBuilder body = new StringBuilder("\"body\":{\"varbinds\":[");
+        int index = 0;
+        while (body.length() < payloadKb * 1024)
+        {
+            if (index > 0)
+            {
+                body.append(',');
+            }
+
+            body.append("{\"oid\":\"1.3.6.1.2.1.2.2.1.10.").append(index)
+                    .append("\",\"type\":\"Counter32\",\"value\":").append(index * 7919)
+                    .append(",\"tags\":[\"ifInOctets\",\"eth").append(index % 8).append("\"]}");
+            index++;
+        }
+
+        body.append("]}");
+
+        if (headerFirst == true)
+        {
+            return "{" + header + "," + body + "}";
+        }
+
+        return "{" + body + "," + header + "}";
+    }
+}
@@ -0,0 +1,153 @@
+package acromusashi.stream.example.spout;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import acromusashi.stream.entity.Message;
+import backtype.storm.spout.SpoutOutputCollector;
+import backtype.storm.task.TopologyContext;
+
+/**
+ * KeyGenSpoutのテストクラス
+ *
+ * @author kimura
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class KeyGenSpoutTest
+{
+    /** テスト用のSpoutOutputCollector */
+    @Mock
+    private SpoutOutputCollector mockCollector;
+
+    /** テスト用のStormConfigMap */
+    @SuppressWarnings("rawtypes")
+    @Mock
+    private Map                  mockConfMap;
+
+    /** テスト用のTopologyContext */
+    @Mock
+    private TopologyContext      mockContext;
+
+    /**
+     * 単語のキーをJSON形式で送信した場合、キーがメッセージボディ、送信元、keyフィールドに設定されることを確認する。
+     *
+     * @target {@link KeyGenSpout#nextTuple()}
+     * @test キーがメッセージボディ、送信元、keyフィールドに設定されること
+     *    condition:: 単語のキー、JSON形式でnextTupleを実施
+     *    result:: キーがメッセージボディ、送信元、keyフィールドに設定されることを確認
+     */
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testNextTuple_単語キー()
+    {
+        // 準備
+        KeyGenSpout target = new KeyGenSpout();
+        target.setRate(0);
+        target.setBurstSize(100);
+        target.setKeyCount(30);
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        target.nextTuple();
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector, Mockito.times(100)).emit(argument.capture());
+        for (List values : argument.getAllValues())
+        {
+            Message message = (Message) values.get(0);
+            String key = (String) values.get(1);
+            assertThat(message.getHeader().getSource(), is(key));
+            assertThat(message.getBody().toString(), is("{\"contents\":\"" + key + "\"}"));
+        }
+        assertThat(target.keys[0], is("a"));
+        assertThat(target.keys[25], is("z"));
+        assertThat(target.keys[26], is("aa"));
+    }
+
+    /**
+     * 同一のシードで送信した場合、同一の順序でキーが送信されることを確認する。
+     *
+     * @target {@link KeyGenSpout#nextTuple()}
+     * @test 同一の順序でキーが送信されること
+     *    condition:: IPアドレスのキー、SNMP形式、同一のシードで2つのSpoutからnextTupleを実施
+     *    result:: 同一の順序でキーが送信されることを確認
+     */
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testNextTuple_シード再現()
+    {
+        // 準備
+        SpoutOutputCollector otherCollector = Mockito.mock(SpoutOutputCollector.class);
+        KeyGenSpout target = createIpSpout();
+        KeyGenSpout other = createIpSpout();
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+        other.open(this.mockConfMap, this.mockContext, otherCollector);
+
+        // 実施
+        target.nextTuple();
+        other.nextTuple();
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List> otherArgument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector, Mockito.times(50)).emit(argument.capture());
+        Mockito.verify(otherCollector, Mockito.times(50)).emit(otherArgument.capture());
+        for (int index = 0; index < 50; index++)
+        {
+            String key = (String) argument.getAllValues().get(index).get(1);
+            assertThat(key.startsWith("10.0."), is(true));
+            assertThat(otherArgument.getAllValues().get(index).get(1), is((Object) key));
+        }
+        Message message = (Message) argument.getAllValues().get(0).get(0);
+        assertThat(message.getHeader().getType(), is("snmp"));
+    }
+
+    /**
+     * 不正な分布を指定した場合、例外が発生することを確認する。
+     *
+     * @target {@link KeyGenSpout#open(Map, TopologyContext, SpoutOutputCollector)}
+     * @test IllegalArgumentExceptionが発生すること
+     *    condition:: 不正な分布を指定してopen
+     *    result:: IllegalArgumentExceptionが発生することを確認
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpen_不正な分布()
+    {
+        // 準備
+        KeyGenSpout target = new KeyGenSpout();
+        target.setDistribution("normal");
+
+        // 実施
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+    }
+
+    /**
+     * IPアドレスのキーをSNMP形式で送信するSpoutを生成する。
+     *
+     * @return KeyGenSpout
+     */
+    private KeyGenSpout createIpSpout()
+    {
+        KeyGenSpout spout = new KeyGenSpout();
+        spout.setRate(0);
+        spout.setBurstSize(50);
+        spout.setKeyType("ip");
+        spout.setShape("snmp");
+        spout.setDistribution("hotset");
+        spout.setKeyCount(1000);
+        spout.setHotCount(5);
+        spout.setSeed(7L);
+        return spout;
+    }
+}
@@ -0,0 +1,205 @@
+package acromusashi.stream.example.spout;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyObject;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import acromusashi.stream.entity.Message;
+import backtype.storm.spout.SpoutOutputCollector;
+import backtype.storm.task.TopologyContext;
+
+/**
+ * LoadGenSpoutのテストクラス
+ *
+ * @author kimura
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class LoadGenSpoutTest
+{
+    /** テスト用のSpoutOutputCollector */
+    @Mock
+    private SpoutOutputCollector mockCollector;
+
+    /** テスト用のStormConfigMap */
+    @SuppressWarnings("rawtypes")
+    @Mock
+    private Map                  mockConfMap;
+
+    /** テスト用のTopologyContext */
+    @Mock
+    private TopologyContext      mockContext;
+
+    /**
+     * 送信レートを指定した場合、1回のnextTupleでバースト数を超えて送信しないことを確認する。
+     *
+     * @target {@link LoadGenSpout#nextTuple()}
+     * @test バースト数分のメッセージが送信され、直後のnextTupleでは送信されないこと
+     *    condition:: 送信レートを1件/秒、バースト数を5として連続してnextTupleを実施
+     *    result:: バースト数分のメッセージが送信され、直後のnextTupleでは送信されないことを確認
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testNextTuple_バースト数()
+    {
+        // 準備
+        LoadGenSpout target = new LoadGenSpout();
+        target.setRate(1);
+        target.setBurstSize(5);
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        target.nextTuple();
+        target.nextTuple();
+
+        // 検証
+        Mockito.verify(this.mockCollector, Mockito.times(5)).emit((List<Object>) anyObject());
+    }
+
+    /**
+     * バースト数を送信レートに対して小さく指定した場合、バケット容量がバースト数に制限されず、待機中に補充されたトークン分を送信できることを確認する。
+     *
+     * @target {@link LoadGenSpout#nextTuple()}
+     * @test 1回のnextTupleではバースト数を超えて送信せず、連続したnextTupleで送信レートの10ミリ秒分を送信できること
+     *    condition:: 送信レートを20000件/秒、バースト数を1として送信されなくなるまでnextTupleを実施
+     *    result:: 1回のnextTupleではバースト数を超えて送信せず、連続したnextTupleで送信レートの10ミリ秒分を送信できることを確認
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testNextTuple_バケット容量()
+    {
+        // 準備
+        final int[] emitted = new int[1];
+        Mockito.doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation)
+            {
+                emitted[0]++;
+                return null;
+            }
+        }).when(this.mockCollector).emit((List<Object>) anyObject());
+        LoadGenSpout target = new LoadGenSpout();
+        target.setRate(20000);
+        target.setBurstSize(1);
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        int callNum = 0;
+        int before = -1;
+        while (before != emitted[0] && callNum < 1000000)
+        {
+            before = emitted[0];
+            target.nextTuple();
+            callNum++;
+
+            // 検証
+            assertThat(emitted[0] - before <= 1, is(true));
+        }
+
+        // 検証
+        assertThat(emitted[0] >= 200, is(true));
+    }
+
+    /**
+     * プール件数を超えて送信した場合、プールしたメッセージボディが順番に再利用されることを確認する。
+     *
+     * @target {@link LoadGenSpout#nextTuple()}
+     * @test プールしたメッセージボディが順番に再利用され、メッセージIDは送信ごとに異なること
+     *    condition:: プール件数を2、レート制御なし、バースト数を3としてnextTupleを実施
+     *    result:: プールしたメッセージボディが順番に再利用され、メッセージIDは送信ごとに異なることを確認
+     */
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testNextTuple_プール再利用()
+    {
+        // 準備
+        LoadGenSpout target = new LoadGenSpout();
+        target.setRate(0);
+        target.setBurstSize(3);
+        target.setPoolSize(2);
+        target.setShape("json");
+        target.setPayloadSize(20);
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        target.nextTuple();
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector, Mockito.times(3)).emit(argument.capture());
+        Message first = (Message) argument.getAllValues().get(0).get(0);
+        Message second = (Message) argument.getAllValues().get(1).get(0);
+        Message third = (Message) argument.getAllValues().get(2).get(0);
+        assertThat(third.getBody(), sameInstance(first.getBody()));
+        assertThat(second.getBody().equals(first.getBody()), is(false));
+        assertThat(third.getHeader().getMessageId().equals(first.getHeader().getMessageId()),
+                is(false));
+        assertThat(first.getHeader().getType(), is("json"));
+        String body = first.getBody().toString();
+        assertThat(body.startsWith("{\"contents\":\""), is(true));
+        assertThat(body.length(), is("{\"contents\":\"\"}".length() + 20));
+    }
+
+    /**
+     * SNMP形式を指定した場合、PeriodicalSnmpGenSpoutと同形式のメッセージが送信されることを確認する。
+     *
+     * @target {@link LoadGenSpout#nextTuple()}
+     * @test PeriodicalSnmpGenSpoutと同形式のメッセージが送信されること
+     *    condition:: SNMP形式、バースト数を1としてnextTupleを実施
+     *    result:: PeriodicalSnmpGenSpoutと同形式のメッセージが送信されることを確認
+     */
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testNextTuple_SNMP形式()
+    {
+        // 準備
+        LoadGenSpout target = new LoadGenSpout();
+        target.setBurstSize(1);
+        target.setShape("snmp");
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+
+        // 実施
+        target.nextTuple();
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector).emit(argument.capture());
+        Message message = (Message) argument.getValue().get(0);
+        assertThat(message.getHeader().getType(), is("snmp"));
+        List body = (List) message.getBody();
+        assertThat(body.size(), is(2));
+        assertThat(body.get(0).toString().startsWith("{\"sender\":\"localhost\""), is(true));
+        assertThat(body.get(1), is((Object) 0));
+    }
+
+    /**
+     * 不正なメッセージ形式を指定した場合、例外が発生することを確認する。
+     *
+     * @target {@link LoadGenSpout#open(Map, TopologyContext, SpoutOutputCollector)}
+     * @test IllegalArgumentExceptionが発生すること
+     *    condition:: 不正なメッセージ形式を指定してopen
+     *    result:: IllegalArgumentExceptionが発生することを確認
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpen_不正なメッセージ形式()
+    {
+        // 準備
+        LoadGenSpout target = new LoadGenSpout();
+        target.setShape("xml");
+
+        // 実施
+        target.open(this.mockConfMap, this.mockContext, this.mockCollector);
+    }
+}
@@ -0,0 +1,156 @@
+package acromusashi.stream.example.spout;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyObject;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import acromusashi.stream.entity.Message;
+import acromusashi.stream.example.spout.MultiHttpGetSpout.HttpTarget;
+import backtype.storm.spout.SpoutOutputCollector;
+import backtype.storm.task.TopologyContext;
+
+/**
+ * MultiHttpGetSpoutのテストクラス
+ *
+ * @author kimura
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class MultiHttpGetSpoutTest
+{
+    /** テスト対象 */
+    private MultiHttpGetSpout    target;
+
+    /** テスト用のSpoutOutputCollector */
+    @Mock
+    private SpoutOutputCollector mockCollector;
+
+    /** テスト用のHttpClient */
+    @Mock
+    private CloseableHttpClient  httpClient;
+
+    /**
+     * 初期化メソッド
+     */
+    @Before
+    public void setUp()
+    {
+        this.target = new MultiHttpGetSpout(Arrays.asList("http://localhost:8080/0",
+                "http://localhost:8080/1|500", "http://localhost:8080/2",
+                "http://localhost:8080/3|1000", "http://localhost:8080/4"));
+        this.target.setInterval(200);
+    }
+
+    /**
+     * タスクインデックスを指定した場合、タスク数で分散した取得対象が割り当てられることを確認する。
+     *
+     * @target {@link MultiHttpGetSpout#assignTargets(int, int)}
+     * @test タスク数で分散した取得対象が割り当てられ、取得間隔が設定されること
+     *    condition:: 5件の取得対象に対し、タスク数2のタスクインデックス1を指定
+     *    result:: タスク数で分散した取得対象が割り当てられ、取得間隔が設定されることを確認
+     */
+    @Test
+    public void testAssignTargets_タスク分散()
+    {
+        // 実施
+        List<HttpTarget> result = this.target.assignTargets(1, 2);
+
+        // 検証
+        assertThat(result.size(), equalTo(2));
+        assertThat(result.get(0).url, is("http://localhost:8080/1"));
+        assertThat(result.get(0).interval, is(500L));
+        assertThat(result.get(1).url, is("http://localhost:8080/3"));
+        assertThat(result.get(1).interval, is(1000L));
+        assertThat(this.target.assignTargets(0, 2).get(2).interval, is(200L));
+    }
+
+    /**
+     * 取得対象定義が不正な場合、不正な取得対象のみが除外されることを確認する。
+     *
+     * @target {@link MultiHttpGetSpout#assignTargets(int, int)}
+     * @test 例外が発生せず、不正な取得対象のみが除外されること
+     *    condition:: 取得間隔が数値でない取得対象、URLに区切り文字を含む取得対象を含む取得対象定義を指定
+     *    result:: 例外が発生せず、不正な取得対象のみが除外されることを確認
+     */
+    @Test
+    public void testAssignTargets_取得対象定義不正()
+    {
+        // 準備
+        this.target = new MultiHttpGetSpout(Arrays.asList("http://localhost:8080/0|1O0",
+                "http://localhost:8080/1?q=a|b", "http://localhost:8080/2|300",
+                "http://localhost:8080/3?q=a|b|400"));
+
+        // 実施
+        List<HttpTarget> result = this.target.assignTargets(0, 1);
+
+        // 検証
+        assertThat(result.size(), equalTo(1));
+        assertThat(result.get(0).url, is("http://localhost:8080/2"));
+        assertThat(result.get(0).interval, is(300L));
+    }
+
+    /**
+     * 取得対象の取得に成功した場合、取得結果がnextTupleで送信されることを確認する。
+     *
+     * @target {@link MultiHttpGetSpout#nextTuple()}
+     * @test 取得対象のURLをsourceに設定したメッセージが下流コンポーネントに送信されること
+     *    condition:: 取得対象の取得に成功
+     *    result:: 取得対象のURLをsourceに設定したメッセージが下流コンポーネントに送信されることを確認
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    public void testNextTuple_取得成功() throws IOException
+    {
+        // 準備
+        String getResult = "{\"contents\":\"Test Message\"}";
+        Mockito.doReturn(getResult).when(this.httpClient).execute((HttpUriRequest) anyObject(),
+                (ResponseHandler) anyObject());
+        this.target.open(Mockito.mock(Map.class), createContext(), this.mockCollector);
+        this.target.fetcher.shutdownNow();
+        this.target.fetchedQueue.clear();
+        this.target.client = this.httpClient;
+
+        // 実施
+        this.target.fetch(this.target.targets.get(0));
+        this.target.nextTuple();
+        this.target.nextTuple();
+
+        // 検証
+        ArgumentCaptor<List> argument = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(this.mockCollector).emit(argument.capture());
+        Message emitResult = (Message) argument.getValue().get(0);
+        assertThat(emitResult.getBody().toString(), is(getResult));
+        assertThat(emitResult.getHeader().getSource(), is("http://localhost:8080/0"));
+        assertThat(emitResult.getHeader().getType(), is("http"));
+    }
+
+    /**
+     * タスク数1のTopologyContextを生成する。
+     *
+     * @return TopologyContext
+     */
+    private TopologyContext createContext()
+    {
+        TopologyContext context = Mockito.mock(TopologyContext.class);
+        Mockito.doReturn(0).when(context).getThisTaskIndex();
+        Mockito.doReturn("HttpGetSpout").when(context).getThisComponentId();
+        Mockito.doReturn(Arrays.asList(1)).when(context).getComponentTasks("HttpGetSpout");
+        return context;
+    }
+}
@@ -0,0 +1,111 @@
+package acromusashi.stream.example.spout;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import acromusashi.stream.component.rabbitmq.RabbitmqCommunicateException;
+import acromusashi.stream.component.rabbitmq.spout.MessageKeyExtractor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * StreamingJsonExtractorのテストクラス
+ *
+ * @author acromusashi
+ */
+public class StreamingJsonExtractorTest
+{
+    /** テスト対象 */
+    private StreamingJsonExtractor target;
+
+    /**
+     * 初期化メソッド
+     */
+    @Before
+    public void setUp()
+    {
+        this.target = new StreamingJsonExtractor();
+    }
+
+    /**
+     * 親キーより前に入れ子要素を保持するメッセージから、キー項目が抽出されることを確認する。
+     *
+     * @target {@link StreamingJsonExtractor#extractMessageKey(Object)}
+     * @test キー項目が抽出されること
+     *    condition:: 親キーより前に同名キーを含む入れ子要素を保持するメッセージ、byte[]のメッセージを指定
+     *    result:: キー項目が抽出されることを確認
+     */
+    @Test
+    public void testExtractMessageKey_抽出成功() throws RabbitmqCommunicateException
+    {
+        // 準備
+        String json = "{\"body\":{\"header\":{\"messageKey\":\"dummy\"},\"list\":[1,[2]]},"
+                + "\"header\":{\"type\":\"snmp\",\"messageKey\":\"key001\"},\"trailer\":";
+
+        // 実施・検証
+        assertThat(this.target.extractMessageKey(json), is("key001"));
+        assertThat(this.target.extractMessageKey(json.getBytes(StandardCharsets.UTF_8)),
+                is("key001"));
+        assertThat(this.target.extractMessageKey("{\"header\":{\"messageKey\":1}}"), nullValue());
+    }
+
+    /**
+     * 親キー、子キーを保持しないメッセージ、形式が不正なメッセージを指定した場合、
+     * JsonExtractorと同一の内容で例外が発生することを確認する。
+     *
+     * @target {@link StreamingJsonExtractor#extractMessageKey(Object)}
+     * @test JsonExtractorと同一の内容で例外が発生すること
+     *    condition:: 親キー、子キーを保持しないメッセージ、形式が不正なメッセージを指定
+     *    result:: JsonExtractorと同一の内容で例外が発生することを確認
+     */
+    @Test
+    public void testExtractMessageKey_抽出失敗()
+    {
+        JsonExtractor expected = new JsonExtractor();
+        String[] messages = {"{\"body\":{\"header\":{}}}", "[\"header\"]", "{\"header\":\"key\"}",
+                "{\"header\":{\"key\":\"value\"}}"};
+
+        for (String message : messages)
+        {
+            assertThat(getErrorMessage(this.target, message), is(getErrorMessage(expected, message)));
+        }
+
+        try
+        {
+            this.target.extractMessageKey("Invalid Message");
+            fail();
+        }
+        catch (RabbitmqCommunicateException ex)
+        {
+            assertThat(ex.getCause(), instanceOf(JsonProcessingException.class));
+        }
+    }
+
+    /**
+     * キー項目の抽出で発生した例外のメッセージを取得する。
+     *
+     * @param extractor 抽出クラス
+     * @param message 抽出対象
+     * @return 例外のメッセージ。例外が発生しなかった場合はnull
+     */
+    private String getErrorMessage(MessageKeyExtractor extractor, String message)
+    {
+        try
+        {
+            extractor.extractMessageKey(message);
+            return null;
+        }
+        catch (RabbitmqCommunicateException ex)
+        {
+            return ex.getMessage();
+        }
+    }
+}
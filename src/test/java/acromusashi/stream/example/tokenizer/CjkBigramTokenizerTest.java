@@ -0,0 +1,35 @@
+package acromusashi.stream.example.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * CjkBigramTokenizerのテストクラス
+ *
+ * @author kimura
+ */
+public class CjkBigramTokenizerTest
+{
+    /**
+     * CJK文字の連続を含む文章を分割した場合、CJK文字がbigramに分割されることを確認する。
+     *
+     * @target {@link CjkBigramTokenizer#tokenize(String, Tokenizer.TokenHandler)}
+     * @test CJK文字がbigramに分割され、CJK以外の文字は単語単位に分割されること
+     *    condition:: CJK文字とCJK以外の文字が混在する文章を分割
+     *    result:: CJK文字がbigramに分割され、CJK以外の文字は単語単位に分割されることを確認
+     */
+    @Test
+    public void testTokenize_bigram分割()
+    {
+        // 実施
+        List<String> result = TokenizerTestUtil.tokenize(new CjkBigramTokenizer(),
+                "東京都に住む。Storm入門、字");
+
+        // 検証
+        assertThat(result.toString(), is("[東京, 京都, 都に, に住, 住む, storm, 入門, 字]"));
+    }
+}
@@ -0,0 +1,35 @@
+package acromusashi.stream.example.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * PunctuationTokenizerのテストクラス
+ *
+ * @author kimura
+ */
+public class PunctuationTokenizerTest
+{
+    /**
+     * 句読点や記号を含む文章を分割した場合、記号を除いた単語が通知されることを確認する。
+     *
+     * @target {@link PunctuationTokenizer#tokenize(String, Tokenizer.TokenHandler)}
+     * @test 記号を除いた単語が通知されること
+     *    condition:: 句読点や記号を含む文章を分割
+     *    result:: 記号を除いた単語が通知されることを確認
+     */
+    @Test
+    public void testTokenize_記号分割()
+    {
+        // 実施
+        List<String> result = TokenizerTestUtil.tokenize(new PunctuationTokenizer(),
+                "Hello, World! (version 2.0) -- Café's");
+
+        // 検証
+        assertThat(result.toString(), is("[hello, world, version, 2, 0, café, s]"));
+    }
+}
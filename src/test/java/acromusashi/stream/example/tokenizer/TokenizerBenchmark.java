@@ -0,0 +1,162 @@
+package acromusashi.stream.example.tokenizer;
+
+import java.util.Random;
+
+import org.apache.commons.lang.StringUtils;
+
+import acromusashi.stream.example.tokenizer.Tokenizer.TokenHandler;
+
+/**
+ * Tokenizerの性能を従来のStringUtils#splitとString#toLowerCaseによる分割と比較するベンチマーク。<br>
+ * 単体テストとしては実行されないため、mainメソッドから実行する。<br>
+ * 引数:arg[0] 測定回数(省略時は2000000)
+ *
+ * @author kimura
+ */
+public final class TokenizerBenchmark
+{
+    /** 測定回数デフォルト値 */
+    private static final int DEFAULT_ITERATIONS = 2000000;
+
+    /** 測定前のウォームアップ回数 */
+    private static final int WARMUP_ITERATIONS  = 200000;
+
+    /** 使用する文章数 */
+    private static final int SENTENCE_NUM       = 1024;
+
+    /** JITによる処理の除去を防ぐための結果保持 */
+    private static long      sink;
+
+    /**
+     * インスタンス化を防止するためのコンストラクタ
+     */
+    private TokenizerBenchmark()
+    {}
+
+    /**
+     * プログラムエントリポイント
+     *
+     * @param args 起動引数
+     */
+    public static void main(String[] args)
+    {
+        int iterations = DEFAULT_ITERATIONS;
+        if (args.length > 0)
+        {
+            iterations = Integer.parseInt(args[0]);
+        }
+
+        String[] sentences = createSentences();
+        Tokenizer[] tokenizers = {new WhitespaceTokenizer(), new PunctuationTokenizer(),
+                new CjkBigramTokenizer()};
+
+        measureLegacy(sentences, WARMUP_ITERATIONS);
+        report("StringUtils.split+toLowerCase", measureLegacy(sentences, iterations), iterations);
+
+        for (Tokenizer tokenizer : tokenizers)
+        {
+            measure(tokenizer, sentences, WARMUP_ITERATIONS);
+            report(tokenizer.getClass().getSimpleName(), measure(tokenizer, sentences, iterations),
+                    iterations);
+        }
+
+        System.out.println("sink=" + sink);
+    }
+
+    /**
+     * 従来の分割方式の処理時間を測定する。
+     *
+     * @param sentences 文章
+     * @param iterations 測定回数
+     * @return 処理時間(ナノ秒)
+     */
+    private static long measureLegacy(String[] sentences, int iterations)
+    {
+        long start = System.nanoTime();
+        long total = 0;
+        for (int count = 0; count < iterations; count++)
+        {
+            String[] words = StringUtils.split(sentences[count & (SENTENCE_NUM - 1)]);
+            for (String word : words)
+            {
+                total += word.toLowerCase().length();
+            }
+        }
+
+        sink += total;
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Tokenizerの処理時間を測定する。
+     *
+     * @param tokenizer Tokenizer
+     * @param sentences 文章
+     * @param iterations 測定回数
+     * @return 処理時間(ナノ秒)
+     */
+    private static long measure(Tokenizer tokenizer, String[] sentences, int iterations)
+    {
+        final long[] total = new long[1];
+        TokenHandler handler = new TokenHandler() {
+            @Override
+            public void onToken(String token)
+            {
+                total[0] += token.length();
+            }
+        };
+
+        long start = System.nanoTime();
+        for (int count = 0; count < iterations; count++)
+        {
+            tokenizer.tokenize(sentences[count & (SENTENCE_NUM - 1)], handler);
+        }
+
+        sink += total[0];
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 測定結果を出力する。
+     *
+     * @param name 測定対象名
+     * @param elapsed 処理時間(ナノ秒)
+     * @param iterations 測定回数
+     */
+    private static void report(String name, long elapsed, int iterations)
+    {
+        System.out.println(String.format("%-32s : %8.1f ns/sentence", name, (double) elapsed
+                / iterations));
+    }
+
+    /**
+     * 測定に使用する文章を生成する。
+     *
+     * @return 文章
+     */
+    private static String[] createSentences()
+    {
+        String[] vocabulary = {"The", "quick", "brown", "fox", "Jumps", "over", "the", "lazy",
+                "dog.", "Storm", "TOPOLOGY", "spout,", "bolt", "stream", "tuple", "東京都に住む"};
+        Random random = new Random(0L);
+        String[] sentences = new String[SENTENCE_NUM];
+        for (int index = 0; index < SENTENCE_NUM; index++)
+        {
+            StringBuilder builder = new StringBuilder();
+            int wordNum = 5 + random.nextInt(15);
+            for (int wordIndex = 0; wordIndex < wordNum; wordIndex++)
+            {
+                if (wordIndex > 0)
+                {
+                    builder.append(' ');
+                }
+
+                builder.append(vocabulary[random.nextInt(vocabulary.length)]);
+            }
+
+            sentences[index] = builder.toString();
+        }
+
+        return sentences;
+    }
+}
@@ -0,0 +1,40 @@
+package acromusashi.stream.example.tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import acromusashi.stream.example.tokenizer.Tokenizer.TokenHandler;
+
+/**
+ * Tokenizerのテスト用ユーティリティクラス
+ *
+ * @author kimura
+ */
+public final class TokenizerTestUtil
+{
+    /**
+     * インスタンス化を防止するためのコンストラクタ
+     */
+    private TokenizerTestUtil()
+    {}
+
+    /**
+     * 文章を分割した単語をリストとして取得する。
+     *
+     * @param tokenizer Tokenizer
+     * @param sentence 文章
+     * @return 分割した単語のリスト
+     */
+    public static List<String> tokenize(Tokenizer tokenizer, String sentence)
+    {
+        final List<String> result = new ArrayList<String>();
+        tokenizer.tokenize(sentence, new TokenHandler() {
+            @Override
+            public void onToken(String token)
+            {
+                result.add(token);
+            }
+        });
+        return result;
+    }
+}
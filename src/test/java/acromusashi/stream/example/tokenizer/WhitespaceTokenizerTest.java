@@ -0,0 +1,88 @@
+package acromusashi.stream.example.tokenizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+/**
+ * WhitespaceTokenizerのテストクラス
+ *
+ * @author kimura
+ */
+public class WhitespaceTokenizerTest
+{
+    /**
+     * 空白文字を含む文章を分割した場合、小文字に変換した単語が順に通知されることを確認する。
+     *
+     * @target {@link WhitespaceTokenizer#tokenize(String, Tokenizer.TokenHandler)}
+     * @test 小文字に変換した単語が順に通知されること
+     *    condition:: 連続した空白文字、タブ、改行、記号を含む文章を分割
+     *    result:: 小文字に変換した単語が順に通知されることを確認
+     */
+    @Test
+    public void testTokenize_空白分割()
+    {
+        // 実施
+        List<String> result = TokenizerTestUtil.tokenize(new WhitespaceTokenizer(),
+                "  How are\tYOU?\nÄpfel  ");
+
+        // 検証
+        assertThat(result.toString(), is("[how, are, you?, äpfel]"));
+    }
+
+    /**
+     * 従来のStringUtils#splitとString#toLowerCaseによる分割と同一の結果となることを確認する。
+     *
+     * @target {@link WhitespaceTokenizer#tokenize(String, Tokenizer.TokenHandler)}
+     * @test 従来の分割と同一の結果となること
+     *    condition:: 複数の文章を分割
+     *    result:: 従来の分割と同一の結果となることを確認
+     */
+    @Test
+    public void testTokenize_従来方式と同一()
+    {
+        // 準備
+        WhitespaceTokenizer target = new WhitespaceTokenizer();
+        String[] sentences = {"Test Message", "", "   ", "The QUICK brown Fox, jumps.",
+                "a　b c", "Ünïcödé WORDS 123"};
+
+        for (String sentence : sentences)
+        {
+            // 実施
+            List<String> result = TokenizerTestUtil.tokenize(target, sentence);
+
+            // 検証
+            String[] expected = StringUtils.split(sentence);
+            for (int index = 0; index < expected.length; index++)
+            {
+                expected[index] = expected[index].toLowerCase(Locale.ENGLISH);
+            }
+
+            assertThat(result, is(Arrays.asList(expected)));
+        }
+    }
+
+    /**
+     * nullを分割した場合、単語が通知されないことを確認する。
+     *
+     * @target {@link WhitespaceTokenizer#tokenize(String, Tokenizer.TokenHandler)}
+     * @test 単語が通知されないこと
+     *    condition:: nullを分割
+     *    result:: 単語が通知されないことを確認
+     */
+    @Test
+    public void testTokenize_null()
+    {
+        // 実施
+        List<String> result = TokenizerTestUtil.tokenize(new WhitespaceTokenizer(), null);
+
+        // 検証
+        assertThat(result.isEmpty(), is(true));
+    }
+}